@@ -1,11 +1,14 @@
 package base;
 
+import java.io.Serializable;
 import java.util.LinkedList;
 
 /**
  * @author Anton Chepurov
  */
-public class HierarchyLocation {
+public class HierarchyLocation implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	private final LinkedList<String> locations = new LinkedList<String>();
 
@@ -1,9 +1,13 @@
 package base;
 
+import java.io.Serializable;
+
 /**
  * @author Anton Chepurov
  */
-public final class Range implements Comparable<Range> {
+public final class Range implements Comparable<Range>, Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	static final String INTERSECTION_TEXT = "Cannot compare intersecting ranges: ";
 	
@@ -1,14 +1,35 @@
 package base;
 
 import java.io.File;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.lang.ref.WeakReference;
 import java.util.*;
 
 /**
+ * VHDL lines a piece of a model originates from, by VHDL file.
+ * <p/>
+ * Locations are immutable. Files are kept sorted, and lines of every file are kept in a sorted array of
+ * distinct <code>int</code>-s. Files are interned, and so are the locations created by merging other locations
+ * ({@link #addSource(SourceLocation)}, {@link #createFrom(Collection)}, {@link Builder}), so that nodes with equal
+ * locations share a single instance. To merge many locations at once, use {@link Builder}.
+ *
  * @author Anton Chepurov
  */
-public class SourceLocation {
+public class SourceLocation implements Serializable {
 
-	private final Map<File, TreeSet<Integer>> linesByFile;
+	private static final long serialVersionUID = 1L;
+
+	private static final Map<File, File> INTERNED_FILES = new HashMap<File, File>();
+	private static final Map<SourceLocation, WeakReference<SourceLocation>> INTERNED_LOCATIONS =
+			new WeakHashMap<SourceLocation, WeakReference<SourceLocation>>();
+
+	private final File[] files;
+	/**
+	 * Sorted distinct lines, by file index
+	 */
+	private final int[][] linesByFile;
+	private final int hashCode;
 
 	public SourceLocation(File sourceFile, Collection<Integer> sourceVhdlLines) {
 
@@ -19,68 +40,108 @@ public class SourceLocation {
 			throw new IllegalArgumentException("SourceLocation: EMPTY COLLECTION parameter passed to constructor");
 		}
 
-		TreeSet<Integer> vhdlLines = new TreeSet<Integer>(sourceVhdlLines);
+		int[] vhdlLines = new int[sourceVhdlLines.size()];
+		int count = 0;
+		for (Integer line : sourceVhdlLines) {
+			vhdlLines[count++] = line;
+		}
+		vhdlLines = sortDistinct(vhdlLines, count);
 
-		if (vhdlLines.first() < 0) {
+		if (vhdlLines[0] < 0) {
 			throw new IllegalArgumentException("SourceLocation: NEGATIVE SOURCE VHDL LINE passed to constructor");
 		}
 
-		linesByFile = new TreeMap<File, TreeSet<Integer>>();
-
-		linesByFile.put(sourceFile, vhdlLines);
-
+		files = new File[]{internFile(sourceFile)};
+		linesByFile = new int[][]{vhdlLines};
+		hashCode = computeHashCode();
 	}
 
-	private SourceLocation(Map<File, TreeSet<Integer>> linesByFile) {
+	private SourceLocation(File[] files, int[][] linesByFile) {
+		this.files = files;
 		this.linesByFile = linesByFile;
+		hashCode = computeHashCode();
 	}
 
 	public SourceLocation addSource(SourceLocation source) {
 		if (source == null) {
 			return this;
 		}
-		return createFrom(Arrays.asList(this, source));
+		return new Builder().add(this).add(source).build();
 	}
 
 	public Integer getFirstLine() throws HLDDException {
-		if (linesByFile.size() != 1) {
+		if (files.length != 1) {
 			throw new HLDDException("SourceLocation: obtaining first line from source with multiple files: " + toString());
 		}
-		return linesByFile.values().iterator().next().first();
+		return linesByFile[0][0];
 	}
 
 	public boolean hasFile(File file) {
-		return linesByFile.containsKey(file);
+		return indexOf(file) >= 0;
 	}
 
 	public Collection<File> getFiles() {
-		return linesByFile.keySet();
+		return Collections.unmodifiableList(Arrays.asList(files));
 	}
 
+	/**
+	 * @return sorted lines of the file, or <code>null</code> if the location has no lines in the file
+	 */
 	public Collection<Integer> getLinesForFile(File file) {
-		return linesByFile.get(file);
+		int index = indexOf(file);
+		return index < 0 ? null : new LineList(linesByFile[index]);
+	}
+
+	/**
+	 * @return number of lines in the file, or <code>0</code> if the location has no lines in the file
+	 */
+	public int getLinesNum(File file) {
+		int index = indexOf(file);
+		return index < 0 ? 0 : linesByFile[index].length;
 	}
 
 	public int getTotalLinesNum() {
 		int total = 0;
-		for (TreeSet<Integer> linesInFile : linesByFile.values()) {
-			total += linesInFile.size();
+		for (int[] linesInFile : linesByFile) {
+			total += linesInFile.length;
 		}
 		return total;
 	}
 
+	private int indexOf(File file) {
+		return file == null ? -1 : Arrays.binarySearch(files, file);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (!(obj instanceof SourceLocation)) return false;
+
+		SourceLocation that = (SourceLocation) obj;
+
+		return hashCode == that.hashCode && Arrays.equals(files, that.files)
+				&& Arrays.deepEquals(linesByFile, that.linesByFile);
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+
+	private int computeHashCode() {
+		return 31 * Arrays.hashCode(files) + Arrays.deepHashCode(linesByFile);
+	}
+
 	@Override
 	public String toString() {
 
 		StringBuilder sb = new StringBuilder();
 
-		for (Map.Entry<File, TreeSet<Integer>> entry : linesByFile.entrySet()) {
+		for (int i = 0; i < files.length; i++) {
 
-			sb.append(entry.getKey().getName()).append(" ");
+			sb.append(files[i].getName()).append(" ");
 
-			TreeSet<Integer> vhdlLines = entry.getValue();
-
-			for (int vhdlLine : vhdlLines)
+			for (int vhdlLine : linesByFile[i])
 				sb.append(vhdlLine).append(", ");
 
 			int length = sb.length();
@@ -94,33 +155,181 @@ public class SourceLocation {
 
 	public static SourceLocation createFrom(Collection<SourceLocation> sources) {
 
-		Map<File, TreeSet<Integer>> linesByFile = new TreeMap<File, TreeSet<Integer>>();
+		Builder builder = new Builder();
 
 		for (SourceLocation source : sources) {
+			builder.add(source);
+		}
 
-			if (source == null) {
-				continue;
-			}
+		return builder.build();
+	}
+
+	private Object readResolve() throws ObjectStreamException {
+		File[] internedFiles = new File[files.length];
+		for (int i = 0; i < files.length; i++) {
+			internedFiles[i] = internFile(files[i]);
+		}
+		return intern(new SourceLocation(internedFiles, linesByFile));
+	}
 
-			for (Map.Entry<File, TreeSet<Integer>> entry : source.linesByFile.entrySet()) {
+	private static File internFile(File file) {
+		synchronized (INTERNED_FILES) {
+			File internedFile = INTERNED_FILES.get(file);
+			if (internedFile == null) {
+				INTERNED_FILES.put(file, file);
+				internedFile = file;
+			}
+			return internedFile;
+		}
+	}
 
-				File newFile = entry.getKey();
-				TreeSet<Integer> newLines = entry.getValue();
+	private static SourceLocation intern(SourceLocation location) {
+		synchronized (INTERNED_LOCATIONS) {
+			WeakReference<SourceLocation> reference = INTERNED_LOCATIONS.get(location);
+			SourceLocation internedLocation = reference == null ? null : reference.get();
+			if (internedLocation == null) {
+				INTERNED_LOCATIONS.put(location, new WeakReference<SourceLocation>(location));
+				internedLocation = location;
+			}
+			return internedLocation;
+		}
+	}
 
-				if (linesByFile.containsKey(newFile)) {
+	/**
+	 * Sorts the first <code>count</code> values of the array and removes duplicates.
+	 *
+	 * @return array of sorted distinct values, either the specified array or a shorter copy of it
+	 */
+	private static int[] sortDistinct(int[] values, int count) {
+		Arrays.sort(values, 0, count);
+		int distinctCount = 0;
+		for (int i = 0; i < count; i++) {
+			if (distinctCount == 0 || values[i] != values[distinctCount - 1]) {
+				values[distinctCount++] = values[i];
+			}
+		}
+		return distinctCount == values.length ? values : Arrays.copyOf(values, distinctCount);
+	}
 
-					TreeSet<Integer> existingLines = linesByFile.get(newFile);
+	/**
+	 * Accumulates the lines of several locations, so that merging them takes time linear in the number of lines
+	 * (plus sorting), rather than copying the merged location on every addition.
+	 */
+	public static class Builder {
 
-					existingLines.addAll(newLines);
+		private final Map<File, Lines> linesByFile = new TreeMap<File, Lines>();
 
+		public Builder add(SourceLocation source) {
+			if (source == null) {
+				return this;
+			}
+			for (int i = 0; i < source.files.length; i++) {
+				File file = source.files[i];
+				Lines lines = linesByFile.get(file);
+				if (lines == null) {
+					linesByFile.put(file, new Lines(source.linesByFile[i]));
 				} else {
+					lines.add(source.linesByFile[i]);
+				}
+			}
+			return this;
+		}
 
-					linesByFile.put(newFile, new TreeSet<Integer>(newLines));
+		public boolean isEmpty() {
+			return linesByFile.isEmpty();
+		}
+
+		/**
+		 * @return merged location, or a location without files if nothing has been added
+		 */
+		public SourceLocation build() {
+			File[] files = new File[linesByFile.size()];
+			int[][] lines = new int[files.length][];
+			int i = 0;
+			for (Map.Entry<File, Lines> entry : linesByFile.entrySet()) {
+				files[i] = entry.getKey();
+				lines[i++] = entry.getValue().toSortedArray();
+			}
+			return intern(new SourceLocation(files, lines));
+		}
 
+		/**
+		 * Lines of a single file. Until more lines are added, the array of the added location is shared.
+		 */
+		private static class Lines {
+			private int[] values;
+			private int count;
+			private boolean isOwned = false;
+			/**
+			 * Whether the values are sorted and distinct
+			 */
+			private boolean isSorted = true;
+
+			private Lines(int[] values) {
+				this.values = values;
+				this.count = values.length;
+			}
+
+			private void add(int[] newValues) {
+				if (!isOwned || count + newValues.length > values.length) {
+					values = Arrays.copyOf(values, Math.max(count + newValues.length, count * 2));
+					isOwned = true;
 				}
+				System.arraycopy(newValues, 0, values, count, newValues.length);
+				count += newValues.length;
+				isSorted = false;
 			}
+
+			private int[] toSortedArray() {
+				if (!isSorted) {
+					values = sortDistinct(values, count);
+					count = values.length;
+					isOwned = false;
+					isSorted = true;
+				}
+				return values;
+			}
+		}
+	}
+
+	/**
+	 * Read-only view of sorted distinct lines
+	 */
+	private static class LineList extends AbstractList<Integer> implements RandomAccess {
+
+		private final int[] lines;
+
+		private LineList(int[] lines) {
+			this.lines = lines;
+		}
+
+		@Override
+		public Integer get(int index) {
+			return lines[index];
 		}
 
-		return new SourceLocation(linesByFile);
+		@Override
+		public int size() {
+			return lines.length;
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return indexOf(o) >= 0;
+		}
+
+		@Override
+		public int indexOf(Object o) {
+			if (!(o instanceof Integer)) {
+				return -1;
+			}
+			int index = Arrays.binarySearch(lines, (Integer) o);
+			return index < 0 ? -1 : index;
+		}
+
+		@Override
+		public int lastIndexOf(Object o) {
+			return indexOf(o);
+		}
 	}
 }
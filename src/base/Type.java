@@ -1,9 +1,13 @@
 package base;
 
+import java.io.Serializable;
+
 /**
  * @author Anton Chepurov
  */
-public final class Type {
+public final class Type implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	public static final Type BIT_TYPE = new Type(Range.BIT_RANGE);
 	public static final Type BOOLEAN_TYPE = createFromValues(1, 0);
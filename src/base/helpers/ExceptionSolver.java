@@ -123,13 +123,10 @@ public class ExceptionSolver {
 	}
 
 	public static class CancellingException extends Exception {
-		static CancellingException instance;
+		private static final CancellingException INSTANCE = new CancellingException();
 
 		public static CancellingException getInstance() {
-			if (instance == null) {
-				instance = new CancellingException();
-			}
-			return instance;
+			return INSTANCE;
 		}
 	}
 }
@@ -0,0 +1,274 @@
+package base.hldd.simulation;
+
+import base.HLDDException;
+import base.hldd.structure.models.BehModel;
+import base.hldd.structure.models.FlatModel;
+import base.hldd.structure.nodes.Node;
+import base.hldd.structure.nodes.TemporalNode;
+import base.hldd.structure.variables.AbstractVariable;
+import base.hldd.structure.variables.GraphVariable;
+import base.hldd.structure.variables.Variable;
+import base.psl.structure.Range;
+
+import java.util.*;
+
+/**
+ * Checks the properties of a TGM model (THLDD property graphs, as created by
+ * {@link base.hldd.structure.models.utils.TGMModelCreatorImpl}) over the states of a simulated design.
+ * <p/>
+ * Every cycle the design is simulated with {@link Simulator}, the values of the design variables are applied to the
+ * inputs of the TGM model, and the control nodes of the property graphs are evaluated. A property is checked for every
+ * cycle it starts in. The temporal windows of {@link TemporalNode}-s look into the following cycles, so the verdict for
+ * a cycle is emitted as soon as the longest window of the property is over. Only the values of the control nodes of
+ * the last cycles (as many as the longest window spans) are kept, so memory doesn't grow with the length of the trace.
+ * <p/>
+ * Verdicts are the values of terminal nodes of property graphs: {@link #FAIL}, {@link #PASS} or {@link #CHECKING}.
+ * If a window is not over when the trace ends and the values seen so far don't decide it, the verdict is
+ * {@link #CHECKING}.
+ *
+ * @author Anton Chepurov
+ */
+public class AssertionChecker {
+
+	public static final int FAIL = 0;
+	public static final int PASS = 1;
+	public static final int CHECKING = 2;
+
+	private static final int NO_WINDOW = -1;
+
+	private final Simulator designSimulator;
+	private final Simulator tgmSimulator;
+	private final FlatModel flatModel;
+	private final Listener listener;
+
+	/**
+	 * Design variable indices, by TGM input
+	 */
+	private final int[] designIndices;
+	private final long[] tgmInputValues;
+
+	private final int[] propertyIndices;
+	private final String[] propertyNames;
+	/**
+	 * Number of cycles the windows of the property look ahead, by property
+	 */
+	private final int[] propertyLags;
+
+	/**
+	 * Ordinal of the control node in the history, by absolute node index
+	 */
+	private final int[] nodeOrdinals;
+	private final int[] controlNodes;
+	/**
+	 * Window bounds of control nodes, by absolute node index. {@link #NO_WINDOW} for nodes without window.
+	 */
+	private final int[] windowStarts;
+	private final int[] windowEnds;
+	private final boolean[] isExistWindow;
+
+	/**
+	 * Values of control nodes of the last cycles: ring buffer indexed by cycle modulo its length
+	 */
+	private final long[][] history;
+	private int cycle = 0;
+
+	/**
+	 * @param designModel model to simulate
+	 * @param tgmModel	model with property graphs, whose inputs are named after the variables of the design model
+	 * @param listener	listener to receive the simulated states and the verdicts
+	 * @throws HLDDException if either model is not supported by the {@link Simulator}, or a TGM input is missing
+	 *                       in the design model
+	 */
+	public AssertionChecker(BehModel designModel, BehModel tgmModel, Listener listener) throws HLDDException {
+		this.listener = listener;
+		designSimulator = new Simulator(designModel);
+		tgmSimulator = new Simulator(tgmModel);
+		flatModel = tgmSimulator.getFlatModel();
+
+		/* Map TGM inputs to design variables */
+		Map<String, Integer> designIndexByName = new HashMap<String, Integer>();
+		for (AbstractVariable variable : designModel.getVariables()) {
+			designIndexByName.put(variable.getName(), variable.getIndex());
+		}
+		Collection<Variable> tgmInputs = tgmModel.getInputPorts();
+		designIndices = new int[tgmInputs.size()];
+		tgmInputValues = new long[designIndices.length];
+		int i = 0;
+		for (Variable tgmInput : tgmInputs) {
+			Integer designIndex = designIndexByName.get(tgmInput.getName());
+			if (designIndex == null) {
+				throw new HLDDException("AssertionChecker: TGM input " + tgmInput.getName() + " is missing in the design model");
+			}
+			designIndices[i++] = designIndex;
+		}
+
+		/* Collect properties and windows of their control nodes */
+		List<GraphVariable> properties = new ArrayList<GraphVariable>(tgmModel.getOutputPorts());
+		propertyIndices = new int[properties.size()];
+		propertyNames = new String[properties.size()];
+		propertyLags = new int[properties.size()];
+		int nodeCount = flatModel.getNodeCount();
+		nodeOrdinals = new int[nodeCount];
+		Arrays.fill(nodeOrdinals, -1);
+		windowStarts = new int[nodeCount];
+		windowEnds = new int[nodeCount];
+		isExistWindow = new boolean[nodeCount];
+		List<Integer> controlNodeList = new ArrayList<Integer>();
+		int maxLag = 0;
+		for (int property = 0; property < propertyIndices.length; property++) {
+			GraphVariable graphVariable = properties.get(property);
+			propertyIndices[property] = graphVariable.getIndex();
+			propertyNames[property] = graphVariable.getName();
+			for (Node node : graphVariable.getGraph().getRootNode().toArray(null)) {
+				if (node.isTerminalNode()) continue;
+				int absoluteIndex = node.getAbsoluteIndex();
+				nodeOrdinals[absoluteIndex] = controlNodeList.size();
+				controlNodeList.add(absoluteIndex);
+				Range window = node instanceof TemporalNode ? ((TemporalNode) node).getWindow() : null;
+				if (window == null) {
+					windowStarts[absoluteIndex] = NO_WINDOW;
+					continue;
+				}
+				if (window.getStart() < 0 || window.getEnd() < 0) {
+					throw new UnsupportedModelException("Open windows are not supported by the assertion checker: "
+							+ graphVariable.getName() + " " + window);
+				}
+				windowStarts[absoluteIndex] = window.getStart();
+				windowEnds[absoluteIndex] = window.getEnd();
+				isExistWindow[absoluteIndex] = window.getTemporalModifier() == Range.TemporalModifier.EXIST;
+				propertyLags[property] = Math.max(propertyLags[property], window.getEnd());
+			}
+			maxLag = Math.max(maxLag, propertyLags[property]);
+		}
+		controlNodes = Simulator.toIntArray(controlNodeList);
+		history = new long[maxLag + 1][controlNodes.length];
+	}
+
+	/**
+	 * Simulates a single cycle of the design and emits the verdicts of the properties whose windows are over.
+	 *
+	 * @param inputValues values of input ports of the design, in the order of their indices
+	 */
+	public void step(long[] inputValues) {
+		designSimulator.step(inputValues);
+		for (int i = 0; i < designIndices.length; i++) {
+			tgmInputValues[i] = designSimulator.getValue(designIndices[i]);
+		}
+		tgmSimulator.step(tgmInputValues);
+		long[] values = history[cycle % history.length];
+		for (int i = 0; i < controlNodes.length; i++) {
+			values[i] = readNode(controlNodes[i]);
+		}
+		listener.stepSimulated(cycle, tgmInputValues);
+		cycle++;
+
+		for (int property = 0; property < propertyIndices.length; property++) {
+			int startCycle = cycle - 1 - propertyLags[property];
+			if (startCycle >= 0) {
+				listener.propertyChecked(property, startCycle, check(property, startCycle));
+			}
+		}
+	}
+
+	/**
+	 * Emits the verdicts for the cycles whose windows are not over at the end of the trace.
+	 */
+	public void finish() {
+		for (int property = 0; property < propertyIndices.length; property++) {
+			for (int startCycle = Math.max(0, cycle - propertyLags[property]); startCycle < cycle; startCycle++) {
+				listener.propertyChecked(property, startCycle, check(property, startCycle));
+			}
+		}
+	}
+
+	private int check(int property, int startCycle) {
+		int node = flatModel.getGraphRoot(propertyIndices[property]);
+		int steps = 0;
+		while (flatModel.isControlNode(node)) {
+			int ordinal = nodeOrdinals[node];
+			long value;
+			int windowStart = windowStarts[node];
+			if (windowStart == NO_WINDOW) {
+				value = history[startCycle % history.length][ordinal];
+			} else {
+				value = evaluateWindow(ordinal, startCycle + windowStart, startCycle + windowEnds[node], isExistWindow[node]);
+				if (value == CHECKING) {
+					return CHECKING;
+				}
+			}
+			int slot = flatModel.findJump(node, value);
+			int successor = slot == FlatModel.NO_JUMP ? FlatModel.NO_SUCCESSOR : flatModel.getJumpTarget(slot);
+			if (successor == FlatModel.NO_SUCCESSOR || ++steps > flatModel.getNodeCount()) {
+				return CHECKING;
+			}
+			node = successor;
+		}
+		return (int) tgmSimulator.getValue(flatModel.getDependentIndex(node));
+	}
+
+	/**
+	 * @return <code>1</code> if the node holds in all (for <i>always</i> windows) or some (for <i>exist</i> windows)
+	 *         cycles of the window, <code>0</code> if it doesn't, or {@link #CHECKING} if the cycles simulated so far
+	 *         don't decide it
+	 */
+	private long evaluateWindow(int ordinal, int firstCycle, int lastCycle, boolean isExist) {
+		/* The value deciding the window: a single 1 for exist windows, a single 0 for always windows */
+		long decidingValue = isExist ? 1 : 0;
+		int observedLast = Math.min(lastCycle, cycle - 1);
+		for (int windowCycle = firstCycle; windowCycle <= observedLast; windowCycle++) {
+			long value = history[windowCycle % history.length][ordinal] == 0 ? 0 : 1;
+			if (value == decidingValue) {
+				return decidingValue;
+			}
+		}
+		return observedLast < lastCycle ? CHECKING : 1 - decidingValue;
+	}
+
+	private long readNode(int node) {
+		long value = tgmSimulator.getValue(flatModel.getDependentIndex(node));
+		int rangeLength = flatModel.getRangeLength(node);
+		return rangeLength == 0 ? value : (value >>> flatModel.getRangeLowest(node)) & Simulator.mask(rangeLength);
+	}
+
+	/* Getters START */
+
+	public Simulator getDesignSimulator() {
+		return designSimulator;
+	}
+
+	public int getPropertyCount() {
+		return propertyIndices.length;
+	}
+
+	public String getPropertyName(int property) {
+		return propertyNames[property];
+	}
+
+	/**
+	 * @return number of TGM inputs, whose values are passed to {@link Listener#stepSimulated(int, long[])}
+	 */
+	public int getInputCount() {
+		return designIndices.length;
+	}
+
+	public int getCycle() {
+		return cycle;
+	}
+
+	/* Getters END */
+
+	public interface Listener {
+		/**
+		 * @param cycle	   simulated cycle
+		 * @param inputValues values of TGM inputs in the cycle. The array is reused in the following cycles.
+		 */
+		void stepSimulated(int cycle, long[] inputValues);
+
+		/**
+		 * @param property   index of the property, in the order of output ports of the TGM model
+		 * @param startCycle cycle the checked property starts in
+		 * @param verdict	{@link #FAIL}, {@link #PASS} or {@link #CHECKING}
+		 */
+		void propertyChecked(int property, int startCycle, int verdict);
+	}
+}
@@ -0,0 +1,312 @@
+package base.hldd.simulation;
+
+import base.HLDDException;
+import base.hldd.structure.models.BehModel;
+import base.hldd.structure.models.FlatModel;
+import base.hldd.structure.models.utils.RangeVariableHolder;
+import base.hldd.structure.variables.*;
+import base.vhdl.structure.Operator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Bit-parallel simulator for models where every variable is 1 bit wide.
+ * <p/>
+ * Each variable is represented by a single <code>long</code> word, whose 64 bits (lanes)
+ * hold the values of the variable in 64 independent simulations. Functions are evaluated
+ * for all lanes with a single bitwise operation, and each node of a graph is visited once
+ * per cycle for all the lanes that reach it. Every lane has its own state, so 64 different
+ * pattern sequences are simulated at the cost of one.
+ * <p/>
+ * Semantics are the same as of the {@link Simulator}: registers are clocked at the
+ * beginning of the following cycle, and graphs keep their previous values for lanes
+ * whose value is not covered by any condition.
+ *
+ * @author Anton Chepurov
+ */
+public class BitParallelSimulator {
+
+	public static final int LANE_COUNT = 64;
+	public static final long ALL_LANES = -1L;
+
+	private final int[] inputIndices;
+	private final int[] evaluationOrder;
+	private final int[] delayIndices;
+	private final long[] delayWords;
+	private boolean isClocked = false;
+	/**
+	 * Lanes that carry patterns in the current cycle. All lanes are simulated, but coverage is
+	 * collected for active lanes only.
+	 */
+	private long activeLanes = ALL_LANES;
+
+	/**
+	 * Words of the current cycle, by variable index
+	 */
+	private final long[] words;
+	private final long[] initialWords;
+	private final boolean[] isGraph;
+	/* Functions, by variable index */
+	private final Operator[] operators;
+	private final int[] firstOperands;
+	private final int[] secondOperands;
+
+	private final FlatModel flatModel;
+	private SimulationCoverage coverage;
+	private int cycle = 0;
+
+	public BitParallelSimulator(BehModel model) throws HLDDException {
+		this(model, new FlatModel(model));
+	}
+
+	/**
+	 * @param model	 model to simulate
+	 * @param flatModel flat representation of the model. Being immutable, it can be shared by several simulators.
+	 * @throws HLDDException if the model is not supported or is malformed
+	 */
+	public BitParallelSimulator(BehModel model, FlatModel flatModel) throws HLDDException {
+		this.flatModel = flatModel;
+		int varCount = model.getVarCount();
+		AbstractVariable[] variables = new AbstractVariable[varCount];
+		words = new long[varCount];
+		isGraph = new boolean[varCount];
+		operators = new Operator[varCount];
+		firstOperands = new int[varCount];
+		secondOperands = new int[varCount];
+
+		List<Integer> delayList = new ArrayList<Integer>();
+		for (int index = 0; index < varCount; index++) {
+			AbstractVariable variable = model.getVariableByIndex(index);
+			if (variable == null) {
+				throw new HLDDException("BitParallelSimulator: variable with index " + index + " is missing in the model");
+			}
+			checkSupported(variable);
+			variables[index] = variable;
+
+			if (variable instanceof ConstantVariable) {
+				words[index] = toWord(((ConstantVariable) variable).getValue().longValue());
+			} else if (variable instanceof FunctionVariable) {
+				FunctionVariable functionVariable = (FunctionVariable) variable;
+				List<RangeVariableHolder> operands = functionVariable.getOperands();
+				operators[index] = functionVariable.getOperator();
+				firstOperands[index] = operands.get(0).getVariable().getIndex();
+				secondOperands[index] = operands.size() > 1 ? operands.get(1).getVariable().getIndex() : firstOperands[index];
+			} else if (variable instanceof GraphVariable) {
+				isGraph[index] = true;
+				ConstantVariable defaultValue = variable.getDefaultValue();
+				if (defaultValue != null && !defaultValue.isArray()) {
+					words[index] = toWord(defaultValue.getValue().longValue());
+				}
+				if (variable.isDelay()) {
+					delayList.add(index);
+				}
+			}
+		}
+		initialWords = words.clone();
+
+		Collection<Variable> inputPorts = model.getInputPorts();
+		inputIndices = new int[inputPorts.size()];
+		int i = 0;
+		for (Variable inputPort : inputPorts) {
+			inputIndices[i++] = inputPort.getIndex();
+		}
+		delayIndices = Simulator.toIntArray(delayList);
+		delayWords = new long[delayIndices.length];
+		evaluationOrder = Simulator.createEvaluationOrder(variables, flatModel);
+	}
+
+	private static void checkSupported(AbstractVariable variable) throws UnsupportedModelException {
+		if (variable.getType() == null || variable.getLength().length() != 1) {
+			throw new UnsupportedModelException("Only 1-bit variables are supported by the bit-parallel simulator: "
+					+ variable.getName());
+		}
+		if (variable.isSigned()) {
+			throw new UnsupportedModelException("Signed variables are not supported by the bit-parallel simulator: "
+					+ variable.getName());
+		}
+		if (variable instanceof ConstantVariable && ((ConstantVariable) variable).isArray()) {
+			throw new UnsupportedModelException("Array constants are not supported by the bit-parallel simulator: "
+					+ variable.getName());
+		}
+		if (variable.isMemory() || variable.isExpansion() || variable instanceof UserDefinedFunctionVariable) {
+			throw new UnsupportedModelException("Memories, expansion graphs and user defined functions are not supported "
+					+ "by the bit-parallel simulator: " + variable.getName());
+		}
+		if (variable instanceof FunctionVariable) {
+			FunctionVariable functionVariable = (FunctionVariable) variable;
+			Operator operator = functionVariable.getOperator();
+			if (!isSupported(operator) || functionVariable.getOperands().size() != operator.getNumberOfOperands()) {
+				throw new UnsupportedModelException("Function " + variable.getName() + " (" + operator
+						+ ") is not supported by the bit-parallel simulator");
+			}
+		}
+	}
+
+	private static boolean isSupported(Operator operator) {
+		switch (operator) {
+			case DIV:
+			case MOD:
+			case EXP:
+			case CAT:
+			case SHIFT_LEFT:
+			case SHIFT_RIGHT:
+			case ARRAY:
+				return false;
+			default:
+				return true;
+		}
+	}
+
+	private static long toWord(long value) {
+		return (value & 1) == 0 ? 0 : ALL_LANES;
+	}
+
+	/**
+	 * Simulates a single cycle in all lanes.
+	 *
+	 * @param inputWords words of input ports, in the order of their indices
+	 * @param lanes	  mask of lanes that carry patterns. Coverage is collected for these lanes only.
+	 */
+	public void step(long[] inputWords, long lanes) {
+		if (inputWords.length != inputIndices.length) {
+			throw new IllegalArgumentException("BitParallelSimulator: " + inputIndices.length + " input words expected, found "
+					+ inputWords.length + " (cycle " + cycle + ")");
+		}
+		if (isClocked) {
+			for (int i = 0; i < delayIndices.length; i++) {
+				words[delayIndices[i]] = delayWords[i];
+			}
+		}
+		for (int i = 0; i < inputIndices.length; i++) {
+			words[inputIndices[i]] = inputWords[i];
+		}
+		activeLanes = lanes;
+		for (int index : evaluationOrder) {
+			words[index] = isGraph[index] ? evaluateGraph(index) : evaluateFunction(index);
+		}
+		for (int i = 0; i < delayIndices.length; i++) {
+			delayWords[i] = evaluateGraph(delayIndices[i]);
+		}
+		isClocked = true;
+
+		if (coverage != null) {
+			coverage.sampleLanes(words, lanes);
+		}
+		cycle++;
+	}
+
+	public void reset() {
+		System.arraycopy(initialWords, 0, words, 0, words.length);
+		isClocked = false;
+		cycle = 0;
+	}
+
+	private long evaluateGraph(int index) {
+		return evaluateNode(flatModel.getGraphRoot(index), ALL_LANES, words[index], 0);
+	}
+
+	/**
+	 * @param node		 absolute index of the node to evaluate
+	 * @param nodeLanes	lanes that reach the node
+	 * @param previousWord previous word of the graph variable
+	 * @param depth		number of nodes passed, to guard against cyclic graphs
+	 * @return value of the graph variable in the specified lanes (other lanes are <code>0</code>)
+	 */
+	private long evaluateNode(int node, long nodeLanes, long previousWord, int depth) {
+		if (nodeLanes == 0) {
+			return 0;
+		}
+		if (coverage != null && (nodeLanes & activeLanes) != 0) {
+			coverage.markNode(node);
+		}
+		long dependentWord = words[flatModel.getDependentIndex(node)];
+		if (!flatModel.isControlNode(node)) {
+			return dependentWord & nodeLanes;
+		}
+		if (depth > flatModel.getNodeCount()) {
+			return previousWord & nodeLanes;
+		}
+		long result = 0;
+		long unmatchedLanes = nodeLanes;
+		for (int value = 0; value <= 1; value++) {
+			long valueLanes = (value == 0 ? ~dependentWord : dependentWord) & nodeLanes;
+			if (valueLanes == 0) continue;
+			int slot = flatModel.findJump(node, value);
+			if (slot == FlatModel.NO_JUMP) continue;
+			int successor = flatModel.getJumpTarget(slot);
+			if (successor == FlatModel.NO_SUCCESSOR) continue;
+			if (coverage != null && (valueLanes & activeLanes) != 0) {
+				coverage.markEdge(flatModel.getJumpEdge(slot));
+			}
+			result |= evaluateNode(successor, valueLanes, previousWord, depth + 1);
+			unmatchedLanes &= ~valueLanes;
+		}
+		/* Values not covered by any condition: keep the previous value */
+		return result | (previousWord & unmatchedLanes);
+	}
+
+	private long evaluateFunction(int index) {
+		long a = words[firstOperands[index]];
+		long b = words[secondOperands[index]];
+		switch (operators[index]) {
+			case INV:
+				return ~a;
+			case AND:
+			case MULT:
+				return a & b;
+			case OR:
+				return a | b;
+			case XOR:
+			case NEQ:
+			case ADDER:
+			case SUBTR:
+				return a ^ b;
+			case EQ:
+				return ~(a ^ b);
+			case LT:
+			case U_LT:
+				return ~a & b;
+			case GT:
+			case U_GT:
+				return a & ~b;
+			case LE:
+			case U_LE:
+				return ~a | b;
+			case GE:
+			case U_GE:
+				return a | ~b;
+			default:
+				throw new IllegalStateException("BitParallelSimulator: unsupported operator " + operators[index]);
+		}
+	}
+
+	/* Getters START */
+
+	/**
+	 * @param index index of the variable
+	 * @return word of the variable in the last simulated cycle, one bit per lane
+	 */
+	public long getWord(int index) {
+		return words[index];
+	}
+
+	public int getInputCount() {
+		return inputIndices.length;
+	}
+
+	public int getCycle() {
+		return cycle;
+	}
+
+	public FlatModel getFlatModel() {
+		return flatModel;
+	}
+
+	/* Getters END */
+
+	public void setCoverage(SimulationCoverage coverage) {
+		this.coverage = coverage;
+	}
+}
@@ -0,0 +1,40 @@
+package base.hldd.simulation;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Generates random input patterns for a {@link Simulator}.
+ *
+ * @author Anton Chepurov
+ */
+public class RandomPatternGenerator {
+
+	private final Random random;
+	private final long[] masks;
+
+	public RandomPatternGenerator(Simulator simulator, long seed) {
+		random = new Random(seed);
+		masks = new long[simulator.getInputCount()];
+		for (int i = 0; i < masks.length; i++) {
+			masks[i] = Simulator.mask(simulator.getInputWidth(i));
+		}
+	}
+
+	/**
+	 * Generator of input words for bit-parallel simulation: every bit of every word is random.
+	 */
+	public RandomPatternGenerator(BitParallelSimulator simulator, long seed) {
+		random = new Random(seed);
+		masks = new long[simulator.getInputCount()];
+		Arrays.fill(masks, BitParallelSimulator.ALL_LANES);
+	}
+
+	public long[] next() {
+		long[] pattern = new long[masks.length];
+		for (int i = 0; i < pattern.length; i++) {
+			pattern[i] = random.nextLong() & masks[i];
+		}
+		return pattern;
+	}
+}
@@ -0,0 +1,183 @@
+package base.hldd.simulation;
+
+import base.HLDDException;
+import base.hldd.structure.models.BehModel;
+import base.hldd.structure.models.FlatModel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Random-pattern coverage simulation split into shards that are simulated by a pool of threads.
+ * <p/>
+ * Every shard simulates its own share of patterns with its own simulator, starting from the
+ * initial state, and its own random generator. Seeds of the shards are derived from a master
+ * seed, so a run is reproducible for the same master seed and the same number of shards.
+ * Coverage of the shards is merged when all of them are done.
+ * <p/>
+ * Models with 1-bit variables only are simulated by {@link BitParallelSimulator}s.
+ *
+ * @author Anton Chepurov
+ */
+public class ShardedRandomSimulation {
+
+	/**
+	 * Multiplier for deriving shard seeds (golden ratio, as used by SplitMix64)
+	 */
+	private static final long SEED_GAMMA = 0x9E3779B97F4A7C15L;
+
+	private final BehModel model;
+	private final int patternCount;
+	private final int shardCount;
+	private final long masterSeed;
+
+	/**
+	 * @param model		model to simulate
+	 * @param patternCount total number of random patterns to simulate
+	 * @param shardCount   number of shards, which is also the number of threads to use
+	 * @param masterSeed   seed to derive shard seeds from
+	 */
+	public ShardedRandomSimulation(BehModel model, int patternCount, int shardCount, long masterSeed) {
+		if (shardCount < 1) {
+			throw new IllegalArgumentException("ShardedRandomSimulation: number of shards must be positive, found " + shardCount);
+		}
+		this.model = model;
+		this.patternCount = patternCount;
+		this.shardCount = Math.max(1, Math.min(shardCount, patternCount));
+		this.masterSeed = masterSeed;
+	}
+
+	/**
+	 * @return coverage merged from all shards
+	 * @throws HLDDException		if the model cannot be simulated
+	 * @throws InterruptedException if the calling thread was interrupted while waiting for the shards
+	 */
+	public SimulationCoverage run() throws HLDDException, InterruptedException {
+		FlatModel flatModel = new FlatModel(model);
+		boolean isBitParallel = isBitParallel(flatModel);
+
+		/* Simulators are created here, so that the model is only read in a single thread */
+		List<Callable<SimulationCoverage>> shards = new ArrayList<Callable<SimulationCoverage>>(shardCount);
+		for (int shardIdx = 0; shardIdx < shardCount; shardIdx++) {
+			int shardPatternCount = patternCount / shardCount + (shardIdx < patternCount % shardCount ? 1 : 0);
+			long shardSeed = deriveSeed(masterSeed, shardIdx);
+			SimulationCoverage coverage = new SimulationCoverage(model, flatModel);
+			if (isBitParallel) {
+				BitParallelSimulator simulator = new BitParallelSimulator(model, flatModel);
+				simulator.setCoverage(coverage);
+				shards.add(new BitParallelShard(simulator, shardPatternCount, shardSeed, coverage));
+			} else {
+				Simulator simulator = new Simulator(model, flatModel);
+				simulator.setCoverage(coverage);
+				shards.add(new Shard(simulator, shardPatternCount, shardSeed, coverage));
+			}
+		}
+
+		if (shardCount == 1) {
+			return call(shards.get(0));
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(shardCount);
+		try {
+			SimulationCoverage mergedCoverage = null;
+			for (Future<SimulationCoverage> future : executor.invokeAll(shards)) {
+				SimulationCoverage coverage = get(future);
+				if (mergedCoverage == null) {
+					mergedCoverage = coverage;
+				} else {
+					mergedCoverage.merge(coverage);
+				}
+			}
+			return mergedCoverage;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private boolean isBitParallel(FlatModel flatModel) throws HLDDException {
+		try {
+			new BitParallelSimulator(model, flatModel);
+			return true;
+		} catch (UnsupportedModelException e) {
+			return false;
+		}
+	}
+
+	static long deriveSeed(long masterSeed, int shardIdx) {
+		long seed = masterSeed + SEED_GAMMA * (shardIdx + 1);
+		seed = (seed ^ (seed >>> 30)) * 0xBF58476D1CE4E5B9L;
+		seed = (seed ^ (seed >>> 27)) * 0x94D049BB133111EBL;
+		return seed ^ (seed >>> 31);
+	}
+
+	private static SimulationCoverage call(Callable<SimulationCoverage> shard) {
+		try {
+			return shard.call();
+		} catch (Exception e) {
+			throw new RuntimeException(e); // Shards throw unchecked exceptions only
+		}
+	}
+
+	private static SimulationCoverage get(Future<SimulationCoverage> future) throws InterruptedException {
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new RuntimeException(cause);
+		}
+	}
+
+	private static class Shard implements Callable<SimulationCoverage> {
+		private final Simulator simulator;
+		private final int patternCount;
+		private final long seed;
+		private final SimulationCoverage coverage;
+
+		private Shard(Simulator simulator, int patternCount, long seed, SimulationCoverage coverage) {
+			this.simulator = simulator;
+			this.patternCount = patternCount;
+			this.seed = seed;
+			this.coverage = coverage;
+		}
+
+		@Override
+		public SimulationCoverage call() {
+			RandomPatternGenerator generator = new RandomPatternGenerator(simulator, seed);
+			for (int i = 0; i < patternCount && !Thread.currentThread().isInterrupted(); i++) {
+				simulator.step(generator.next());
+			}
+			return coverage;
+		}
+	}
+
+	private static class BitParallelShard implements Callable<SimulationCoverage> {
+		private final BitParallelSimulator simulator;
+		private final int patternCount;
+		private final long seed;
+		private final SimulationCoverage coverage;
+
+		private BitParallelShard(BitParallelSimulator simulator, int patternCount, long seed, SimulationCoverage coverage) {
+			this.simulator = simulator;
+			this.patternCount = patternCount;
+			this.seed = seed;
+			this.coverage = coverage;
+		}
+
+		@Override
+		public SimulationCoverage call() {
+			RandomPatternGenerator generator = new RandomPatternGenerator(simulator, seed);
+			for (int remaining = patternCount; remaining > 0 && !Thread.currentThread().isInterrupted();
+				 remaining -= BitParallelSimulator.LANE_COUNT) {
+				long lanes = remaining >= BitParallelSimulator.LANE_COUNT ? BitParallelSimulator.ALL_LANES : (1L << remaining) - 1;
+				simulator.step(generator.next(), lanes);
+			}
+			return coverage;
+		}
+	}
+}
@@ -0,0 +1,246 @@
+package base.hldd.simulation;
+
+import base.hldd.structure.models.BehModel;
+import base.hldd.structure.models.FlatModel;
+import base.hldd.structure.variables.AbstractVariable;
+import base.hldd.structure.variables.FunctionVariable;
+import base.hldd.structure.variables.GraphVariable;
+import ui.base.NodeItem;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects node, edge, condition and toggle coverage during simulation.
+ * Metrics are measured the same way as hlddsim measures them:
+ * <ul>
+ * <li>node coverage: every node of every graph that was reached;</li>
+ * <li>edge coverage: every condition of every control node that was taken;</li>
+ * <li>condition coverage: both <code>true</code> and <code>false</code> outcome of every conditional function;</li>
+ * <li>toggle coverage: both rise and fall of every bit of inputs and graph variables.</li>
+ * </ul>
+ *
+ * @author Anton Chepurov
+ */
+public class SimulationCoverage {
+
+	private final FlatModel flatModel;
+	/**
+	 * By absolute node index
+	 */
+	private final boolean[] coveredNodes;
+	/**
+	 * By model-wide edge index (see {@link FlatModel})
+	 */
+	private final boolean[] coveredEdges;
+
+	private final int[] conditionIndices;
+	private final boolean[] trueSeen;
+	private final boolean[] falseSeen;
+
+	private final int[] toggleIndices;
+	private final long[] toggleMasks;
+	private final long[] rose;
+	private final long[] fell;
+	private final long[] previousValues;
+	private boolean hasPreviousValues = false;
+	private final int toggleCount;
+
+	/**
+	 * @param model	 model to collect coverage for
+	 * @param flatModel flat representation of the model, as used by the {@link Simulator}
+	 */
+	public SimulationCoverage(BehModel model, FlatModel flatModel) {
+		this.flatModel = flatModel;
+		coveredNodes = new boolean[flatModel.getNodeCount()];
+		coveredEdges = new boolean[flatModel.getEdgeCount()];
+
+		List<Integer> conditionList = new ArrayList<Integer>();
+		List<Integer> toggleList = new ArrayList<Integer>();
+		int toggleCount = 0;
+		for (AbstractVariable variable : model.getVariables()) {
+			if (variable instanceof FunctionVariable) {
+				if (((FunctionVariable) variable).getOperator().isCondition()) {
+					conditionList.add(variable.getIndex());
+				}
+			} else if (variable instanceof GraphVariable || variable.isInput()) {
+				toggleList.add(variable.getIndex());
+				toggleCount += variable.getLength().length();
+			}
+		}
+
+		conditionIndices = Simulator.toIntArray(conditionList);
+		trueSeen = new boolean[conditionIndices.length];
+		falseSeen = new boolean[conditionIndices.length];
+
+		toggleIndices = Simulator.toIntArray(toggleList);
+		toggleMasks = new long[toggleIndices.length];
+		for (int i = 0; i < toggleIndices.length; i++) {
+			toggleMasks[i] = Simulator.mask(model.getVariableByIndex(toggleIndices[i]).getLength().length());
+		}
+		rose = new long[toggleIndices.length];
+		fell = new long[toggleIndices.length];
+		previousValues = new long[toggleIndices.length];
+		this.toggleCount = toggleCount;
+	}
+
+	void markNode(int absoluteIndex) {
+		coveredNodes[absoluteIndex] = true;
+	}
+
+	void markEdge(int edgeIndex) {
+		coveredEdges[edgeIndex] = true;
+	}
+
+	/**
+	 * Samples conditions and toggles at the end of a cycle.
+	 *
+	 * @param values values of all variables, by variable index
+	 */
+	void sample(long[] values) {
+		for (int i = 0; i < conditionIndices.length; i++) {
+			if (values[conditionIndices[i]] != 0) {
+				trueSeen[i] = true;
+			} else {
+				falseSeen[i] = true;
+			}
+		}
+		for (int i = 0; i < toggleIndices.length; i++) {
+			long value = values[toggleIndices[i]] & toggleMasks[i];
+			if (hasPreviousValues) {
+				long previousValue = previousValues[i];
+				rose[i] |= ~previousValue & value;
+				fell[i] |= previousValue & ~value;
+			}
+			previousValues[i] = value;
+		}
+		hasPreviousValues = true;
+	}
+
+	/**
+	 * Samples conditions and toggles at the end of a cycle of bit-parallel simulation,
+	 * where every bit of a value holds the value of a 1-bit variable in a separate lane.
+	 * Toggles are detected within lanes.
+	 *
+	 * @param words words of all variables, by variable index
+	 * @param lanes mask of lanes to sample
+	 */
+	void sampleLanes(long[] words, long lanes) {
+		for (int i = 0; i < conditionIndices.length; i++) {
+			long word = words[conditionIndices[i]];
+			if ((word & lanes) != 0) {
+				trueSeen[i] = true;
+			}
+			if ((~word & lanes) != 0) {
+				falseSeen[i] = true;
+			}
+		}
+		for (int i = 0; i < toggleIndices.length; i++) {
+			long word = words[toggleIndices[i]];
+			if (hasPreviousValues) {
+				long previousWord = previousValues[i];
+				if ((~previousWord & word & lanes) != 0) {
+					rose[i] |= 1;
+				}
+				if ((previousWord & ~word & lanes) != 0) {
+					fell[i] |= 1;
+				}
+			}
+			previousValues[i] = word;
+		}
+		hasPreviousValues = true;
+	}
+
+	/**
+	 * Adds coverage collected by another simulation of the same model.
+	 * Toggles are merged per bit: a bit is toggled if it rose in one simulation and fell in another.
+	 *
+	 * @param other coverage of the same model to merge into this one
+	 */
+	public void merge(SimulationCoverage other) {
+		if (other.coveredNodes.length != coveredNodes.length || other.coveredEdges.length != coveredEdges.length
+				|| other.conditionIndices.length != conditionIndices.length || other.toggleIndices.length != toggleIndices.length) {
+			throw new IllegalArgumentException("SimulationCoverage: cannot merge coverage of a different model");
+		}
+		for (int i = 0; i < coveredNodes.length; i++) {
+			coveredNodes[i] |= other.coveredNodes[i];
+		}
+		for (int i = 0; i < coveredEdges.length; i++) {
+			coveredEdges[i] |= other.coveredEdges[i];
+		}
+		for (int i = 0; i < conditionIndices.length; i++) {
+			trueSeen[i] |= other.trueSeen[i];
+			falseSeen[i] |= other.falseSeen[i];
+		}
+		for (int i = 0; i < toggleIndices.length; i++) {
+			rose[i] |= other.rose[i];
+			fell[i] |= other.fell[i];
+		}
+	}
+
+	/* Getters START */
+
+	public int getCoveredNodeCount() {
+		int count = 0;
+		for (int i = 0; i < coveredNodes.length; i++) {
+			if (coveredNodes[i]) count++;
+		}
+		return count;
+	}
+
+	public int getNodeCount() {
+		return coveredNodes.length;
+	}
+
+	public int getCoveredEdgeCount() {
+		int count = 0;
+		for (int i = 0; i < coveredEdges.length; i++) {
+			if (coveredEdges[i]) count++;
+		}
+		return count;
+	}
+
+	public int getEdgeCount() {
+		return coveredEdges.length;
+	}
+
+	public int getCoveredConditionCount() {
+		int count = 0;
+		for (int i = 0; i < conditionIndices.length; i++) {
+			if (trueSeen[i]) count++;
+			if (falseSeen[i]) count++;
+		}
+		return count;
+	}
+
+	public int getConditionCount() {
+		return 2 * conditionIndices.length;
+	}
+
+	public int getCoveredToggleCount() {
+		int count = 0;
+		for (int i = 0; i < toggleIndices.length; i++) {
+			count += Long.bitCount(rose[i] & fell[i]);
+		}
+		return count;
+	}
+
+	public int getToggleCount() {
+		return toggleCount;
+	}
+
+	/**
+	 * @return uncovered nodes in the order of their absolute indices
+	 */
+	public List<NodeItem> getUncoveredNodeItems() {
+		List<NodeItem> uncoveredNodeItems = new ArrayList<NodeItem>();
+		for (int i = 0; i < coveredNodes.length; i++) {
+			if (!coveredNodes[i]) {
+				uncoveredNodeItems.add(new NodeItem(flatModel.getGraphIndex(i), flatModel.getRelativeIndex(i)));
+			}
+		}
+		return uncoveredNodeItems;
+	}
+
+	/* Getters END */
+}
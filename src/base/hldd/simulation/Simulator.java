@@ -0,0 +1,487 @@
+package base.hldd.simulation;
+
+import base.HLDDException;
+import base.Range;
+import base.hldd.structure.models.BehModel;
+import base.hldd.structure.models.FlatModel;
+import base.hldd.structure.models.utils.RangeVariableHolder;
+import base.hldd.structure.variables.*;
+import base.vhdl.structure.Operator;
+
+import java.util.*;
+
+/**
+ * Cycle-based simulator that evaluates a {@link BehModel} in-process.
+ * <p/>
+ * Every cycle the input values are applied, then functions and combinational graphs are
+ * evaluated in topological order, and finally the next values of delay (register) graphs
+ * are calculated. Registers are clocked at the beginning of the following cycle, so
+ * references to delay variables always read the value of the current state.
+ * <p/>
+ * Values are stored as <code>long</code>-s, so variables wider than 64 bits are not supported.
+ *
+ * @author Anton Chepurov
+ */
+public class Simulator {
+
+	static final int MAX_WIDTH = 64;
+
+	private static final int NEW = 0;
+	private static final int IN_PROGRESS = 1;
+	private static final int DONE = 2;
+
+	/**
+	 * Variables by their index
+	 */
+	private final AbstractVariable[] variables;
+	private final int[] widths;
+	private final long[] masks;
+	private final boolean[] signed;
+	/**
+	 * Values of the current cycle, by variable index
+	 */
+	private final long[] values;
+	private final long[] initialValues;
+
+	private final int[] inputIndices;
+	/**
+	 * Indices of functions and combinational graphs in the order of evaluation
+	 */
+	private final int[] evaluationOrder;
+	private final int[] delayIndices;
+	/**
+	 * Next values of delay graphs, applied when the next cycle starts
+	 */
+	private final long[] delayValues;
+	private boolean isClocked = false;
+
+	private final FunctionData[] functionData;
+	private final FlatModel flatModel;
+
+	private SimulationCoverage coverage;
+	private int cycle = 0;
+
+	public Simulator(BehModel model) throws HLDDException {
+		this(model, new FlatModel(model));
+	}
+
+	/**
+	 * @param model	 model to simulate
+	 * @param flatModel flat representation of the model. Being immutable, it can be shared by several simulators.
+	 * @throws HLDDException if the model is not supported or is malformed
+	 */
+	public Simulator(BehModel model, FlatModel flatModel) throws HLDDException {
+		this.flatModel = flatModel;
+		int varCount = model.getVarCount();
+		variables = new AbstractVariable[varCount];
+		widths = new int[varCount];
+		masks = new long[varCount];
+		signed = new boolean[varCount];
+		values = new long[varCount];
+		functionData = new FunctionData[varCount];
+
+		/* Collect variables */
+		List<Integer> delayList = new ArrayList<Integer>();
+		for (int index = 0; index < varCount; index++) {
+			AbstractVariable variable = model.getVariableByIndex(index);
+			if (variable == null) {
+				throw new HLDDException("Simulator: variable with index " + index + " is missing in the model");
+			}
+			checkSupported(variable);
+			variables[index] = variable;
+			widths[index] = variable.getLength().length();
+			masks[index] = mask(widths[index]);
+			signed[index] = variable.isSigned();
+
+			if (variable instanceof ConstantVariable) {
+				values[index] = ((ConstantVariable) variable).getValue().longValue() & masks[index];
+			} else if (variable instanceof GraphVariable) {
+				ConstantVariable defaultValue = variable.getDefaultValue();
+				if (defaultValue != null && !defaultValue.isArray()) {
+					values[index] = defaultValue.getValue().longValue() & masks[index];
+				}
+				if (variable.isDelay()) {
+					delayList.add(index);
+				}
+			}
+		}
+		initialValues = values.clone();
+
+		/* Functions reference operands of higher indices, so collect their data when all variables are known */
+		for (int index = 0; index < varCount; index++) {
+			if (variables[index] instanceof FunctionVariable) {
+				functionData[index] = new FunctionData((FunctionVariable) variables[index]);
+			}
+		}
+
+		Collection<Variable> inputPorts = model.getInputPorts();
+		inputIndices = new int[inputPorts.size()];
+		int i = 0;
+		for (Variable inputPort : inputPorts) {
+			inputIndices[i++] = inputPort.getIndex();
+		}
+		delayIndices = toIntArray(delayList);
+		delayValues = new long[delayIndices.length];
+		evaluationOrder = createEvaluationOrder(variables, flatModel);
+	}
+
+	private static void checkSupported(AbstractVariable variable) throws UnsupportedModelException {
+		if (variable instanceof ConstantVariable && ((ConstantVariable) variable).isArray()) {
+			throw new UnsupportedModelException("Array constants are not supported by the simulator: " + variable.getName());
+		}
+		if (variable.isMemory()) {
+			throw new UnsupportedModelException("Memories are not supported by the simulator: " + variable.getName());
+		}
+		if (variable.isExpansion()) {
+			throw new UnsupportedModelException("Expansion graphs are not supported by the simulator: " + variable.getName());
+		}
+		if (variable instanceof UserDefinedFunctionVariable) {
+			throw new UnsupportedModelException("User defined functions are not supported by the simulator: " + variable.getName());
+		}
+		if (variable instanceof FunctionVariable) {
+			FunctionVariable functionVariable = (FunctionVariable) variable;
+			Operator operator = functionVariable.getOperator();
+			if (operator == Operator.ARRAY) {
+				throw new UnsupportedModelException("Array functions are not supported by the simulator: " + variable.getName());
+			}
+			if (functionVariable.getOperands().size() != operator.getNumberOfOperands()) {
+				throw new UnsupportedModelException("Function " + variable.getName() + " (" + operator + ") has "
+						+ functionVariable.getOperands().size() + " operands, while " + operator.getNumberOfOperands() + " are expected");
+			}
+		}
+		if (variable.getType() == null) {
+			throw new UnsupportedModelException("Variables without type are not supported by the simulator: " + variable.getName());
+		}
+		if (variable.getLength().length() > MAX_WIDTH) {
+			throw new UnsupportedModelException("Variables wider than " + MAX_WIDTH + " bits are not supported by the simulator: "
+					+ variable.getName() + variable.lengthToString());
+		}
+	}
+
+	/**
+	 * Orders functions and combinational graphs so that every variable is evaluated after
+	 * the variables it depends on. Delay graphs are not part of the order, since their
+	 * current value is the state. Variables forming a combinational loop read the value of
+	 * the previous cycle of the variable that closes the loop.
+	 *
+	 * @param variables variables of the model, by index
+	 * @param flatModel flat representation of the model
+	 * @return indices of functions and combinational graphs in the order of evaluation
+	 */
+	static int[] createEvaluationOrder(AbstractVariable[] variables, FlatModel flatModel) {
+		int[][] dependencies = new int[variables.length][];
+		for (int index = 0; index < variables.length; index++) {
+			AbstractVariable variable = variables[index];
+			if (variable instanceof FunctionVariable) {
+				List<RangeVariableHolder> operands = ((FunctionVariable) variable).getOperands();
+				dependencies[index] = new int[operands.size()];
+				for (int i = 0; i < dependencies[index].length; i++) {
+					dependencies[index][i] = operands.get(i).getVariable().getIndex();
+				}
+			} else if (variable instanceof GraphVariable && !variable.isDelay()) {
+				Set<Integer> dependencySet = new TreeSet<Integer>();
+				int rootIndex = flatModel.getGraphRoot(index);
+				for (int nodeIndex = rootIndex, n = rootIndex + flatModel.getGraphSize(index); nodeIndex < n; nodeIndex++) {
+					dependencySet.add(flatModel.getDependentIndex(nodeIndex));
+				}
+				dependencies[index] = toIntArray(dependencySet);
+			}
+		}
+
+		int[] state = new int[variables.length];
+		int[] order = new int[variables.length];
+		int orderSize = 0;
+		/* Iterative DFS: long chains of functions would overflow the call stack */
+		int[] stack = new int[variables.length];
+		int[] positions = new int[variables.length];
+		for (int root = 0; root < variables.length; root++) {
+			if (dependencies[root] == null || state[root] != NEW) continue;
+			int depth = 0;
+			stack[0] = root;
+			positions[0] = 0;
+			state[root] = IN_PROGRESS;
+			while (depth >= 0) {
+				int index = stack[depth];
+				int[] indexDependencies = dependencies[index];
+				if (positions[depth] < indexDependencies.length) {
+					int dependency = indexDependencies[positions[depth]++];
+					if (dependencies[dependency] != null && state[dependency] == NEW) {
+						state[dependency] = IN_PROGRESS;
+						stack[++depth] = dependency;
+						positions[depth] = 0;
+					}
+				} else {
+					state[index] = DONE;
+					order[orderSize++] = index;
+					depth--;
+				}
+			}
+		}
+		return Arrays.copyOf(order, orderSize);
+	}
+
+	/**
+	 * Simulates a single cycle.
+	 *
+	 * @param inputValues values of input ports, in the order of their indices
+	 */
+	public void step(long[] inputValues) {
+		if (inputValues.length != inputIndices.length) {
+			throw new IllegalArgumentException("Simulator: " + inputIndices.length + " input values expected, found "
+					+ inputValues.length + " (cycle " + cycle + ")");
+		}
+		/* Clock registers with the values calculated during the previous cycle */
+		if (isClocked) {
+			for (int i = 0; i < delayIndices.length; i++) {
+				values[delayIndices[i]] = delayValues[i];
+			}
+		}
+		/* Apply inputs */
+		for (int i = 0; i < inputIndices.length; i++) {
+			int index = inputIndices[i];
+			values[index] = inputValues[i] & masks[index];
+		}
+		/* Evaluate functions and combinational graphs */
+		for (int index : evaluationOrder) {
+			FunctionData function = functionData[index];
+			values[index] = (function != null ? evaluateFunction(function, masks[index]) : evaluateGraph(index)) & masks[index];
+		}
+		/* Calculate next state */
+		for (int i = 0; i < delayIndices.length; i++) {
+			delayValues[i] = evaluateGraph(delayIndices[i]);
+		}
+		isClocked = true;
+
+		if (coverage != null) {
+			coverage.sample(values);
+		}
+		cycle++;
+	}
+
+	/**
+	 * Restores the initial state of the model.
+	 */
+	public void reset() {
+		System.arraycopy(initialValues, 0, values, 0, values.length);
+		isClocked = false;
+		cycle = 0;
+	}
+
+	private long evaluateGraph(int index) {
+		int node = flatModel.getGraphRoot(index);
+		int steps = 0;
+		while (flatModel.isControlNode(node)) {
+			if (coverage != null) {
+				coverage.markNode(node);
+			}
+			int slot = flatModel.findJump(node, readNode(node));
+			int successor = slot == FlatModel.NO_JUMP ? FlatModel.NO_SUCCESSOR : flatModel.getJumpTarget(slot);
+			if (successor == FlatModel.NO_SUCCESSOR || ++steps > flatModel.getNodeCount()) {
+				/* Value is not covered by any condition: keep the previous value */
+				return values[index];
+			}
+			if (coverage != null) {
+				coverage.markEdge(flatModel.getJumpEdge(slot));
+			}
+			node = successor;
+		}
+		if (coverage != null) {
+			coverage.markNode(node);
+		}
+		return readNode(node) & masks[index];
+	}
+
+	private long readNode(int node) {
+		long value = values[flatModel.getDependentIndex(node)];
+		int rangeLength = flatModel.getRangeLength(node);
+		return rangeLength == 0 ? value : (value >>> flatModel.getRangeLowest(node)) & mask(rangeLength);
+	}
+
+	/**
+	 * @param function   function to evaluate
+	 * @param resultMask mask of the width of the function variable
+	 * @return value of the function. Only the bits of the result mask are defined.
+	 */
+	private long evaluateFunction(FunctionData function, long resultMask) {
+		long a = function.operand(values, 0);
+		if (function.operator == Operator.INV) {
+			return ~a;
+		}
+		long b = function.operand(values, 1);
+		switch (function.operator) {
+			case EQ:
+				return a == b ? 1 : 0;
+			case NEQ:
+				return a != b ? 1 : 0;
+			case LE:
+				return a <= b ? 1 : 0;
+			case GE:
+				return a >= b ? 1 : 0;
+			case LT:
+				return a < b ? 1 : 0;
+			case GT:
+				return a > b ? 1 : 0;
+			case U_LE:
+				return isLessUnsigned(b, a) ? 0 : 1;
+			case U_GE:
+				return isLessUnsigned(a, b) ? 0 : 1;
+			case U_LT:
+				return isLessUnsigned(a, b) ? 1 : 0;
+			case U_GT:
+				return isLessUnsigned(b, a) ? 1 : 0;
+			case ADDER:
+				return a + b;
+			case SUBTR:
+				return a - b;
+			case MULT:
+				return a * b;
+			case DIV:
+				/* Division by zero is undefined in VHDL; the simulator returns 0 */
+				return b == 0 ? 0 : a / b;
+			case MOD:
+				if (b == 0) {
+					return 0;
+				}
+				/* VHDL MOD takes the sign of the divisor */
+				long remainder = a % b;
+				return remainder != 0 && (remainder ^ b) < 0 ? remainder + b : remainder;
+			case EXP:
+				return power(a, b, resultMask);
+			case AND:
+				return a & b;
+			case OR:
+				return a | b;
+			case XOR:
+				return a ^ b;
+			case CAT:
+				int lowerWidth = function.widths[1];
+				return lowerWidth >= MAX_WIDTH ? b : (a << lowerWidth) | b;
+			case SHIFT_LEFT:
+				return b >= MAX_WIDTH || b < 0 ? 0 : a << b;
+			case SHIFT_RIGHT:
+				return b >= MAX_WIDTH || b < 0 ? 0 : a >>> b;
+			default:
+				throw new IllegalStateException("Simulator: unsupported operator " + function.operator);
+		}
+	}
+
+	/**
+	 * Raises the base to the power by squaring and multiplying, so that the number of multiplications is
+	 * logarithmic in the exponent. Non-positive exponents give 1.
+	 *
+	 * @return the power, masked to the specified mask
+	 */
+	static long power(long base, long exponent, long mask) {
+		long result = 1;
+		base &= mask;
+		while (exponent > 0 && base != 0) {
+			if ((exponent & 1) != 0) {
+				result = (result * base) & mask;
+			}
+			exponent >>>= 1;
+			base = (base * base) & mask;
+		}
+		return exponent > 0 ? 0 : result & mask;
+	}
+
+	private static boolean isLessUnsigned(long a, long b) {
+		return a + Long.MIN_VALUE < b + Long.MIN_VALUE;
+	}
+
+	static long mask(int width) {
+		return width >= MAX_WIDTH ? -1L : (1L << width) - 1;
+	}
+
+	static long signExtend(long value, int width) {
+		if (width >= MAX_WIDTH) {
+			return value;
+		}
+		int shift = MAX_WIDTH - width;
+		return (value << shift) >> shift;
+	}
+
+	static int[] toIntArray(Collection<Integer> integers) {
+		int[] intArray = new int[integers.size()];
+		int i = 0;
+		for (Integer integer : integers) {
+			intArray[i++] = integer;
+		}
+		return intArray;
+	}
+
+	/* Getters START */
+
+	/**
+	 * @param index index of the variable
+	 * @return value of the variable in the last simulated cycle. Values of signed variables are sign-extended.
+	 */
+	public long getValue(int index) {
+		return signed[index] ? signExtend(values[index], widths[index]) : values[index];
+	}
+
+	public int getVariableCount() {
+		return variables.length;
+	}
+
+	public int getInputCount() {
+		return inputIndices.length;
+	}
+
+	public int getInputWidth(int inputIdx) {
+		return widths[inputIndices[inputIdx]];
+	}
+
+	public int getCycle() {
+		return cycle;
+	}
+
+	public FlatModel getFlatModel() {
+		return flatModel;
+	}
+
+	public SimulationCoverage getCoverage() {
+		return coverage;
+	}
+
+	/* Getters END */
+
+	public void setCoverage(SimulationCoverage coverage) {
+		this.coverage = coverage;
+	}
+
+	private class FunctionData {
+		private final Operator operator;
+		private final int[] indices;
+		private final int[] lowest;
+		private final int[] widths;
+		private final long[] masks;
+		private final boolean[] signedOperands;
+
+		private FunctionData(FunctionVariable function) {
+			operator = function.getOperator();
+			List<RangeVariableHolder> operands = function.getOperands();
+			int size = operands.size();
+			indices = new int[size];
+			lowest = new int[size];
+			widths = new int[size];
+			masks = new long[size];
+			signedOperands = new boolean[size];
+			for (int i = 0; i < size; i++) {
+				RangeVariableHolder operand = operands.get(i);
+				int index = operand.getVariable().getIndex();
+				Range range = operand.getRange();
+				indices[i] = index;
+				lowest[i] = range == null ? 0 : range.getLowest();
+				widths[i] = range == null ? Simulator.this.widths[index] : range.length();
+				masks[i] = mask(widths[i]);
+				/* A slice of a signed variable is treated as unsigned */
+				signedOperands[i] = range == null && signed[index];
+			}
+		}
+
+		private long operand(long[] values, int i) {
+			long value = (values[indices[i]] >>> lowest[i]) & masks[i];
+			return signedOperands[i] ? signExtend(value, widths[i]) : value;
+		}
+	}
+}
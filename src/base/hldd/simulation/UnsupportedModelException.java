@@ -0,0 +1,17 @@
+package base.hldd.simulation;
+
+import base.HLDDException;
+
+/**
+ * Thrown when a model contains constructs that the in-process {@link Simulator} cannot evaluate
+ * (memories, user defined functions, variables wider than 64 bits etc.).
+ *
+ * @author Anton Chepurov
+ */
+public class UnsupportedModelException extends HLDDException {
+	private static final long serialVersionUID = 1L;
+
+	public UnsupportedModelException(String message) {
+		super(message);
+	}
+}
@@ -1,5 +1,7 @@
 package base.hldd.structure;
 
+import java.io.Serializable;
+
 /**
  * Class stores information which is stored in AGM file for the needs of the simulator.
  * <br>In AGM it is presented as the substring between brackets, for instance:
@@ -13,7 +15,9 @@ package base.hldd.structure;
  *
  * @author Anton Chepurov
  */
-public final class Flags {
+public final class Flags implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	private boolean isConstant;
 	private boolean isCout; // Control part outputs
@@ -2,10 +2,17 @@ package base.hldd.structure;
 
 import base.hldd.structure.nodes.Node;
 
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.StringWriter;
+import java.io.Writer;
+
 /**
  * @author Anton Chepurov
  */
-public class Graph {
+public class Graph implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 * Graph index
@@ -21,15 +28,29 @@ public class Graph {
 	}
 
 	public String toString() {
+		StringWriter writer = new StringWriter();
+		try {
+			writeTo(writer);
+		} catch (IOException e) {
+			throw new RuntimeException(e); /* Cannot happen when writing to memory */
+		}
+		return writer.toString();
+	}
+
+	/**
+	 * Writes the graph node by node, the same way {@link #toString()} presents it
+	 *
+	 * @param writer where to write the graph to
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void writeTo(Writer writer) throws IOException {
 		int size = getSize();
-		StringBuilder sb = new StringBuilder("GRP#\t" + index + ":  BEG =  " + rootNode.getAbsoluteIndex() + ", LEN = " + size + " -----\n");
+		writer.write("GRP#\t" + index + ":  BEG =  " + rootNode.getAbsoluteIndex() + ", LEN = " + size + " -----\n");
 
-		String[] nodesAsStrings = rootNode.toStringArray(new String[size]);
-		for (String nodeAsString : nodesAsStrings) {
-			sb.append(nodeAsString).append("\n");
+		for (Node node : rootNode.toArray(new Node[size])) {
+			writer.write(String.valueOf(node));
+			writer.write("\n");
 		}
-
-		return sb.toString();
 	}
 
 	/* Getters START */
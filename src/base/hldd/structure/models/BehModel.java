@@ -6,15 +6,20 @@ import base.hldd.structure.variables.utils.DefaultGraphVariableCreator;
 import base.hldd.structure.variables.utils.GraphVariableCreator;
 import base.hldd.visitors.SourceLocationCollector;
 import io.QuietCloser;
-import io.scan.HLDDScanner;
+import io.scan.HLDDReader;
+import parsers.hldd.BinaryModelReader;
+import parsers.hldd.BinaryModelWriter;
 import parsers.hldd.StructureBuilder;
 import parsers.hldd.StructureParser;
 import ui.ConverterSettings;
 
 import java.io.BufferedWriter;
+import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.io.Serializable;
 import java.util.*;
 
 /**
@@ -22,7 +27,9 @@ import java.util.*;
  *
  * @author Anton Chepurov
  */
-public class BehModel {
+public class BehModel implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	protected int nodeCount;
 	protected int varCount;
@@ -40,26 +47,39 @@ public class BehModel {
 
 
 	/**
-	 * @param hlddSource		   {@link io.scan.HLDDScanner#HLDDScanner(Object)}
+	 * @param hlddSource		   {@link io.scan.HLDDReader#HLDDReader(Object)}.
+	 *                             For HLDD files, the binary form written by {@link BinaryModelWriter}
+	 *                             is loaded instead, if it is up-to-date.
 	 * @param graphVariableCreator creator for {@link GraphVariable}-s.
 	 *                             By default {@link base.hldd.structure.variables.utils.DefaultGraphVariableCreator}
 	 *                             is used.
 	 * @return parsed BehModel
-	 * @throws Exception {@link io.scan.HLDDScanner#HLDDScanner(Object)}.
+	 * @throws Exception {@link io.scan.HLDDReader#HLDDReader(Object)}.
 	 */
 	public static BehModel parseHlddStructure(Object hlddSource, GraphVariableCreator graphVariableCreator) throws Exception {
+		/* Load binary form of HLDD file, if it is up-to-date */
+		if (hlddSource instanceof File) {
+			BehModel model = BinaryModelReader.loadUpToDate((File) hlddSource, graphVariableCreator);
+			if (model != null) {
+				return model;
+			}
+		}
 		/* Parse HLDD structure */
-		HLDDScanner scanner = new HLDDScanner(hlddSource);
-		StructureBuilder structureBuilder = new StructureBuilder(graphVariableCreator);
-		StructureParser parser = new StructureParser(scanner, structureBuilder);
-		parser.parse();
-		return structureBuilder.getModel();
+		HLDDReader reader = new HLDDReader(hlddSource);
+		try {
+			StructureBuilder structureBuilder = new StructureBuilder(graphVariableCreator);
+			StructureParser parser = new StructureParser(reader, structureBuilder);
+			parser.parse();
+			return structureBuilder.getModel();
+		} finally {
+			reader.close();
+		}
 	}
 
 	/**
-	 * @param hlddSource {@link io.scan.HLDDScanner#HLDDScanner(Object)}
+	 * @param hlddSource {@link io.scan.HLDDReader#HLDDReader(Object)}
 	 * @return parsed BehModel
-	 * @throws Exception .{@link io.scan.HLDDScanner#HLDDScanner (Object)}
+	 * @throws Exception .{@link io.scan.HLDDReader#HLDDReader(Object)}
 	 */
 	public static BehModel parseHlddStructure(Object hlddSource) throws Exception {
 		return parseHlddStructure(hlddSource, new DefaultGraphVariableCreator());
@@ -115,22 +135,26 @@ public class BehModel {
 		}
 	}
 
+	/**
+	 * Writes the model variable by variable and node by node, so that the whole file is never kept in memory.
+	 * The stream is closed afterwards.
+	 *
+	 * @param outputStream where to write the model to
+	 * @param comment	  comment to write before the model, or <code>null</code>
+	 * @param settings	 settings to write before the model, or <code>null</code>
+	 * @throws IOException if an I/O error occurs
+	 */
 	public void toFile(OutputStream outputStream, String comment, ConverterSettings settings) throws IOException {
-
-		String fileAsString = composeFileString(comment, settings);
-
-		writeStringToFile(outputStream, fileAsString);
-
-		QuietCloser.closeQuietly(outputStream);
-	}
-
-	private void writeStringToFile(OutputStream outputStream, String fileAsString) throws IOException {
-		BufferedWriter outBufWriter = new BufferedWriter(new OutputStreamWriter(outputStream));
-		outBufWriter.write(fileAsString);
-		outBufWriter.flush();
+		try {
+			Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream));
+			writeFile(writer, comment, settings);
+			writer.flush();
+		} finally {
+			QuietCloser.closeQuietly(outputStream);
+		}
 	}
 
-	protected String composeFileString(String comment, ConverterSettings settings) {
+	protected void writeFile(Writer writer, String comment, ConverterSettings settings) throws IOException {
 
 		StringBuilder sb = new StringBuilder();
 
@@ -160,23 +184,31 @@ public class BehModel {
 		sb.append("\n\nMODE#\t");
 		sb.append(mode == null ? "RTL" : mode);
 		sb.append("\n\n");
+		writer.write(sb.toString());
 
 		for (int i = 0; i < varCount; i++) {
 
 			if (i == inpOffset())
-				sb.append(";inputs\n");
+				writer.write(";inputs\n");
 			if (i == constOffset())
-				sb.append("\n\n;constants\n");
+				writer.write("\n\n;constants\n");
 			if (i == funcOffset())
-				sb.append("\n\n;functions\n");
+				writer.write("\n\n;functions\n");
 			if (i == graphOffset())
-				sb.append("\n\n;graphs\n");
+				writer.write("\n\n;graphs\n");
 
-			sb.append(getVariableByIndex(i)).append("\n");
+			writeVariable(writer, getVariableByIndex(i));
 
 		}
+	}
 
-		return sb.toString();
+	protected static void writeVariable(Writer writer, AbstractVariable variable) throws IOException {
+		if (variable instanceof GraphVariable) {
+			((GraphVariable) variable).writeTo(writer);
+		} else {
+			writer.write(String.valueOf(variable));
+		}
+		writer.write("\n");
 	}
 
 	/**
@@ -220,7 +252,8 @@ public class BehModel {
 		if (outputStream == null) {
 			return;
 		}
-		SourceLocationCollector sourceCollector = new SourceLocationCollector();
+		Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream));
+		SourceLocationCollector sourceCollector = new SourceLocationCollector(writer);
 		for (int index = funcOffset(), n = funcOffset() + funcCount; index < n; index++) {
 			AbstractVariable absVar = getVariableByIndex(index);
 			if (absVar instanceof FunctionVariable) {
@@ -234,7 +267,7 @@ public class BehModel {
 			}
 		}
 
-		writeStringToFile(outputStream, sourceCollector.getSourceAsString());
+		writer.flush();
 
 		QuietCloser.closeQuietly(outputStream);
 	}
@@ -269,6 +302,22 @@ public class BehModel {
 		return graphCount;
 	}
 
+	public int getInpCount() {
+		return inpCount;
+	}
+
+	public int getOutpCount() {
+		return outpCount;
+	}
+
+	public int getConstCount() {
+		return constCount;
+	}
+
+	public int getFuncCount() {
+		return funcCount;
+	}
+
 	public Collection<AbstractVariable> getVariables() {
 		return variables;
 	}
@@ -0,0 +1,304 @@
+package base.hldd.structure.models;
+
+import base.HLDDException;
+import base.Range;
+import base.hldd.structure.nodes.Node;
+import base.hldd.structure.nodes.utils.Condition;
+import base.hldd.structure.variables.AbstractVariable;
+import base.hldd.structure.variables.GraphVariable;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable array-based representation of the graphs of an indexed {@link BehModel}.
+ * <p/>
+ * Nodes are addressed by their absolute indices (as assigned by {@link Node#indexate(int)}),
+ * so that traversals run over primitive arrays instead of walking {@link Node} objects and
+ * looking up successors in {@link base.hldd.structure.nodes.utils.Successors}.
+ * <p/>
+ * Successors of a control node are stored in a jump table. If the number of condition values
+ * of the node is small, the table is dense and is indexed directly by the value of the dependent
+ * variable. Otherwise the table holds sorted values and is searched with binary search.
+ * Each entry of the table holds both the absolute index of the successor and the index of the
+ * edge (the condition) that leads to it. Edges are numbered model-wide, in the order of nodes
+ * and, within a node, in the order of its conditions.
+ *
+ * @author Anton Chepurov
+ */
+public final class FlatModel {
+
+	public static final int NO_GRAPH = -1;
+	public static final int NO_JUMP = -1;
+	public static final int NO_SUCCESSOR = -1;
+
+	/**
+	 * Largest dense jump table. Nodes with more condition values get sparse tables.
+	 */
+	private static final int DENSE_TABLE_LIMIT = 256;
+
+	private final int varCount;
+	private final int nodeCount;
+	private final int edgeCount;
+
+	/* By variable index */
+	private final int[] graphRoots;
+	private final int[] graphSizes;
+
+	/* By absolute node index */
+	private final int[] graphIndices;
+	private final int[] relativeIndices;
+	private final int[] dependentIndices;
+	private final int[] rangeLowests;
+	/**
+	 * Lengths of node ranges, or <code>0</code> if the whole dependent variable is used
+	 */
+	private final int[] rangeLengths;
+	private final int[] jumpOffsets;
+	private final int[] jumpLengths;
+	private final boolean[] sparseJumps;
+	private final int[] edgeOffsets;
+
+	/* By jump slot */
+	private final int[] jumpKeys;
+	private final int[] jumpTargets;
+	private final int[] jumpEdges;
+
+	public FlatModel(BehModel model) throws HLDDException {
+		varCount = model.getVarCount();
+		graphRoots = new int[varCount];
+		graphSizes = new int[varCount];
+		Arrays.fill(graphRoots, NO_GRAPH);
+
+		/* Collect nodes */
+		Node[] nodes = new Node[model.getNodeCount()];
+		int[] nodeGraphIndices = new int[nodes.length];
+		for (int index = model.graphOffset(); index < varCount; index++) {
+			AbstractVariable variable = model.getVariableByIndex(index);
+			if (!(variable instanceof GraphVariable)) continue;
+			GraphVariable graphVariable = (GraphVariable) variable;
+			Node rootNode = graphVariable.getGraph().getRootNode();
+			Node[] graphNodes = rootNode.toArray(null);
+			graphRoots[index] = rootNode.getAbsoluteIndex();
+			graphSizes[index] = graphNodes.length;
+			for (Node node : graphNodes) {
+				int absoluteIndex = node.getAbsoluteIndex();
+				if (absoluteIndex < 0 || absoluteIndex >= nodes.length || nodes[absoluteIndex] != null) {
+					throw new HLDDException("FlatModel: model is not indexed correctly. Node index " + absoluteIndex
+							+ " of graph " + graphVariable.getName() + " is out of bounds or duplicated");
+				}
+				nodes[absoluteIndex] = node;
+				nodeGraphIndices[absoluteIndex] = graphVariable.getGraph().getIndex();
+			}
+		}
+		nodeCount = nodes.length;
+		graphIndices = nodeGraphIndices;
+		relativeIndices = new int[nodeCount];
+		dependentIndices = new int[nodeCount];
+		rangeLowests = new int[nodeCount];
+		rangeLengths = new int[nodeCount];
+		jumpOffsets = new int[nodeCount];
+		jumpLengths = new int[nodeCount];
+		sparseJumps = new boolean[nodeCount];
+		edgeOffsets = new int[nodeCount];
+
+		/* Size jump tables */
+		int slotCount = 0;
+		int edgeCount = 0;
+		int[][][] conditionValues = new int[nodeCount][][];
+		for (int absoluteIndex = 0; absoluteIndex < nodeCount; absoluteIndex++) {
+			Node node = nodes[absoluteIndex];
+			if (node == null) {
+				throw new HLDDException("FlatModel: model is not indexed correctly. Node with index " + absoluteIndex + " is missing");
+			}
+			relativeIndices[absoluteIndex] = node.getRelativeIndex();
+			dependentIndices[absoluteIndex] = node.getDependentVariable().getIndex();
+			Range range = node.getRange();
+			if (range != null) {
+				rangeLowests[absoluteIndex] = range.getLowest();
+				rangeLengths[absoluteIndex] = range.length();
+			}
+			edgeOffsets[absoluteIndex] = edgeCount;
+			if (node.isTerminalNode()) {
+				jumpOffsets[absoluteIndex] = NO_JUMP;
+				continue;
+			}
+			int[][] nodeConditionValues = collectConditionValues(node);
+			conditionValues[absoluteIndex] = nodeConditionValues;
+			int valueCount = 0;
+			int largestValue = -1;
+			for (int[] values : nodeConditionValues) {
+				valueCount += values.length;
+				largestValue = Math.max(largestValue, values[values.length - 1]);
+			}
+			boolean isSparse = largestValue >= DENSE_TABLE_LIMIT;
+			jumpOffsets[absoluteIndex] = slotCount;
+			jumpLengths[absoluteIndex] = isSparse ? valueCount : largestValue + 1;
+			sparseJumps[absoluteIndex] = isSparse;
+			slotCount += jumpLengths[absoluteIndex];
+			edgeCount += nodeConditionValues.length;
+		}
+		this.edgeCount = edgeCount;
+
+		/* Fill jump tables */
+		jumpKeys = new int[slotCount];
+		jumpTargets = new int[slotCount];
+		jumpEdges = new int[slotCount];
+		Arrays.fill(jumpTargets, NO_SUCCESSOR);
+		Arrays.fill(jumpEdges, NO_JUMP);
+		for (int absoluteIndex = 0; absoluteIndex < nodeCount; absoluteIndex++) {
+			int[][] nodeConditionValues = conditionValues[absoluteIndex];
+			if (nodeConditionValues == null) continue;
+			Node node = nodes[absoluteIndex];
+			int offset = jumpOffsets[absoluteIndex];
+			int length = jumpLengths[absoluteIndex];
+			for (int conditionIdx = 0; conditionIdx < nodeConditionValues.length; conditionIdx++) {
+				Node successor = node.getSuccessor(node.getCondition(conditionIdx));
+				int target = successor == null ? NO_SUCCESSOR : successor.getAbsoluteIndex();
+				int edge = edgeOffsets[absoluteIndex] + conditionIdx;
+				for (int value : nodeConditionValues[conditionIdx]) {
+					int slot = sparseJumps[absoluteIndex] ? offset : offset + value;
+					jumpKeys[slot] = value;
+					jumpTargets[slot] = target;
+					jumpEdges[slot] = edge;
+					if (sparseJumps[absoluteIndex]) offset++;
+				}
+			}
+			if (sparseJumps[absoluteIndex]) {
+				sortSlots(jumpOffsets[absoluteIndex], length);
+			}
+		}
+	}
+
+	private static int[][] collectConditionValues(Node node) throws HLDDException {
+		int conditionsCount = node.getConditionsCount();
+		int[][] conditionValues = new int[conditionsCount][];
+		for (int i = 0; i < conditionsCount; i++) {
+			List<Condition> scalarConditions = node.getCondition(i).asList();
+			int[] values = new int[scalarConditions.size()];
+			int j = 0;
+			for (Condition scalarCondition : scalarConditions) {
+				values[j++] = scalarCondition.getValue();
+			}
+			Arrays.sort(values);
+			conditionValues[i] = values;
+		}
+		return conditionValues;
+	}
+
+	/**
+	 * Sorts slots of a sparse jump table by their keys (insertion sort: tables are filled condition by condition,
+	 * and values of each condition are already sorted).
+	 */
+	private void sortSlots(int offset, int length) {
+		for (int i = offset + 1; i < offset + length; i++) {
+			int key = jumpKeys[i];
+			int target = jumpTargets[i];
+			int edge = jumpEdges[i];
+			int j = i - 1;
+			while (j >= offset && jumpKeys[j] > key) {
+				jumpKeys[j + 1] = jumpKeys[j];
+				jumpTargets[j + 1] = jumpTargets[j];
+				jumpEdges[j + 1] = jumpEdges[j];
+				j--;
+			}
+			jumpKeys[j + 1] = key;
+			jumpTargets[j + 1] = target;
+			jumpEdges[j + 1] = edge;
+		}
+	}
+
+	/**
+	 * @param absoluteIndex absolute index of a control node
+	 * @param value		 value of the dependent variable of the node
+	 * @return jump slot of the edge taken with the specified value, or {@link #NO_JUMP}
+	 *         if no condition of the node contains the value
+	 */
+	public int findJump(int absoluteIndex, long value) {
+		int offset = jumpOffsets[absoluteIndex];
+		int length = jumpLengths[absoluteIndex];
+		if (value < 0 || offset == NO_JUMP) {
+			return NO_JUMP;
+		}
+		if (!sparseJumps[absoluteIndex]) {
+			return value < length && jumpEdges[offset + (int) value] != NO_JUMP ? offset + (int) value : NO_JUMP;
+		}
+		if (value > Integer.MAX_VALUE) {
+			return NO_JUMP;
+		}
+		int slot = Arrays.binarySearch(jumpKeys, offset, offset + length, (int) value);
+		return slot < 0 ? NO_JUMP : slot;
+	}
+
+	/* Getters START */
+
+	public int getVarCount() {
+		return varCount;
+	}
+
+	public int getNodeCount() {
+		return nodeCount;
+	}
+
+	public int getEdgeCount() {
+		return edgeCount;
+	}
+
+	/**
+	 * @param varIndex index of a variable
+	 * @return absolute index of the root node of the graph, or {@link #NO_GRAPH} if the variable is not a graph variable
+	 */
+	public int getGraphRoot(int varIndex) {
+		return graphRoots[varIndex];
+	}
+
+	public int getGraphSize(int varIndex) {
+		return graphSizes[varIndex];
+	}
+
+	public int getGraphIndex(int absoluteIndex) {
+		return graphIndices[absoluteIndex];
+	}
+
+	public int getRelativeIndex(int absoluteIndex) {
+		return relativeIndices[absoluteIndex];
+	}
+
+	public boolean isControlNode(int absoluteIndex) {
+		return jumpOffsets[absoluteIndex] != NO_JUMP;
+	}
+
+	public int getDependentIndex(int absoluteIndex) {
+		return dependentIndices[absoluteIndex];
+	}
+
+	public int getRangeLowest(int absoluteIndex) {
+		return rangeLowests[absoluteIndex];
+	}
+
+	/**
+	 * @param absoluteIndex absolute index of a node
+	 * @return length of the range of the dependent variable, or <code>0</code> if the node has no range
+	 */
+	public int getRangeLength(int absoluteIndex) {
+		return rangeLengths[absoluteIndex];
+	}
+
+	/**
+	 * @param absoluteIndex absolute index of a control node
+	 * @return model-wide index of the first edge of the node
+	 */
+	public int getEdgeOffset(int absoluteIndex) {
+		return edgeOffsets[absoluteIndex];
+	}
+
+	public int getJumpTarget(int slot) {
+		return jumpTargets[slot];
+	}
+
+	public int getJumpEdge(int slot) {
+		return jumpEdges[slot];
+	}
+
+	/* Getters END */
+}
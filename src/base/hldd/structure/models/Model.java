@@ -3,6 +3,8 @@ package base.hldd.structure.models;
 import base.hldd.structure.variables.AbstractVariable;
 import ui.ConverterSettings;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.Collection;
 
 /**
@@ -12,13 +14,15 @@ import java.util.Collection;
  */
 public class Model extends BehModel {
 
+	private static final long serialVersionUID = 1L;
+
 	private int coutCount;
 
 	public Model(Collection<AbstractVariable> variables) {
 		super(variables);
 	}
 
-	protected String composeFileString(String comment, ConverterSettings settings) {
+	protected void writeFile(Writer writer, String comment, ConverterSettings settings) throws IOException {
 
 		StringBuilder sb = new StringBuilder();
 
@@ -53,29 +57,28 @@ public class Model extends BehModel {
 		sb.delete(sb.length() - 2, sb.length());
 
 		sb.append("\n\nMODE#\tRTL\n\n");
+		writer.write(sb.toString());
 
 		for (int i = 0; i < varCount; i++) {
 
 			if (i == 0)
-				sb.append(";inputs\n");
+				writer.write(";inputs\n");
 			if (i == inpCount)
-				sb.append("\n\n;constants\n");
+				writer.write("\n\n;constants\n");
 			if (i == inpCount + constCount)
-				sb.append("\n\n;functions\n");
+				writer.write("\n\n;functions\n");
 			if (i == inpCount + constCount + funcCount)
-				sb.append("\n\n;state variable\n");
+				writer.write("\n\n;state variable\n");
 			if (i == inpCount + constCount + funcCount + 1)
-				sb.append("\n\n;control part outputs\n");
+				writer.write("\n\n;control part outputs\n");
 			if (i == inpCount + constCount + funcCount + coutCount)
-				sb.append("\n\n;control graph\n");
+				writer.write("\n\n;control graph\n");
 			if (i == inpCount + constCount + funcCount + coutCount + 1)
-				sb.append("\n\n;datapath graphs\n");
+				writer.write("\n\n;datapath graphs\n");
 
-			sb.append(getVariableByIndex(i)).append("\n");
+			writeVariable(writer, getVariableByIndex(i));
 
 		}
-
-		return sb.toString();
 	}
 
 	protected void addStat(AbstractVariable variable) {
@@ -1,9 +1,8 @@
 package base.hldd.structure.models.utils;
 
+import base.HLDDException;
 import base.hldd.structure.nodes.Node;
-import base.hldd.structure.nodes.utils.Utility;
 import base.hldd.structure.variables.*;
-import base.hldd.visitors.UsedFunctionsCollectorImpl;
 import base.vhdl.structure.Operator;
 import io.ConsoleWriter;
 
@@ -19,6 +18,7 @@ public abstract class AbstractModelCreator implements ModelCreator {
 	protected Collection<ConstantVariable> constants;
 	protected Collection<AbstractVariable> variables;
 	protected Collection<AbstractVariable> variablesCollection;
+	private ModelUsages usages;
 
 	public AbstractModelCreator(Collection<ConstantVariable> constants, Collection<AbstractVariable> variables,
 								ConsoleWriter consoleWriter) {
@@ -30,6 +30,9 @@ public abstract class AbstractModelCreator implements ModelCreator {
 
 	public void create() {
 
+		/* Collect usages of CONSTANTS, FUNCTIONS and GRAPHS */
+		usages = new ModelUsages(variables);
+
 		/* Remove those CONSTANTS that are not used neither in FUNCTION VARIABLES, nor in GRAPH VARIABLES */
 		removeObsoleteConstants();
 
@@ -115,35 +118,7 @@ public abstract class AbstractModelCreator implements ModelCreator {
 		LinkedList<ConstantVariable> usedConstants = new LinkedList<ConstantVariable>();
 
 		for (ConstantVariable constant : constants) {
-			boolean isUsed = false;
-
-			for (AbstractVariable variable : variables) {
-				if (variable instanceof FunctionVariable) {
-
-					FunctionVariable functionVariable = (FunctionVariable) variable;
-
-					for (RangeVariableHolder
-							operandHolder : functionVariable.getOperands()) {
-						if (operandHolder.getVariable() == constant) {
-							isUsed = true;
-							break;
-						}
-					}
-
-				} else if (variable instanceof GraphVariable) {
-
-					GraphVariable graphVariable = (GraphVariable) variable;
-					Node rootNode = graphVariable.getGraph().getRootNode();
-					if (Utility.isVariableUsedAsTerminal(rootNode, constant)) {
-						isUsed = true;
-						break;
-					}
-
-				}
-
-			}
-
-			if (isUsed) {
+			if (usages.isUsedAsOperand(constant) || usages.isUsedAsTerminal(constant)) {
 				usedConstants.add(constant);
 			}
 		}
@@ -155,25 +130,13 @@ public abstract class AbstractModelCreator implements ModelCreator {
 	private void removeObsoleteFunctions() {
 		LinkedList<AbstractVariable> usedVars = new LinkedList<AbstractVariable>();
 
-		/* Collect function usages */
-		UsedFunctionsCollectorImpl functionsCollector = new UsedFunctionsCollectorImpl();
-		for (AbstractVariable variable : variables) {
-			if (variable instanceof GraphVariable) {
-				try {
-					((GraphVariable) variable).traverse(functionsCollector);
-				} catch (Exception e) {
-					throw new RuntimeException("Error while collecting functions used by graphs: " + e.getMessage());
-				}
-			}
-		}
-
 		/* Recollect variables, leaving out unused functions */
 		for (AbstractVariable variable : variables) {
 
 			if (variable instanceof FunctionVariable) {
 
 				FunctionVariable functionVariable = (FunctionVariable) variable;
-				if (functionsCollector.isUsed(functionVariable)) {
+				if (usages.isUsedByGraph(functionVariable)) {
 					usedVars.add(variable);
 				}
 
@@ -207,6 +170,153 @@ public abstract class AbstractModelCreator implements ModelCreator {
 		}
 	}
 
+	/**
+	 * Collects usages of variables in a single traversal of every graph:
+	 * <br>- constants and other variables used as operands of functions or as terminal nodes of graphs;
+	 * <br>- functions used by graphs;
+	 * <br>- Non-Delay graphs that Non-Delay graphs depend on (see {@link GraphVariablesSorter}).
+	 */
+	private class ModelUsages {
+
+		private final Set<AbstractVariable> operandVariables = new HashSet<AbstractVariable>();
+		private final Set<AbstractVariable> terminalVariables = new HashSet<AbstractVariable>();
+		private final Set<FunctionVariable> usedFunctions = new HashSet<FunctionVariable>();
+		private final Map<GraphVariable, Set<GraphVariable>> dependenciesByVar = new HashMap<GraphVariable, Set<GraphVariable>>();
+		private final Set<String> nonInitialisedVars = new TreeSet<String>();
+
+		/* State of the graph being traversed */
+		private final Set<Node> processedNodes = new HashSet<Node>();
+		private GraphVariable currentlyProcessedVar;
+		private Set<GraphVariable> currentDependencies;
+		private boolean collectFunctions;
+
+		public ModelUsages(Collection<AbstractVariable> variables) {
+			for (AbstractVariable variable : variables) {
+				if (variable instanceof FunctionVariable) {
+					for (RangeVariableHolder operandHolder : ((FunctionVariable) variable).getOperands()) {
+						operandVariables.add(operandHolder.getVariable());
+					}
+				} else if (variable instanceof GraphVariable) {
+					collect((GraphVariable) variable);
+				}
+			}
+		}
+
+		private void collect(GraphVariable graphVariable) {
+			Node rootNode = graphVariable.getGraph().getRootNode();
+			currentlyProcessedVar = graphVariable;
+			/* For Delay graphs, no order constraints exist */
+			if (!graphVariable.isFSM() && !graphVariable.isDelay()) {
+				currentDependencies = new HashSet<GraphVariable>();
+				dependenciesByVar.put(graphVariable, currentDependencies);
+			}
+			/* Only the first branch of conditional graphs is searched for functions (speedup) */
+			collectFunctions = !graphVariable.isExpansion();
+			if (!collectFunctions) {
+				collectConditionalGraphFunctions(rootNode);
+			}
+
+			collect(rootNode);
+
+			processedNodes.clear();
+			currentlyProcessedVar = null;
+			currentDependencies = null;
+		}
+
+		private void collect(Node node) {
+			if (!processedNodes.add(node)) return; // Skip processed nodes (used in CYCLIC HLDDs)
+			AbstractVariable dependentVariable = node.getDependentVariable();
+			if (node.isTerminalNode()) {
+				terminalVariables.add(dependentVariable);
+			}
+			if (collectFunctions) {
+				addFunctionAndRecur(dependentVariable);
+			}
+			if (currentDependencies != null) {
+				addNonDelayGraph(dependentVariable, currentDependencies);
+			}
+			/* Process Control Node children */
+			if (node.isControlNode()) {
+				for (Node successor : node.getSuccessors()) {
+					collect(successor);
+				}
+			}
+		}
+
+		private void collectConditionalGraphFunctions(Node node) {
+			while (node.isControlNode()) {
+				addFunctionAndRecur(node.getDependentVariable());
+				try {
+					node = node.getSuccessor(node.getCondition(0));
+				} catch (HLDDException e) {
+					throw new RuntimeException("Error while collecting functions used by graphs: " + e.getMessage());
+				}
+			}
+		}
+
+		private void addFunctionAndRecur(AbstractVariable variable) {
+			if (variable instanceof FunctionVariable) {
+				FunctionVariable functionVariable = (FunctionVariable) variable;
+
+				usedFunctions.add(functionVariable);
+
+				for (RangeVariableHolder operand : functionVariable.getOperands()) {
+					addFunctionAndRecur(operand.getVariable());
+				}
+			}
+		}
+
+		private void addNonDelayGraph(AbstractVariable dependentVariable, Set<GraphVariable> depVarSet) {
+			/* Skip value retaining nodes (case when variable depends on itself) */
+			if (currentlyProcessedVar == dependentVariable) {
+				nonInitialisedVars.add(currentlyProcessedVar.getName());
+				return;
+			}
+			/* Skip usages of base whole variables in range variables */
+			if (isUsageOfBaseVariableInRange(dependentVariable)) return;
+			/* Check for GraphVariables and if failed --- for FunctionVariables */
+			if (dependentVariable instanceof GraphVariable && !dependentVariable.isDelay()) {
+				depVarSet.add((GraphVariable) dependentVariable);
+			} else if (dependentVariable instanceof FunctionVariable) {
+				for (RangeVariableHolder operandHolder : ((FunctionVariable) dependentVariable).getOperands()) {
+					/* Check Operands */
+					addNonDelayGraph(operandHolder.getVariable(), depVarSet);
+				}
+			}
+		}
+
+		private boolean isUsageOfBaseVariableInRange(AbstractVariable dependentVariable) {
+			if (!(dependentVariable instanceof GraphVariable)) { // Base variable is expected to be a GraphVariable with a CAT-function as the only node
+				return false;
+			}
+			GraphVariable depVar = (GraphVariable) dependentVariable;
+
+			return currentlyProcessedVar.getPureName().equals(depVar.getPureName())
+					&& currentlyProcessedVar.getBaseVariable() instanceof RangeVariable
+					&& !(depVar.getBaseVariable() instanceof RangeVariable);
+		}
+
+		public boolean isUsedAsOperand(AbstractVariable variable) {
+			return operandVariables.contains(variable);
+		}
+
+		public boolean isUsedAsTerminal(AbstractVariable variable) {
+			return terminalVariables.contains(variable);
+		}
+
+		public boolean isUsedByGraph(FunctionVariable functionVariable) {
+			return usedFunctions.contains(functionVariable);
+		}
+
+		/**
+		 * @param graphVariable Non-Delay graph
+		 * @return Non-Delay graphs the specified graph depends on
+		 */
+		public Set<GraphVariable> getDependencies(GraphVariable graphVariable) {
+			return dependenciesByVar.get(graphVariable);
+		}
+	}
+
 	/**
 	 * For Delay graphs, no order constraints exist (since their values get assigned at the end of a cycle).
 	 * <p/>
@@ -215,11 +325,6 @@ public abstract class AbstractModelCreator implements ModelCreator {
 	 */
 	protected class GraphVariablesSorter {
 
-		private Set<Node> processedNodes = new HashSet<Node>();
-		private Map<GraphVariable, Set<GraphVariable>> dependenciesByVar = new HashMap<GraphVariable, Set<GraphVariable>>();
-		private GraphVariable currentlyProcessedVar;
-		private Set<String> nonInitialisedVars = new TreeSet<String>();
-
 		/**
 		 * For Delay graphs, no order constraints exist (since their values get assigned at the end of a cycle).
 		 * <p/>
@@ -232,7 +337,7 @@ public abstract class AbstractModelCreator implements ModelCreator {
 		public List<GraphVariable> sort(Collection<AbstractVariable> variables) {
 			/* Collect 2 lists of GraphVariables */
 			List<GraphVariable> delayGraphList = new LinkedList<GraphVariable>();
-			List<GraphVariable> nonDelayGraphList = new LinkedList<GraphVariable>();
+			List<GraphVariable> nonDelayGraphList = new ArrayList<GraphVariable>();
 			for (AbstractVariable variable : variables) {
 				if (variable instanceof GraphVariable) {
 					GraphVariable graphVariable = (GraphVariable) variable;
@@ -241,160 +346,123 @@ public abstract class AbstractModelCreator implements ModelCreator {
 						delayGraphList.add(graphVariable);
 					} else {
 						nonDelayGraphList.add(graphVariable);
-						/* Collect dependent variables of nodes and map them to graph */
-						collectDependencies(graphVariable);
 					}
 				}
 			}
 			printNonInitialisedVars();
-			/* For debugging purposes: */
-//            printDependencies(nonDelayGraphList);
-			/* For debugging purposes: */
 
 			/* Sort Non-Delay Graphs list */
-			nonDelayGraphList = sortWithComparator(nonDelayGraphList);
+			List<GraphVariable> sortedList = sortWithComparator(nonDelayGraphList);
 
 			/* Add delay graphs to the ordered nonDelayList and return the latter */
-			nonDelayGraphList.addAll(delayGraphList);
+			sortedList.addAll(delayGraphList);
 
-			return nonDelayGraphList;
+			return sortedList;
 		}
 
 		private List<GraphVariable> sortWithComparator(List<GraphVariable> nonDelayGraphList) {
 			/*
 			*  The task reduces actually to the task of Topological Sort,
 			*  or, in other words, Directed Acyclic Graph (DAG) Sort.
-			*  So the implementation below is a Topological Sort of a list pre-sorted by variable names.
+			*  So the implementation below is a Topological Sort (Kahn's algorithm) of a list pre-sorted by variable names.
 			* */
 
 			/* Pre-sort list by variable names to achieve both:
 			* 1) alphabetical order of mutually independent variables;
 			* 2) deterministic behaviour of the sorting procedure for multiple invocations on the same input data.
+			* Variables are then referred to by their positions in the pre-sorted list.
 			* */
 			Collections.sort(nonDelayGraphList);
+			int size = nonDelayGraphList.size();
+			Map<GraphVariable, Integer> positionByVar = new HashMap<GraphVariable, Integer>();
+			for (int i = 0; i < size; i++) {
+				positionByVar.put(nonDelayGraphList.get(i), i);
+			}
+
+			/* Count dependencies and map every variable to the variables that depend on it */
+			int[] dependenciesCounts = new int[size];
+			Map<GraphVariable, List<Integer>> dependentsByVar = new HashMap<GraphVariable, List<Integer>>();
+			PriorityQueue<Integer> noDependenciesQueue = new PriorityQueue<Integer>();
+			for (int i = 0; i < size; i++) {
+				Set<GraphVariable> dependencies = usages.getDependencies(nonDelayGraphList.get(i));
+				dependenciesCounts[i] = dependencies.size();
+				for (GraphVariable dependency : dependencies) {
+					List<Integer> dependents = dependentsByVar.get(dependency);
+					if (dependents == null) {
+						dependents = new ArrayList<Integer>();
+						dependentsByVar.put(dependency, dependents);
+					}
+					dependents.add(i);
+				}
+				if (dependenciesCounts[i] == 0) {
+					noDependenciesQueue.add(i);
+				}
+			}
 
 			/* Sort Topologically */
-			LinkedList<GraphVariable> sortedList = new LinkedList<GraphVariable>();
-			while (!nonDelayGraphList.isEmpty()) {
+			TreeSet<Integer> unsortedPositions = new TreeSet<Integer>(positionByVar.values());
+			List<GraphVariable> sortedList = new ArrayList<GraphVariable>(size);
+			while (!unsortedPositions.isEmpty()) {
 
 				/* Get next variable without dependencies */
-				GraphVariable noDependenciesVar = null;
-				for (GraphVariable variable : nonDelayGraphList) {
-					if (hasNoDependencies(variable)) {
-						noDependenciesVar = variable;
-						dependenciesByVar.remove(noDependenciesVar); /* Remove from map to speedup all requests to dependenciesByVar */
-						break;
-					}
-				}
-				if (noDependenciesVar == null) {
-					noDependenciesVar = nonDelayGraphList.get(0);
-					printDependencies(nonDelayGraphList);
+				Integer position = noDependenciesQueue.poll();
+				if (position == null) {
+					position = unsortedPositions.first();
+					printDependencies(nonDelayGraphList, positionByVar, dependenciesCounts, unsortedPositions);
 					LOGGER.warning(getClass().getSimpleName() +
 							": Cyclic dependency found when ordering Non-Delay GraphVariables." +
 							"\n(NonDelayGraphList is not empty, but doesn't contain a variable WITHOUT dependencies)." +
 							"\nTaking first var from NonDelayGraphList (sorted alphabetically).");
 				}
+				GraphVariable noDependenciesVar = nonDelayGraphList.get(position);
 
 				/* Add to sorted list */
 				sortedList.add(noDependenciesVar);
 				/* Remove from input list */
-				nonDelayGraphList.remove(noDependenciesVar);
+				unsortedPositions.remove(position);
 				/* Remove from other variables' dependencies */
-				for (Set<GraphVariable> dependencies : dependenciesByVar.values()) {
-					dependencies.remove(noDependenciesVar);
+				List<Integer> dependents = dependentsByVar.get(noDependenciesVar);
+				if (dependents != null) {
+					for (Integer dependent : dependents) {
+						/* Variables taken because of a cyclic dependency are sorted already */
+						if (--dependenciesCounts[dependent] == 0 && unsortedPositions.contains(dependent)) {
+							noDependenciesQueue.add(dependent);
+						}
+					}
 				}
 			}
 
 			return sortedList;
 		}
 
-		private boolean hasNoDependencies(GraphVariable variable) {
-			return dependenciesByVar.get(variable).isEmpty();
-		}
-
-		private void printDependencies(List<GraphVariable> nonDelayGraphList) {
+		private void printDependencies(List<GraphVariable> nonDelayGraphList, Map<GraphVariable, Integer> positionByVar,
+									   int[] dependenciesCounts, Set<Integer> unsortedPositions) {
 			System.out.println("Cyclic dependency => Taking first var from NonDelayGraphList (sorted alphabetically).");
 			int i = 0;
-			for (GraphVariable graphVariable : dependenciesByVar.keySet()) {
-				Set<GraphVariable> set = dependenciesByVar.get(graphVariable);
-				if (!set.isEmpty()) {
+			for (Integer position : unsortedPositions) {
+				if (dependenciesCounts[position] > 0) {
 					i++;
+					GraphVariable graphVariable = nonDelayGraphList.get(position);
 					System.out.print(graphVariable.getName() + ":   ");
-					for (GraphVariable depVar : set) {
-						System.out.print(depVar.getName() + ", ");
+					for (GraphVariable depVar : usages.getDependencies(graphVariable)) {
+						/* Skip sorted variables */
+						Integer depVarPosition = positionByVar.get(depVar);
+						if (depVarPosition == null || unsortedPositions.contains(depVarPosition)) {
+							System.out.print(depVar.getName() + ", ");
+						}
 					}
 					System.out.println("");
 				}
 			}
-			System.out.println("Non-Delay Graph list size: " + nonDelayGraphList.size() + "; Graphs with Non-Delay dependent variables: " + i);
-		}
-
-		/**
-		 * Collect Non-Delay dependent variables of nodes and map them to graph
-		 *
-		 * @param graphVariable where to look for dependencies
-		 */
-		private void collectDependencies(GraphVariable graphVariable) {
-			/* Create an empty set of dependent variables and map it to graph */
-			Set<GraphVariable> depVarSet = new HashSet<GraphVariable>();
-			dependenciesByVar.put(graphVariable, depVarSet);
-			currentlyProcessedVar = graphVariable;
-			/* Iterate nodes of the graphVariable and add Non-Delay dependent variables to the set */
-			collectNonDelayDepVars(depVarSet, graphVariable.getGraph().getRootNode());
-			processedNodes = new HashSet<Node>(); /* Free memory and speedup contains() check */
-			currentlyProcessedVar = null;
-		}
-
-		private void collectNonDelayDepVars(Set<GraphVariable> depVarSet, Node rootNode) {
-			/* Collect Non-Delay dependent variable */
-			if (processedNodes.contains(rootNode)) return; // Skip processed nodes (used in CYCLIC HLDDs)
-			AbstractVariable dependentVariable = rootNode.getDependentVariable();
-			addNonDelayGraph(dependentVariable, depVarSet);
-			processedNodes.add(rootNode); // Mark node as processed
-			/* Process Control Node children */
-			if (rootNode.isControlNode()) {
-				for (Node successor : rootNode.getSuccessors()) {
-					collectNonDelayDepVars(depVarSet, successor);
-				}
-			}
-		}
-
-		private void addNonDelayGraph(AbstractVariable dependentVariable, Set<GraphVariable> depVarSet) {
-			/* Skip value retaining nodes (case when variable depends on itself) */
-			if (currentlyProcessedVar == dependentVariable) {
-				nonInitialisedVars.add(currentlyProcessedVar.getName());
-				return;
-			}
-			/* Skip usages of base whole variables in range variables */
-			if (isUsageOfBaseVariableInRange(dependentVariable)) return;
-			/* Check for GraphVariables and if failed --- for FunctionVariables */
-			if (dependentVariable instanceof GraphVariable && !dependentVariable.isDelay()) {
-				depVarSet.add((GraphVariable) dependentVariable);
-			} else if (dependentVariable instanceof FunctionVariable) {
-				for (RangeVariableHolder operandHolder : ((FunctionVariable) dependentVariable).getOperands()) {
-					/* Check Operands */
-					addNonDelayGraph(operandHolder.getVariable(), depVarSet);
-				}
-			}
-		}
-
-		private boolean isUsageOfBaseVariableInRange(AbstractVariable dependentVariable) {
-			if (!(dependentVariable instanceof GraphVariable)) { // Base variable is expected to be a GraphVariable with a CAT-function as the only node
-				return false;
-			}
-			GraphVariable depVar = (GraphVariable) dependentVariable;
-
-			return currentlyProcessedVar.getPureName().equals(depVar.getPureName())
-					&& currentlyProcessedVar.getBaseVariable() instanceof RangeVariable
-					&& !(depVar.getBaseVariable() instanceof RangeVariable);
+			System.out.println("Non-Delay Graph list size: " + unsortedPositions.size() + "; Graphs with Non-Delay dependent variables: " + i);
 		}
 
 		private void printNonInitialisedVars() {
-			if (nonInitialisedVars.isEmpty()) {
+			if (usages.nonInitialisedVars.isEmpty()) {
 				return;
 			}
 			consoleWriter.newLine();
-			for (String varName : nonInitialisedVars) {
+			for (String varName : usages.nonInitialisedVars) {
 				consoleWriter.warning("Non-delay variable " + varName + " reads itself (is not initialised).");
 			}
 		}
@@ -5,18 +5,86 @@ import base.hldd.structure.variables.AbstractVariable;
 import base.hldd.structure.variables.ConstantVariable;
 import base.vhdl.structure.ComponentDeclaration;
 import base.vhdl.structure.ComponentInstantiation;
+import base.vhdl.structure.Constant;
 import ui.ConverterSettings;
 import ui.ExtendedException;
+import ui.FileDependencyResolver;
 import ui.utils.ConvertingWorker;
 
-import java.io.File;
-import java.util.concurrent.ExecutionException;
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
 
 /**
+ * Converts components into models to be merged into the models of their parents.
+ * <p/>
+ * Converted models are cached by the source file of the component, the converter settings and the generics of the
+ * instantiation, so that a component instantiated several times (or by consecutive conversions in the same JVM) is
+ * converted once. Every load gets its own deep copy of the cached model, since the parent renames and merges the
+ * variables of the loaded model. The copy is made by deserializing the model serialized right after the conversion.
+ * A cached model is converted again once any of the source, config and package files it has been converted from
+ * changes. At most {@link #MAX_CACHED_COMPONENTS} components are cached, so that a long running session converting
+ * many designs doesn't keep all their models in memory.
+ *
  * @author Anton Chepurov
  */
 public class ComponentLoader {
 
+	private static final Logger LOGGER = Logger.getLogger(ComponentLoader.class.getName());
+
+	static final int MAX_CACHED_COMPONENTS = 128;
+
+	private static final ConcurrentMap<ComponentKey, Future<ConvertedComponent>> convertedComponents = new ConcurrentHashMap<ComponentKey, Future<ConvertedComponent>>();
+
+	/**
+	 * Runs preloading conversions. Daemon threads, so that pending preloads don't keep the JVM running.
+	 */
+	private static final ExecutorService preloader = Executors.newFixedThreadPool(
+			Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "ComponentLoader preloader");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+
+	/**
+	 * Number of conversions of components run so far
+	 */
+	private static final AtomicInteger conversionCount = new AtomicInteger();
+
+	/**
+	 * Starts converting the components that are neither cached nor being converted yet, by a pool of as many threads
+	 * as there are processors. The models are then obtained by
+	 * {@link #loadModel(ComponentInstantiation, ConverterSettings)} as usual, which converts a component itself if
+	 * its preload hasn't started yet.
+	 *
+	 * @param components   components to convert
+	 * @param baseSettings settings of the parent model
+	 * @throws ExtendedException if settings cannot be created for a component
+	 */
+	public static void preloadModels(Collection<ComponentInstantiation> components, ConverterSettings baseSettings) throws ExtendedException {
+
+		for (ComponentInstantiation component : components) {
+
+			File sourceFile = component.getDeclaration().getSourceFile();
+
+			if (sourceFile == null) {
+				continue; // reported when loaded
+			}
+
+			ConverterSettings settings = new ConverterSettings.Builder(baseSettings, sourceFile).build();
+
+			FutureTask<ConvertedComponent> conversion = registerConversion(new ComponentKey(settings, component.getGenerics()), component.getGenerics());
+
+			if (conversion != null) {
+				preloader.execute(conversion);
+			}
+		}
+	}
+
 	public static BehModel loadModel(ComponentInstantiation component, ConverterSettings baseSettings) throws ExtendedException {
 
 		ComponentDeclaration componentDeclaration = component.getDeclaration();
@@ -32,7 +100,16 @@ public class ComponentLoader {
 
 			ConverterSettings settings = new ConverterSettings.Builder(baseSettings, sourceFile).build();
 
-			BehModel model = ConvertingWorker.convertInSeparateThreadAndWait(settings, component.getGenerics());
+			ConvertedComponent convertedComponent = getConvertedComponent(new ComponentKey(settings, component.getGenerics()), component.getGenerics());
+
+			BehModel model = convertedComponent.takeModel();
+
+			if (model == null) {
+				/* Model cannot be copied, so convert it once again */
+				model = ConvertingWorker.convertInSeparateThreadAndWait(settings, copyOf(component.getGenerics()));
+			} else {
+				settings = convertedComponent.settings;
+			}
 
 			new PrefixAdder(model, component).addPrefix(component.getName());
 
@@ -49,6 +126,289 @@ public class ComponentLoader {
 		}
 	}
 
+	private static ConvertedComponent getConvertedComponent(ComponentKey key, Collection<Constant> generics) throws InterruptedException, ExecutionException {
+
+		while (true) {
+
+			Future<ConvertedComponent> conversion = registerConversion(key, generics);
+
+			if (conversion == null) {
+				conversion = convertedComponents.get(key);
+				if (conversion == null) {
+					continue; // removed as outdated in the meantime
+				}
+			}
+			/* Run the conversion here unless it has been started already: a preload may be queued behind conversions
+			 * that wait for this one, so waiting for the preloader could dead-lock */
+			((FutureTask<ConvertedComponent>) conversion).run();
+
+			try {
+				ConvertedComponent convertedComponent = conversion.get();
+				if (convertedComponent.isUpToDate()) {
+					return convertedComponent;
+				}
+				convertedComponents.remove(key, conversion);
+			} catch (ExecutionException e) {
+				/* Failures are not cached */
+				convertedComponents.remove(key, conversion);
+				throw e;
+			}
+		}
+	}
+
+	/**
+	 * @param key	  key of the component
+	 * @param generics generics of the component
+	 * @return new conversion of the component that has to be run by the caller, or <code>null</code> if the component
+	 *         is either cached or being converted already
+	 */
+	private static FutureTask<ConvertedComponent> registerConversion(ComponentKey key, Collection<Constant> generics) {
+
+		Future<ConvertedComponent> conversion = convertedComponents.get(key);
+
+		if (conversion != null) {
+			if (!isOutdated(conversion)) {
+				return null;
+			}
+			convertedComponents.remove(key, conversion);
+		}
+
+		FutureTask<ConvertedComponent> newConversion = new FutureTask<ConvertedComponent>(new Conversion(key.settings, copyOf(generics)));
+
+		if (convertedComponents.putIfAbsent(key, newConversion) != null) {
+			return null;
+		}
+		limitCacheSize(key);
+		return newConversion;
+	}
+
+	/**
+	 * Drops completed conversions other than the one of the specified component, until at most
+	 * {@link #MAX_CACHED_COMPONENTS} components are cached. Conversions in progress are never dropped,
+	 * since their models are being waited for.
+	 *
+	 * @param keptKey key of the component that has just been registered
+	 */
+	private static void limitCacheSize(ComponentKey keptKey) {
+		for (Iterator<Map.Entry<ComponentKey, Future<ConvertedComponent>>> iterator = convertedComponents.entrySet().iterator();
+			 convertedComponents.size() > MAX_CACHED_COMPONENTS && iterator.hasNext(); ) {
+			Map.Entry<ComponentKey, Future<ConvertedComponent>> entry = iterator.next();
+			if (entry.getValue().isDone() && !entry.getKey().equals(keptKey)) {
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * @return number of conversions of components run so far
+	 */
+	static int getConversionCount() {
+		return conversionCount.get();
+	}
+
+	private static boolean isOutdated(Future<ConvertedComponent> conversion) {
+		if (!conversion.isDone()) {
+			return false;
+		}
+		try {
+			return !conversion.get().isUpToDate();
+		} catch (InterruptedException e) {
+			return true;
+		} catch (ExecutionException e) {
+			return true;
+		}
+	}
+
+	/**
+	 * The converter renames the generics it is given, so every conversion gets a collection of its own
+	 */
+	private static Collection<Constant> copyOf(Collection<Constant> generics) {
+		return generics == null ? null : new ArrayList<Constant>(generics);
+	}
+
+	/**
+	 * @param sourceFile file the component is converted from
+	 * @return stamps of the files of components converted from the specified file and cached already
+	 */
+	private static Map<File, Long> collectCachedStamps(File sourceFile) {
+		Map<File, Long> stamps = new HashMap<File, Long>();
+		for (Map.Entry<ComponentKey, Future<ConvertedComponent>> entry : convertedComponents.entrySet()) {
+			if (!entry.getKey().settings.getSourceFile().equals(sourceFile) || !entry.getValue().isDone()) {
+				continue;
+			}
+			try {
+				stamps.putAll(entry.getValue().get().stamps);
+			} catch (InterruptedException e) {
+				/* not cached */
+			} catch (ExecutionException e) {
+				/* not cached */
+			}
+		}
+		return stamps;
+	}
+
+	private static class ComponentKey {
+
+		private final ConverterSettings settings;
+
+		/**
+		 * Generics as <code>NAME=value:type</code>, ordered by names
+		 */
+		private final List<String> generics = new ArrayList<String>();
+
+		private ComponentKey(ConverterSettings settings, Collection<Constant> generics) {
+			this.settings = settings;
+			if (generics != null) {
+				for (Constant generic : generics) {
+					this.generics.add(generic.getName().toUpperCase(Locale.ENGLISH) + "=" + generic.getValue() + ":" + generic.getType());
+				}
+				Collections.sort(this.generics);
+			}
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) return true;
+			if (obj == null || getClass() != obj.getClass()) return false;
+
+			ComponentKey key = (ComponentKey) obj;
+
+			return settings.equals(key.settings) && generics.equals(key.generics);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * settings.hashCode() + generics.hashCode();
+		}
+	}
+
+	private static class Conversion implements Callable<ConvertedComponent> {
+
+		private final ConverterSettings settings;
+
+		private final Collection<Constant> generics;
+
+		private Conversion(ConverterSettings settings, Collection<Constant> generics) {
+			this.settings = settings;
+			this.generics = generics;
+		}
+
+		@Override
+		public ConvertedComponent call() throws Exception {
+
+			conversionCount.incrementAndGet();
+
+			/* Stamp the files before converting them, so that the ones changed during conversion are converted again */
+			Map<File, Long> stamps = new HashMap<File, Long>();
+			stamp(settings.getSourceFile(), stamps);
+
+			BehModel model = ConvertingWorker.convertInSeparateThreadAndWait(settings, generics);
+
+			/* Nested components have been loaded through the cache */
+			for (File nestedSourceFile : settings.getSourceFiles()) {
+				stamps.putAll(collectCachedStamps(nestedSourceFile));
+				stamp(nestedSourceFile, stamps);
+			}
+			/* Packages are known after the source file has been parsed */
+			for (File packageFile : settings.getPackageFiles()) {
+				stamps.put(packageFile, packageFile.lastModified());
+			}
+
+			return new ConvertedComponent(settings, model, stamps);
+		}
+
+		private static void stamp(File sourceFile, Map<File, Long> stamps) {
+			stamps.put(sourceFile, sourceFile.lastModified());
+			String configFilePath = FileDependencyResolver.deriveFilePathFrom(sourceFile, "config");
+			if (configFilePath != null) {
+				File configFile = new File(configFilePath);
+				stamps.put(configFile, configFile.lastModified());
+			}
+		}
+	}
+
+	private static class ConvertedComponent {
+
+		/**
+		 * Settings the model has been converted with, including the source files of the nested components
+		 */
+		private final ConverterSettings settings;
+
+		/**
+		 * Modification times of the files the model has been converted from
+		 */
+		private final Map<File, Long> stamps;
+
+		/**
+		 * Model to give out by the first load, so that it is not copied unnecessarily
+		 */
+		private BehModel model;
+
+		/**
+		 * Serialized model to copy from, or <code>null</code> if the model cannot be copied
+		 */
+		private final byte[] serializedModel;
+
+		private ConvertedComponent(ConverterSettings settings, BehModel model, Map<File, Long> stamps) {
+			this.settings = settings;
+			this.model = model;
+			this.stamps = stamps;
+			this.serializedModel = serialize(model);
+		}
+
+		/**
+		 * @return the converted model on the first call, and its copies afterwards,
+		 *         or <code>null</code> if the model has been taken and cannot be copied
+		 * @throws ExecutionException if the model cannot be copied
+		 */
+		private synchronized BehModel takeModel() throws ExecutionException {
+			if (model != null) {
+				BehModel takenModel = model;
+				model = null;
+				return takenModel;
+			}
+			return serializedModel == null ? null : deserialize(serializedModel);
+		}
+
+		private boolean isUpToDate() {
+			for (Map.Entry<File, Long> entry : stamps.entrySet()) {
+				if (entry.getKey().lastModified() != entry.getValue()) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private static byte[] serialize(BehModel model) {
+			try {
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				ObjectOutputStream out = new ObjectOutputStream(bytes);
+				out.writeObject(model);
+				out.close();
+				return bytes.toByteArray();
+			} catch (IOException e) {
+				/* E.g. NotSerializableException for a variable type that doesn't support copying */
+				LOGGER.fine("Converted component will not be cached: " + e.getMessage());
+				return null;
+			}
+		}
+
+		private static BehModel deserialize(byte[] serializedModel) throws ExecutionException {
+			try {
+				ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serializedModel));
+				try {
+					return (BehModel) in.readObject();
+				} finally {
+					in.close();
+				}
+			} catch (IOException e) {
+				throw new ExecutionException(e);
+			} catch (ClassNotFoundException e) {
+				throw new ExecutionException(e);
+			}
+		}
+	}
+
 	private static class PrefixAdder {
 
 		private final BehModel model;
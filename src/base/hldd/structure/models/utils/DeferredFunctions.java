@@ -0,0 +1,113 @@
+package base.hldd.structure.models.utils;
+
+import base.hldd.structure.variables.FunctionVariable;
+
+import java.util.*;
+
+/**
+ * Functions that are created while graphs of multiple variables are generated in a single traversal,
+ * but would be created by a later graph, if the graphs were generated one by one.
+ * <p/>
+ * Functions get their name indices in the order they are added to the model. So functions created for the 2nd graph
+ * are kept here until all the functions of the 1st graph have been created etc. A function belongs to the earliest
+ * graph that requests it. Within a graph, functions are kept in the order they are requested.
+ *
+ * @author Anton Chepurov
+ */
+class DeferredFunctions {
+
+	private final List<List<FunctionVariable>> functionsByGraph = new ArrayList<List<FunctionVariable>>();
+	/**
+	 * Order numbers of the graphs the functions belong to
+	 */
+	private final Map<FunctionVariable, Integer> graphIndices = new IdentityHashMap<FunctionVariable, Integer>();
+	/**
+	 * Functions by their structural hash (see {@link VariableIndex#hash(base.hldd.structure.variables.AbstractVariable)})
+	 */
+	private final Map<Integer, List<FunctionVariable>> functionsByHash = new HashMap<Integer, List<FunctionVariable>>();
+
+	/**
+	 * @param function function to add
+	 * @param graphIdx order number of the graph that requests the function
+	 */
+	public void add(FunctionVariable function, int graphIdx) {
+		int hash = VariableIndex.hash(function);
+		List<FunctionVariable> functions = functionsByHash.get(hash);
+		if (functions == null) {
+			functions = new ArrayList<FunctionVariable>(1);
+			functionsByHash.put(hash, functions);
+		}
+		functions.add(function);
+		addToGraph(function, graphIdx);
+	}
+
+	/**
+	 * Moves the function to an earlier graph that requests it.
+	 *
+	 * @param function function to move
+	 * @param graphIdx order number of the graph that requests the function
+	 */
+	public void move(FunctionVariable function, int graphIdx) {
+		/* The function is skipped in the list of its previous graph, see getFunctions() */
+		addToGraph(function, graphIdx);
+	}
+
+	private void addToGraph(FunctionVariable function, int graphIdx) {
+		while (functionsByGraph.size() <= graphIdx) {
+			functionsByGraph.add(new ArrayList<FunctionVariable>());
+		}
+		functionsByGraph.get(graphIdx).add(function);
+		graphIndices.put(function, graphIdx);
+	}
+
+	public void remove(FunctionVariable function) {
+		graphIndices.remove(function);
+		List<FunctionVariable> functions = functionsByHash.get(VariableIndex.hash(function));
+		for (Iterator<FunctionVariable> iterator = functions.iterator(); iterator.hasNext(); ) {
+			if (iterator.next() == function) {
+				iterator.remove();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * @param functionToFind function to search for
+	 * @return deferred function that is identical to the specified one, or <code>null</code> if none is identical
+	 */
+	public FunctionVariable getIdenticalFunction(FunctionVariable functionToFind) {
+		List<FunctionVariable> functions = functionsByHash.get(VariableIndex.hash(functionToFind));
+		if (functions != null) {
+			for (FunctionVariable function : functions) {
+				if (function.isIdenticalTo(functionToFind)) {
+					return function;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @param function deferred function
+	 * @return order number of the graph the function belongs to
+	 */
+	public int getGraphIdx(FunctionVariable function) {
+		return graphIndices.get(function);
+	}
+
+	/**
+	 * @return deferred functions graph by graph, in the order they have been requested within every graph
+	 */
+	public List<FunctionVariable> getFunctions() {
+		List<FunctionVariable> orderedFunctions = new ArrayList<FunctionVariable>(graphIndices.size());
+		for (int graphIdx = 0; graphIdx < functionsByGraph.size(); graphIdx++) {
+			for (FunctionVariable function : functionsByGraph.get(graphIdx)) {
+				Integer functionGraphIdx = graphIndices.get(function);
+				if (functionGraphIdx != null && functionGraphIdx == graphIdx) {
+					orderedFunctions.add(function);
+				}
+			}
+		}
+		return orderedFunctions;
+	}
+}
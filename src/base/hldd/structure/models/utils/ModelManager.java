@@ -18,9 +18,18 @@ import java.util.*;
 public class ModelManager implements TypeResolver {
 
 	private VariableManager variableManager;
+	private final VariableUsageIndex usageIndex = new VariableUsageIndex();
 
 	private ConstantVariable constant0;
 	private ConstantVariable constant1;
+	/**
+	 * Functions of later graphs, while graphs of multiple variables are generated in a single traversal
+	 */
+	private DeferredFunctions deferredFunctions;
+	/**
+	 * Order number of the graph the functions requested next belong to
+	 */
+	private int graphIdx;
 
 	public ModelManager() {
 		variableManager = new VariableManager();
@@ -28,10 +37,12 @@ public class ModelManager implements TypeResolver {
 
 	public void addVariable(AbstractVariable newVariable) {
 		variableManager.addVariable(newVariable);
+		usageIndex.addUser(newVariable);
 	}
 
 	public void addVariable(String varName, AbstractVariable newVariable) {
 		variableManager.addVariable(varName, newVariable);
+		usageIndex.addUser(newVariable);
 	}
 
 	public void removeVariable(AbstractVariable variableToRemove) {
@@ -65,6 +76,12 @@ public class ModelManager implements TypeResolver {
 
 		/* Replace base variable */
 		((GraphVariable) variableToRebase).setBaseVariable(newBaseVariable);
+		/* Functions that use the old variable are hashed by its base variable, so rehash them */
+		for (AbstractVariable user : usageIndex.getUsers(variableToRebase)) {
+			if (user instanceof FunctionVariable) {
+				variableManager.updateVariable(user);
+			}
+		}
 		/* ReAdd updated old variable to hash */
 		addVariable(variableToRebase);
 
@@ -91,8 +108,13 @@ public class ModelManager implements TypeResolver {
 		}
 
 		AbstractVariable replacingVariable = flattenToBits ? null : replacingVarHolder.getVariable();
-		/* Replace old variable with new one in Functions and GraphVariables */
-		for (AbstractVariable absVariable : variableManager.getVariables()) {
+		/* Replace old variable with new one in Functions and GraphVariables that use it */
+		for (AbstractVariable absVariable : usageIndex.removeUsers(variableToReplace)) {
+
+			/* Skip users that are not part of the model anymore */
+			if (variableManager.getVariableByName(absVariable.getName()) != absVariable) {
+				continue;
+			}
 
 			if (absVariable instanceof FunctionVariable) {
 				FunctionVariable functionVariable = (FunctionVariable) absVariable;
@@ -109,8 +131,10 @@ public class ModelManager implements TypeResolver {
 								operand.setRange(replacingVarHolder.getRange());
 							}
 						}
+						usageIndex.addUse(operand.getVariable(), functionVariable);
 					}
 				}
+				variableManager.updateVariable(functionVariable);
 
 			} else if (absVariable instanceof GraphVariable) {
 				GraphVariable graphVariable = (GraphVariable) absVariable;
@@ -123,6 +147,13 @@ public class ModelManager implements TypeResolver {
 					throw new RuntimeException("Error while traversing GraphVariable with DependentVariableReplacer: "
 							+ e.getMessage(), e); /* should never happen */
 				}
+				if (flattenToBits) {
+					for (int i = 0; i <= variableToReplace.getLength().getHighest(); i++) {
+						usageIndex.addUse(generateBitRangeVariable(variableToReplace, new Range(i, i)), graphVariable);
+					}
+				} else {
+					usageIndex.addUse(replacingVariable, graphVariable);
+				}
 			}
 		}
 	}
@@ -619,36 +650,92 @@ public class ModelManager implements TypeResolver {
 	/**
 	 * Returns either an identical variable already residing in the collector
 	 * or the variableToFind, previously adding it to collector.
-	 * todo: internals of this method should be moved to VariableManager
 	 *
 	 * @param variableToFind variable to search for amongst existent variables
 	 * @return an existent identical variable or the desired variable if an existent is not found
 	 */
 	AbstractVariable getIdenticalVariable(AbstractVariable variableToFind) {
 
-		if (variableToFind instanceof ConstantVariable) {
-			/* Search amongst CONSTANTS */
-			for (ConstantVariable constVariable : variableManager.getConstants()) {
-				if (constVariable.isIdenticalTo(variableToFind)) {
-					return constVariable;
-				}
-			}
-		} else {
-			/* Search amongst VARIABLES */
-			for (AbstractVariable variable : variableManager.getVariables()) {
-				if (variable.isIdenticalTo(variableToFind)) {
-					copySourceToFunction(variableToFind, variable);
-					return variable;
-				}
+		/* Search amongst CONSTANTS or VARIABLES */
+		AbstractVariable variable = variableManager.getIdenticalVariable(variableToFind);
+		if (variable == null && isDeferrable(variableToFind)) {
+			variable = getIdenticalDeferredFunction((FunctionVariable) variableToFind);
+		}
+		if (variable != null) {
+			if (!(variable instanceof ConstantVariable)) {
+				copySourceToFunction(variableToFind, variable);
 			}
+			return variable;
 		}
 
 		/* Identical variable was not found,
-		* so add the desired variable to the variables and return it */
-		addVariable(variableToFind);
+		* so add the desired variable to the variables (or defer it for a later graph) and return it */
+		if (isDeferrable(variableToFind) && graphIdx > 0) {
+			deferredFunctions.add((FunctionVariable) variableToFind, graphIdx);
+		} else {
+			addVariable(variableToFind);
+		}
 		return variableToFind;
 	}
 
+	private boolean isDeferrable(AbstractVariable variable) {
+		return deferredFunctions != null && variable instanceof FunctionVariable
+				&& ((FunctionVariable) variable).getOperator() != Operator.ARRAY;
+	}
+
+	private FunctionVariable getIdenticalDeferredFunction(FunctionVariable functionToFind) {
+		FunctionVariable function = deferredFunctions.getIdenticalFunction(functionToFind);
+		if (function != null && deferredFunctions.getGraphIdx(function) > graphIdx) {
+			/* An earlier graph requests the function, so it's created by that graph */
+			if (graphIdx == 0) {
+				deferredFunctions.remove(function);
+				addDeferredFunction(function);
+			} else {
+				deferredFunctions.move(function, graphIdx);
+			}
+		}
+		return function;
+	}
+
+	private void addDeferredFunction(FunctionVariable function) {
+		/* Name the function as if it was created now */
+		function.setNameIdx(function instanceof UserDefinedFunctionVariable
+				? generateUDFunctionNameIdx(((UserDefinedFunctionVariable) function).getUserDefinedOperator())
+				: generateFunctionNameIdx(function.getOperator()));
+		addVariable(function);
+	}
+
+	/**
+	 * Starts deferring functions that are created for graphs other than the first one
+	 * (see {@link #setGraphIdx(int)}), while graphs of multiple variables are generated
+	 * in a single traversal. Deferred functions are not added to the model until
+	 * {@link #addDeferredFunctions()} is called, so that functions get the same names
+	 * as if the graphs were generated one by one.
+	 */
+	public void deferFunctions() {
+		deferredFunctions = new DeferredFunctions();
+		graphIdx = 0;
+	}
+
+	/**
+	 * @param graphIdx order number of the graph the functions requested next belong to
+	 */
+	public void setGraphIdx(int graphIdx) {
+		this.graphIdx = graphIdx;
+	}
+
+	/**
+	 * Stops deferring functions and adds the deferred ones to the model, graph by graph.
+	 */
+	public void addDeferredFunctions() {
+		List<FunctionVariable> functions = deferredFunctions.getFunctions();
+		deferredFunctions = null;
+		graphIdx = 0;
+		for (FunctionVariable function : functions) {
+			addDeferredFunction(function);
+		}
+	}
+
 	private void copySourceToFunction(AbstractVariable variableToFind, AbstractVariable variable) {
 		if (variableToFind instanceof FunctionVariable) {
 
@@ -770,22 +857,11 @@ public class ModelManager implements TypeResolver {
 	 * @return the order number of the function
 	 */
 	private int generateFunctionNameIdx(Operator operator) {
-		return deriveNextIdx(variableManager.getFunctions(operator));
+		return variableManager.generateFunctionNameIdx(operator);
 	}
 
 	private int generateUDFunctionNameIdx(String userDefinedOperator) {
-		return deriveNextIdx(variableManager.getUDFunctions(userDefinedOperator));
-	}
-
-	private int deriveNextIdx(Collection<FunctionVariable> functions) {
-		int largestIndexUsed = -1;
-		for (FunctionVariable functionVariable : functions) {
-			int nameIndex = functionVariable.getNameIdx();
-			if (nameIndex > largestIndexUsed) {
-				largestIndexUsed = nameIndex;
-			}
-		}
-		return largestIndexUsed == -1 ? 1 : largestIndexUsed + 1;
+		return variableManager.generateUDFunctionNameIdx(userDefinedOperator);
 	}
 
 	public Collection<ConstantVariable> getConstants() {
@@ -807,6 +883,8 @@ public class ModelManager implements TypeResolver {
 	/* AUXILIARY classes */
 
 	public class CompositeFunctionVariable extends FunctionVariable {
+		private static final long serialVersionUID = 1L;
+
 		private Operator compositeOperator;
 		private RangeVariableHolder[] functionVariables;
 
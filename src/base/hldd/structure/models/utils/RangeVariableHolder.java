@@ -4,12 +4,16 @@ import base.HashCodeUtil;
 import base.Range;
 import base.hldd.structure.variables.AbstractVariable;
 
+import java.io.Serializable;
+
 /**
  * Class is used to pass both a variable and its range to and fro.
  *
  * @author Anton Chepurov
  */
-public class RangeVariableHolder {
+public class RangeVariableHolder implements Serializable {
+	private static final long serialVersionUID = 1L;
+
 	public static final int NO_TRUE_VALUE = Integer.MIN_VALUE;
 
 	private AbstractVariable variable;
@@ -0,0 +1,260 @@
+package base.hldd.structure.models.utils;
+
+import base.HashCodeUtil;
+import base.Range;
+import base.hldd.structure.variables.AbstractVariable;
+import base.hldd.structure.variables.ConstantVariable;
+import base.hldd.structure.variables.FunctionVariable;
+import base.hldd.structure.variables.GraphVariable;
+import base.hldd.structure.variables.UserDefinedFunctionVariable;
+import base.hldd.structure.variables.Variable;
+import base.vhdl.structure.Operator;
+
+import java.math.BigInteger;
+import java.util.*;
+
+/**
+ * Structural index of the variables stored in {@link VariableManager}.
+ * <p/>
+ * Variables are grouped by a structural hash (operator and operands with their ranges for functions, value for
+ * constants, local name for the rest), so that variables identical to a given one (see
+ * {@link AbstractVariable#isIdenticalTo(AbstractVariable)}) are searched amongst the variables of the same hash only.
+ * Within a group, variables are kept in the order of their names, as in the {@link VariableManager}.
+ * <p/>
+ * Operands only contribute their own operator, value or name to the hash of a function. So the hash of a function
+ * only changes when its own operands get replaced, in which case the function must be {@link #remove(String, AbstractVariable) removed}
+ * and {@link #add(String, AbstractVariable) added} again.
+ * <p/>
+ * The index also counts the name indices in use by top level functions of every operator.
+ *
+ * @author Anton Chepurov
+ */
+class VariableIndex {
+
+	private final Map<Integer, TreeMap<String, AbstractVariable>> variablesByHash = new HashMap<Integer, TreeMap<String, AbstractVariable>>();
+	private final Map<String, Integer> hashByName = new HashMap<String, Integer>();
+	private final Map<BigInteger, TreeMap<String, ConstantVariable>> constantsByValue = new HashMap<BigInteger, TreeMap<String, ConstantVariable>>();
+	/**
+	 * Name indices of top level functions by operators. Functions of all operators are counted under <code>null</code> as well.
+	 */
+	private final Map<Operator, NameIndices> nameIndicesByOperator = new HashMap<Operator, NameIndices>();
+	/**
+	 * Name indices of user defined functions by operators. All user defined functions are counted under <code>null</code> as well.
+	 */
+	private final Map<String, NameIndices> nameIndicesByUDOperator = new HashMap<String, NameIndices>();
+	private final Map<String, Integer> nameIdxByName = new HashMap<String, Integer>();
+
+	public void add(String varName, AbstractVariable variable) {
+		if (variable instanceof ConstantVariable) {
+			ConstantVariable constant = (ConstantVariable) variable;
+			TreeMap<String, ConstantVariable> constants = constantsByValue.get(constant.getValue());
+			if (constants == null) {
+				constants = new TreeMap<String, ConstantVariable>();
+				constantsByValue.put(constant.getValue(), constants);
+			}
+			constants.put(varName, constant);
+			return;
+		}
+		int hash = hash(variable);
+		TreeMap<String, AbstractVariable> variables = variablesByHash.get(hash);
+		if (variables == null) {
+			variables = new TreeMap<String, AbstractVariable>();
+			variablesByHash.put(hash, variables);
+		}
+		variables.put(varName, variable);
+		hashByName.put(varName, hash);
+
+		addNameIdx(varName, variable);
+	}
+
+	/**
+	 * @param varName		 name the variable is stored with
+	 * @param removedVariable variable that has been stored with the name
+	 */
+	public void remove(String varName, AbstractVariable removedVariable) {
+		if (removedVariable instanceof ConstantVariable) {
+			constantsByValue.get(((ConstantVariable) removedVariable).getValue()).remove(varName);
+			return;
+		}
+		/* Hash and name index may have changed since the variable was added, so remove the ones that were added */
+		variablesByHash.get(hashByName.remove(varName)).remove(varName);
+
+		removeNameIdx(varName, removedVariable);
+	}
+
+	/**
+	 * @param variableToFind variable to search for
+	 * @return the first (by name) stored variable that is identical to the specified one,
+	 *         or <code>null</code> if none is identical
+	 */
+	public AbstractVariable getIdenticalVariable(AbstractVariable variableToFind) {
+		if (variableToFind instanceof ConstantVariable) {
+			return getFirstConstant(((ConstantVariable) variableToFind).getValue(), null);
+		}
+		TreeMap<String, AbstractVariable> variables = variablesByHash.get(hash(variableToFind));
+		if (variables != null) {
+			for (AbstractVariable variable : variables.values()) {
+				if (variable.isIdenticalTo(variableToFind)) {
+					return variable;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @param value		desired value of the constant
+	 * @param targetLength desired length of the constant, or <code>null</code> if doesn't matter
+	 * @return the first (by name) stored constant with the specified value and length,
+	 *         or <code>null</code> if no such constant is stored
+	 */
+	public ConstantVariable getFirstConstant(BigInteger value, Range targetLength) {
+		TreeMap<String, ConstantVariable> constants = constantsByValue.get(value);
+		if (constants != null) {
+			for (ConstantVariable constant : constants.values()) {
+				if (targetLength == null || targetLength.equals(constant.getLength())) {
+					return constant;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @param operator operator of the functions, or <code>null</code> for functions of all operators
+	 * @return the largest name index used by top level functions of the specified operator,
+	 *         or <code>-1</code> if there are no such functions
+	 */
+	public int getLargestNameIdx(Operator operator) {
+		return getLargestNameIdx(nameIndicesByOperator.get(operator));
+	}
+
+	/**
+	 * @param userDefinedOperator operator of the user defined functions, or <code>null</code> for all of them
+	 * @return the largest name index used by user defined functions of the specified operator,
+	 *         or <code>-1</code> if there are no such functions
+	 */
+	public int getLargestUDNameIdx(String userDefinedOperator) {
+		return getLargestNameIdx(nameIndicesByUDOperator.get(userDefinedOperator));
+	}
+
+	private static int getLargestNameIdx(NameIndices nameIndices) {
+		return nameIndices == null || nameIndices.isEmpty() ? -1 : nameIndices.lastKey();
+	}
+
+	private void addNameIdx(String varName, AbstractVariable variable) {
+		if (variable.getClass() == FunctionVariable.class) {
+			FunctionVariable function = (FunctionVariable) variable;
+			if (function.isTopLevel()) {
+				nameIdxByName.put(varName, function.getNameIdx());
+				getNameIndices(nameIndicesByOperator, function.getOperator()).addIndex(function.getNameIdx());
+				getNameIndices(nameIndicesByOperator, null).addIndex(function.getNameIdx());
+			}
+		} else if (variable.getClass() == UserDefinedFunctionVariable.class) {
+			UserDefinedFunctionVariable function = (UserDefinedFunctionVariable) variable;
+			nameIdxByName.put(varName, function.getNameIdx());
+			getNameIndices(nameIndicesByUDOperator, function.getUserDefinedOperator()).addIndex(function.getNameIdx());
+			getNameIndices(nameIndicesByUDOperator, null).addIndex(function.getNameIdx());
+		}
+	}
+
+	private void removeNameIdx(String varName, AbstractVariable variable) {
+		Integer nameIdx = nameIdxByName.remove(varName);
+		if (nameIdx == null) {
+			return;
+		}
+		if (variable.getClass() == FunctionVariable.class) {
+			nameIndicesByOperator.get(((FunctionVariable) variable).getOperator()).removeIndex(nameIdx);
+			nameIndicesByOperator.get(null).removeIndex(nameIdx);
+		} else {
+			nameIndicesByUDOperator.get(((UserDefinedFunctionVariable) variable).getUserDefinedOperator()).removeIndex(nameIdx);
+			nameIndicesByUDOperator.get(null).removeIndex(nameIdx);
+		}
+	}
+
+	private static <T> NameIndices getNameIndices(Map<T, NameIndices> nameIndicesByOperator, T operator) {
+		NameIndices nameIndices = nameIndicesByOperator.get(operator);
+		if (nameIndices == null) {
+			nameIndices = new NameIndices();
+			nameIndicesByOperator.put(operator, nameIndices);
+		}
+		return nameIndices;
+	}
+
+	/**
+	 * Identical variables have equal hashes.
+	 *
+	 * @param variable variable to calculate the hash for
+	 * @return structural hash of the variable
+	 */
+	static int hash(AbstractVariable variable) {
+		int result = operandHash(variable);
+		if (variable instanceof FunctionVariable && !(variable instanceof UserDefinedFunctionVariable)) {
+			List<RangeVariableHolder> operands = ((FunctionVariable) variable).getOperands();
+			if (operands != null) {
+				for (RangeVariableHolder operand : operands) {
+					result = HashCodeUtil.hash(result, operandHash(operand.getVariable()));
+					Range range = operand.getRange();
+					if (range != null) { // Range.hashCode() cannot be used, since Range.equals() ignores direction
+						result = HashCodeUtil.hash(result, range.getHighest());
+						result = HashCodeUtil.hash(result, range.getLowest());
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @param variable variable to calculate the hash for
+	 * @return hash of the variable that doesn't depend on its operands
+	 */
+	private static int operandHash(AbstractVariable variable) {
+		int result = HashCodeUtil.SEED;
+		if (variable == null) {
+			return result;
+		}
+		if (variable instanceof GraphVariable) {
+			return operandHash(((GraphVariable) variable).getBaseVariable());
+		} else if (variable instanceof ConstantVariable) {
+			result = HashCodeUtil.hash(result, ((ConstantVariable) variable).getValue());
+		} else if (variable instanceof UserDefinedFunctionVariable) {
+			/* User defined operators are compared ignoring case */
+			result = HashCodeUtil.hash(result, ((UserDefinedFunctionVariable) variable).getUserDefinedOperator().toUpperCase(Locale.ENGLISH));
+		} else if (variable instanceof FunctionVariable) {
+			FunctionVariable function = (FunctionVariable) variable;
+			result = HashCodeUtil.hash(result, function.getOperator());
+			result = HashCodeUtil.hash(result, function.getOperands() == null ? -1 : function.getOperands().size());
+		} else if (variable instanceof Variable) {
+			/* Variables are compared by the name without the hierarchy location prefix */
+			result = HashCodeUtil.hash(result, ((Variable) variable).getLocalName());
+		} else {
+			result = HashCodeUtil.hash(result, variable.getClass());
+		}
+		return result;
+	}
+
+	/**
+	 * Multiset of name indices
+	 */
+	private static class NameIndices extends TreeMap<Integer, Integer> {
+		private static final long serialVersionUID = 1L;
+
+		public void addIndex(int nameIdx) {
+			Integer count = get(nameIdx);
+			put(nameIdx, count == null ? 1 : count + 1);
+		}
+
+		public void removeIndex(int nameIdx) {
+			Integer count = get(nameIdx);
+			if (count == null) {
+				return;
+			}
+			if (count == 1) {
+				remove(nameIdx);
+			} else {
+				put(nameIdx, count - 1);
+			}
+		}
+	}
+}
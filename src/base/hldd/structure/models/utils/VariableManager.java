@@ -4,12 +4,12 @@ import base.Range;
 import base.hldd.structure.variables.AbstractVariable;
 import base.hldd.structure.variables.ConstantVariable;
 import base.hldd.structure.variables.FunctionVariable;
-import base.hldd.structure.variables.UserDefinedFunctionVariable;
 import base.vhdl.structure.Operator;
 
 import java.math.BigInteger;
-import java.util.TreeMap;
 import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.TreeSet;
 
 /**
@@ -18,6 +18,10 @@ import java.util.TreeSet;
 public class VariableManager {
 	private TreeMap<String, AbstractVariable> variables = new TreeMap<String, AbstractVariable>();
 	private TreeMap<String, ConstantVariable> constants = new TreeMap<String, ConstantVariable>();
+	/**
+	 * Index of stored variables. Built on first request and then kept up to date.
+	 */
+	private VariableIndex index;
 
 
 	/**
@@ -35,30 +39,97 @@ public class VariableManager {
 		if (newVariable instanceof ConstantVariable) {
 			if (!constants.containsKey(varName)) {
 				constants.put(varName, (ConstantVariable) newVariable);
+				addToIndex(varName, newVariable, null);
 			}
 		} else {
-			variables.put(varName, newVariable);
+			addToIndex(varName, newVariable, variables.put(varName, newVariable));
 		}
 	}
 
 	public void removeVariable(AbstractVariable variableToRemove) {
+		String varName = variableToRemove.getName();
+		AbstractVariable removedVariable;
 		if (variableToRemove instanceof ConstantVariable) {
-			constants.remove(variableToRemove.getName());
+			removedVariable = constants.remove(varName);
 		} else {
-			variables.remove(variableToRemove.getName());
+			removedVariable = variables.remove(varName);
+		}
+		if (index != null && removedVariable != null) {
+			index.remove(varName, removedVariable);
 		}
 	}
 
-	public Collection<AbstractVariable> getVariables() {
-		return variables.values();
+	/**
+	 * Updates the index of the specified variable. To be called after operands of the variable
+	 * (or base variables of its graph operands) have been changed.
+	 *
+	 * @param changedVariable variable whose operands have been changed
+	 */
+	public void updateVariable(AbstractVariable changedVariable) {
+		String varName = changedVariable.getName();
+		if (index != null && variables.get(varName) == changedVariable) {
+			index.remove(varName, changedVariable);
+			index.add(varName, changedVariable);
+		}
 	}
 
-	public Collection<FunctionVariable> getFunctions(Operator operator) {
-		return getFunctions(variables.values(), operator);
+	private void addToIndex(String varName, AbstractVariable newVariable, AbstractVariable replacedVariable) {
+		if (index != null) {
+			if (replacedVariable != null) {
+				index.remove(varName, replacedVariable);
+			}
+			index.add(varName, newVariable);
+		}
 	}
 
-	public Collection<FunctionVariable> getUDFunctions(String userDefinedOperator) {
-		return getUDFunctions(variables.values(), userDefinedOperator);
+	private VariableIndex getIndex() {
+		if (index == null) {
+			index = new VariableIndex();
+			for (Map.Entry<String, AbstractVariable> entry : variables.entrySet()) {
+				index.add(entry.getKey(), entry.getValue());
+			}
+			for (Map.Entry<String, ConstantVariable> entry : constants.entrySet()) {
+				index.add(entry.getKey(), entry.getValue());
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * @param variableToFind variable to search for amongst existent variables
+	 * @return the first (by name) existent variable that is identical to the specified one,
+	 *         or <code>null</code> if none is identical
+	 */
+	public AbstractVariable getIdenticalVariable(AbstractVariable variableToFind) {
+		return getIndex().getIdenticalVariable(variableToFind);
+	}
+
+	/**
+	 * Generates a name for function variables ADDER, MULT, DIV etc.
+	 *
+	 * @param operator type of function (ADDER, MULT, DIV etc)
+	 * @return the order number of the function
+	 */
+	public int generateFunctionNameIdx(Operator operator) {
+		return deriveNextIdx(getIndex().getLargestNameIdx(operator));
+	}
+
+	/**
+	 * Generates a name for user defined functions like f_ComputeCrc16() in crc.vhd.
+	 *
+	 * @param userDefinedOperator name of the user defined function
+	 * @return the order number of the function
+	 */
+	public int generateUDFunctionNameIdx(String userDefinedOperator) {
+		return deriveNextIdx(getIndex().getLargestUDNameIdx(userDefinedOperator));
+	}
+
+	private static int deriveNextIdx(int largestIndexUsed) {
+		return largestIndexUsed == -1 ? 1 : largestIndexUsed + 1;
+	}
+
+	public Collection<AbstractVariable> getVariables() {
+		return variables.values();
 	}
 
 	public static Collection<FunctionVariable> getFunctions(Collection<AbstractVariable> vars, Operator operator) {
@@ -96,31 +167,6 @@ public class VariableManager {
 		return functionsSet;
 	}
 
-	public static Collection<FunctionVariable> getUDFunctions(Collection<AbstractVariable> vars, String userDefinedOperator) {
-		TreeSet<FunctionVariable> functionsSet = new TreeSet<FunctionVariable>(FunctionVariable.getComparator());
-
-		if (userDefinedOperator == null) {
-			for (AbstractVariable variable : vars) {
-				if (variable.getClass() == UserDefinedFunctionVariable.class) {
-					UserDefinedFunctionVariable functionVariable = (UserDefinedFunctionVariable) variable;
-
-					functionsSet.add(functionVariable);
-				}
-			}
-		} else {
-			for (AbstractVariable variable : vars) {
-				if (variable.getClass() == UserDefinedFunctionVariable.class) {
-					UserDefinedFunctionVariable functionVariable = (UserDefinedFunctionVariable) variable;
-
-					if (functionVariable.getUserDefinedOperator().equals(userDefinedOperator)) {
-						functionsSet.add(functionVariable);
-					}
-				}
-			}
-		}
-		return functionsSet;
-	}
-
 	public Collection<ConstantVariable> getConstants() {
 		return constants.values();
 	}
@@ -154,23 +200,15 @@ public class VariableManager {
 		}
 
 		// Search for EXISTENT constants
-		for (String constName : constants.keySet()) {
-			ConstantVariable constantVariable = constants.get(constName);
-			if (constantVariable.getValue().equals(value)) {
-				/* Constant with the SAME VALUE found. */
-				/* For EVERY variable LENGTH there must be a SEPARATE constant */
-				if (targetLength == null) {
-					/* If length doesn't matter, return the first met constant with the required value */
-					return constantVariable;
-				} else {
-					if (targetLength.equals(constantVariable.getLength())) {
-						return constantVariable;
-					}
-				}
-			}
+		ConstantVariable constantVariable = getIndex().getFirstConstant(value, targetLength);
+		if (constantVariable != null) {
+			/* Constant with the SAME VALUE found. */
+			/* For EVERY variable LENGTH there must be a SEPARATE constant */
+			return constantVariable;
 		}
 		// EXISTENT constant is not found, so create a new one
-		constants.put(constWithSmartName.getName(), constWithSmartName);
+		addToIndex(constWithSmartName.getName(), constWithSmartName,
+				constants.put(constWithSmartName.getName(), constWithSmartName));
 		return constWithSmartName;
 
 	}
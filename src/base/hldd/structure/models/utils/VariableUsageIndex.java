@@ -0,0 +1,87 @@
+package base.hldd.structure.models.utils;
+
+import base.hldd.structure.Graph;
+import base.hldd.structure.nodes.Node;
+import base.hldd.structure.variables.AbstractVariable;
+import base.hldd.structure.variables.FunctionVariable;
+import base.hldd.structure.variables.GraphVariable;
+
+import java.util.*;
+
+/**
+ * Reverse usage index of variables. For every variable, the index keeps the functions
+ * that use it as an operand and the graphs that use it as a dependent variable of a node.
+ * <p/>
+ * The index is updated incrementally, as users get registered. It is allowed to contain users that
+ * don't use the variable anymore or are not part of the model anymore, so clients must check every
+ * user they get.
+ *
+ * @author Anton Chepurov
+ */
+class VariableUsageIndex {
+
+	private final Map<AbstractVariable, Set<AbstractVariable>> usersByVariable = new HashMap<AbstractVariable, Set<AbstractVariable>>();
+
+	/**
+	 * Registers all the variables that the specified function or graph uses.
+	 * Variables of other types are ignored, as they don't use other variables.
+	 *
+	 * @param user function or graph to register
+	 */
+	public void addUser(AbstractVariable user) {
+		if (user instanceof FunctionVariable) {
+			for (RangeVariableHolder operand : ((FunctionVariable) user).getOperands()) {
+				addUse(operand.getVariable(), user);
+			}
+		} else if (user instanceof GraphVariable) {
+			Graph graph = ((GraphVariable) user).getGraph();
+			if (graph != null) {
+				addNodeUses(graph.getRootNode(), user);
+			}
+		}
+	}
+
+	private void addNodeUses(Node node, AbstractVariable user) {
+		if (node == null) {
+			return;
+		}
+		addUse(node.getDependentVariable(), user);
+		if (node.isControlNode()) {
+			for (Node successor : node.getSuccessors()) {
+				addNodeUses(successor, user);
+			}
+		}
+	}
+
+	public void addUse(AbstractVariable variable, AbstractVariable user) {
+		if (variable == null) {
+			return;
+		}
+		Set<AbstractVariable> users = usersByVariable.get(variable);
+		if (users == null) {
+			users = new LinkedHashSet<AbstractVariable>();
+			usersByVariable.put(variable, users);
+		}
+		users.add(user);
+	}
+
+	/**
+	 * @param variable variable to get the users of
+	 * @return functions and graphs that may use the variable, in the order they were registered
+	 */
+	public Collection<AbstractVariable> getUsers(AbstractVariable variable) {
+		Set<AbstractVariable> users = usersByVariable.get(variable);
+		return users == null ? Collections.<AbstractVariable>emptySet() : users;
+	}
+
+	/**
+	 * Removes the variable from the index. To be used when all its uses are going to be replaced.
+	 *
+	 * @param variable variable to remove
+	 * @return functions and graphs that may use the variable, in the order they were registered
+	 */
+	public Collection<AbstractVariable> removeUsers(AbstractVariable variable) {
+		Set<AbstractVariable> users = usersByVariable.remove(variable);
+		return users == null ? Collections.<AbstractVariable>emptySet() : users;
+	}
+}
@@ -24,6 +24,8 @@ import java.util.LinkedHashMap;
  * @author Anton Chepurov
  */
 public class CompositeNode extends Node {
+	private static final long serialVersionUID = 1L;
+
 	private Node rootNode;
 	private Node lastNode;
 	/* Auxiliary fields */
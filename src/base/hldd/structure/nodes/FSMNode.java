@@ -7,6 +7,8 @@ import base.hldd.structure.nodes.fsm.Transitions;
  */
 public class FSMNode extends Node {
 
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * Transitions that consist of STATE transitions and CONTROL PART OUTPUTS transitions
 	 */
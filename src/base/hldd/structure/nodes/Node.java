@@ -11,6 +11,7 @@ import base.hldd.visitors.Visitable;
 import base.hldd.visitors.HLDDVisitor;
 import base.vhdl.visitors.GraphGenerator;
 
+import java.io.Serializable;
 import java.util.Collection;
 
 /**
@@ -18,7 +19,9 @@ import java.util.Collection;
  * 
  * @author Anton Chepurov
  */
-public class Node implements Visitable, Cloneable {
+public class Node implements Visitable, Cloneable, Serializable {
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * The VARIABLE that the node depends on
 	 */
@@ -13,6 +13,8 @@ import base.Range;
  * @author Anton Chepurov
  */
 public class TemporalNode extends Node {
+	private static final long serialVersionUID = 1L;
+
 	private base.psl.structure.Range window;
 	private String[] windowPlaceholders;
 
@@ -33,6 +35,10 @@ public class TemporalNode extends Node {
 
 	/* Getters */
 
+	public base.psl.structure.Range getWindow() {
+		return window;
+	}
+
 	public String[] getWindowPlaceholders() {
 		return windowPlaceholders;
 	}
@@ -1,9 +1,13 @@
 package base.hldd.structure.nodes.fsm;
 
+import java.io.Serializable;
+
 /**
  * @author Anton Chepurov
  */
-public class Transitions {
+public class Transitions implements Serializable {
+	private static final long serialVersionUID = 1L;
+
 	private Integer[] transitions;
 
 	public Transitions(int transitionsCount) {
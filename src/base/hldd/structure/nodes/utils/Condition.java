@@ -3,12 +3,17 @@ package base.hldd.structure.nodes.utils;
 import base.HLDDException;
 import base.HashCodeUtil;
 
+import java.io.Serializable;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * @author Anton Chepurov
  */
-public final class Condition implements Comparable<Condition> {
+public final class Condition implements Comparable<Condition>, Serializable {
+	private static final long serialVersionUID = 1L;
+
 	/* Single value */
 	private int value = -1;
 //	/* Enum */
@@ -235,7 +240,10 @@ public final class Condition implements Comparable<Condition> {
 	}
 
 
-	private static HashMap<Integer, Condition> conditionPool = new HashMap<Integer, Condition>();
+	/**
+	 * Interning pool of conditions. Concurrent, since conversions may run in parallel threads.
+	 */
+	private static final ConcurrentMap<Condition, Condition> conditionPool = new ConcurrentHashMap<Condition, Condition>();
 	public static final Condition TRUE = createCondition(1);
 	public static final Condition FALSE = createCondition(0);
 
@@ -284,12 +292,17 @@ public final class Condition implements Comparable<Condition> {
 	}
 
 	private static Condition getFromPool(Condition condition) {
-		int hashCode = condition.hashCode();
-		if (conditionPool.containsKey(hashCode)) {
-			return conditionPool.get(hashCode);
-		}
-		conditionPool.put(hashCode, condition);
-		return condition;
+		Condition pooledCondition = conditionPool.putIfAbsent(condition, condition);
+		return pooledCondition == null ? condition : pooledCondition;
+	}
+
+	/**
+	 * Keeps deserialized conditions pooled
+	 *
+	 * @return pooled condition equal to the deserialized one
+	 */
+	private Object readResolve() {
+		return getFromPool(this);
 	}
 
 	public static Condition parse(String conditionAsString) throws HLDDException {
@@ -4,13 +4,16 @@ import base.HLDDException;
 import base.SourceLocation;
 import base.hldd.structure.nodes.Node;
 
+import java.io.Serializable;
 import java.util.*;
 import java.util.logging.Logger;
 
 /**
  * @author Anton Chepurov
  */
-public class Successors {
+public class Successors implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	private static final Logger LOGGER = Logger.getLogger(Successors.class.getName());
 
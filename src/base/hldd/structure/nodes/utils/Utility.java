@@ -1,7 +1,11 @@
 package base.hldd.structure.nodes.utils;
 
 import base.HLDDException;
+import base.HashCodeUtil;
+import base.Range;
 import base.SourceLocation;
+import base.hldd.structure.nodes.CompositeNode;
+import base.hldd.structure.nodes.FSMNode;
 import base.hldd.structure.nodes.Node;
 import base.hldd.structure.variables.AbstractVariable;
 import base.hldd.visitors.SourceLocationMerger;
@@ -15,11 +19,6 @@ import java.util.*;
  */
 public class Utility {
 
-	// todo: remove these sets because they occupy space. Implement methods like isVariableUsedAsTerminal().
-	private static Set<Node> uniqueControlNodes;
-	private static Set<Node> processedControlNodesSet;
-	private static Set<Node> collectedNodesSet;
-
 	/**
 	 * Counts Control Nodes.
 	 * Allows duplicates (i.e. duplicate Control Nodes are counted separately).
@@ -28,11 +27,10 @@ public class Utility {
 	 * @return number of control nodes
 	 */
 	public static int countControlNodes(Node node) {
-		processedControlNodesSet = new HashSet<Node>();
-		return cntControlNodes(node);
+		return cntControlNodes(node, new HashSet<Node>());
 	}
 
-	private static int cntControlNodes(Node node) {
+	private static int cntControlNodes(Node node, Set<Node> processedControlNodesSet) {
 		int count = 0;
 		if (processedControlNodesSet.contains(node)) return count;
 		if (node.isControlNode()) {
@@ -40,7 +38,7 @@ public class Utility {
 			processedControlNodesSet.add(node);
 			for (Node successorNode : node.getSuccessors()) {
 				if (successorNode != null) {
-					count += cntControlNodes(successorNode);
+					count += cntControlNodes(successorNode, processedControlNodesSet);
 				}
 			}
 		}
@@ -48,53 +46,30 @@ public class Utility {
 	}
 
 	public static int countUniqueControlNodes(Node node) {
-		uniqueControlNodes = new LinkedHashSet<Node>();
-		return cntUniqueControlNodes(node);
+		return cntUniqueControlNodes(node, new LinkedHashSet<Node>());
 	}
 
-	private static int cntUniqueControlNodes(Node node) {
+	private static int cntUniqueControlNodes(Node node, Set<Node> uniqueControlNodes) {
 		int count = 0;
-		if (node.isControlNode() && !containsIdenticalControlNode(node)) {
+		if (node.isControlNode() && !containsIdenticalControlNode(node, uniqueControlNodes)) {
 			uniqueControlNodes.add(node);
 			count++;
 			for (Node successorNode : node.getSuccessors()) {
 				if (successorNode != null) {
-					count += cntUniqueControlNodes(successorNode);
+					count += cntUniqueControlNodes(successorNode, uniqueControlNodes);
 				}
 			}
 		}
 		return count;
 	}
 
-	private static boolean containsIdenticalControlNode(Node nodeToFind) {
+	private static boolean containsIdenticalControlNode(Node nodeToFind, Set<Node> uniqueControlNodes) {
 		for (Node node : uniqueControlNodes) {
 			if (node.isIdenticalTo(nodeToFind)) return true;
 		}
 		return false;
 	}
 
-	public static boolean isVariableUsedAsTerminal(Node rootNode, AbstractVariable variable) {
-		return isVariableUsedAsTerminal(rootNode, variable, new HashSet<Node>());
-	}
-
-	private static boolean isVariableUsedAsTerminal(Node node, AbstractVariable variable, Set<Node> usedNodesSet) {
-		if (!usedNodesSet.contains(node)) {
-			usedNodesSet.add(node);
-			if (node.isTerminalNode()) {
-				if (node.getDependentVariable() == variable) {
-					return true;
-				}
-			} else {
-				for (Node successorNode : node.getSuccessors()) {
-					if (isVariableUsedAsTerminal(successorNode, variable, usedNodesSet)) {
-						return true;
-					}
-				}
-			}
-		}
-		return false;
-	}
-
 	/**
 	 * Traverse the tree from rootNode and adjust the maximum relative index.
 	 * <p/>
@@ -151,12 +126,12 @@ public class Utility {
 	}
 
 	public static int getUnindexedSize(Node node) {
-		collectedNodesSet = new HashSet<Node>();
-		getUnSize(node);
+		Set<Node> collectedNodesSet = new HashSet<Node>();
+		getUnSize(node, collectedNodesSet);
 		return collectedNodesSet.size();
 	}
 
-	private static void getUnSize(Node node) {
+	private static void getUnSize(Node node, Set<Node> collectedNodesSet) {
 		if (!collectedNodesSet.contains(node)) {
 			collectedNodesSet.add(node);
 			if (node.isControlNode()) {
@@ -164,7 +139,7 @@ public class Utility {
 					if (successor == null) {
 						System.out.println("Null successor found!");
 					}
-					getUnSize(successor);
+					getUnSize(successor, collectedNodesSet);
 				}
 			}
 		}
@@ -448,21 +423,41 @@ public class Utility {
 
 	//todo: move to "utils" package and remove static modifier
 
+	/**
+	 * Merges identical sub-graphs using a unique table: every node gets an id of its structure
+	 * (dependent variable, range and condition-to-successor-id list), computed bottom-up,
+	 * so that identical nodes are found by a hash lookup instead of a recursive comparison
+	 * with every node used so far.
+	 */
 	private static class Minimizer {
-		private Node rootNode;
-		private Set<Node> usedNodes;
+		private final Node rootNode;
+		/**
+		 * Unique table: the node that represents the structure id in the minimized graph
+		 */
+		private final Map<Integer, Node> usedNodes = new HashMap<Integer, Node>();
+		private final Set<Node> minimizedNodes = new HashSet<Node>();
+		private final Set<Node> compactedNodes = new HashSet<Node>();
+		private final Map<Node, Integer> idByNode = new HashMap<Node, Integer>();
+		private final Map<NodeKey, Integer> idByKey = new HashMap<NodeKey, Integer>();
+		private final Map<AbstractVariable, Integer> idByVariable = new IdentityHashMap<AbstractVariable, Integer>();
+		private final List<AbstractVariable> distinctVariables = new ArrayList<AbstractVariable>();
+		private final List<Node> specialNodes = new ArrayList<Node>();
+		private int nextNodeId = 0;
 
 		public Minimizer(Node rootNode) {
 			this.rootNode = rootNode;
-			usedNodes = new LinkedHashSet<Node>();
 		}
 
 		public void minimize() throws HLDDException {
 			minimizeNode(rootNode);
-			compactNode(rootNode); // compact nodes in a separate tree traversal, to keep getIdenticalNode() correct (otherwise, a complex comparison will impair performance)
+			compactNode(rootNode); // compact nodes in a separate tree traversal, to keep node ids correct (compacted conditions change the structure)
 		}
 
 		private void minimizeNode(Node nodeToTrim) throws HLDDException {
+			/* Sub-graph of an already minimized node consists of used nodes only */
+			if (!minimizedNodes.add(nodeToTrim)) {
+				return;
+			}
 			if (nodeToTrim.isControlNode()) {
 				int conditionsCount = nodeToTrim.getConditionsCount();
 				for (int idx = 0; idx < conditionsCount; idx++) {
@@ -476,22 +471,102 @@ public class Utility {
 			}
 		}
 
-		private Node getIdenticalNode(Node node) {
-			/* Search for identical amongst usedNodes */
-			for (Node usedNode : usedNodes) { //todo: use Collection, and make Node implement equals() for a faster search
-				if (usedNode.isIdenticalTo(node)) {
-					/* Add VHDL lines to the usedNode */
-					new SourceLocationMerger(node).visitNode(usedNode);
-					return usedNode;
+		private Node getIdenticalNode(Node node) throws HLDDException {
+			Integer id = getNodeId(node);
+			Node usedNode = usedNodes.get(id);
+			if (usedNode == null) {
+				/* Identical is not found. Add the node to usedNodes and return it. */
+				usedNodes.put(id, node);
+				return node;
+			}
+			if (usedNode != node) {
+				/* Add VHDL lines to the usedNode */
+				new SourceLocationMerger(node).visitNode(usedNode);
+			}
+			return usedNode;
+		}
+
+		/**
+		 * Identical nodes (see {@link Node#isIdenticalTo(Node)}) get equal ids.
+		 *
+		 * @param node node to get id for
+		 * @return structure id of the node
+		 * @throws HLDDException if conditions of the node cannot be obtained
+		 */
+		private Integer getNodeId(Node node) throws HLDDException {
+			Integer id = idByNode.get(node);
+			if (id == null) {
+				if (node instanceof FSMNode || node instanceof CompositeNode) {
+					/* These nodes compare their own structure, so search amongst them */
+					id = getSpecialNodeId(node);
+				} else if (node.getDependentVariable() == null) {
+					/* Nodes without dependent variable are not identical to any other node */
+					id = nextNodeId++;
+				} else {
+					NodeKey key = createKey(node);
+					id = idByKey.get(key);
+					if (id == null) {
+						id = nextNodeId++;
+						idByKey.put(key, id);
+					}
 				}
+				idByNode.put(node, id);
 			}
-			/* Identical is not found. Add the node to usedNodes and return it. */
-			usedNodes.add(node);
-			return node;
+			return id;
+		}
+
+		private int getSpecialNodeId(Node node) {
+			for (Node specialNode : specialNodes) {
+				if (specialNode.isIdenticalTo(node)) {
+					return idByNode.get(specialNode);
+				}
+			}
+			specialNodes.add(node);
+			return nextNodeId++;
+		}
+
+		private NodeKey createKey(Node node) throws HLDDException {
+			int variableId = getVariableId(node.getDependentVariable());
+			if (node.isTerminalNode()) {
+				return new NodeKey(variableId, node.getRange(), -1, null, null);
+			}
+			int conditionsCount = node.getConditionsCount();
+			Condition[] conditions = new Condition[conditionsCount];
+			int[] successorIds = new int[conditionsCount];
+			for (int idx = 0; idx < conditionsCount; idx++) {
+				conditions[idx] = node.getCondition(idx);
+				successorIds[idx] = getNodeId(node.getSuccessor(conditions[idx]));
+			}
+			return new NodeKey(variableId, node.getRange(), node.getConditionValuesCount(), conditions, successorIds);
+		}
+
+		/**
+		 * Identical variables (see {@link AbstractVariable#isIdenticalTo(AbstractVariable)}) get equal ids.
+		 * Nodes share variable objects, so the search amongst distinct variables is only done once per variable object.
+		 *
+		 * @param variable variable to get id for
+		 * @return id of the variable
+		 */
+		private int getVariableId(AbstractVariable variable) {
+			Integer id = idByVariable.get(variable);
+			if (id == null) {
+				id = distinctVariables.size();
+				for (int idx = 0; idx < distinctVariables.size(); idx++) {
+					if (distinctVariables.get(idx).isIdenticalTo(variable)) {
+						id = idx;
+						break;
+					}
+				}
+				if (id == distinctVariables.size()) {
+					distinctVariables.add(variable);
+				}
+				idByVariable.put(variable, id);
+			}
+			return id;
 		}
 
 		private void compactNode(Node nodeToCompact) throws HLDDException {
-			if (nodeToCompact.isControlNode()) {
+			if (nodeToCompact.isControlNode() && compactedNodes.add(nodeToCompact)) {
 				nodeToCompact.compact();
 				int conditionsCount = nodeToCompact.getConditionsCount();
 				for (int idx = 0; idx < conditionsCount; idx++) {
@@ -504,6 +579,53 @@ public class Utility {
 		}
 	}
 
+	/**
+	 * Structure of a node, with variables and successors replaced by their ids.
+	 * Terminal nodes have neither conditions nor successors.
+	 */
+	private static class NodeKey {
+		private final int variableId;
+		private final Range range;
+		private final int conditionValuesCount;
+		private final Condition[] conditions;
+		private final int[] successorIds;
+
+		private NodeKey(int variableId, Range range, int conditionValuesCount, Condition[] conditions, int[] successorIds) {
+			this.variableId = variableId;
+			this.range = range;
+			this.conditionValuesCount = conditionValuesCount;
+			this.conditions = conditions;
+			this.successorIds = successorIds;
+		}
+
+		@Override
+		public int hashCode() {
+			int result = HashCodeUtil.SEED;
+			result = HashCodeUtil.hash(result, variableId);
+			if (range != null) { // Range.hashCode() cannot be used, since Range.equals() ignores direction
+				result = HashCodeUtil.hash(result, range.getHighest());
+				result = HashCodeUtil.hash(result, range.getLowest());
+			}
+			result = HashCodeUtil.hash(result, conditionValuesCount);
+			result = HashCodeUtil.hash(result, conditions);
+			result = HashCodeUtil.hash(result, successorIds);
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) return true;
+			if (obj == null || obj.getClass() != this.getClass()) return false;
+
+			NodeKey second = (NodeKey) obj;
+			return variableId == second.variableId
+					&& Range.equals(range, second.range)
+					&& conditionValuesCount == second.conditionValuesCount
+					&& Arrays.equals(conditions, second.conditions)
+					&& Arrays.equals(successorIds, second.successorIds);
+		}
+	}
+
 	private static class NodeIndexStripper {
 		private final Node rootNode;
 		private final Set<Node> processedNodesSet = new HashSet<Node>();
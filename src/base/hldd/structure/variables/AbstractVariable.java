@@ -4,10 +4,14 @@ import base.HierarchyLocation;
 import base.Type;
 import base.Range;
 
+import java.io.Serializable;
+
 /**
  * @author Anton Chepurov
  */
-public abstract class AbstractVariable implements Comparable<AbstractVariable> {
+public abstract class AbstractVariable implements Comparable<AbstractVariable>, Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	public abstract boolean isIdenticalTo(AbstractVariable comparedAbsVariable);
 
@@ -16,6 +16,8 @@ import java.util.Map;
  */
 public class ConstantVariable extends Variable {
 
+	private static final long serialVersionUID = 1L;
+
 	private BigInteger value;
 
 	private final Map<Condition, ConstantVariable> arrayValues;
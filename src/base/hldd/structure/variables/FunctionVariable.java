@@ -17,6 +17,8 @@ import java.util.List;
  */
 public class FunctionVariable extends Variable {
 
+	private static final long serialVersionUID = 1L;
+
 	private static final int INITIAL_OPERAND_COUNT = 5;
 
 	/**
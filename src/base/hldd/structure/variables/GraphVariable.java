@@ -7,11 +7,16 @@ import base.hldd.visitors.Visitable;
 import base.hldd.visitors.HLDDVisitor;
 import base.Type;
 
+import java.io.IOException;
+import java.io.Writer;
+
 /**
  * @author Anton Chepurov
  */
 public class GraphVariable extends AbstractVariable implements Visitable {
 
+	private static final long serialVersionUID = 1L;
+
 	/* Collection of nodes ( = graph) */
 	private Graph graph;
 
@@ -34,6 +39,18 @@ public class GraphVariable extends AbstractVariable implements Visitable {
 		return baseVariable + "\n" + graph;
 	}
 
+	/**
+	 * Writes the variable the same way {@link #toString()} presents it, but streams the graph node by node
+	 *
+	 * @param writer where to write the variable to
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void writeTo(Writer writer) throws IOException {
+		writer.write(String.valueOf(baseVariable));
+		writer.write("\n");
+		graph.writeTo(writer);
+	}
+
 	public boolean isReset() {
 		return baseVariable.isReset();
 	}
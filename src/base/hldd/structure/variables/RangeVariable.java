@@ -9,6 +9,8 @@ import base.hldd.structure.Flags;
  */
 public class RangeVariable extends Variable {
 	
+	private static final long serialVersionUID = 1L;
+
 	private final Range range;
 
 	public RangeVariable(String varName, Type baseType, Range range) {
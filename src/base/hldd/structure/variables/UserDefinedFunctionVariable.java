@@ -15,6 +15,8 @@ import java.util.ArrayList;
  * @author Anton Chepurov
  */
 public class UserDefinedFunctionVariable extends FunctionVariable {
+	private static final long serialVersionUID = 1L;
+
 	private final String userDefinedOperator;
 	private final int expectedOperandsSize;
 
@@ -11,6 +11,8 @@ import base.Type;
  */
 public class Variable extends AbstractVariable {
 
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * Variable NAME
 	 */
@@ -103,10 +105,21 @@ public class Variable extends AbstractVariable {
 		return getName();
 	}
 
+	/**
+	 * @return name of the variable without the hierarchy location prefix
+	 */
+	public String getLocalName() {
+		return name;
+	}
+
 	public Type getType() {
 		return type;
 	}
 
+	public Flags getFlags() {
+		return flags;
+	}
+
 	public ConstantVariable getDefaultValue() {
 		return defaultValue;
 	}
@@ -4,6 +4,7 @@ import base.Range;
 import base.hldd.structure.nodes.utils.Condition;
 import parsers.hldd.Collector;
 import base.hldd.structure.nodes.Node;
+import base.hldd.structure.nodes.TemporalNode;
 import base.hldd.structure.variables.AbstractVariable;
 import base.hldd.structure.Graph;
 
@@ -51,8 +52,15 @@ public class DefaultGraphVariableCreator implements GraphVariableCreator {
 					} else throw new Exception("Error while creating nodes for GraphVariable:" +
 							"\nDependent variable for a node is neither an AbstractVariable nor a GraphVariableData");
 					/* Create and hash node */
-					Node newNode = successors == null ? new Node.Builder(dependentVariable).range(depVarRange).build()
-							: new Node.Builder(dependentVariable).range(depVarRange).createSuccessors(Condition.countValues(successors.keySet())).build();
+					Node newNode;
+					if (successors == null) {
+						newNode = new Node.Builder(dependentVariable).range(depVarRange).build();
+					} else if (nodeDatum.window != null) {
+						/* THLDD node (TGM files) */
+						newNode = new TemporalNode.Builder(dependentVariable).range(depVarRange).createSuccessors(Condition.countValues(successors.keySet())).window(nodeDatum.window).build();
+					} else {
+						newNode = new Node.Builder(dependentVariable).range(depVarRange).createSuccessors(Condition.countValues(successors.keySet())).build();
+					}
 					nodeByIndex.put(i, newNode);
 					/* Index node manually */
 					newNode.setRelativeIndex(i);
@@ -6,6 +6,8 @@ import base.hldd.structure.nodes.Node;
 import base.hldd.structure.variables.AbstractVariable;
 import base.hldd.structure.variables.GraphVariable;
 
+import java.util.Map;
+
 /**
  * @author Anton Chepurov
  */
@@ -31,6 +33,10 @@ public class DependentVariableReplacer implements HLDDVisitor {
 	}
 
 	protected void replaceNode(Node node) {
+		replaceNode(node, replacingVarHolder);
+	}
+
+	private static void replaceNode(Node node, RangeVariableHolder replacingVarHolder) {
 		node.setDependentVariable(replacingVarHolder.getVariable());
 		if (replacingVarHolder.isRange()) {
 			//todo: Range.absoluteFor()...
@@ -42,6 +48,36 @@ public class DependentVariableReplacer implements HLDDVisitor {
 		graphVariable.getGraph().getRootNode().traverse(this);
 	}
 
+	/**
+	 * Replaces several variables during a single traversal
+	 */
+	public static class Multiple extends DependentVariableReplacer {
+
+		private final Map<AbstractVariable, RangeVariableHolder> replacingVarHolders;
+
+		/**
+		 * @param replacingVarHolders replacing variables by the variables to replace
+		 */
+		public Multiple(Map<AbstractVariable, RangeVariableHolder> replacingVarHolders) {
+			super(null, null);
+			this.replacingVarHolders = replacingVarHolders;
+		}
+
+		@Override
+		public void visitNode(Node node) throws Exception {
+			RangeVariableHolder replacingVarHolder = replacingVarHolders.get(node.getDependentVariable());
+			if (replacingVarHolder != null) {
+				DependentVariableReplacer.replaceNode(node, replacingVarHolder);
+			}
+
+			if (node.isControlNode()) {
+				for (Node successor : node.getSuccessors()) {
+					successor.traverse(this);
+				}
+			}
+		}
+	}
+
 	public static class FlattenerToBits extends DependentVariableReplacer {
 
 		private final ModelManager modelManager;
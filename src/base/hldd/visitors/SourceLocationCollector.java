@@ -5,17 +5,28 @@ import base.hldd.structure.nodes.Node;
 import base.hldd.structure.variables.FunctionVariable;
 import base.hldd.structure.variables.GraphVariable;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.HashSet;
 import java.util.Set;
 
 /**
+ * Writes the source locations of terminal nodes and functions in the format of the map file.
+ *
  * @author Anton Chepurov
  */
 public class SourceLocationCollector implements HLDDVisitor {
 	private Set<Node> visitedNodes;
 	private int currentGraphIndex;
 
-	private StringBuilder sourceBuilder = new StringBuilder();
+	private final Writer writer;
+
+	/**
+	 * @param writer where to write the source locations to, as they are collected
+	 */
+	public SourceLocationCollector(Writer writer) {
+		this.writer = writer;
+	}
 
 	public void visitNode(Node node) throws Exception {
 		if (!visitedNodes.contains(node)) {
@@ -24,8 +35,7 @@ public class SourceLocationCollector implements HLDDVisitor {
 			if (node.isTerminalNode()) {
 				SourceLocation source = node.getSource();
 				if (source != null) {
-					sourceBuilder.append(currentGraphIndex).append(" ").append(node.getRelativeIndex());
-					sourceBuilder.append(": ").append(source.toString()).append("\n");
+					writer.write(currentGraphIndex + " " + node.getRelativeIndex() + ": " + source + "\n");
 				}
 			} else {
 				for (Node successor : node.getSuccessors()) {
@@ -44,15 +54,10 @@ public class SourceLocationCollector implements HLDDVisitor {
 		graphVariable.getGraph().getRootNode().traverse(this);
 	}
 
-	public void visitFunctionVariable(FunctionVariable functionVariable) {
+	public void visitFunctionVariable(FunctionVariable functionVariable) throws IOException {
 		SourceLocation source = functionVariable.getSource();
 		if (source != null) {
-			sourceBuilder.append(functionVariable.getIndex()).append(": ");
-			sourceBuilder.append(source.toString()).append("\n");
+			writer.write(functionVariable.getIndex() + ": " + source + "\n");
 		}
 	}
-
-	public String getSourceAsString() {
-		return sourceBuilder.toString();
-	}
 }
@@ -31,7 +31,7 @@ public class PPGLibrary {
 
 		for (PSLOperator pslOperator : pslOperators) {
 
-			if (propertyBody.matches(pslOperator.getMatchingRegexp())) {
+			if (pslOperator.matches(propertyBody)) {
 				/* If body matches operator's regexp, then it's a potential matching.
 				*
 				* Check if the operator is enclosed with brackets :
@@ -46,16 +46,7 @@ public class PPGLibrary {
 				/* Operator is somewhere in the middle of the body:*/
 				/* If operator is enclosed with brackets, then splitting the body into operands will produce
 				* operands with pairless brackets. */
-				boolean validOperator = true;
-				String[] operands = pslOperator.extractOperandLinesFrom(propertyBody);
-				for (String operand : operands) {
-					if (containsPairlessBracket(operand)) {
-						validOperator = false;
-						break;
-					}
-				}
-
-				if (validOperator) return pslOperator;
+				if (pslOperator.splitsOutsideBrackets(propertyBody)) return pslOperator;
 
 			}
 
@@ -64,18 +55,6 @@ public class PPGLibrary {
 		return null;
 	}
 
-	private boolean containsPairlessBracket(String operandBody) {
-		operandBody = operandBody.trim();
-
-		byte bracketCount = 0;
-		for (char aChar : operandBody.toCharArray()) {
-			if (aChar == '(') bracketCount++;
-			else if (aChar == ')') bracketCount--;
-		}
-
-		return bracketCount != 0;
-	}
-
 	public void setModelToPPG(String ppgName, BehModel model) {
 		for (PSLOperator pslOperator : pslOperators) {
 			if (pslOperator.getName().equalsIgnoreCase(ppgName)) {
@@ -6,6 +6,8 @@ import base.hldd.structure.variables.GraphVariable;
 import java.util.Map;
 import java.util.List;
 import java.util.LinkedList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * @author Anton Chepurov
@@ -13,7 +15,8 @@ import java.util.LinkedList;
 public class PSLOperator {
 	private final String name; // as it is defined in "Operators" section of the PPG Library file
 	private final String matchingRegexp;
-	private final String splittingRegexp;
+	private final Pattern matchingPattern;
+	private final Pattern splittingPattern;
 	private final int splitLimit;
 	private String[] windowPlaceholders;
 	private final Map<String, Integer> operandIndexByName;
@@ -24,7 +27,9 @@ public class PSLOperator {
 					   String[] windowPlaceholders, Map<String, Integer> operandIndexByName) {
 		this.name = name;
 		this.matchingRegexp = matchingRegexp;
-		this.splittingRegexp = splittingRegexp;
+		/* Regexps are compiled once, when the PPG Library is read */
+		matchingPattern = matchingRegexp == null ? null : Pattern.compile(matchingRegexp);
+		splittingPattern = splittingRegexp == null ? null : Pattern.compile(splittingRegexp);
 		this.splitLimit = splitLimit;
 		this.windowPlaceholders = windowPlaceholders;
 		this.operandIndexByName = operandIndexByName;
@@ -33,7 +38,7 @@ public class PSLOperator {
 
 	public String[] extractOperandLinesFrom(String propertyLine) {
 		List<String> operandList = new LinkedList<String>();
-		String[] operands = propertyLine.split(splittingRegexp, splitLimit);
+		String[] operands = splittingPattern.split(propertyLine, splitLimit);
 		for (String operand : operands) {
 			operand = operand.trim();
 			if (operand.length() > 0) {
@@ -43,6 +48,50 @@ public class PSLOperator {
 		return operandList.toArray(new String[operandList.size()]);
 	}
 
+	/**
+	 * @param propertyLine property line to match
+	 * @return whether the whole property line matches the operator
+	 */
+	public boolean matches(String propertyLine) {
+		return matchingPattern != null && matchingPattern.matcher(propertyLine).matches();
+	}
+
+	/**
+	 * Checks that the operator splits the property line outside of brackets, i.e. that none of the operands
+	 * {@link #extractOperandLinesFrom(String) extracted} from the line would contain a pairless bracket.
+	 * The line is scanned once, without splitting it.
+	 *
+	 * @param propertyLine property line to check
+	 * @return <code>true</code> if the operands of the property line have no pairless brackets
+	 */
+	public boolean splitsOutsideBrackets(String propertyLine) {
+		Matcher splitter = splittingPattern.matcher(propertyLine);
+		int operandStart = 0;
+		int splitCount = 0;
+		/* Split the same way as String#split(String, int) does */
+		while ((splitLimit <= 0 || splitCount < splitLimit - 1) && splitter.find()) {
+			if (splitter.end() == 0) {
+				continue; /* Zero-length match at the beginning doesn't split */
+			}
+			if (containsPairlessBracket(propertyLine, operandStart, splitter.start())) {
+				return false;
+			}
+			operandStart = splitter.end();
+			splitCount++;
+		}
+		return !containsPairlessBracket(propertyLine, operandStart, propertyLine.length());
+	}
+
+	private static boolean containsPairlessBracket(String line, int start, int end) {
+		int bracketCount = 0;
+		for (int index = start; index < end; index++) {
+			char aChar = line.charAt(index);
+			if (aChar == '(') bracketCount++;
+			else if (aChar == ')') bracketCount--;
+		}
+		return bracketCount != 0;
+	}
+
 	/* GETTERS */
 
 	public String getName() {
@@ -3,11 +3,23 @@ package base.psl.structure;
 import io.PSLBufferedReader;
 import base.helpers.RegexpFactory;
 
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 /**
  * @author Anton Chepurov
  */
 public class Range {
 
+	private static final String NEXT_REGEXP = RegexpFactory.createStringRegexp("next");
+	private static final Pattern NEXT_WITH_RANGE_PATTERN = Pattern.compile(NEXT_REGEXP + "\\[.*"); //todo: before was "\\s\\[.*"
+	private static final Pattern NEXT_WITH_MODIFIER_PATTERN = Pattern.compile(NEXT_REGEXP + "_.*");
+	private static final Pattern NEXT_PATTERN = Pattern.compile(NEXT_REGEXP + ".*");
+	private static final Pattern RANGE_DECLARATION_PATTERN = Pattern.compile("\\w+\\s+[tT][oO]\\s+\\w+");
+	private static final Pattern WORD_PATTERN = Pattern.compile("\\w+");
+	private static final Pattern TO_PATTERN = Pattern.compile("\\s[tT][oO]\\s");
+	private static final Pattern WINDOW_PATTERN = Pattern.compile("@\\[(\\d+)\\.\\.(\\d+)\\](?:_([aAeE]))?");
+
 	private int start;
 
 	@SuppressWarnings({"InstanceVariableNamingConvention"})
@@ -106,7 +118,7 @@ public class Range {
 		String potentialRange = expression.substring(expression.indexOf("[") + 1, expression.indexOf("]")).trim();
 
 		/*  */
-		if (!(potentialRange.matches("\\w+\\s+[tT][oO]\\s+\\w+") || potentialRange.matches("\\w+"))) return false;
+		if (!(RANGE_DECLARATION_PATTERN.matcher(potentialRange).matches() || WORD_PATTERN.matcher(potentialRange).matches())) return false;
 
 		/* All checks passed. It's a range declaration */
 		return true;
@@ -115,7 +127,7 @@ public class Range {
 	private static int[] parseRange(String rangeExpression) {
 		rangeExpression = rangeExpression.replaceAll("\\[", "").replaceAll("\\]", "");
 
-		String[] rangeNumbers = rangeExpression.split("\\s[tT][oO]\\s");
+		String[] rangeNumbers = TO_PATTERN.split(rangeExpression);
 		int[] range = new int[rangeNumbers.length];
 		for (int i = 0; i < rangeNumbers.length; i++) {
 			range[i] = Integer.parseInt(rangeNumbers[i].trim());
@@ -134,13 +146,11 @@ public class Range {
 	 * @throws Exception if unknown temporal modifier is used
 	 */
 	public static Range parseRangeNEXT(String expression) throws Exception {
-		String nextRegexp = RegexpFactory.createStringRegexp("next");
-
-		if (expression.matches(nextRegexp + "\\[.*")) { //todo: before was "\\s\\[.*"
+		if (NEXT_WITH_RANGE_PATTERN.matcher(expression).matches()) {
 			/*      NEXT[i]      */
 			return new Range(parseRange(new PSLBufferedReader(expression).readBlock('[', ']', false)));
 
-		} else if (expression.matches(nextRegexp + "_.*")) {
+		} else if (NEXT_WITH_MODIFIER_PATTERN.matcher(expression).matches()) {
 			/*      NEXT_       */
 			char temporalModifierChar = expression.charAt(expression.indexOf("_") + 1);
 
@@ -148,7 +158,7 @@ public class Range {
 
 			return new Range(range, temporalModifierChar);
 
-		} else if (expression.matches(nextRegexp + ".*")) {
+		} else if (NEXT_PATTERN.matcher(expression).matches()) {
 			/*      NEXT        */
 			return new Range(new int[]{1});
 
@@ -156,11 +166,31 @@ public class Range {
 
 	}
 
+	/**
+	 * Parses the window of a THLDD node, as written by {@link #toString()} after the name of the node's
+	 * dependent variable in TGM files, e.g. <code>A@[1..3]_a</code>.
+	 *
+	 * @param depVarName name of the dependent variable of a node
+	 * @return window following the name, or <code>null</code> if the name contains no window
+	 * @throws Exception if unknown temporal modifier is used
+	 */
+	public static Range parseWindow(String depVarName) throws Exception {
+		if (depVarName.indexOf('@') == -1) {
+			return null;
+		}
+		Matcher matcher = WINDOW_PATTERN.matcher(depVarName);
+		if (!matcher.find()) {
+			return null;
+		}
+		int[] range = {Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))};
+		return matcher.group(3) == null ? new Range(range) : new Range(range, matcher.group(3).charAt(0));
+	}
+
 	public static String[] parseRangeDeclaration(String rangeDeclaration) {
 		rangeDeclaration = rangeDeclaration.substring(rangeDeclaration.indexOf("[") + 1, rangeDeclaration.indexOf("]"));
 
-		String[] declarations = rangeDeclaration.matches("\\w+\\s+[tT][oO]\\s+\\w+")
-				? rangeDeclaration.split("\\s[tT][oO]\\s")
+		String[] declarations = RANGE_DECLARATION_PATTERN.matcher(rangeDeclaration).matches()
+				? TO_PATTERN.split(rangeDeclaration)
 				: new String[]{rangeDeclaration};
 		String[] retDecl = new String[declarations.length];
 		for (int i = 0; i < declarations.length; i++) {
@@ -7,6 +7,7 @@ import parsers.vhdl.StructureBuilder;
 import parsers.vhdl.StructureParser;
 
 import java.io.File;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -29,10 +30,14 @@ public class Entity extends ASTObject implements Visitable {
 
 	private Architecture architecture;
 
+	private Set<File> packageFiles = new HashSet<File>();
 
 	public static Entity parseVhdlStructure(File vhdlFile) throws Exception {
+		return parseVhdlStructure(new VHDLScanner(vhdlFile));
+	}
+
+	public static Entity parseVhdlStructure(VHDLScanner vhdlScanner) throws Exception {
 		/* Parse VHDL structure */
-		VHDLScanner vhdlScanner = new VHDLScanner(vhdlFile);
 		StructureBuilder structureBuilder = new StructureBuilder();
 		StructureParser structureParser = new StructureParser(vhdlScanner, structureBuilder);
 		structureParser.parse();
@@ -64,6 +69,10 @@ public class Entity extends ASTObject implements Visitable {
 		constants.add(newConstant);
 	}
 
+	public void addPackageFiles(Collection<File> packageFiles) {
+		this.packageFiles.addAll(packageFiles);
+	}
+
 	/* GETTERS and SETTERS */
 
 	public Architecture getArchitecture() {
@@ -82,6 +91,13 @@ public class Entity extends ASTObject implements Visitable {
 		return ports;
 	}
 
+	/**
+	 * @return files of the packages used by the entity
+	 */
+	public Set<File> getPackageFiles() {
+		return packageFiles;
+	}
+
 	public void setArchitecture(Architecture architecture) {
 		this.architecture = architecture;
 	}
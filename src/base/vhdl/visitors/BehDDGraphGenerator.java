@@ -1,5 +1,6 @@
 package base.vhdl.visitors;
 
+import base.hldd.structure.variables.AbstractVariable;
 import base.vhdl.structure.*;
 import base.vhdl.structure.Process;
 import base.vhdl.structure.nodes.*;
@@ -13,6 +14,8 @@ import java.util.Collection;
  */
 public class BehDDGraphGenerator extends GraphGenerator {
 
+	private AbstractVariable graphVariable;
+
 	public BehDDGraphGenerator(ConfigurationHandler config, ConverterSettings settings, Collection<Constant> generics) {
 		super(config, settings, generics, GeneratorType.BehaviouralDD, false);
 	}
@@ -24,7 +27,8 @@ public class BehDDGraphGenerator extends GraphGenerator {
 		if (graphVarName == null)
 			throw new Exception("Could not extract GraphVariable name for the process with name \"" + process.getName() + "\"");
 
-		couldProcessNextGraphVariable(modelCollector.getVariable(graphVarName), process.getRootNode());
+		graphVariable = modelCollector.getVariable(graphVarName);
+		couldProcessNextGraphVariable(graphVariable, process.getRootNode());
 	}
 
 	static String extractVariableName(Process process) throws Exception {
@@ -24,15 +24,8 @@ public class BehGraphGenerator extends GraphGenerator {
 
 	public void visitProcess(base.vhdl.structure.Process process) throws Exception {
 
-		/* (Re)Traverse the root node until all the variables
-		*  that are set within this process are processed. */
-		while (true) {
-			if (!couldProcessNextGraphVariable(null, process.getRootNode()))
-				break;
-			else
-				processedGraphVars.add(graphVariable.getName());
-
-		}
+		/* Generate graphs for all the variables that are set within this process */
+		processGraphVariables(process.getRootNode());
 
 	}
 
@@ -9,6 +9,7 @@ import base.hldd.structure.nodes.CompositeNode;
 import base.hldd.structure.nodes.Node;
 import base.hldd.structure.nodes.utils.Condition;
 import base.hldd.structure.variables.*;
+import base.hldd.visitors.DependentVariableReplacer;
 import base.hldd.visitors.ObsoleteResetRemoverImpl;
 import base.vhdl.structure.*;
 import base.vhdl.structure.Process;
@@ -50,9 +51,10 @@ public abstract class GraphGenerator extends AbstractVisitor {
 	protected ModelManager modelCollector;
 	private ConditionGraphManager conditionGraphManager;
 	private ExtraConditionGraphManager extraConditionGraphManager;
-	protected AbstractVariable graphVariable;
-	protected Node graphVariableRootNode;
-	private ContextManager contextManager = new ContextManager();
+	/* Graphs being generated during the current traversal */
+	private List<ContextManager> contextManagers = Collections.emptyList();
+	/* Number of graph variables found during the current traversal */
+	private int foundGraphVarsCount;
 
 	/* AUXILIARY fields */
 	private final boolean doFlattenConditions;
@@ -181,7 +183,8 @@ public abstract class GraphGenerator extends AbstractVisitor {
 			couldProcessNextGraphVariable(null, archTransNode);
 		}
 
-		/* Process COMPONENTS */
+		/* Process COMPONENTS. Convert them concurrently, but merge in the order of instantiation. */
+		ComponentLoader.preloadModels(architecture.getComponents(), settings);
 		for (ComponentInstantiation component : architecture.getComponents()) {
 			loadComponent(component);
 		}
@@ -283,24 +286,27 @@ public abstract class GraphGenerator extends AbstractVisitor {
 		Range range = depVariableHolder.getRange();
 		int conditionValueInt = depVariableHolder.getTrueValue();
 
-		/* Create ControlNode */
-		Node controlNode = dependentVariable instanceof CompositeFunctionVariable
-				? new CompositeNode((CompositeFunctionVariable) dependentVariable)
-				: new Node.Builder(dependentVariable).range(range).createSuccessors(2).build();
-		/* Add VHDL lines the node's been created from */
-		controlNode.setSource(source);
+		/* Create ControlNode for every graph being generated */
+		Node[] controlNodes = new Node[contextManagers.size()];
+		for (int i = 0; i < controlNodes.length; i++) {
+			controlNodes[i] = dependentVariable instanceof CompositeFunctionVariable
+					? new CompositeNode((CompositeFunctionVariable) dependentVariable)
+					: new Node.Builder(dependentVariable).range(range).createSuccessors(2).build();
+			/* Add VHDL lines the node's been created from */
+			controlNodes[i].setSource(source);
+		}
 
 		/*#################################################
 		*       P R O C E S S     T R U E  P A R T
 		* #################################################*/
 		/* Extract condition of dependentVariable: already DONE above using depVariableHolder */
 		/* Create new Current Context and push it to Context Stack */
-		contextManager.addContext(new Context(controlNode, Condition.createCondition(conditionValueInt)));
+		addContexts(controlNodes, Condition.createCondition(conditionValueInt));
 		/* Process TRUE PART */
 		doCheckTruePart(ifNode);
 		ifNode.getTruePart().traverse(this);
 		/* Remove Current Context from stack */
-		contextManager.removeContext();
+		removeContexts();
 
 		/*#################################################
 		*       P R O C E S S     F A L S E  P A R T
@@ -310,20 +316,38 @@ public abstract class GraphGenerator extends AbstractVisitor {
 			/* Get false condition of dependentVariable */
 			conditionValueInt = ModelManager.invertBit(conditionValueInt);
 			/* Create new Current Context and push it to Context Stack */
-			contextManager.addContext(new Context(controlNode, Condition.createCondition(conditionValueInt)));
+			addContexts(controlNodes, Condition.createCondition(conditionValueInt));
 			/* Process FALSE PART */
 			ifNode.getFalsePart().traverse(this);
 			/* Remove Current Context from stack */
-			contextManager.removeContext();
+			removeContexts();
 		}
 
 		/*#################################################
 		*       F I N A L I Z E    C O N T R O L  N O D E
 		* #################################################*/
-		insertControlNode(controlNode);
+		insertControlNodes(controlNodes);
+	}
+
+	private void addContexts(Node[] controlNodes, Condition awaitedCondition) {
+		for (int i = 0; i < controlNodes.length; i++) {
+			contextManagers.get(i).addContext(new Context(controlNodes[i], awaitedCondition));
+		}
+	}
+
+	private void removeContexts() throws Exception {
+		for (ContextManager contextManager : contextManagers) {
+			contextManager.removeContext();
+		}
+	}
+
+	private void insertControlNodes(Node[] controlNodes) throws Exception {
+		for (int i = 0; i < controlNodes.length; i++) {
+			insertControlNode(contextManagers.get(i), controlNodes[i]);
+		}
 	}
 
-	private void insertControlNode(Node controlNode) throws Exception {
+	private void insertControlNode(ContextManager contextManager, Node controlNode) throws Exception {
 		finalizeControlNode(controlNode);
 		contextManager.fillCurrentContextWith(controlNode);
 	}
@@ -367,17 +391,24 @@ public abstract class GraphGenerator extends AbstractVisitor {
 	 * @throws Exception {@link GraphGenerator.Context#fill(base.hldd.structure.nodes.Node) cause }
 	 */
 	public void visitTransitionNode(TransitionNode transitionNode) throws Exception {
+		for (ContextManager contextManager : contextManagers) {
+			visitTransitionNode(transitionNode, contextManager);
+		}
+	}
+
+	private void visitTransitionNode(TransitionNode transitionNode, ContextManager contextManager) throws Exception {
 
 		/* Only process TerminalNodes that set the graphVariable */
-		if (isGraphVariableSetIn(transitionNode)) {
+		if (isGraphVariableSetIn(transitionNode, contextManager)) {
 
+			AbstractVariable graphVariable = contextManager.graphVariable;
 			SourceLocation source = transitionNode.getSource();
 			/* ######### Create TERMINAL NODE ############*/
 
 			/* Extract dependentVariable and range */
 			AbstractVariable dependentVariable = transitionNode.isNull()
 					? graphVariable // Retain value
-					: modelCollector.convertOperandToVariable(transitionNode.getValueOperand(), graphVariable.getType(), true, source);
+					: convertValueOperand(transitionNode, contextManager, source);
 			/* branch <= not CCR(CBIT); =====> don't take range into account, they were already used during Function creation */
 			Range range = dependentVariable instanceof FunctionVariable && ((FunctionVariable) dependentVariable).getOperator() == Operator.INV
 					? null : transitionNode.getValueOperandRange();
@@ -415,10 +446,10 @@ public abstract class GraphGenerator extends AbstractVisitor {
 			terminalNode.setSource(source);
 			if (isDynamicRange) {
 				if (isMemoryVariableRequired(graphVariable)) {
-					insertIndexNode(transitionNode.getTargetOperand(), terminalNode);
+					insertIndexNode(transitionNode.getTargetOperand(), terminalNode, contextManager);
 					((base.hldd.structure.variables.Variable) graphVariable).setMemory(true);
 				} else {
-					insertDynamicNode(transitionNode.getTargetOperand(), terminalNode);
+					insertDynamicNode(transitionNode.getTargetOperand(), terminalNode, contextManager);
 				}
 				return;
 			}
@@ -428,7 +459,18 @@ public abstract class GraphGenerator extends AbstractVisitor {
 		}
 	}
 
-	private void insertIndexNode(OperandImpl targetOperand, Node terminalNode) throws Exception {
+	private AbstractVariable convertValueOperand(TransitionNode transitionNode, ContextManager contextManager, SourceLocation source) throws Exception {
+		AbstractVariable graphVariable = contextManager.graphVariable;
+		/* Functions of conditions belong to the first graph, like if the graphs were generated one by one */
+		modelCollector.setGraphIdx(contextManager.graphIdx);
+		try {
+			return modelCollector.convertOperandToVariable(transitionNode.getValueOperand(), graphVariable.getType(), true, source);
+		} finally {
+			modelCollector.setGraphIdx(0);
+		}
+	}
+
+	private void insertIndexNode(OperandImpl targetOperand, Node terminalNode, ContextManager contextManager) throws Exception {
 		Node controlNode = createDynamicNode(targetOperand, terminalNode.getSource());
 		Condition others = controlNode.getOthers();
 
@@ -436,10 +478,11 @@ public abstract class GraphGenerator extends AbstractVisitor {
 		contextManager.fillCurrentContextWith(terminalNode);
 		contextManager.removeContext();
 
-		insertControlNode(controlNode);
+		insertControlNode(contextManager, controlNode);
 	}
 
-	private void insertDynamicNode(OperandImpl targetOperand, Node terminalNode) throws Exception {
+	private void insertDynamicNode(OperandImpl targetOperand, Node terminalNode, ContextManager contextManager) throws Exception {
+		AbstractVariable graphVariable = contextManager.graphVariable;
 		Node controlNode = createDynamicNode(targetOperand, terminalNode.getSource());
 		Range range = ((RangeVariable) graphVariable).getRange();
 		if (range.length() != 1) {
@@ -451,7 +494,7 @@ public abstract class GraphGenerator extends AbstractVisitor {
 		contextManager.fillCurrentContextWith(terminalNode);
 		contextManager.removeContext();
 
-		insertControlNode(controlNode);
+		insertControlNode(contextManager, controlNode);
 	}
 
 	private Node createDynamicNode(OperandImpl dynamicRangeOperand, SourceLocation source) {
@@ -468,16 +511,16 @@ public abstract class GraphGenerator extends AbstractVisitor {
 		return graphRange.equals(targetRange);
 	}
 
-	private boolean isGraphVariableSetIn(TransitionNode transitionNode) throws Exception {
-		if (graphVariable == null) {
+	private boolean isGraphVariableSetIn(TransitionNode transitionNode, ContextManager contextManager) throws Exception {
+		if (contextManager.graphVariable == null) {
 			if (transitionNode.isNull()) return false;
 			/* GraphVariable to process has not been set yet. */
-			OperandImpl targetOperand = transitionNode.getTargetOperand();
-			String transitionVarName = targetOperand.isDynamicRange() ? targetOperand.getName() : targetOperand.toString();
+			String transitionVarName = getTransitionVarName(transitionNode);
 			if (processedGraphVars.contains(transitionVarName)) return false;
+			if (contextManager.awaitedVarName != null && !contextManager.awaitedVarName.equals(transitionVarName)) return false;
 
-			setGraphVariable(modelCollector.getVariable(transitionVarName));
-			if (graphVariable == null) {
+			contextManager.graphVariable = modelCollector.getVariable(transitionVarName);
+			if (contextManager.graphVariable == null) {
 				return false;//todo: commented for DEMO. (Informs that the initial variable of range assignment variables is not found or the like... In any way, has something to do with range assignment variables)
 //                    Exception exception = new Exception("GraphVariable to process could not be set:" +
 //                            "\nModel collector does not contain the requested variable: " + transitionVarName +
@@ -489,9 +532,15 @@ public abstract class GraphGenerator extends AbstractVisitor {
 //                        return false;
 //                    } else throw exception;
 			}
+			contextManager.graphIdx = foundGraphVarsCount++;
 			return true;/* A new graphVariable is set. Start processing its TransitionNodes. */
 
-		} else return isVariableSetIn(transitionNode, graphVariable, isNullATransition, modelCollector);
+		} else return isVariableSetIn(transitionNode, contextManager.graphVariable, isNullATransition, modelCollector);
+	}
+
+	private static String getTransitionVarName(TransitionNode transitionNode) {
+		OperandImpl targetOperand = transitionNode.getTargetOperand();
+		return targetOperand.isDynamicRange() ? targetOperand.getName() : targetOperand.toString();
 	}
 
 	static boolean isVariableSetIn(TransitionNode transitionNode, AbstractVariable variable, boolean isNullATransition, TypeResolver typeResolver) {
@@ -525,27 +574,30 @@ public abstract class GraphGenerator extends AbstractVisitor {
 		//todo: suspicious action: dependentVariable.isState() ? caseNode.getConditions().size(). May be "when => others", may be "when A | B | C =>" ... consider these...
 //		int conditionValuesCount = dependentVariable.isState() ? caseNode.getConditions().size() : modelCollector.countPossibleValues(dependentVariable);
 		int conditionValuesCount = dependentVariable.getType().countPossibleValues(range);
-		/* Create Control Node */
-		Node controlNode = new Node.Builder(dependentVariable).range(range).createSuccessors(conditionValuesCount).build();
-		/* Add VHDL lines the node's been created from */
-		controlNode.setSource(source); //todo: inline with the creation process above...
+		/* Create Control Node for every graph being generated */
+		Node[] controlNodes = new Node[contextManagers.size()];
+		for (int i = 0; i < controlNodes.length; i++) {
+			controlNodes[i] = new Node.Builder(dependentVariable).range(range).createSuccessors(conditionValuesCount).build();
+			/* Add VHDL lines the node's been created from */
+			controlNodes[i].setSource(source); //todo: inline with the creation process above...
+		}
 
 		/*#################################################
 		*       P R O C E S S     C O N D I T I O N S
 		* #################################################*/
 		/* Create new Current Context (without awaitedCondition) and add it to Context Stack */
-		contextManager.addContext(new Context(controlNode));
+		addContexts(controlNodes, null);
 		for (WhenNode whenNode : caseNode.getConditions()) {
 			/* Traverse When Condition */
 			whenNode.traverse(this);
 		}
 		/* Remove Case Context from Context Stack */
-		contextManager.removeContext();
+		removeContexts();
 
 		/*#################################################
 		*       F I N A L I Z E    C O N T R O L  N O D E
 		* #################################################*/
-		insertControlNode(controlNode);
+		insertControlNodes(controlNodes);
 	}
 
 	public void visitWhenNode(WhenNode whenNode) throws Exception {
@@ -559,20 +611,23 @@ public abstract class GraphGenerator extends AbstractVisitor {
 			Condition whenCondition = modelCollector.convertOperandsToCondition(whenNode.getConditionOperands());
 			/* Get controlNode from Current Context.
              * Create new Context and add it to Context Stack */
-			Node controlNode = contextManager.getCurrentContext().getControlNode();
-			Condition awaitedCondition = !doCreateGraphsForCS ? whenCondition
-					: conditionGraphManager.mapDirect((GraphVariable) controlNode.getDependentVariable(), whenCondition);
-			contextManager.addContext(new Context(controlNode, awaitedCondition));
+			for (ContextManager contextManager : contextManagers) {
+				Node controlNode = contextManager.getCurrentContext().getControlNode();
+				Condition awaitedCondition = !doCreateGraphsForCS ? whenCondition
+						: conditionGraphManager.mapDirect((GraphVariable) controlNode.getDependentVariable(), whenCondition);
+				contextManager.addContext(new Context(controlNode, awaitedCondition));
+			}
 
 			/*#################################################
 			*       P R O C E S S     T R A N S I T I O N S
 			* #################################################*/
 			whenNode.getTransitions().traverse(this);
 			/* Remove Current Context from stack */
-			contextManager.removeContext();
+			removeContexts();
 		} else {
-			/* For OTHERS, substitute OTHERS in whenNode with ALL UNPROCESSED conditions and process the node */
-			String[] conditionsAsString = contextManager.getCurrentContext().getOthersConditions();
+			/* For OTHERS, substitute OTHERS in whenNode with ALL UNPROCESSED conditions and process the node.
+			* All the graphs have the same conditions processed, so take them from the first one. */
+			String[] conditionsAsString = contextManagers.get(0).getCurrentContext().getOthersConditions();
 			if (conditionsAsString == null) {
 				return;
 			}
@@ -600,7 +655,7 @@ public abstract class GraphGenerator extends AbstractVisitor {
 	}
 
 	/**
-	 * @param initGraphVariable variable to initialize {@link #graphVariable} with
+	 * @param initGraphVariable variable to initialize graph variable with
 	 * @param rootNode		  where to start processing traversal from
 	 * @return <code>true</code> if next graph variable was processed.
 	 *         <code>false</code> if no graph variables could be found to
@@ -608,20 +663,120 @@ public abstract class GraphGenerator extends AbstractVisitor {
 	 * @throws Exception if {@link AbstractNode#traverse(AbstractVisitor)} throws an Exception
 	 */
 	protected boolean couldProcessNextGraphVariable(AbstractVariable initGraphVariable, AbstractNode rootNode) throws Exception {
+		return processNextGraphVariable(initGraphVariable, rootNode) != null;
+	}
+
+	private ContextManager processNextGraphVariable(AbstractVariable initGraphVariable, AbstractNode rootNode) throws Exception {
+
+		ContextManager contextManager = new ContextManager(initGraphVariable, null);
+		traverse(rootNode, Collections.singletonList(contextManager));
 
-		setGraphVariable(initGraphVariable);
-		graphVariableRootNode = null;
-		contextManager.clear();
-		rootNode.traverse(this);
+		return createGraph(contextManager) != null ? contextManager : null;
+	}
+
+	/**
+	 * Generates graphs for all the variables that are set within the specified root node.
+	 * <p/>
+	 * The first variable is processed by a traversal of its own, and graphs of all the other
+	 * variables are then generated during a single traversal of the root node.
+	 * The result is the same as if the root node was traversed once for every variable:
+	 * graphs are created in the order their variables are met in the root node and
+	 * functions are created graph by graph, since functions of later graphs are
+	 * deferred during the traversal (see {@link ModelManager#deferFunctions()}).
+	 *
+	 * @param rootNode where to start processing traversal from
+	 * @throws Exception if {@link AbstractNode#traverse(AbstractVisitor)} throws an Exception
+	 */
+	protected void processGraphVariables(AbstractNode rootNode) throws Exception {
+
+		if (isF4RTL) {
+			/* (Re)Traverse the root node until all the variables
+			*  that are set within it are processed. */
+			ContextManager contextManager;
+			while ((contextManager = processNextGraphVariable(null, rootNode)) != null) {
+				processedGraphVars.add(contextManager.graphVariable.getName());
+			}
+			return;
+		}
+
+		/* The first variable is processed separately, since creating its graph may add constants
+		*  (e.g. for its default value) that the values of the other variables then reuse */
+		ContextManager firstManager = processNextGraphVariable(null, rootNode);
+		if (firstManager == null) {
+			return;
+		}
+		processedGraphVars.add(firstManager.graphVariable.getName());
+
+		List<ContextManager> candidateManagers = new ArrayList<ContextManager>();
+		for (String varName : collectAssignedVarNames(rootNode)) {
+			if (!processedGraphVars.contains(varName) && modelCollector.getVariable(varName) != null) {
+				candidateManagers.add(new ContextManager(null, varName));
+			}
+		}
+		if (candidateManagers.isEmpty()) {
+			return;
+		}
+
+		modelCollector.deferFunctions();
+		try {
+			traverse(rootNode, candidateManagers);
+		} finally {
+			modelCollector.addDeferredFunctions();
+		}
+
+		/* Create graphs in the order their variables have been found */
+		ContextManager[] foundManagers = new ContextManager[foundGraphVarsCount];
+		for (ContextManager contextManager : candidateManagers) {
+			if (contextManager.graphVariable != null) {
+				foundManagers[contextManager.graphIdx] = contextManager;
+			}
+		}
+		/* Graphs must refer to the graph variables created before them, like the created graphs do.
+		*  Replacements are collected as graphs get created, and every graph applies all of them at once. */
+		Map<AbstractVariable, RangeVariableHolder> replacingVarHolders = new IdentityHashMap<AbstractVariable, RangeVariableHolder>();
+		DependentVariableReplacer replacer = new DependentVariableReplacer.Multiple(replacingVarHolders);
+		for (ContextManager foundManager : foundManagers) {
+			if (foundManager.graphVariableRootNode != null && !replacingVarHolders.isEmpty()) {
+				foundManager.graphVariableRootNode.traverse(replacer);
+			}
+			AbstractVariable graphVariable = foundManager.graphVariable;
+			GraphVariable newGraphVariable = createGraph(foundManager);
+			if (newGraphVariable == null) {
+				break;
+			}
+			processedGraphVars.add(graphVariable.getName());
+			replacingVarHolders.put(graphVariable, new RangeVariableHolder(newGraphVariable, null));
+		}
+	}
+
+	private void traverse(AbstractNode rootNode, List<ContextManager> contextManagers) throws Exception {
+		this.contextManagers = contextManagers;
+		foundGraphVarsCount = 0;
+		try {
+			rootNode.traverse(this);
+		} finally {
+			this.contextManagers = Collections.emptyList();
+		}
+	}
+
+	/**
+	 * @param contextManager traversal results of the graph variable
+	 * @return the created graph variable or <code>null</code> if the graph could not be created
+	 * @throws Exception if redundant resets could not be removed
+	 */
+	private GraphVariable createGraph(ContextManager contextManager) throws Exception {
+
+		AbstractVariable graphVariable = contextManager.graphVariable;
+		Node graphVariableRootNode = contextManager.graphVariableRootNode;
 
 		if (graphVariableRootNode == null) {
-			graphVariableRootNode = getDefaultValueNode();
+			graphVariableRootNode = getDefaultValueNode(graphVariable);
 			if (!isF4RTL && graphVariableRootNode == null) {
-				return false;
+				return null;
 			}
 		}
 		if (isF4RTL && (graphVariableRootNode == null || graphVariable == null)) {
-			return false;
+			return null;
 		}
 		/* Create new GraphVariable and replace old one */
 		GraphVariable newGraphVariable = modelCollector.createAndReplaceNewGraph(graphVariable, graphVariableRootNode,
@@ -632,11 +787,13 @@ public abstract class GraphGenerator extends AbstractVisitor {
 			graphVariableRootNode.traverse(new ObsoleteResetRemoverImpl(newGraphVariable));
 		}
 
-		return true;
+		return newGraphVariable;
 	}
 
-	private void setGraphVariable(AbstractVariable newGraphVariable) {
-		graphVariable = newGraphVariable;
+	private static Collection<String> collectAssignedVarNames(AbstractNode rootNode) throws Exception {
+		AssignedVarNamesCollector collector = new AssignedVarNamesCollector();
+		rootNode.traverse(collector);
+		return collector.varNames;
 	}
 
 	protected abstract boolean isDelay(OperandImpl operand);
@@ -651,19 +808,19 @@ public abstract class GraphGenerator extends AbstractVisitor {
 			/* For each range assignment variable, traverse the tree */
 			for (OperandImpl rangeOperand : rangeOperands) {
 				/* Create new variable */ //todo: may be substitute with couldProcessNextGraphVariable(). Check ModelCollector.replace() to act equally to modelCollector.addVariable() met below:
-				setGraphVariable(modelCollector.getVariable(rangeOperand.toString()));
+				AbstractVariable graphVariable = modelCollector.getVariable(rangeOperand.toString());
 				graphVariable.setDefaultValue(modelCollector.extractSubConstant(wholeVariable.getDefaultValue(), rangeOperand.getRange()));
-				graphVariableRootNode = null;
-				contextManager.clear();
+				ContextManager contextManager = new ContextManager(graphVariable, null);
 
 				for (base.vhdl.structure.nodes.CompositeNode rootNode : rootNodes) {
-					rootNode.traverse(this);
-					if (graphVariableRootNode != null) {
+					traverse(rootNode, Collections.singletonList(contextManager));
+					if (contextManager.graphVariableRootNode != null) {
 						break;
 					}
 				}
+				Node graphVariableRootNode = contextManager.graphVariableRootNode;
 				if (graphVariableRootNode == null) {
-					graphVariableRootNode = getDefaultValueNode();
+					graphVariableRootNode = getDefaultValueNode(graphVariable);
 					if (graphVariableRootNode == null) {
 						/* will be set in component, hopefully */
 						continue;
@@ -682,7 +839,7 @@ public abstract class GraphGenerator extends AbstractVisitor {
 		}
 	}
 
-	private Node getDefaultValueNode() {
+	private static Node getDefaultValueNode(AbstractVariable graphVariable) {
 
 		if (graphVariable == null) {
 			return null;
@@ -697,19 +854,22 @@ public abstract class GraphGenerator extends AbstractVisitor {
 		return new Node.Builder(defaultValueVariable).build();
 	}
 
-	private Node createGraphNode() {
-		if (graphVariable != null)
-			return new Node.Builder(graphVariable).build();
-		else
-			return null;
-	}
-
 	/* AUXILIARY methods and classes */
 
 	/**
 	 * Class deals with contexts of tree traversal.
 	 */
 	private class ContextManager {
+		/**
+		 * Name of the variable to generate graph for, or <code>null</code> to take the first unprocessed variable met
+		 */
+		private final String awaitedVarName;
+		private AbstractVariable graphVariable;
+		private Node graphVariableRootNode;
+		/**
+		 * Order number of the {@link #graphVariable} amongst the graph variables found during the traversal
+		 */
+		private int graphIdx;
 		/**
 		 * Stack of <b>contexts</b>.<br>
 		 * Stack is managed <i>manually</i>, i.e. by the clients that use this class. Management is performed by means
@@ -731,9 +891,14 @@ public abstract class GraphGenerator extends AbstractVisitor {
 		 */
 		private Stack<NodeAndContextHolder> defaultValueStack = new Stack<NodeAndContextHolder>();
 
-		public void clear() {
-			contextStack = new Stack<Context>();
-			defaultValueStack = new Stack<NodeAndContextHolder>();
+		/**
+		 * @param graphVariable  variable to generate graph for, or <code>null</code> if it's to be found during traversal
+		 * @param awaitedVarName name of the variable to find during traversal, or <code>null</code>
+		 *                       to take the first unprocessed variable met
+		 */
+		public ContextManager(AbstractVariable graphVariable, String awaitedVarName) {
+			this.graphVariable = graphVariable;
+			this.awaitedVarName = awaitedVarName;
 		}
 
 		public void addContext(Context newContext) {
@@ -870,7 +1035,7 @@ public abstract class GraphGenerator extends AbstractVisitor {
 		 */
 		private Node getDefaultValueNode() {
 			if (defaultValueStack.isEmpty()) {
-				return createGraphNode();
+				return graphVariable != null ? new Node.Builder(graphVariable).build() : null;
 			} else {
 				Node defaultValueNode = defaultValueStack.peek().defaultValueNode;
 				return Node.clone(defaultValueNode);
@@ -889,6 +1054,45 @@ public abstract class GraphGenerator extends AbstractVisitor {
 
 	}
 
+	/**
+	 * Collects names of the variables set in transitions, in the order they are met.
+	 */
+	private static class AssignedVarNamesCollector extends AbstractVisitor {
+		private final Set<String> varNames = new LinkedHashSet<String>();
+
+		public void visitEntity(Entity entity) throws Exception {
+		}
+
+		public void visitArchitecture(Architecture architecture) throws Exception {
+		}
+
+		public void visitProcess(Process process) throws Exception {
+		}
+
+		public void visitIfNode(IfNode ifNode) throws Exception {
+			ifNode.getTruePart().traverse(this);
+			if (ifNode.getFalsePart() != null) {
+				ifNode.getFalsePart().traverse(this);
+			}
+		}
+
+		public void visitTransitionNode(TransitionNode transitionNode) throws Exception {
+			if (!transitionNode.isNull()) {
+				varNames.add(getTransitionVarName(transitionNode));
+			}
+		}
+
+		public void visitCaseNode(CaseNode caseNode) throws Exception {
+			for (WhenNode whenNode : caseNode.getConditions()) {
+				whenNode.traverse(this);
+			}
+		}
+
+		public void visitWhenNode(WhenNode whenNode) throws Exception {
+			whenNode.getTransitions().traverse(this);
+		}
+	}
+
 	protected class Context {
 		private final Node controlNode;
 		private final Condition awaitedCondition;
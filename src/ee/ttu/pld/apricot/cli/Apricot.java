@@ -20,34 +20,59 @@ import javax.xml.transform.*;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.xpath.*;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.io.InputStream;
+import java.io.*;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.*;
 
 /**
  * @author Anton Chepurov
  */
 public class Apricot {
 
+	private static final String JOBS_OPTION = "-j";
+	private static final String PARALLEL_ATTRIBUTE = "parallel";
+	private static final int SEQUENTIAL = 1;
+
+	/**
+	 * @param args <code>[-j N] requestXml [responseXml]</code>, where <code>N</code> is the number of
+	 *             requests to process concurrently. If omitted, <code>parallel</code> attribute of the
+	 *             <code>apricot</code> element is used. By default requests are processed sequentially.
+	 */
 	public Apricot(String[] args) {
 
-		if (args.length < 1) {
+		int jobCount = -1;
+		List<String> fileNames = new ArrayList<String>(2);
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals(JOBS_OPTION)) {
+				if (++i == args.length || (jobCount = parseJobCount(args[i])) == -1) {
+					System.out.println("[APRICOT] ### ERROR ###: positive number of jobs is expected after " + JOBS_OPTION);
+					return;
+				}
+			} else {
+				fileNames.add(args[i]);
+			}
+		}
+		if (fileNames.isEmpty()) {
 			System.out.println("[APRICOT] ### ERROR ###: request XML file is not specified");
 			return;
 		}
-		String fileName = args[0];
-		String outFileName = args.length == 2 ? args[1] : fileName;
+		String fileName = fileNames.get(0);
+		String outFileName = fileNames.size() == 2 ? fileNames.get(1) : fileName;
 
 		try {
 
 			Document xml = readXml(fileName);
 
+			if (jobCount == -1) {
+				jobCount = parseJobCount(xml.getDocumentElement().getAttribute(PARALLEL_ATTRIBUTE));
+			}
+
 			Collection<Request> requests = buildRequests(xml);
 
-			processRequests(requests);
+			processRequests(requests, jobCount == -1 ? SEQUENTIAL : jobCount);
 
 			buildResponses(requests, xml);
 
@@ -71,9 +96,52 @@ public class Apricot {
 
 	}
 
-	private void processRequests(Collection<Request> requests) {
-		for (Request request : requests) {
-			new TaskRunner(request);
+	/**
+	 * @param jobCountAsString number of jobs to parse
+	 * @return parsed number of jobs, or <code>-1</code> if it is missing or is not a positive number
+	 */
+	private static int parseJobCount(String jobCountAsString) {
+		try {
+			int jobCount = Integer.parseInt(jobCountAsString.trim());
+			return jobCount > 0 ? jobCount : -1;
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	private void processRequests(Collection<Request> requests, int jobCount) {
+		if (jobCount == SEQUENTIAL || requests.size() < 2) {
+			for (Request request : requests) {
+				new TaskRunner(request);
+			}
+			return;
+		}
+		/* Process requests concurrently. Output of every request is captured and printed in the original order. */
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(jobCount, requests.size()));
+		try {
+			List<Future<CapturedOutput>> outputs = new ArrayList<Future<CapturedOutput>>(requests.size());
+			for (final Request request : requests) {
+				outputs.add(executor.submit(new Callable<CapturedOutput>() {
+					@Override
+					public CapturedOutput call() {
+						CapturedOutput output = new CapturedOutput();
+						new TaskRunner(request, output.out, output.err);
+						return output;
+					}
+				}));
+			}
+			for (Future<CapturedOutput> output : outputs) {
+				try {
+					output.get().print();
+				} catch (ExecutionException e) {
+					System.out.println("[APRICOT] ### ERROR ###: " + e.getCause());
+				}
+			}
+		} catch (InterruptedException e) {
+			System.out.println("[APRICOT] ### ERROR ###: interrupted while waiting for tasks to complete");
+			Thread.currentThread().interrupt();
+		} finally {
+			executor.shutdownNow();
 		}
 	}
 
@@ -300,6 +368,20 @@ public class Apricot {
 		}
 	}
 
+	private static class CapturedOutput {
+		private final ByteArrayOutputStream outBytes = new ByteArrayOutputStream();
+		private final ByteArrayOutputStream errBytes = new ByteArrayOutputStream();
+		private final PrintStream out = new PrintStream(outBytes, true);
+		private final PrintStream err = new PrintStream(errBytes, true);
+
+		private void print() {
+			System.out.write(outBytes.toByteArray(), 0, outBytes.size());
+			System.out.flush();
+			System.err.write(errBytes.toByteArray(), 0, errBytes.size());
+			System.err.flush();
+		}
+	}
+
 	public static void main(String[] args) {
 
 		new Apricot(args);
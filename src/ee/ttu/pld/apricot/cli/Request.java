@@ -4,6 +4,7 @@ import org.w3c.dom.Node;
 import ui.FileDependencyResolver;
 
 import java.io.File;
+import java.io.PrintStream;
 import java.util.List;
 
 /**
@@ -39,8 +40,8 @@ public abstract class Request {
 		return !designFile.exists();
 	}
 
-	public void printBroken() {
-		System.out.println("[APRICOT] ### ERROR ###: specified design file does not exist: " + designFile.getAbsolutePath());
+	public void printBroken(PrintStream out) {
+		out.println("[APRICOT] ### ERROR ###: specified design file does not exist: " + designFile.getAbsolutePath());
 	}
 
 	public File getHlddFile() {
@@ -1,9 +1,11 @@
 package ee.ttu.pld.apricot.cli;
 
+import base.hldd.simulation.UnsupportedModelException;
+import io.ProcessExecutor;
+import ui.HLDDSimulation;
 import ui.Platform;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.List;
@@ -13,9 +15,23 @@ import java.util.List;
  */
 public class TaskRunner {
 
+	private final PrintStream out;
+	private final PrintStream err;
+
 	public TaskRunner(Request request) {
+		this(request, System.out, System.err);
+	}
+
+	/**
+	 * @param request request to process
+	 * @param out	 stream to write messages and the output of hlddsim to
+	 * @param err	 stream to write the error output of hlddsim to
+	 */
+	public TaskRunner(Request request, PrintStream out, PrintStream err) {
+		this.out = out;
+		this.err = err;
 		if (request.isBroken()) {
-			request.printBroken();
+			request.printBroken(out);
 			return;
 		}
 		processRequest(request);
@@ -23,6 +39,10 @@ public class TaskRunner {
 
 	private void processRequest(Request request) {
 
+		if (request instanceof CoverageRequest && simulate((CoverageRequest) request)) {
+			return;
+		}
+
 		List<String> cmd = new ArrayList<String>(10);
 
 		cmd.add(ui.ApplicationForm.LIB_DIR + (Platform.isWindows() ? "hlddsim.exe" : "hlddsim"));
@@ -31,74 +51,52 @@ public class TaskRunner {
 		run(cmd, request);
 	}
 
-	@SuppressWarnings({"StaticMethodNamingConvention"})
-	private static void run(List<String> cmd, Request request) {
-
+	/**
+	 * Measures coverage in-process.
+	 *
+	 * @param request coverage request to process
+	 * @return <code>false</code> if the model is not supported by the in-process simulator
+	 *         and hlddsim must be used instead, or <code>true</code> otherwise
+	 */
+	private boolean simulate(CoverageRequest request) {
 		try {
-			Process process = Runtime.getRuntime().exec(cmd.toArray(new String[cmd.size()]));
-
-			boolean success = waitForProcessToComplete(process, cmd.toString());
-
-			if (success) {
-				request.markSuccessful();
-			}
-
-		} catch (IOException e) {
-			System.out.println("[APRICOT] ### ERROR ###: " + e.getMessage());
+			new HLDDSimulation(request.getHlddFile(), request.getDirective(), HLDDSimulation.NO_RANDOM).run();
+			request.markSuccessful();
+		} catch (UnsupportedModelException e) {
+			out.println("[APRICOT] " + e.getMessage() + ". Falling back to hlddsim.");
+			return false;
+		} catch (Exception e) {
+			out.println("[APRICOT] ### ERROR ###: " + e.getMessage());
 		}
+		return true;
 	}
 
-	@SuppressWarnings({"BooleanMethodNameMustStartWithQuestion"})
-	private static boolean waitForProcessToComplete(Process process, String cmd) {
-		InputStream inputStream = process.getInputStream();
-		InputStream errorStream = process.getErrorStream();
-		boolean isProcessFinished = false;
-		boolean success = false;
+	private void run(List<String> cmd, Request request) {
+
+		ProcessExecutor executor = new ProcessExecutor(cmd);
 		try {
-			while (!isProcessFinished && !Thread.interrupted()) {
-
-				readInputAndErrorStreams(inputStream, errorStream);
-
-				try {
-					int exitValue = process.exitValue();
-					isProcessFinished = true;
-					success = exitValue == 0;
-					if (!success) {
-						System.out.println("[APRICOT] ### ERROR ###: Task failed with error " + exitValue + ". Task: " + cmd);
-					}
-				} catch (IllegalThreadStateException e) {
-					// indicates that process.exitValue() cannot return any value yet
-					try {
-						Thread.sleep(200);
-					} catch (InterruptedException e1) {
-						break;
-					}
+			int exitValue = executor.execute(new ProcessExecutor.Listener() {
+				@Override
+				public void outputLine(String line) {
+					out.println(line);
 				}
-			}
 
-			readInputAndErrorStreams(inputStream, errorStream);
-
-		} catch (IOException e) {
-			System.out.println("[APRICOT] ### ERROR ###: " + e.getMessage());
-		}
-		return success;
-	}
+				@Override
+				public void errorLine(String line) {
+					err.println(line);
+				}
+			}, ProcessExecutor.NO_TIMEOUT);
 
-	private static void readInputAndErrorStreams(InputStream inputStream, InputStream errorStream) throws IOException {
-		/* Read OUTPUT */
-		readFromStream(inputStream, System.out);
-		/* Read ERROR */
-		readFromStream(errorStream, System.err);
-	}
+			if (exitValue == 0) {
+				request.markSuccessful();
+			} else {
+				out.println("[APRICOT] ### ERROR ###: Task failed with error " + exitValue + ". Task: " + executor.getCommandAsString());
+			}
 
-	@SuppressWarnings({"ResultOfMethodCallIgnored"})
-	private static void readFromStream(InputStream inputStream, PrintStream printStream) throws IOException {
-		int byteCount = inputStream.available();
-		if (byteCount > 0) {
-			byte[] bytes = new byte[byteCount];
-			inputStream.read(bytes);
-			printStream.write(bytes);
-			printStream.flush();
+		} catch (IOException e) {
+			out.println("[APRICOT] ### ERROR ###: " + e.getMessage());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
 		}
 	}
 
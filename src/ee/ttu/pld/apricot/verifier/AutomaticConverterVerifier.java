@@ -3,6 +3,7 @@ package ee.ttu.pld.apricot.verifier;
 import base.hldd.structure.models.BehModel;
 import io.QuietCloser;
 import ui.ConverterSettings;
+import ui.utils.ConversionCache;
 import ui.utils.ConvertingWorker;
 
 import java.io.*;
@@ -18,6 +19,20 @@ import java.util.logging.LogManager;
  */
 public class AutomaticConverterVerifier {
 
+	private final ConversionCache conversionCache;
+
+	public AutomaticConverterVerifier() {
+		this(null);
+	}
+
+	/**
+	 * @param conversionCache cache to take the designs that haven't changed from,
+	 *                        or <code>null</code> to convert all the designs
+	 */
+	public AutomaticConverterVerifier(ConversionCache conversionCache) {
+		this.conversionCache = conversionCache;
+	}
+
 	public void verify(Statistics statistics) {
 
 		new File(System.getProperty("java.io.tmpdir"), "apricotCAD").mkdirs();
@@ -50,25 +65,38 @@ public class AutomaticConverterVerifier {
 
 		String hlddFilePath = hlddFile.getAbsolutePath();
 		try {
-			// Convert
-			BehModel model = ConvertingWorker.convertAndWait(settings);
+			byte[] modelBytes;
+			byte[] mapBytes;
+			ConversionCache.CachedConversion cachedConversion = conversionCache == null ? null : conversionCache.find(settings);
+			if (cachedConversion != null) {
+				modelBytes = cachedConversion.getModelBytes();
+				mapBytes = cachedConversion.getMapBytes() == null ? new byte[0] : cachedConversion.getMapBytes();
+			} else {
+				// Convert
+				BehModel model = ConvertingWorker.convertAndWait(settings);
+				model.toFile(modelStream, null, settings);
+				modelBytes = modelStream.toByteArray();
+				mapBytes = mapFileStream.toByteArray();
+				if (conversionCache != null) {
+					conversionCache.store(settings, modelBytes, mapBytes);
+				}
+			}
 			// Compare
-			model.toFile(modelStream, null, settings);
-			if (areEqual(new FileInputStream(hlddFile), new ByteArrayInputStream(modelStream.toByteArray()))) {
+			if (areEqual(new FileInputStream(hlddFile), new ByteArrayInputStream(modelBytes))) {
 				statistics.pass();
 			} else {
 				design.createNewDesignDir();
-				model.toFile(new FileOutputStream(design.getNewDesignFile()), null, settings);
+				writeToFile(modelBytes, design.getNewDesignFile());
 				statistics.fail(hlddFilePath);
 			}
 			// Compare MAP file
 			File mapFile = settings.getMapFile();
 			if (mapFile != null && mapFile.exists()) {
-				if (areEqual(new FileInputStream(mapFile), new ByteArrayInputStream(mapFileStream.toByteArray()))) {
+				if (areEqual(new FileInputStream(mapFile), new ByteArrayInputStream(mapBytes))) {
 					statistics.passMap();
 				} else {
 					design.createNewDesignDir();
-					writeToFile(mapFileStream, design.getNewMapFile());
+					writeToFile(mapBytes, design.getNewMapFile());
 					statistics.failMap(mapFile.getAbsolutePath());
 				}
 			}
@@ -84,11 +112,13 @@ public class AutomaticConverterVerifier {
 		}
 	}
 
-	private void writeToFile(ByteArrayOutputStream mapFileStream, File newMapFile) throws IOException {
-		BufferedWriter writer = new BufferedWriter(new FileWriter(newMapFile));
-		writer.write(mapFileStream.toString());
-		writer.flush();
-		QuietCloser.closeQuietly(writer);
+	private void writeToFile(byte[] bytes, File newFile) throws IOException {
+		OutputStream outputStream = new FileOutputStream(newFile);
+		try {
+			outputStream.write(bytes);
+		} finally {
+			QuietCloser.closeQuietly(outputStream);
+		}
 	}
 
 	static boolean areEqual(InputStream firstStream, InputStream secondStream) throws NoSuchAlgorithmException, IOException {
@@ -130,7 +160,7 @@ public class AutomaticConverterVerifier {
 		} catch (IOException e) {
 		}
 
-		AutomaticConverterVerifier converterVerifier = new AutomaticConverterVerifier();
+		AutomaticConverterVerifier converterVerifier = new AutomaticConverterVerifier(ConversionCache.createDefault());
 		converterVerifier.verify(Statistics.createConsoleStatistics());
 
 	}
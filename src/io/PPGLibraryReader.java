@@ -11,6 +11,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.regex.Pattern;
 
 import io.helpers.PSLOperatorDataHolder;
 
@@ -21,6 +22,10 @@ public class PPGLibraryReader {
 
 	@SuppressWarnings({"ConstantNamingConvention"})
 	public static final String LITERAL_ENDS_WITH_SPACE_OR_BRACKET = "^[a-zA-Z][\\w]*[\\s\\(\\{]$";
+	private static final Pattern LITERAL_ENDS_WITH_SPACE_OR_BRACKET_PATTERN = Pattern.compile(LITERAL_ENDS_WITH_SPACE_OR_BRACKET);
+	private static final Pattern PPG_START_PATTERN = Pattern.compile(".*\\{$");
+	private static final Pattern WINDOW_PATTERN = Pattern.compile("\\[.*\\]");
+	private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\s");
 
 	private PPGLibrary ppgLibrary;
 
@@ -52,7 +57,7 @@ public class PPGLibraryReader {
 		String word;
 
 		/* Trim 'OPERATORS' */
-		word = pslBufReader.readWordMatchingRegexp(LITERAL_ENDS_WITH_SPACE_OR_BRACKET);
+		word = pslBufReader.readWordMatchingRegexp(LITERAL_ENDS_WITH_SPACE_OR_BRACKET_PATTERN);
 		if (!word.equalsIgnoreCase("OPERATORS"))
 			throw new Exception("Malformed PPG Library file: \'OPERATORS\' expected to identify the beginning of the list of operators" + pslBufReader.printLog());
 
@@ -86,7 +91,7 @@ public class PPGLibraryReader {
 
 		while (true) {
 			/* Read PPG */
-			boolean nextPPGFound = pslBufReader.trySkippingToRegexp(".*\\{$");
+			boolean nextPPGFound = pslBufReader.trySkippingToRegexp(PPG_START_PATTERN);
 			if (!nextPPGFound) break;
 //			word = pslBufReader.readWordMatchingRegexp(LITERAL_ENDS_WITH_SPACE_OR_BRACKET);
 //			word = pslBufReader.getLastReadWord();
@@ -119,7 +124,7 @@ public class PPGLibraryReader {
 			withWindow = true;
 			windowPlaceholders = Range.parseRangeDeclaration(opDeclaration);
 
-			opDeclaration = opDeclaration.replaceFirst("\\[.*\\]", "");
+			opDeclaration = WINDOW_PATTERN.matcher(opDeclaration).replaceFirst("");
 		}
 
 		String[] words = splitToTokens(opDeclaration);
@@ -145,7 +150,7 @@ public class PPGLibraryReader {
 	}
 
 	static String[] splitToTokens(String opDeclaration) {
-		return opDeclaration.split("\\s");
+		return WHITESPACE_PATTERN.split(opDeclaration);
 	}
 
 	private static boolean isWordUppercase(String word) {
@@ -2,6 +2,8 @@ package io;
 
 import java.io.*;
 import java.util.Stack;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Class is a wrapper for BufferedReader.
@@ -36,7 +38,18 @@ public class PSLBufferedReader extends BufferedReader {
 	 * @throws IOException If an I/O error occurs
 	 */
 	public String readWordMatchingRegexp(String regexp) throws IOException {
+		return readWordMatchingRegexp(Pattern.compile(regexp));
+	}
+
+	/**
+	 * @param pattern pattern to match
+	 * @return last read word matching pattern, or <code>null</code> if EOF reached.
+	 * @throws IOException If an I/O error occurs
+	 */
+	public String readWordMatchingRegexp(Pattern pattern) throws IOException {
 		StringBuilder readChars = new StringBuilder();
+		/* Matcher is reset to the read chars after every char read */
+		Matcher matcher = pattern.matcher(readChars);
 		char tempChar;
 
 		do {
@@ -48,12 +61,11 @@ public class PSLBufferedReader extends BufferedReader {
 			lastReadChar = tempChar;
 			/* Skip whitespace-s */
 			if (Character.isWhitespace(lastReadChar) && readChars.length() == 0) {
-				readChars = new StringBuilder();
 				continue;
 			}
 			/* Skip comments */
-			if (DEFAULT_COMMENT.equals(readChars.toString())) {
-				readChars = new StringBuilder();
+			if (DEFAULT_COMMENT.contentEquals(readChars)) {
+				readChars.setLength(0);
 				readLine();
 				continue;
 			}
@@ -61,7 +73,7 @@ public class PSLBufferedReader extends BufferedReader {
 			/* Collect chars into a StringBuffer */
 			readChars.append(lastReadChar);
 
-		} while (!readChars.toString().matches(regexp) || DEFAULT_COMMENT.contains(readChars.toString()));
+		} while (!matcher.reset(readChars).matches() || DEFAULT_COMMENT.contains(readChars));
 
 		/* If only 1 character is read, then return it as is.
 		* If more than 1 character is read, then trim the last character. */
@@ -75,7 +87,16 @@ public class PSLBufferedReader extends BufferedReader {
 	 * @throws IOException If an I/O error occurs
 	 */
 	public boolean trySkippingToRegexp(String regexp) throws IOException {
-		String word = readWordMatchingRegexp(regexp);
+		return trySkippingToRegexp(Pattern.compile(regexp));
+	}
+
+	/**
+	 * @param pattern pattern to skip to
+	 * @return <code>true</code> if matching was found. <code>false</code> otherwise.
+	 * @throws IOException If an I/O error occurs
+	 */
+	public boolean trySkippingToRegexp(Pattern pattern) throws IOException {
+		String word = readWordMatchingRegexp(pattern);
 		lastReadWord = word;
 		return word != null && word.length() > 0;
 	}
@@ -0,0 +1,135 @@
+package io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Executes an external command and streams its output line by line to a {@link Listener}.
+ * <p/>
+ * Standard output and error output are drained by dedicated threads as soon as the data is
+ * available, so that a child producing lots of output never blocks on a full pipe. Completion
+ * is detected with {@link Process#waitFor()}, without polling.
+ *
+ * @author Anton Chepurov
+ */
+public class ProcessExecutor {
+
+	public static final long NO_TIMEOUT = -1;
+
+	private final String[] command;
+	private volatile Process process;
+	private volatile boolean isTimedOut = false;
+
+	public ProcessExecutor(List<String> command) {
+		this.command = command.toArray(new String[command.size()]);
+	}
+
+	/**
+	 * Starts the command and waits for it to complete. If the calling thread is interrupted,
+	 * the process is destroyed.
+	 *
+	 * @param listener	  listener to receive output lines
+	 * @param timeoutMillis time to wait for the process before destroying it, or {@link #NO_TIMEOUT}
+	 * @return exit value of the process
+	 * @throws IOException		  if the process cannot be started
+	 * @throws InterruptedException if the calling thread was interrupted while waiting for the process
+	 */
+	public int execute(Listener listener, long timeoutMillis) throws IOException, InterruptedException {
+		process = Runtime.getRuntime().exec(command);
+		Thread outputPump = startPump(process.getInputStream(), listener, false);
+		Thread errorPump = startPump(process.getErrorStream(), listener, true);
+		Thread watchdog = timeoutMillis == NO_TIMEOUT ? null : startWatchdog(timeoutMillis);
+		try {
+			int exitValue = process.waitFor();
+			/* Deliver the remaining output */
+			outputPump.join();
+			errorPump.join();
+			return exitValue;
+		} catch (InterruptedException e) {
+			process.destroy();
+			throw e;
+		} finally {
+			if (watchdog != null) {
+				watchdog.interrupt();
+			}
+			QuietCloser.closeQuietly(process.getOutputStream());
+		}
+	}
+
+	/**
+	 * Destroys the process, if it is running.
+	 */
+	public void destroy() {
+		Process process = this.process;
+		if (process != null) {
+			process.destroy();
+		}
+	}
+
+	public boolean isTimedOut() {
+		return isTimedOut;
+	}
+
+	public String getCommandAsString() {
+		return Arrays.toString(command);
+	}
+
+	private Thread startPump(final InputStream inputStream, final Listener listener, final boolean isError) {
+		Thread pump = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
+				try {
+					String line;
+					while ((line = reader.readLine()) != null) {
+						if (isError) {
+							listener.errorLine(line);
+						} else {
+							listener.outputLine(line);
+						}
+					}
+				} catch (IOException e) {
+					/* Stream is closed when the process is destroyed */
+				} finally {
+					QuietCloser.closeQuietly(reader);
+				}
+			}
+		}, (isError ? "stderr" : "stdout") + " of " + command[0]);
+		pump.setDaemon(true);
+		pump.start();
+		return pump;
+	}
+
+	private Thread startWatchdog(final long timeoutMillis) {
+		Thread watchdog = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(timeoutMillis);
+					isTimedOut = true;
+					destroy();
+				} catch (InterruptedException e) {
+					/* Process completed in time */
+				}
+			}
+		}, "timeout of " + command[0]);
+		watchdog.setDaemon(true);
+		watchdog.start();
+		return watchdog;
+	}
+
+	/**
+	 * Receives output of the process. Methods are invoked from the threads draining the output,
+	 * so output and error lines may arrive concurrently.
+	 */
+	public interface Listener {
+
+		void outputLine(String line);
+
+		void errorLine(String line);
+	}
+}
@@ -0,0 +1,271 @@
+package io.scan;
+
+import io.QuietCloser;
+
+import java.io.*;
+
+/**
+ * Character level reader of HLDD files (*.agm files).
+ * <p/>
+ * Unlike {@link HLDDScanner}, the reader doesn't split the file into lines, but lets the parser read the fields of
+ * the current line one by one straight from the buffer. Lines are read in upper case. Everything from a semicolon up
+ * to the end of line is a comment. Empty and comment lines are skipped.
+ *
+ * @author Anton Chepurov
+ */
+public class HLDDReader {
+
+	private static final int BUFFER_SIZE = 8192;
+	private static final char COMMENT = ';';
+	/**
+	 * Denotes the end of the current line
+	 */
+	public static final char LINE_END = '\n';
+	private static final int EOF = -1;
+
+	private final Reader reader;
+
+	private final char[] buffer = new char[BUFFER_SIZE];
+	private int position = 0;
+	private int limit = 0;
+
+	private boolean isInLine = false;
+	private int lineNumber = 0;
+
+	/**
+	 * @param hlddSource String or File representing the HLDD structure
+	 *                   (for other classes an Exception will be thrown)
+	 * @throws Exception if specified <code>hlddSource</code> parameter
+	 *                   is not of neither String nor File type
+	 */
+	public HLDDReader(Object hlddSource) throws Exception {
+		if (hlddSource instanceof File) {
+			reader = new FileReader((File) hlddSource);
+		} else if (hlddSource instanceof String) {
+			reader = new StringReader((String) hlddSource);
+		} else
+			throw new Exception("Unsupported hlddSource used in " + HLDDReader.class.getSimpleName() + ": " + hlddSource.toString());
+	}
+
+	/**
+	 * Skips the rest of the current line and moves to the first character of the next non-empty line.
+	 *
+	 * @return <code>false</code> if EOF is reached, <code>true</code> otherwise
+	 * @throws IOException if an I/O error occurs
+	 */
+	public boolean nextLine() throws IOException {
+		if (isInLine) {
+			/* Skip the rest of the line */
+			int character;
+			while ((character = peekChar(0)) != EOF && character != '\n') {
+				position++;
+			}
+		}
+		while (true) {
+			int character = peekChar(0);
+			if (character == EOF) {
+				isInLine = false;
+				return false;
+			}
+			if (character == '\n') {
+				lineNumber++;
+				position++;
+			} else if (Character.isWhitespace(character)) {
+				position++;
+			} else if (character == COMMENT) {
+				while ((character = peekChar(0)) != EOF && character != '\n') {
+					position++;
+				}
+			} else {
+				isInLine = true;
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * @param keyword keyword in upper case
+	 * @return whether the rest of the current line starts with the specified keyword
+	 * @throws IOException if an I/O error occurs
+	 */
+	public boolean startsWith(String keyword) throws IOException {
+		for (int i = 0; i < keyword.length(); i++) {
+			int character = peekChar(i);
+			if (character == EOF || Character.toUpperCase((char) character) != keyword.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Skips the characters of the current line up to and including the specified character
+	 *
+	 * @param character character to skip to
+	 * @throws Exception if the character is not found till the end of line
+	 */
+	public void skipPast(char character) throws Exception {
+		while (true) {
+			char nextChar = peek();
+			if (nextChar == LINE_END) {
+				throw createException("'" + character + "' is expected but not found");
+			}
+			position++;
+			if (Character.toUpperCase(nextChar) == character) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Reads the characters of the current line up to the specified character. The character itself is skipped.
+	 *
+	 * @param character character to read to
+	 * @return read characters in upper case
+	 * @throws Exception if the character is not found till the end of line
+	 */
+	public String readUntil(char character) throws Exception {
+		StringBuilder builder = new StringBuilder();
+		while (true) {
+			char nextChar = peek();
+			if (nextChar == LINE_END) {
+				throw createException("'" + character + "' is expected but not found");
+			}
+			position++;
+			if (nextChar == character) {
+				return builder.toString().toUpperCase();
+			}
+			builder.append(nextChar);
+		}
+	}
+
+	/**
+	 * Reads a word: characters up to a whitespace, a comma, a closing bracket or the end of line.
+	 *
+	 * @return read word in upper case, or an empty string if the word is missing
+	 * @throws IOException if an I/O error occurs
+	 */
+	public String readWord() throws IOException {
+		return readWord(",)");
+	}
+
+	/**
+	 * Reads a word: characters up to a whitespace, any of the specified delimiters or the end of line.
+	 *
+	 * @param delimiters characters that end the word besides whitespaces
+	 * @return read word in upper case, or an empty string if the word is missing
+	 * @throws IOException if an I/O error occurs
+	 */
+	public String readWord(String delimiters) throws IOException {
+		skipBlanks();
+		StringBuilder builder = new StringBuilder();
+		while (true) {
+			char nextChar = peek();
+			if (nextChar == LINE_END || delimiters.indexOf(nextChar) != -1 || Character.isWhitespace(nextChar)) {
+				return builder.toString().toUpperCase();
+			}
+			position++;
+			builder.append(nextChar);
+		}
+	}
+
+	/**
+	 * Reads a decimal integer that is preceded by whitespaces only
+	 *
+	 * @return read integer
+	 * @throws Exception if the integer is missing or malformed
+	 */
+	public int readInt() throws Exception {
+		skipBlanks();
+		boolean isNegative = false;
+		char nextChar = peek();
+		if (nextChar == '-' || nextChar == '+') {
+			isNegative = nextChar == '-';
+			position++;
+		}
+		long value = 0;
+		int digitCount = 0;
+		while (Character.isDigit(nextChar = peek())) {
+			value = value * 10 + (nextChar - '0');
+			if (value > (long) Integer.MAX_VALUE + 1) {
+				throw createException("Integer is out of range");
+			}
+			position++;
+			digitCount++;
+		}
+		if (digitCount == 0 || !isNegative && value > Integer.MAX_VALUE) {
+			throw createException("Integer is expected but not found");
+		}
+		return (int) (isNegative ? -value : value);
+	}
+
+	/**
+	 * Skips whitespaces and returns the next character of the current line without reading it
+	 *
+	 * @return the next non-whitespace character in upper case, or {@link #LINE_END} if the end of line is reached
+	 * @throws IOException if an I/O error occurs
+	 */
+	public char peekNonBlank() throws IOException {
+		skipBlanks();
+		return Character.toUpperCase(peek());
+	}
+
+	/**
+	 * Skips the next character of the current line
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void skipChar() throws IOException {
+		if (peek() != LINE_END) {
+			position++;
+		}
+	}
+
+	/**
+	 * @param message description of the problem
+	 * @return exception describing the problem on the current line
+	 */
+	public Exception createException(String message) {
+		return new Exception(message + " on line " + (lineNumber + 1) + " of HLDD file");
+	}
+
+	public void close() {
+		QuietCloser.closeQuietly(reader);
+	}
+
+	private void skipBlanks() throws IOException {
+		char nextChar;
+		while ((nextChar = peek()) != LINE_END && Character.isWhitespace(nextChar)) {
+			position++;
+		}
+	}
+
+	/**
+	 * @return the next character of the current line, or {@link #LINE_END} if the end of line is reached
+	 */
+	private char peek() throws IOException {
+		int character = peekChar(0);
+		return character == EOF || character == '\n' || character == '\r' || character == COMMENT ? LINE_END : (char) character;
+	}
+
+	/**
+	 * @param offset offset from the current position, less than the size of the buffer
+	 * @return character at the specified offset from the current position, or {@link #EOF} if EOF is reached
+	 */
+	private int peekChar(int offset) throws IOException {
+		if (position + offset >= limit) {
+			/* Move the remaining characters to the beginning of the buffer and fill it up */
+			System.arraycopy(buffer, position, buffer, 0, limit - position);
+			limit -= position;
+			position = 0;
+			while (offset >= limit) {
+				int count = reader.read(buffer, limit, buffer.length - limit);
+				if (count == -1) {
+					return EOF;
+				}
+				limit += count;
+			}
+		}
+		return buffer[position + offset];
+	}
+}
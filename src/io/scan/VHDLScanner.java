@@ -4,7 +4,6 @@ import base.SourceLocation;
 
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.util.regex.Pattern;
 
 /**
  * Class represents a Lexical Analyzer (Scanner) for VHDL Subset description
@@ -23,11 +22,17 @@ import java.util.regex.Pattern;
  * @author Anton Chepurov
  */
 public class VHDLScanner {
-	private static final Pattern CLOCK_EVENT_PATTERN = Pattern.compile(".* 'EVENT $");
+	private static final String CLOCK_EVENT_ENDING = " 'EVENT ";
 	private LexemeComposer lexemeComposer;
 	private boolean allowIncompleteTokens = false;
 	private File sourceFile = null;
 
+	/**
+	 * Constructor for scanners that don't compose lexemes themselves, see {@link VHDLTokenRecording}
+	 */
+	VHDLScanner() {
+	}
+
 	public VHDLScanner(LexemeComposer lexemeComposer) {
 		this.lexemeComposer = lexemeComposer;
 		allowIncompleteTokens = true;
@@ -72,19 +77,20 @@ public class VHDLScanner {
 
 			if (lexeme.getType() == LexemeType.SEMICOLON) {
 				/* RETURN Token, because SEMICOLON always denotes an end of a statement in VHDL */
-				complexTokenValue = trimClosingBracket(complexTokenValue);
-				complexTokenType = VHDLToken.diagnoseType(complexTokenValue.toString().trim());
-				return new VHDLToken(complexTokenType, complexTokenValue.toString().trim());
+				String value = trimClosingBracket(complexTokenValue).toString().trim();
+				return new VHDLToken(VHDLToken.diagnoseType(value), value);
 			}
 
-			/* Check the TYPE of the Token only for the 4 lexemes as follows: identifier  (   )   >  */
-			else if (lexeme.getType() == LexemeType.IDENTIFIER || lexeme.getType() == LexemeType.OPEN_BRACKET
-					|| lexeme.getType() == LexemeType.CLOSE_BRACKET || lexeme.getType() == LexemeType.GT) {
-				/* Define the TYPE of the Token. */
-				complexTokenType = VHDLToken.diagnoseType(complexTokenValue.toString().trim());
+			/* Check the TYPE of the Token only for the lexemes that some unterminated statement may end with.
+			* The value is only built then, so that long statements are not copied for every lexeme. */
+			else if (VHDLToken.mayEndUnterminated(complexTokenValue, lexeme)) {
+				/* Define the TYPE of the Token. Only the types of statements ending with this lexeme are tried,
+				* so that long statements are not matched against all the types for every lexeme. */
+				String value = complexTokenValue.toString().trim();
+				complexTokenType = VHDLToken.diagnoseUnterminatedType(value, lexeme);
 				/* RETURN Token, if identifiable Token.Type is found */
 				if (complexTokenType != VHDLToken.Type.UNKNOWN) {
-					return new VHDLToken(complexTokenType, complexTokenValue.toString().trim());
+					return new VHDLToken(complexTokenType, value);
 				}
 			}
 		}
@@ -100,8 +106,16 @@ public class VHDLScanner {
 	 */
 	private StringBuffer trimClosingBracket(StringBuffer complexTokenValue) {
 		/* Count open and close bracket occurrences */
-		int openBracketCount = complexTokenValue.toString().split("\\(").length - 1;
-		int closeBracketCount = complexTokenValue.toString().split("\\)").length - 1;
+		int openBracketCount = 0;
+		int closeBracketCount = 0;
+		for (int i = 0; i < complexTokenValue.length(); i++) {
+			char character = complexTokenValue.charAt(i);
+			if (character == '(') {
+				openBracketCount++;
+			} else if (character == ')') {
+				closeBracketCount++;
+			}
+		}
 		/* If the amounts are different, then it's a closing bracket for PORT declaration */
 		if (closeBracketCount > openBracketCount) {
 			int lastClosingIndex = complexTokenValue.lastIndexOf(")");
@@ -146,7 +160,7 @@ public class VHDLScanner {
 			destinationStrBuf.append(" ");
 			// (CLOCK 'EVENT )
 			/* Remove space between CLOCK and 'EVENT */
-			if (CLOCK_EVENT_PATTERN.matcher(destinationStrBuf).matches()) {
+			if (endsWith(destinationStrBuf, CLOCK_EVENT_ENDING)) {
 				int expectedSpaceIndex = destinationStrBuf.length() - 8;
 				if (Character.isWhitespace(destinationStrBuf.charAt(expectedSpaceIndex))) {
 					destinationStrBuf.deleteCharAt(expectedSpaceIndex);
@@ -164,4 +178,17 @@ public class VHDLScanner {
 			}
 		}
 	}
+
+	private static boolean endsWith(StringBuffer buffer, String suffix) {
+		int offset = buffer.length() - suffix.length();
+		if (offset < 0) {
+			return false;
+		}
+		for (int i = 0; i < suffix.length(); i++) {
+			if (buffer.charAt(offset + i) != suffix.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
 }
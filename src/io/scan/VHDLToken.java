@@ -26,6 +26,30 @@ public class VHDLToken {
 		return Type.diagnoseType(newValue);
 	}
 
+	/**
+	 * Diagnoses the type of a statement that is not terminated by a semicolon yet. Only the types of statements
+	 * that may end with the specified lexeme are matched, instead of all the types.
+	 *
+	 * @param newValue   statement to diagnose
+	 * @param lastLexeme the last lexeme of the statement
+	 * @return type of the statement, or {@link Type#UNKNOWN} if the statement is incomplete
+	 */
+	public static Type diagnoseUnterminatedType(String newValue, Lexeme lastLexeme) {
+		return Type.diagnoseUnterminatedType(newValue, lastLexeme);
+	}
+
+	/**
+	 * Checks whether a statement that is not terminated by a semicolon yet may end with the specified lexeme,
+	 * i.e. whether it is worth {@link #diagnoseUnterminatedType(String, Lexeme) diagnosing} its type.
+	 *
+	 * @param statement  statement read so far, including the last lexeme
+	 * @param lastLexeme the last lexeme of the statement
+	 * @return <code>true</code> if some type of statements may end with the lexeme, <code>false</code> otherwise
+	 */
+	public static boolean mayEndUnterminated(CharSequence statement, Lexeme lastLexeme) {
+		return Type.mayEndUnterminated(statement, lastLexeme);
+	}
+
 	public Type getType() {
 		return type;
 	}
@@ -89,39 +113,69 @@ public class VHDLToken {
 	@SuppressWarnings({"EnumeratedClassNamingConvention", "EnumeratedConstantNamingConvention"})
 	public static enum Type implements Matchable { //todo: it is probably possible to optimize the regexps: currently they are too complex to simply match the declaration.
 		USE_DECL("^USE .+;$"),
-		ENTITY_DECL("^ENTITY " + Sub.LBL.regexp + " IS$"),
+		ENTITY_DECL("^ENTITY " + Sub.LBL.regexp + " IS$", "IS", "ENTITY"),
 		DECL_CLOSE("^END .*;$"),
 		TYPE_ENUM_DECL("^TYPE " + Sub.LBL.regexp + " IS \\( .* \\) ;$"),
 		TYPE_DECL("^TYPE " + Sub.LBL.regexp + " IS .+ ;$"),
 		WITH("^WITH " + Sub.LBL.regexp + " SELECT .+ ;$"),
-		GENERIC_OPEN("^(IS )?GENERIC \\($"),
+		GENERIC_OPEN("^(IS )?GENERIC \\($", "(", "GENERIC", "IS GENERIC"),
 		GENERIC_DECL("^" + Sub.LBL.regexp + "( , " + Sub.LBL.regexp + ")* :" + Sub.TYPE.regexp + Sub.INIT.regexp + " ;$"),
-		PORT_OPEN("^(IS )?PORT \\($"),
+		PORT_OPEN("^(IS )?PORT \\($", "(", "PORT", "IS PORT"),
 		PORT_DECL("^(SIGNAL )?" + Sub.LBL.regexp + "( , " + Sub.LBL.regexp + ")* :((IN)|(OUT)) " + Sub.TYPE.regexp + Sub.INIT.regexp + " ;$"),
-		BEGIN("^BEGIN$"),
-		ARCHITECTURE_DECL("^ARCHITECTURE " + Sub.LBL.regexp + " OF " + Sub.LBL.regexp + " IS$"),
+		BEGIN("^BEGIN$", "BEGIN"),
+		ARCHITECTURE_DECL("^ARCHITECTURE " + Sub.LBL.regexp + " OF " + Sub.LBL.regexp + " IS$", "IS", "ARCHITECTURE"),
 		CONSTANT_DECL("^CONSTANT " + Sub.LBL.regexp + " :" + Sub.TYPE.regexp + Sub.MUST_INIT.regexp + " ?;$"),
 		SIGNAL_DECL("^SIGNAL " + Sub.LBL.regexp + "( , " + Sub.LBL.regexp + ")* :" + Sub.TYPE.regexp + ".*" + " ;$"),
 		VARIABLE_DECL("^VARIABLE " + Sub.LBL.regexp + "( , " + Sub.LBL.regexp + ")* :" + Sub.TYPE.regexp + Sub.INIT.regexp + " ;$"),
-		PROCESS_DECL("(" + Sub.LBL.regexp + " :)?PROCESS \\( " + Sub.LBL.regexp + "( , " + Sub.LBL.regexp + ")* \\)$"),
-		COMPONENT_DECL("^COMPONENT " + Sub.LBL.regexp + "$"),
+		PROCESS_DECL("(" + Sub.LBL.regexp + " :)?PROCESS \\( " + Sub.LBL.regexp + "( , " + Sub.LBL.regexp + ")* \\)$", ")", "PROCESS"),
+		COMPONENT_DECL("^COMPONENT " + Sub.LBL.regexp + "$", "COMPONENT", true),
 		COMPONENT_INST("^" + Sub.LBL.regexp + " :" + Sub.LBL.regexp + "( GENERIC MAP \\(.*\\))? PORT MAP \\( .* \\) ;$"),
 		ALIAS("^ALIAS " + Sub.LBL.regexp + " :" + Sub.TYPE.regexp + " IS .+ ;$"),
-		IF_STATEMENT("^IF .* THEN$"),
-		ELSIF_STATEMENT("^ELSIF .* THEN$"),
-		ELSE("ELSE"),
+		IF_STATEMENT("^IF .* THEN$", "THEN", "IF"),
+		ELSIF_STATEMENT("^ELSIF .* THEN$", "THEN", "ELSIF"),
+		ELSE("ELSE", "ELSE"),
 		TRANSITION("((^.+ ((:=)|(<=)).+? ;$)" +
 				"|(^NULL ;$))"),
-		CASE_STATEMENT("^CASE .* IS$"),
-		WHEN_STATEMENT("^WHEN .* =>$"),
-		PACKAGE_DECL("^PACKAGE(?!( BODY )) .+ IS$"),
-		PACKAGE_BODY_DECL("^PACKAGE BODY .+ IS$"),
+		CASE_STATEMENT("^CASE .* IS$", "IS", "CASE"),
+		WHEN_STATEMENT("^WHEN .* =>$", ">", "WHEN"),
+		PACKAGE_DECL("^PACKAGE(?!( BODY )) .+ IS$", "IS", "PACKAGE"),
+		PACKAGE_BODY_DECL("^PACKAGE BODY .+ IS$", "IS", "PACKAGE BODY"),
 		UNKNOWN("");
 
+		private static final Type[] TYPES = values();
+
 		private final Pattern pattern;
+		/**
+		 * Lexeme that statements of this type end with, if they are not terminated by a semicolon
+		 */
+		private final String closingLexeme;
+		/**
+		 * Lexemes that statements of this type start with, optionally preceded by a label.
+		 * Empty, if statements of this type are recognized by their closing lexeme only.
+		 */
+		private final String[] openingLexemes;
+		/**
+		 * Whether statements of this type may end with any identifier, if they are not terminated by a semicolon
+		 */
+		private final boolean isClosedByAnyIdentifier;
 
 		Type(String regexp) {
+			this(regexp, null);
+		}
+
+		Type(String regexp, String closingLexeme, String... openingLexemes) {
+			this(regexp, closingLexeme, openingLexemes, false);
+		}
+
+		Type(String regexp, String openingLexeme, boolean isClosedByAnyIdentifier) {
+			this(regexp, null, new String[]{openingLexeme}, isClosedByAnyIdentifier);
+		}
+
+		private Type(String regexp, String closingLexeme, String[] openingLexemes, boolean isClosedByAnyIdentifier) {
 			this.pattern = Pattern.compile(regexp, Pattern.CASE_INSENSITIVE);
+			this.closingLexeme = closingLexeme;
+			this.openingLexemes = openingLexemes;
+			this.isClosedByAnyIdentifier = isClosedByAnyIdentifier;
 		}
 
 		@SuppressWarnings({"BooleanMethodNameMustStartWithQuestion"})
@@ -129,11 +183,74 @@ public class VHDLToken {
 			return pattern.matcher(line).matches();
 		}
 
+		/**
+		 * @param statement  statement that is not terminated by a semicolon yet
+		 * @param lastLexeme the last lexeme of the statement
+		 * @return whether statements of this type may end with the specified lexeme
+		 */
+		private boolean mayEndWith(CharSequence statement, Lexeme lastLexeme) {
+			if (isClosedByAnyIdentifier) {
+				return lastLexeme.getType() == LexemeType.IDENTIFIER && startsWithOpeningLexeme(statement);
+			}
+			return closingLexeme != null && closingLexeme.equalsIgnoreCase(lastLexeme.getValue())
+					&& (openingLexemes.length == 0 || startsWithOpeningLexeme(statement));
+		}
+
+		private boolean startsWithOpeningLexeme(CharSequence statement) {
+			/* Skip the label, like in "label :PROCESS ( clk )" */
+			int labelEnd = indexOf(statement, ' ');
+			int start = labelEnd != -1 && labelEnd + 1 < statement.length() && statement.charAt(labelEnd + 1) == ':'
+					? labelEnd + 2 : -1;
+			for (String openingLexeme : openingLexemes) {
+				if (startsWithWord(statement, 0, openingLexeme)
+						|| start != -1 && startsWithWord(statement, start, openingLexeme)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private static boolean startsWithWord(CharSequence statement, int start, String word) {
+			int length = word.length();
+			if (statement.length() <= start + length || statement.charAt(start + length) != ' ') {
+				return false;
+			}
+			for (int i = 0; i < length; i++) {
+				if (Character.toUpperCase(statement.charAt(start + i)) != Character.toUpperCase(word.charAt(i))) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private static int indexOf(CharSequence statement, char c) {
+			for (int i = 0; i < statement.length(); i++) {
+				if (statement.charAt(i) == c) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
 		private static Type diagnoseType(String newValue) {
-			for (Type type : Type.values()) {
+			for (Type type : TYPES) {
 				if (type.matches(newValue)) return type;
 			}
 			return UNKNOWN;
 		}
+
+		private static boolean mayEndUnterminated(CharSequence statement, Lexeme lastLexeme) {
+			for (Type type : TYPES) {
+				if (type.mayEndWith(statement, lastLexeme)) return true;
+			}
+			return false;
+		}
+
+		private static Type diagnoseUnterminatedType(String newValue, Lexeme lastLexeme) {
+			for (Type type : TYPES) {
+				if (type.mayEndWith(newValue, lastLexeme) && type.matches(newValue)) return type;
+			}
+			return UNKNOWN;
+		}
 	}
 }
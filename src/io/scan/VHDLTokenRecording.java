@@ -0,0 +1,67 @@
+package io.scan;
+
+import base.SourceLocation;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tokens of a VHDL file together with their sources, scanned once to be parsed any number of times.
+ * <p/>
+ * Neither the tokens nor their sources are modified by the parser, so {@link #createScanner() replaying scanners}
+ * may be used in parallel threads.
+ *
+ * @author Anton Chepurov
+ */
+public class VHDLTokenRecording {
+
+	private final File sourceFile;
+	private final List<VHDLToken> tokens = new ArrayList<VHDLToken>();
+	private final List<SourceLocation> sources = new ArrayList<SourceLocation>();
+
+	public VHDLTokenRecording(File sourceFile) throws Exception {
+		this.sourceFile = sourceFile;
+		VHDLScanner scanner = new VHDLScanner(sourceFile);
+		try {
+			VHDLToken token;
+			while ((token = scanner.next()) != null) {
+				tokens.add(token);
+				sources.add(scanner.getCurrentSource());
+			}
+		} finally {
+			scanner.close();
+		}
+	}
+
+	/**
+	 * @return a new scanner that replays the recorded tokens from the very first one
+	 */
+	public VHDLScanner createScanner() {
+		return new ReplayingScanner();
+	}
+
+	private class ReplayingScanner extends VHDLScanner {
+
+		private int index = -1;
+
+		@Override
+		public VHDLToken next() {
+			return ++index < tokens.size() ? tokens.get(index) : null;
+		}
+
+		@Override
+		public SourceLocation getCurrentSource() {
+			return index < sources.size() ? sources.get(index) : null;
+		}
+
+		@Override
+		public File getSourceFile() {
+			return sourceFile;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
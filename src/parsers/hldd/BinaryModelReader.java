@@ -0,0 +1,223 @@
+package parsers.hldd;
+
+import base.Range;
+import base.hldd.structure.Flags;
+import base.hldd.structure.models.BehModel;
+import base.hldd.structure.nodes.utils.Condition;
+import base.hldd.structure.variables.utils.GraphVariableCreator;
+import io.QuietCloser;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.TreeMap;
+
+/**
+ * Loads models from binary files written by {@link BinaryModelWriter}.
+ * <p/>
+ * The binary file is mapped into memory and its declarations are passed to {@link StructureBuilder} one by one,
+ * the same way {@link StructureParser} does it for HLDD files.
+ *
+ * @author Anton Chepurov
+ */
+public class BinaryModelReader {
+
+	private final ByteBuffer buffer;
+
+	private String[] strings;
+	/**
+	 * Conditions parsed from the string table, by string index
+	 */
+	private Condition[] conditions;
+
+	private BinaryModelReader(ByteBuffer buffer) {
+		this.buffer = buffer;
+	}
+
+	/**
+	 * @param hlddFile			 HLDD file to load the model of
+	 * @param graphVariableCreator creator for {@link base.hldd.structure.variables.GraphVariable}-s
+	 * @return model loaded from the binary file of the specified HLDD file,
+	 *         or <code>null</code> if the binary file is missing, of another format version,
+	 *         older than the HLDD file, unreadable or corrupted
+	 */
+	public static BehModel loadUpToDate(File hlddFile, GraphVariableCreator graphVariableCreator) {
+		File binaryFile = BinaryModelWriter.deriveBinaryFile(hlddFile);
+		if (!binaryFile.isFile()) {
+			return null;
+		}
+		ByteBuffer buffer;
+		FileInputStream inputStream = null;
+		try {
+			inputStream = new FileInputStream(binaryFile);
+			FileChannel channel = inputStream.getChannel();
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		} catch (IOException e) {
+			return null;
+		} finally {
+			QuietCloser.closeQuietly(inputStream);
+		}
+
+		BinaryModelReader reader = new BinaryModelReader(buffer);
+		StructureBuilder structureBuilder = new StructureBuilder(graphVariableCreator);
+		try {
+			if (!reader.readHeader(hlddFile)) {
+				return null;
+			}
+			reader.readDeclarations(structureBuilder);
+			return structureBuilder.getModel();
+		} catch (Exception e) {
+			/* Truncated or corrupted binary file, whose declarations either cannot be read
+			* or don't make up a valid model. The HLDD file itself is to be parsed instead. */
+			return null;
+		}
+	}
+
+	private boolean readHeader(File hlddFile) {
+		if (buffer.remaining() < 24 || buffer.getInt() != BinaryModelWriter.MAGIC
+				|| buffer.getInt() != BinaryModelWriter.VERSION) {
+			return false;
+		}
+		if (buffer.getLong() != hlddFile.length() || buffer.getLong() != hlddFile.lastModified()) {
+			return false;
+		}
+		strings = new String[buffer.getInt()];
+		conditions = new Condition[strings.length];
+		for (int i = 0; i < strings.length; i++) {
+			byte[] bytes = new byte[buffer.getInt()];
+			buffer.get(bytes);
+			strings[i] = decode(bytes);
+		}
+		return true;
+	}
+
+	private void readDeclarations(StructureBuilder builder) throws Exception {
+		while (true) {
+			byte declaration = buffer.get();
+			switch (declaration) {
+				case BinaryModelWriter.STAT:
+					builder.buildStat(readStrings());
+					break;
+				case BinaryModelWriter.VARIABLE:
+					builder.buildVariable(buffer.getInt(), readFlags(), readString(), readRange());
+					break;
+				case BinaryModelWriter.CONSTANT:
+					int index = buffer.getInt();
+					String name = readString();
+					Range length = readRange();
+					byte[] valueBytes = new byte[buffer.getInt()];
+					buffer.get(valueBytes);
+					builder.buildConstant(index, name, length, new BigInteger(valueBytes));
+					break;
+				case BinaryModelWriter.FUNCTION:
+					readFunction(builder);
+					break;
+				case BinaryModelWriter.GRAPH:
+					builder.buildGraph(buffer.getInt(), readFlags(), readString(), readRange(), readRange(),
+							buffer.getInt(), buffer.getInt());
+					break;
+				case BinaryModelWriter.NODE:
+					readNode(builder);
+					break;
+				case BinaryModelWriter.END:
+					return;
+				default:
+					throw new IllegalStateException("Unknown declaration in binary HLDD file: " + declaration);
+			}
+		}
+	}
+
+	private void readFunction(StructureBuilder builder) {
+		int index = buffer.getInt();
+		String name = readString();
+		int nameIdx = buffer.getInt();
+		String functionType = readString();
+		int[] inputIndices = new int[buffer.getInt()];
+		Range[] inputRanges = new Range[inputIndices.length];
+		for (int i = 0; i < inputIndices.length; i++) {
+			inputIndices[i] = buffer.getInt();
+			inputRanges[i] = readRange();
+		}
+		builder.buildFunction(index, name, nameIdx, functionType, inputIndices, inputRanges, readRange());
+	}
+
+	private void readNode(StructureBuilder builder) throws Exception {
+		int relativeNodeIndex = buffer.getInt();
+		int depVarIndex = buffer.getInt();
+		Range depVarRange = readRange();
+		TreeMap<Condition, Integer> successors = null;
+		int successorCount = buffer.getInt();
+		if (successorCount != -1) {
+			successors = new TreeMap<Condition, Integer>();
+			for (int i = 0; i < successorCount; i++) {
+				successors.put(readCondition(), buffer.getInt());
+			}
+		}
+		builder.buildNode(relativeNodeIndex, depVarIndex, depVarRange, successors, readWindow(), readStrings());
+	}
+
+	private base.psl.structure.Range readWindow() throws Exception {
+		return buffer.get() == 0 ? null
+				: new base.psl.structure.Range(new int[]{buffer.getInt(), buffer.getInt()}, buffer.getChar());
+	}
+
+	private Condition readCondition() throws Exception {
+		int stringIndex = buffer.getInt();
+		Condition condition = conditions[stringIndex];
+		if (condition == null) {
+			condition = Condition.parse(strings[stringIndex]);
+			conditions[stringIndex] = condition;
+		}
+		return condition;
+	}
+
+	private Flags readFlags() {
+		int bits = buffer.getShort();
+		Flags flags = new Flags();
+		flags.setConstant((bits & 1) != 0);
+		flags.setCout((bits & 1 << 1) != 0);
+		flags.setDelay((bits & 1 << 2) != 0);
+		flags.setFunction((bits & 1 << 3) != 0);
+		flags.setFSM((bits & 1 << 4) != 0);
+		flags.setInput((bits & 1 << 5) != 0);
+		flags.setOutput((bits & 1 << 6) != 0);
+		flags.setReset((bits & 1 << 7) != 0);
+		flags.setState((bits & 1 << 8) != 0);
+		flags.setExpansion((bits & 1 << 9) != 0);
+		flags.setMemory((bits & 1 << 10) != 0);
+		return flags;
+	}
+
+	private Range readRange() {
+		return buffer.get() == 0 ? null : new Range(buffer.getInt(), buffer.getInt());
+	}
+
+	private String[] readStrings() {
+		int count = buffer.getInt();
+		if (count == -1) {
+			return null;
+		}
+		String[] stringArray = new String[count];
+		for (int i = 0; i < count; i++) {
+			stringArray[i] = readString();
+		}
+		return stringArray;
+	}
+
+	private String readString() {
+		int stringIndex = buffer.getInt();
+		return stringIndex == BinaryModelWriter.NO_STRING ? null : strings[stringIndex];
+	}
+
+	private static String decode(byte[] bytes) {
+		try {
+			return new String(bytes, "UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new RuntimeException(e); /* Every Java platform supports UTF-8 */
+		}
+	}
+}
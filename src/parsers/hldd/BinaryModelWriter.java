@@ -0,0 +1,430 @@
+package parsers.hldd;
+
+import base.Range;
+import base.hldd.structure.Flags;
+import base.hldd.structure.Graph;
+import base.hldd.structure.models.BehModel;
+import base.hldd.structure.models.Model;
+import base.hldd.structure.models.utils.RangeVariableHolder;
+import base.hldd.structure.nodes.FSMNode;
+import base.hldd.structure.nodes.Node;
+import base.hldd.structure.nodes.TemporalNode;
+import base.hldd.structure.nodes.utils.Condition;
+import base.hldd.structure.variables.*;
+import io.QuietCloser;
+import io.scan.HLDDReader;
+
+import java.io.*;
+import java.math.BigInteger;
+import java.util.*;
+
+/**
+ * Writes the binary form of an HLDD file (*.agm file) alongside it, so that the model can later be loaded
+ * with {@link BinaryModelReader} without parsing the text.
+ * <p/>
+ * The binary file records the declarations read from the HLDD file, exactly as {@link StructureParser}
+ * passes them to {@link StructureBuilder}. Thus a model loaded from the binary file is the same as the one
+ * parsed from the HLDD file.
+ * <p/>
+ * Layout of the binary file (big-endian):
+ * <ul>
+ * <li>header: magic number, format version, length and last modification time of the HLDD file;</li>
+ * <li>table of interned strings (names, function types, conditions, window placeholders);</li>
+ * <li>declarations: statistics, variables, constants, functions, graphs and nodes (with temporal windows of
+ * THLDD nodes), where strings are referred to by their index in the string table.</li>
+ * </ul>
+ *
+ * @author Anton Chepurov
+ */
+public class BinaryModelWriter extends StructureBuilder {
+
+	static final int MAGIC = 0x41474D42; /* "AGMB" */
+	static final int VERSION = 2;
+
+	static final byte STAT = 1;
+	static final byte VARIABLE = 2;
+	static final byte CONSTANT = 3;
+	static final byte FUNCTION = 4;
+	static final byte GRAPH = 5;
+	static final byte NODE = 6;
+	static final byte END = 0;
+
+	static final int NO_STRING = -1;
+
+	private final Map<String, Integer> stringIndices = new HashMap<String, Integer>();
+	private final List<String> strings = new ArrayList<String>();
+
+	private final ByteArrayOutputStream declarationBytes = new ByteArrayOutputStream();
+	private final DataOutputStream declarations = new DataOutputStream(declarationBytes);
+
+	private BinaryModelWriter() {
+		super(null);
+	}
+
+	/**
+	 * @param hlddFile HLDD file
+	 * @return binary file of the specified HLDD file
+	 */
+	public static File deriveBinaryFile(File hlddFile) {
+		return new File(hlddFile.getPath() + "b");
+	}
+
+	/**
+	 * Writes the binary form of the specified HLDD file. The binary file is only an accelerator, so if the HLDD file
+	 * cannot be parsed or the binary file cannot be written, the binary file is just removed.
+	 *
+	 * @param hlddFile HLDD file to write the binary form of
+	 * @return <code>true</code> if the binary file has been written, <code>false</code> otherwise
+	 */
+	public static boolean writeAlongside(File hlddFile) {
+		File binaryFile = deriveBinaryFile(hlddFile);
+		try {
+			/* Remember the state of the HLDD file before parsing, so that changes made meanwhile are noticed */
+			long hlddLength = hlddFile.length();
+			long hlddLastModified = hlddFile.lastModified();
+
+			BinaryModelWriter writer = new BinaryModelWriter();
+			HLDDReader reader = new HLDDReader(hlddFile);
+			try {
+				new StructureParser(reader, writer).parse();
+			} finally {
+				reader.close();
+			}
+			writer.writeTo(binaryFile, hlddLength, hlddLastModified);
+			return true;
+		} catch (Exception e) {
+			//noinspection ResultOfMethodCallIgnored
+			binaryFile.delete();
+			return false;
+		}
+	}
+
+	/**
+	 * Writes the binary form of the HLDD file that the specified model has just been
+	 * {@link BehModel#toFile(java.io.OutputStream, String, ui.ConverterSettings) written} to. The declarations are
+	 * taken straight from the model, exactly as {@link StructureParser} would read them from the HLDD file, so the
+	 * HLDD file is not parsed again. As with {@link #writeAlongside(File)}, if the model cannot be written in binary
+	 * form, the binary file is just removed.
+	 *
+	 * @param model	model that has been written to the HLDD file
+	 * @param hlddFile HLDD file the model has been written to
+	 * @return <code>true</code> if the binary file has been written, <code>false</code> otherwise
+	 */
+	public static boolean writeAlongside(BehModel model, File hlddFile) {
+		File binaryFile = deriveBinaryFile(hlddFile);
+		try {
+			BinaryModelWriter writer = new BinaryModelWriter();
+			writer.buildFrom(model);
+			writer.writeTo(binaryFile, hlddFile.length(), hlddFile.lastModified());
+			return true;
+		} catch (Exception e) {
+			//noinspection ResultOfMethodCallIgnored
+			binaryFile.delete();
+			return false;
+		}
+	}
+
+	/**
+	 * Passes the declarations of the model to the builder methods of this writer, the same way
+	 * {@link StructureParser} passes the ones read from the HLDD file written by the model. Names and types are
+	 * taken the way the model prints them (upper case), and ranges are derived from the printed names.
+	 *
+	 * @param model model to build from
+	 * @throws Exception if the HLDD file written by the model couldn't be parsed either
+	 */
+	private void buildFrom(BehModel model) throws Exception {
+		List<String> statList = new ArrayList<String>(Arrays.asList(
+				"NODS", String.valueOf(model.getNodeCount()), "VARS", String.valueOf(model.getVarCount()),
+				"GRPS", String.valueOf(model.getGraphCount()), "INPS", String.valueOf(model.getInpCount()),
+				"OUTS", String.valueOf(model.getOutpCount()), "CONS", String.valueOf(model.getConstCount()),
+				"FUNS", String.valueOf(model.getFuncCount())));
+		if (model instanceof Model) {
+			statList.add("C_OUTS");
+			statList.add(String.valueOf(((Model) model).getCoutCount()));
+		}
+		buildStat(statList.toArray(new String[statList.size()]));
+
+		for (int i = 0; i < model.getVarCount(); i++) {
+			AbstractVariable variable = model.getVariableByIndex(i);
+			if (variable instanceof ConstantVariable && ((ConstantVariable) variable).isArray()) {
+				continue; /* Array constants are printed as comments */
+			}
+			AbstractVariable declaredVariable = variable instanceof GraphVariable
+					? ((GraphVariable) variable).getBaseVariable() : variable;
+			if (!(declaredVariable instanceof Variable)) {
+				throw new Exception("Variable cannot be written in binary form: " + variable.getName());
+			}
+			int index = declaredVariable.getIndex();
+			Flags flags = Flags.parse(((Variable) declaredVariable).getFlags().toString());
+			StructureParser.NameAndRange holder = StructureParser.parseNameAndRange(declaredVariable.getName().toUpperCase().trim());
+			Range highestSBRange = parseLength(declaredVariable.lengthToString());
+			if (highestSBRange == null) {
+				throw new Exception("Length of variable is missing: " + variable.getName());
+			}
+			Range length = new Range(highestSBRange.getHighest(), 0);
+
+			if (flags.isConstant()) {
+				if (!(variable instanceof ConstantVariable)) {
+					throw new Exception("Constant value is missing: " + variable.getName());
+				}
+				buildConstant(index, holder.name, length, ((ConstantVariable) variable).getValue());
+
+			} else if (flags.isFunction()) {
+				if (!(variable instanceof FunctionVariable)) {
+					throw new Exception("Function declaration is missing: " + variable.getName());
+				}
+				buildFunction(index, holder.name, length, (FunctionVariable) variable);
+
+			} else if (flags.isInput()) {
+				buildVariable(index, flags, holder.name, length);
+
+			} else {
+				if (!(variable instanceof GraphVariable)) {
+					throw new Exception("Graph declaration is missing: " + variable.getName());
+				}
+				Graph graph = ((GraphVariable) variable).getGraph();
+				int graphLength = graph.getSize();
+				buildGraph(index, flags, holder.name, holder.range, length, graphLength, graph.getIndex());
+				for (Node node : graph.getRootNode().toArray(new Node[graphLength])) {
+					buildNode(node);
+				}
+			}
+		}
+	}
+
+	private void buildFunction(int index, String name, Range length, FunctionVariable functionVariable) {
+		String functionType = functionVariable instanceof UserDefinedFunctionVariable
+				? ((UserDefinedFunctionVariable) functionVariable).getUserDefinedOperator()
+				: String.valueOf(functionVariable.getOperator());
+		List<RangeVariableHolder> operands = functionVariable.getOperands();
+		int[] inputIndices = new int[operands.size()];
+		Range[] inputRanges = new Range[operands.size()];
+		for (int i = 0; i < inputIndices.length; i++) {
+			RangeVariableHolder operand = operands.get(i);
+			inputIndices[i] = operand.getVariable().getIndex();
+			inputRanges[i] = operand.isRange()
+					? new Range(operand.getRange().getHighest(), operand.getRange().getLowest())
+					: parseLength(operand.getVariable().lengthToString());
+		}
+		int nameIdx = name.contains("____") ? Integer.parseInt(name.substring(name.lastIndexOf("_") + 1)) : -1;
+		buildFunction(index, name, nameIdx, functionType.toUpperCase().trim(), inputIndices, inputRanges, length);
+	}
+
+	private void buildNode(Node node) throws Exception {
+		if (node instanceof FSMNode) {
+			throw new Exception("FSM nodes cannot be written in binary form");
+		}
+		TreeMap<Condition, Integer> successors = null;
+		if (node.isControlNode()) {
+			successors = new TreeMap<Condition, Integer>();
+			for (int i = 0; i < node.getConditionsCount(); i++) {
+				Condition condition = node.getCondition(i);
+				Node successor = node.getSuccessor(condition);
+				if (successor == null) {
+					throw new Exception("Successor is missing for condition " + condition);
+				}
+				successors.put(Condition.parse(condition.toString()), successor.getRelativeIndex());
+			}
+		}
+		/* Name of the dependent variable with the temporal window and range, as the node prints it */
+		StringBuilder depVarName = new StringBuilder(node.getDependentVariable().getName());
+		if (node instanceof TemporalNode && ((TemporalNode) node).getWindow() != null) {
+			depVarName.append(((TemporalNode) node).getWindow());
+		}
+		if (node.getRange() != null) {
+			depVarName.append(node.getRange().toStringAngular(true));
+		}
+		String depVarNameAsString = depVarName.toString().toUpperCase().trim();
+		/* Window placeholders are not printed, so they are never read back either */
+		buildNode(node.getRelativeIndex(), node.getDependentVariable().getIndex(), StructureParser.parseRange(depVarNameAsString),
+				successors, base.psl.structure.Range.parseWindow(depVarNameAsString), null);
+	}
+
+	/**
+	 * @param lengthAsString length in angular brackets, like <code>&lt;7:0&gt;</code> or <code>&lt;3&gt;</code>
+	 * @return length as a range, or <code>null</code> if the string is empty
+	 */
+	private static Range parseLength(String lengthAsString) {
+		if (lengthAsString.length() == 0) {
+			return null;
+		}
+		String indices = lengthAsString.substring(1, lengthAsString.length() - 1);
+		int delimIdx = indices.indexOf(':');
+		if (delimIdx == -1) {
+			int theOnlyIndex = Integer.parseInt(indices.trim());
+			return new Range(theOnlyIndex, theOnlyIndex);
+		}
+		return new Range(Integer.parseInt(indices.substring(0, delimIdx).trim()), Integer.parseInt(indices.substring(delimIdx + 1).trim()));
+	}
+
+	private void writeTo(File binaryFile, long hlddLength, long hlddLastModified) throws IOException {
+		declarations.writeByte(END);
+		DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(binaryFile)));
+		try {
+			outputStream.writeInt(MAGIC);
+			outputStream.writeInt(VERSION);
+			outputStream.writeLong(hlddLength);
+			outputStream.writeLong(hlddLastModified);
+			outputStream.writeInt(strings.size());
+			for (String string : strings) {
+				byte[] bytes = string.getBytes("UTF-8");
+				outputStream.writeInt(bytes.length);
+				outputStream.write(bytes);
+			}
+			declarationBytes.writeTo(outputStream);
+		} finally {
+			QuietCloser.closeQuietly(outputStream);
+		}
+	}
+
+	@Override
+	public void buildStat(String[] statArray) {
+		try {
+			declarations.writeByte(STAT);
+			writeStrings(statArray);
+		} catch (IOException e) {
+			throw new RuntimeException(e); /* Cannot happen when writing to memory */
+		}
+	}
+
+	@Override
+	public void buildConstant(int index, String name, Range length, BigInteger constValue) {
+		try {
+			declarations.writeByte(CONSTANT);
+			declarations.writeInt(index);
+			writeString(name);
+			writeRange(length);
+			byte[] valueBytes = constValue.toByteArray();
+			declarations.writeInt(valueBytes.length);
+			declarations.write(valueBytes);
+		} catch (IOException e) {
+			throw new RuntimeException(e); /* Cannot happen when writing to memory */
+		}
+	}
+
+	@Override
+	public void buildFunction(int index, String name, int nameIdx, String functionType, int[] inputIndices, Range[] inputRanges, Range length) {
+		try {
+			declarations.writeByte(FUNCTION);
+			declarations.writeInt(index);
+			writeString(name);
+			declarations.writeInt(nameIdx);
+			writeString(functionType);
+			declarations.writeInt(inputIndices.length);
+			for (int i = 0; i < inputIndices.length; i++) {
+				declarations.writeInt(inputIndices[i]);
+				writeRange(inputRanges[i]);
+			}
+			writeRange(length);
+		} catch (IOException e) {
+			throw new RuntimeException(e); /* Cannot happen when writing to memory */
+		}
+	}
+
+	@Override
+	public void buildGraph(int index, Flags flags, String name, Range range, Range length, int graphLength, int graphIndex) {
+		try {
+			declarations.writeByte(GRAPH);
+			declarations.writeInt(index);
+			writeFlags(flags);
+			writeString(name);
+			writeRange(range);
+			writeRange(length);
+			declarations.writeInt(graphLength);
+			declarations.writeInt(graphIndex);
+		} catch (IOException e) {
+			throw new RuntimeException(e); /* Cannot happen when writing to memory */
+		}
+	}
+
+	@Override
+	public void buildNode(int relativeNodeIndex, int depVarIndex, Range depVarRange, TreeMap<Condition, Integer> successors,
+						  base.psl.structure.Range window, String[] windowPlaceholders) {
+		try {
+			declarations.writeByte(NODE);
+			declarations.writeInt(relativeNodeIndex);
+			declarations.writeInt(depVarIndex);
+			writeRange(depVarRange);
+			if (successors == null) {
+				declarations.writeInt(-1);
+			} else {
+				declarations.writeInt(successors.size());
+				for (Map.Entry<Condition, Integer> entry : successors.entrySet()) {
+					writeString(entry.getKey().toString());
+					declarations.writeInt(entry.getValue());
+				}
+			}
+			writeWindow(window);
+			writeStrings(windowPlaceholders);
+		} catch (IOException e) {
+			throw new RuntimeException(e); /* Cannot happen when writing to memory */
+		}
+	}
+
+	@Override
+	public void buildVariable(int index, Flags flags, String name, Range length) {
+		try {
+			declarations.writeByte(VARIABLE);
+			declarations.writeInt(index);
+			writeFlags(flags);
+			writeString(name);
+			writeRange(length);
+		} catch (IOException e) {
+			throw new RuntimeException(e); /* Cannot happen when writing to memory */
+		}
+	}
+
+	private void writeFlags(Flags flags) throws IOException {
+		int bits = 0;
+		boolean[] values = {flags.isConstant(), flags.isCout(), flags.isDelay(), flags.isFunction(), flags.isFSM(),
+				flags.isInput(), flags.isOutput(), flags.isReset(), flags.isState(), flags.isExpansion(), flags.isMemory()};
+		for (int i = 0; i < values.length; i++) {
+			if (values[i]) {
+				bits |= 1 << i;
+			}
+		}
+		declarations.writeShort(bits);
+	}
+
+	private void writeRange(Range range) throws IOException {
+		declarations.writeBoolean(range != null);
+		if (range != null) {
+			declarations.writeInt(range.getHighest());
+			declarations.writeInt(range.getLowest());
+		}
+	}
+
+	private void writeWindow(base.psl.structure.Range window) throws IOException {
+		declarations.writeBoolean(window != null);
+		if (window != null) {
+			declarations.writeInt(window.getStart());
+			declarations.writeInt(window.getEnd());
+			declarations.writeChar(window.getTemporalModifier().getSuffix());
+		}
+	}
+
+	private void writeStrings(String[] stringArray) throws IOException {
+		if (stringArray == null) {
+			declarations.writeInt(-1);
+			return;
+		}
+		declarations.writeInt(stringArray.length);
+		for (String string : stringArray) {
+			writeString(string);
+		}
+	}
+
+	private void writeString(String string) throws IOException {
+		if (string == null) {
+			declarations.writeInt(NO_STRING);
+			return;
+		}
+		Integer stringIndex = stringIndices.get(string);
+		if (stringIndex == null) {
+			stringIndex = strings.size();
+			strings.add(string);
+			stringIndices.put(string, stringIndex);
+		}
+		declarations.writeInt(stringIndex);
+	}
+}
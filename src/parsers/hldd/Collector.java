@@ -65,9 +65,10 @@ public class Collector {
 		currentNodes = new NodeData[graphLength];
 	}
 
-	void addNodeData(int relativeNodeIndex, int depVarIndex, Range depVarRange, TreeMap<Condition, Integer> successors, String[] windowPlaceholders) {
+	void addNodeData(int relativeNodeIndex, int depVarIndex, Range depVarRange, TreeMap<Condition, Integer> successors,
+					 base.psl.structure.Range window, String[] windowPlaceholders) {
 		currentGraphLength--;
-		currentNodes[relativeNodeIndex] = new NodeData(depVarIndex, depVarRange, successors, windowPlaceholders);
+		currentNodes[relativeNodeIndex] = new NodeData(depVarIndex, depVarRange, successors, window, windowPlaceholders);
 		if (currentGraphLength == 0) {
 			indexVarHash.put(currentGraphVariable.getIndex(), new GraphVariableData(currentGraphVariable, currentGraphIndex, currentNodes));
 		}
@@ -138,12 +139,18 @@ public class Collector {
 		public final int depVarIndex;
 		public Range depVarRange;
 		public final TreeMap<Condition, Integer> successors;
+		/**
+		 * Temporal window of a THLDD node, like <code>@[1..3]_a</code> in TGM files
+		 */
+		public final base.psl.structure.Range window;
 		public final String[] windowPlaceholders;
 
-		public NodeData(int depVarIndex, Range depVarRange, TreeMap<Condition, Integer> successors, String[] windowPlaceholders) {
+		public NodeData(int depVarIndex, Range depVarRange, TreeMap<Condition, Integer> successors,
+						base.psl.structure.Range window, String[] windowPlaceholders) {
 			this.depVarIndex = depVarIndex;
 			this.depVarRange = depVarRange;
 			this.successors = successors;
+			this.window = window;
 			this.windowPlaceholders = windowPlaceholders;
 		}
 	}
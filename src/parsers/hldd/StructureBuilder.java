@@ -174,11 +174,11 @@ public class StructureBuilder {
 		collector.addGraphVariableData(newGraphVariable, graphLength, graphIndex);
 	}
 
-	public void buildNode(int relativeNodeIndex, int depVarIndex, Range depVarRange,
-						  TreeMap<Condition, Integer> successors, String[] windowPlaceholders) {
+	public void buildNode(int relativeNodeIndex, int depVarIndex, Range depVarRange, TreeMap<Condition, Integer> successors,
+						  base.psl.structure.Range window, String[] windowPlaceholders) {
 		nodeCount--;
 		/* Collect NodeData */
-		collector.addNodeData(relativeNodeIndex, depVarIndex, depVarRange, successors, windowPlaceholders);
+		collector.addNodeData(relativeNodeIndex, depVarIndex, depVarRange, successors, window, windowPlaceholders);
 	}
 
 	public void buildVariable(int index, Flags flags, String name, Range length) throws Exception {
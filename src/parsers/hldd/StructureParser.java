@@ -2,83 +2,114 @@ package parsers.hldd;
 
 import base.Range;
 import base.hldd.structure.nodes.utils.Condition;
-import io.scan.HLDDScanner;
+import io.scan.HLDDReader;
 import base.hldd.structure.Flags;
 
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.TreeMap;
 
 /**
  * @author Anton Chepurov
  */
 public class StructureParser {
-	private final HLDDScanner scanner;
+	private final HLDDReader reader;
 	private final StructureBuilder builder;
 
-	public StructureParser(HLDDScanner scanner, StructureBuilder structureBuilder) {
-		this.scanner = scanner;
+	public StructureParser(HLDDReader reader, StructureBuilder structureBuilder) {
+		this.reader = reader;
 		this.builder = structureBuilder;
 	}
 
+	/**
+	 * Parses the HLDD file line by line. Fields are read from the {@link HLDDReader} in the order they are
+	 * declared in the line, without splitting the line.
+	 *
+	 * @throws Exception if the HLDD file is malformed
+	 */
 	public void parse() throws Exception {
-		String token;
 
-		while ((token = scanner.next()) != null) {
-			if (token.startsWith("STAT#")) {
-				token = token.substring(token.indexOf("#") + 1).trim();
+		while (reader.nextLine()) {
+			if (reader.startsWith("STAT#")) {
+				reader.skipPast('#');
 				/* Collect Stat array */
-				String[] stats = token.split(",");
-				String[] statArray = new String[stats.length * 2];
-				int index = 0;
-				for (String stat : stats) {
-					String[] pair = stat.trim().split("\\s");
-					if (pair.length != 2) {
-						throw new Exception("Line of statistics is malformed. A value-identifier pair doesn't consist of 2 elements: " + stat.trim());
+				List<String> statList = new ArrayList<String>();
+				while (true) {
+					String value = reader.readWord();
+					String identifier = reader.readWord();
+					if (value.length() == 0 || identifier.length() == 0) {
+						throw reader.createException("Line of statistics is malformed. A value-identifier pair doesn't consist of 2 elements");
 					}
-					statArray[index++] = pair[1].trim();
-					statArray[index++] = pair[0].trim();
+					statList.add(identifier);
+					statList.add(value);
+					char separator = reader.peekNonBlank();
+					if (separator == HLDDReader.LINE_END) {
+						break;
+					}
+					if (separator != ',') {
+						throw reader.createException("Line of statistics is malformed. A value-identifier pair doesn't consist of 2 elements");
+					}
+					reader.skipChar();
 				}
 
-				builder.buildStat(statArray);
-			} else if (token.startsWith("VAR#")) {
+				builder.buildStat(statList.toArray(new String[statList.size()]));
+			} else if (reader.startsWith("VAR#")) {
+				reader.skipPast('#');
 				/* Extract INDEX */
-				int index = Integer.parseInt(token.substring(token.indexOf("#") + 1, token.indexOf(":")).trim());
+				int index = reader.readInt();
+				reader.skipPast(':');
 				/* Extract FLAGS */
-				Flags flags = Flags.parse(token.substring(token.indexOf("(") + 1, token.indexOf(")")).trim());
+				reader.skipPast('(');
+				Flags flags = Flags.parse(reader.readUntil(')').trim());
 				/* Extract NAME and RANGE */
-				NameAndRange holder = parseNameAndRange(token.substring(token.indexOf("\"") + 1, token.lastIndexOf("\"")).trim());
+				reader.skipPast('"');
+				NameAndRange holder = parseNameAndRange(reader.readUntil('"').trim());
 				String name = holder.name;
 				Range range = holder.range;
 				/* Extract HIGHEST SIGNIFICANT BIT and build LENGTH */
-				int highestSB = Integer.parseInt(token.substring(token.indexOf("<") + 1, token.lastIndexOf(":")).trim());
+				reader.skipPast('<');
+				int highestSB = reader.readInt();
 				Range length = new Range(highestSB, 0);
 				/* Analyze FLAGS */
 				if (flags.isConstant()) {
 					/* CONSTANT */
 					/* Extract CONSTANT VALUE */
-					BigInteger constValue = new BigInteger(token.substring(token.indexOf("=") + 1).trim());
+					reader.skipPast('=');
+					BigInteger constValue = new BigInteger(reader.readWord());
 					builder.buildConstant(index, name, length, constValue);
 
 				} else if (flags.isFunction()) {
 					/* FUNCTION */
-					/* Read next token */
-					token = scanner.next();
-					if (!token.startsWith("FUN#")) {
-						throw new Exception("Function declaration is expected but not found on line: " + token);
+					/* Read next line */
+					if (!reader.nextLine() || !reader.startsWith("FUN#")) {
+						throw reader.createException("Function declaration is expected but not found");
 					}
+					reader.skipPast('#');
 					/* Extract FUNCTION TYPE */
-					String functionType = token.substring(token.indexOf("#") + 1, token.indexOf("(")).trim();
+					String functionType = reader.readUntil('(').trim();
 					/* Extract INPUTS */
-					String[] inputDeclarations = token.substring(token.indexOf("(") + 1, token.indexOf(")")).trim().split(",");
-					int[] inputIndices = new int[inputDeclarations.length];
-					Range[] inputRanges = new Range[inputDeclarations.length];
-					for (int i = 0; i < inputDeclarations.length; i++) {
-						String inputDeclaration = inputDeclarations[i].trim();
+					List<Integer> inputIndexList = new ArrayList<Integer>();
+					List<Range> inputRangeList = new ArrayList<Range>();
+					while (true) {
 						/* Extract input INDEX and RANGE, if any */
-						int inputIndex = Integer.parseInt(inputDeclaration.substring(inputDeclaration.indexOf("=") + 1, inputDeclaration.lastIndexOf("<")).trim());
-						inputIndices[i] = inputIndex;
-						inputRanges[i] = parseRange(inputDeclaration.substring(inputDeclaration.indexOf("=")));
+						reader.skipPast('=');
+						inputIndexList.add(reader.readInt());
+						inputRangeList.add(readRange());
+						char separator = reader.peekNonBlank();
+						reader.skipChar();
+						if (separator == ')') {
+							break;
+						}
+						if (separator != ',') {
+							throw reader.createException("Function inputs are malformed");
+						}
 					}
+					int[] inputIndices = new int[inputIndexList.size()];
+					for (int i = 0; i < inputIndices.length; i++) {
+						inputIndices[i] = inputIndexList.get(i);
+					}
+					Range[] inputRanges = inputRangeList.toArray(new Range[inputRangeList.size()]);
 					int nameIdx = name.contains("____") ? Integer.parseInt(name.substring(name.lastIndexOf("_") + 1)) : -1;
 					builder.buildFunction(index, name, nameIdx, functionType, inputIndices, inputRanges, length);
 
@@ -87,43 +118,45 @@ public class StructureParser {
 					builder.buildVariable(index, flags, name, length);
 				} else {
 					/* GRAPH */
-					/* Read next token */
-					token = scanner.next();
-					if (!token.startsWith("GRP#")) {
-						throw new Exception("Graph declaration is expected but not found on line: " + token);
+					/* Read next line */
+					if (!reader.nextLine() || !reader.startsWith("GRP#")) {
+						throw reader.createException("Graph declaration is expected but not found");
 					}
+					reader.skipPast('#');
 					/* Extract GRAPH INDEX */
-					int graphIndex = Integer.parseInt(token.substring(token.indexOf("#") + 1, token.indexOf(":")).trim());
+					int graphIndex = reader.readInt();
 					/* Extract GRAPHS LENGTH */
-					int graphLength = Integer.parseInt(token.substring(token.lastIndexOf("=") + 1, token.indexOf("-")).trim());
+					reader.skipPast(':');
+					reader.skipPast('=');
+					reader.skipPast('=');
+					int graphLength = reader.readInt();
 					builder.buildGraph(index, flags, name, range, length, graphLength, graphIndex);
 					/* Read NODES */
 					for (int nodeIndex = 0; nodeIndex < graphLength; nodeIndex++) {
-						token = scanner.next();
+						if (!reader.nextLine()) {
+							throw reader.createException("Node declaration is expected but not found");
+						}
 						/* Extract RELATIVE NODE INDEX */
-						int relativeNodeIndex = Integer.parseInt(token.substring(0, token.indexOf(":")).trim().split("\\s")[1].trim());
-						/* Extract DEPENDENT VARIABLE INDEX */
-						int depVarIndex = Integer.parseInt(token.substring(token.lastIndexOf("=") + 1, token.indexOf("\"")).trim());
-						/* Extract RANGE if any */
-						Range depVarRange = parseRange(token.substring(token.indexOf("\"") + 1, token.lastIndexOf("\"")).trim());
+						reader.readInt();
+						int relativeNodeIndex = reader.readInt();
+						reader.skipPast(':');
+						/* Skip FLAGS */
+						reader.skipPast('(');
+						reader.skipPast(')');
 						/* Extract SUCCESSORS */
-						String successorsDecl = token.substring(token.indexOf("(", token.indexOf(")")) + 1, token.indexOf(")", token.indexOf(")") + 1)).trim();
-						TreeMap<Condition, Integer> successors = null;
-						if (successorsDecl.contains("=")) {
-							successors = new TreeMap<Condition, Integer>();
-							String[] sucDeclarations = successorsDecl.split("\\s");
-							for (String successorDeclaration : sucDeclarations) {
-								int sucRelativeIndex = Integer.parseInt(successorDeclaration.substring(successorDeclaration.indexOf(">") + 1).trim());
-								Condition sucCondition = Condition.parse(successorDeclaration.substring(0, successorDeclaration.indexOf("=")).trim());
-								successors.put(sucCondition, sucRelativeIndex);
-							}
-						}
-						/* Extract WINDOW */
-						String[] windowPlaceholders = null;
-						if (base.psl.structure.Range.isRangeDeclaration(token)) {
-							windowPlaceholders = base.psl.structure.Range.parseRangeDeclaration(token);
-						}
-						builder.buildNode(relativeNodeIndex, depVarIndex, depVarRange, successors, windowPlaceholders);
+						reader.skipPast('(');
+						TreeMap<Condition, Integer> successors = readSuccessors();
+						/* Extract DEPENDENT VARIABLE INDEX */
+						reader.skipPast('=');
+						int depVarIndex = reader.readInt();
+						/* Extract RANGE and TEMPORAL WINDOW if any */
+						reader.skipPast('"');
+						String depVarName = reader.readUntil('"').trim();
+						Range depVarRange = parseRange(depVarName);
+						base.psl.structure.Range window = base.psl.structure.Range.parseWindow(depVarName);
+						/* Extract WINDOW PLACEHOLDERS */
+						String[] windowPlaceholders = readWindowPlaceholders();
+						builder.buildNode(relativeNodeIndex, depVarIndex, depVarRange, successors, window, windowPlaceholders);
 					}
 				}
 
@@ -131,12 +164,79 @@ public class StructureParser {
 		}
 	}
 
-	private Range parseRange(String line) throws Exception {
+	/**
+	 * Reads successors of a control node, like <code>0=>1 1-5=>2 )</code>, or skips the indices of a terminal node,
+	 * like <code>0 0)</code>
+	 *
+	 * @return successors of a control node, or <code>null</code> for a terminal node
+	 */
+	private TreeMap<Condition, Integer> readSuccessors() throws Exception {
+		TreeMap<Condition, Integer> successors = null;
+		while (reader.peekNonBlank() != ')') {
+			String successorDeclaration = reader.readWord(")");
+			if (successorDeclaration.length() == 0) {
+				throw reader.createException("Successors are malformed");
+			}
+			int arrowIdx = successorDeclaration.indexOf("=>");
+			if (arrowIdx == -1) {
+				continue; /* Terminal node */
+			}
+			if (successors == null) {
+				successors = new TreeMap<Condition, Integer>();
+			}
+			int sucRelativeIndex = Integer.parseInt(successorDeclaration.substring(arrowIdx + 2));
+			Condition sucCondition = Condition.parse(successorDeclaration.substring(0, arrowIdx));
+			successors.put(sucCondition, sucRelativeIndex);
+		}
+		reader.skipChar();
+		return successors;
+	}
+
+	/**
+	 * @return range in angular brackets (like <code>&lt;7:0&gt;</code> or <code>&lt;3&gt;</code>),
+	 *         or <code>null</code> if no range follows
+	 */
+	private Range readRange() throws Exception {
+		if (reader.peekNonBlank() != '<') {
+			return null;
+		}
+		reader.skipChar();
+		int highestIndex = reader.readInt();
+		int lowestIndex = highestIndex;
+		if (reader.peekNonBlank() == ':') {
+			reader.skipChar();
+			lowestIndex = reader.readInt();
+		}
+		if (reader.peekNonBlank() != '>') {
+			throw reader.createException("'>' is expected but not found");
+		}
+		reader.skipChar();
+		return new Range(highestIndex, lowestIndex);
+	}
+
+	/**
+	 * @return window placeholders in square brackets following the length of the dependent variable of a node,
+	 *         like <code>[0 TO END]</code>, or <code>null</code> if the node has no window
+	 */
+	private String[] readWindowPlaceholders() throws Exception {
+		if (reader.peekNonBlank() == '<') {
+			reader.skipPast('>');
+		}
+		if (reader.peekNonBlank() != '[') {
+			return null;
+		}
+		reader.skipChar();
+		String window = "[" + reader.readUntil(']') + "]";
+		return base.psl.structure.Range.isRangeDeclaration(window)
+				? base.psl.structure.Range.parseRangeDeclaration(window) : null;
+	}
+
+	static Range parseRange(String line) throws Exception {
 
 		return BracketType.ANGULAR.parse(line).range; /* allowed to be null */
 	}
 
-	private NameAndRange parseNameAndRange(String nameAndRange) throws Exception {
+	static NameAndRange parseNameAndRange(String nameAndRange) throws Exception {
 
 		return BracketType.ROUND.parse(nameAndRange);
 	}
@@ -4,12 +4,14 @@ import io.scan.PSLScanner;
 import io.scan.LexemeType;
 import base.psl.structure.VerificationDirective;
 
+import java.util.regex.Pattern;
+
 /**
  * @author Anton Chepurov
  */
 public class StructureParser {
 	private static final String PROPERTY_DIRECTIVE_START = " : ";
-	private static final String PROPERTY_NAME_REGEXP = "^" + LexemeType.IDENTIFIER.getRegexp() + PROPERTY_DIRECTIVE_START + ".*";
+	private static final Pattern PROPERTY_NAME_PATTERN = Pattern.compile("^" + LexemeType.IDENTIFIER.getRegexp() + PROPERTY_DIRECTIVE_START + ".*");
 	static final String MISSING_NAME_TEXT = "Property NAME is not specified for the following property: ";
 	static final String MISSING_DIRECTIVE_TEXT = "Property VERIFICATION DIRECTIVE is not specified for the following property: ";
 	static final String INCORRECT_DIRECTIVE_1_TEXT = "UNKNOWN VERIFICATION DIRECTIVE (";
@@ -89,7 +91,7 @@ public class StructureParser {
 	}
 
 	static void checkForPropertyName(String propertyLine) throws Exception {
-		if (!propertyLine.matches(PROPERTY_NAME_REGEXP)) throw new Exception(MISSING_NAME_TEXT + propertyLine);
+		if (!PROPERTY_NAME_PATTERN.matcher(propertyLine).matches()) throw new Exception(MISSING_NAME_TEXT + propertyLine);
 	}
 
 }
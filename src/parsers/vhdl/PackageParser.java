@@ -42,9 +42,10 @@ public class PackageParser {
 	 */
 	public static void parse(File vhdlFile, String packageFileName, StructureBuilder builder) throws Exception {
 		/* Parse Package Structure */
-		Package aPackage = Package.parsePackageStructure(new File(vhdlFile.getParent(), packageFileName + ".vhd"));
+		File packageFile = new File(vhdlFile.getParent(), packageFileName + ".vhd");
+		Package aPackage = Package.parsePackageStructure(packageFile);
 		/* Add package to builder */
-		builder.addPackage(aPackage);
+		builder.addPackage(aPackage, packageFile);
 	}
 
 	public void parse() throws Exception {
@@ -24,6 +24,8 @@ public class StructureBuilder extends AbstractPackageBuilder {
 	private Entity entity;
 
 	private Set<Package> packages = new HashSet<Package>();
+
+	private Set<File> packageFiles = new HashSet<File>();
 	/* Context Stack */
 	private Stack<Object> contextStack = new Stack<Object>();
 
@@ -32,6 +34,7 @@ public class StructureBuilder extends AbstractPackageBuilder {
 			entity = new Entity(entityName);
 			contextStack.push(entity);
 		}
+		entity.addPackageFiles(packageFiles);
 		/* Copy internals of the available packages to the Entity */
 		for (Package aPackage : packages) {
 			/* Copy constants */
@@ -386,8 +389,9 @@ public class StructureBuilder extends AbstractPackageBuilder {
 		return entity;
 	}
 
-	public void addPackage(Package aPackage) {
+	public void addPackage(Package aPackage, File packageFile) {
 		packages.add(aPackage);
+		packageFiles.add(packageFile);
 	}
 
 	static class ArchitectureFileFinder {
@@ -2,6 +2,7 @@ package ui;
 
 import base.hldd.structure.models.BehModel;
 import io.ConsoleWriter;
+import parsers.hldd.BinaryModelWriter;
 import ui.utils.ConvertingWorker;
 import ui.utils.UIWorkerFinalizerImpl;
 
@@ -77,6 +78,7 @@ public class BusinessLogic {
 			File outputFile = getOutputFile();
 
 			model.toFile(new FileOutputStream(outputFile), comment, settings);
+			BinaryModelWriter.writeAlongside(model, outputFile);
 
 			consoleWriter.writeLn("Model saved to: " + outputFile.getAbsolutePath());
 
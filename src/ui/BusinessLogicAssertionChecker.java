@@ -1,9 +1,8 @@
 package ui;
 
 import io.ConsoleWriter;
-import parsers.tgm.ModelDataLoader;
 import ui.graphics.SimulationFrame;
-import ui.io.AssertionCheckReader;
+import ui.io.AssertionTrace;
 import ui.utils.*;
 import ui.utils.uiWithWorker.UIWithWorker;
 
@@ -23,7 +22,11 @@ public class BusinessLogicAssertionChecker implements Lockable {
 	private File hlddFile = null;
 	private File tgmFile;
 	private File simulationFile = null;
-	volatile private AssertionCheckReader simulationReader = null;
+	volatile private AssertionTrace simulationReader = null;
+	/**
+	 * Name of the trace checked in-process, or <code>null</code> if the trace is read from {@link #simulationFile}
+	 */
+	private String checkedTraceName = null;
 
 	private final SimpleLock simpleLock = new SimpleLock();
 
@@ -38,6 +41,7 @@ public class BusinessLogicAssertionChecker implements Lockable {
 
 	public void setSimulationFile(File simulationFile) {
 		this.simulationFile = simulationFile;
+		checkedTraceName = null;
 	}
 
 	public void loadChkFile() {
@@ -63,18 +67,26 @@ public class BusinessLogicAssertionChecker implements Lockable {
 	}
 
 	public void drawWaveform() throws ExtendedException {
-		/* Check .CHK file to be selected */
-		if (simulationFile == null) {
-			throw new ExtendedException(".CHK file is missing", ExtendedException.MISSING_FILE_TEXT);
+		String title;
+		String tooltip;
+		if (checkedTraceName != null) {
+			title = tooltip = checkedTraceName;
+		} else {
+			/* Check .CHK file to be selected */
+			if (simulationFile == null) {
+				throw new ExtendedException(".CHK file is missing", ExtendedException.MISSING_FILE_TEXT);
+			}
+			title = simulationFile.getName();
+			tooltip = simulationFile.getAbsolutePath();
 		}
 
 		int drawPatternCount = applicationForm.getDrawPatternCount();
 
-		SimulationFrame simulationFrame = new SimulationFrame(simulationReader.getVariablePatterns(),
-				simulationReader.getAssertionPatterns(),
-				new ModelDataLoader(simulationFile).getVariableNames(),
-				simulationReader.getBooleanIndices(), drawPatternCount, simulationFile.getName(), applicationForm.getFrame());
-		applicationForm.addSimulation(simulationFile.getName(), simulationFile.getAbsolutePath(), simulationFrame.getMainPanel());
+		SimulationFrame simulationFrame = new SimulationFrame(simulationReader.getVariableColumns(),
+				simulationReader.getAssertionColumns(),
+				simulationReader.getVariableNames(),
+				simulationReader.getBooleanIndices(), drawPatternCount, title, applicationForm.getFrame());
+		applicationForm.addSimulation(title, tooltip, simulationFrame.getMainPanel());
 
 		unlock();
 	}
@@ -128,11 +140,17 @@ public class BusinessLogicAssertionChecker implements Lockable {
 		}
 		commandList.add(hlddFile.getAbsolutePath().replace(".agm", ""));
 
+		/* Assertions are checked in-process. Plain simulation (without checking) is left to assert. */
+		HLDDAssertionChecking checking = doCheckAssertion
+				? new HLDDAssertionChecking(hlddFile, tgmFile, isRandom ? patternCount : HLDDAssertionChecking.NO_RANDOM)
+				: null;
+
 		/* Execute command */
 		UIWithWorker.runUIWithWorker(
 				new AssertionCheckingUI(applicationForm.getFrame()),
 				new AssertionCheckingWorker(
 						commandList,
+						checking,
 						System.err,
 						this,
 						hlddFile.getAbsolutePath().replace(".agm", ".chk"),
@@ -145,8 +163,20 @@ public class BusinessLogicAssertionChecker implements Lockable {
 		return applicationForm;
 	}
 
-	public void setSimulationReader(AssertionCheckReader simulationReader) {
+	public void setSimulationReader(AssertionTrace simulationReader) {
 		this.simulationReader = simulationReader;
 	}
 
+	/**
+	 * Sets the trace of assertions checked in-process. No CHK file is written for it, so the trace is drawn
+	 * under the specified name.
+	 *
+	 * @param checkedTrace	 trace of checked assertions
+	 * @param checkedTraceName name to draw the trace under
+	 */
+	public void setCheckedTrace(AssertionTrace checkedTrace, String checkedTraceName) {
+		this.checkedTraceName = checkedTraceName;
+		this.simulationReader = checkedTrace;
+	}
+
 }
\ No newline at end of file
@@ -55,11 +55,17 @@ public class BusinessLogicCoverageAnalyzer {
 		}
 		commandList.add(hlddFile.getAbsolutePath().replace(".agm", ""));
 
+		/* Coverage is measured in-process. Plain simulation (SIM file) is left to hlddsim. */
+		HLDDSimulation simulation = isDoMeasureCoverage
+				? new HLDDSimulation(hlddFile, directive, isRandom ? patternCount : HLDDSimulation.NO_RANDOM)
+				: null;
+
 		/* Execute command */
 		UIWithWorker.runUIWithWorker(
 				new CoverageAnalyzingUI(applicationForm.getFrame()),
 				new CoverageAnalyzingWorker(
 						commandList,
+						simulation,
 						System.err,
 						this,
 						consoleWriter
@@ -5,6 +5,7 @@ import io.QuietCloser;
 import java.io.*;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -37,6 +38,7 @@ public class ConverterSettings {
 	private final boolean doCreateExtraCSGraphs;
 	private final BusinessLogic.HLDDRepresentationType hlddType;
 	private final Set<File> sourceFiles = new TreeSet<File>();
+	private final Set<File> packageFiles = new TreeSet<File>();
 	private final boolean isComponent;
 	/* Mutable fields */
 	private OutputStream mapFileStream;
@@ -287,11 +289,42 @@ public class ConverterSettings {
 		return result;
 	}
 
+	/**
+	 * @return source files of the components, if any
+	 */
+	public Collection<File> getSourceFiles() {
+		return Collections.unmodifiableSet(sourceFiles);
+	}
+
+	/**
+	 * @return files of the packages used by the source file and the components, if any
+	 */
+	public Collection<File> getPackageFiles() {
+		return Collections.unmodifiableSet(packageFiles);
+	}
+
+	public void addPackageFiles(Collection<File> packageFiles) {
+		this.packageFiles.addAll(packageFiles);
+	}
+
 	public void addSourceFiles(ConverterSettings otherSettings) {
 
 		addSources(Arrays.asList(otherSettings.sourceFile));
 
+		addDependencies(otherSettings);
+	}
+
+	/**
+	 * Adds the files of the components and packages of the other settings, but not the source file itself.
+	 * Used to share the files a model has been converted from amongst the settings the model is saved with.
+	 *
+	 * @param otherSettings settings a model has been converted with
+	 */
+	public void addDependencies(ConverterSettings otherSettings) {
+
 		addSources(otherSettings.sourceFiles);
+
+		addPackageFiles(otherSettings.packageFiles);
 	}
 
 	private void addSources(Collection<File> sourceFiles) {
@@ -0,0 +1,108 @@
+package ui;
+
+import base.hldd.simulation.AssertionChecker;
+import base.hldd.simulation.RandomPatternGenerator;
+import base.hldd.simulation.UnsupportedModelException;
+import base.hldd.structure.models.BehModel;
+import ui.io.AssertionCheckCollector;
+import ui.io.AssertionTrace;
+import ui.io.TestPatternReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Checks the assertions of a TGM file against an HLDD model in-process, producing the same
+ * waveform data as <code>assert -check</code> does in its CHK file.
+ *
+ * @author Anton Chepurov
+ */
+public class HLDDAssertionChecking {
+
+	public static final int NO_RANDOM = -1;
+
+	private final File hlddFile;
+	private final File tgmFile;
+	private final int randomPatternCount;
+	private final long seed;
+
+	/**
+	 * @param hlddFile		   model to simulate
+	 * @param tgmFile			assertions to check
+	 * @param randomPatternCount number of random patterns to simulate, or {@link #NO_RANDOM}
+	 *                           to simulate patterns from the TST file of the model
+	 */
+	public HLDDAssertionChecking(File hlddFile, File tgmFile, int randomPatternCount) {
+		this(hlddFile, tgmFile, randomPatternCount, System.nanoTime());
+	}
+
+	/**
+	 * @param hlddFile		   model to simulate
+	 * @param tgmFile			assertions to check
+	 * @param randomPatternCount number of random patterns to simulate, or {@link #NO_RANDOM}
+	 *                           to simulate patterns from the TST file of the model
+	 * @param seed			   seed for random patterns
+	 */
+	public HLDDAssertionChecking(File hlddFile, File tgmFile, int randomPatternCount, long seed) {
+		this.hlddFile = hlddFile;
+		this.tgmFile = tgmFile;
+		this.randomPatternCount = randomPatternCount;
+		this.seed = seed;
+	}
+
+	/**
+	 * @return simulated states and verdicts of assertions
+	 * @throws UnsupportedModelException if the models cannot be simulated in-process, so assert can be used instead
+	 * @throws InterruptedException	  if the checking is interrupted before all the patterns are simulated
+	 * @throws Exception				 if the models or the patterns cannot be read
+	 */
+	public AssertionTrace run() throws Exception {
+		BehModel designModel = BehModel.parseHlddStructure(hlddFile);
+		BehModel tgmModel = BehModel.parseHlddStructure(tgmFile);
+		List<long[]> patterns = null;
+		int patternCount = randomPatternCount;
+		if (randomPatternCount == NO_RANDOM) {
+			patterns = readPatterns(designModel.getInputPorts().size());
+			patternCount = patterns.size();
+		}
+		AssertionCheckCollector collector = new AssertionCheckCollector(tgmModel);
+		AssertionChecker checker = new AssertionChecker(designModel, tgmModel, collector);
+
+		if (patterns == null) {
+			RandomPatternGenerator generator = new RandomPatternGenerator(checker.getDesignSimulator(), seed);
+			for (int i = 0; i < patternCount; i++) {
+				checkInterrupted();
+				checker.step(generator.next());
+			}
+		} else {
+			for (long[] pattern : patterns) {
+				checkInterrupted();
+				checker.step(pattern);
+			}
+		}
+		checker.finish();
+		return collector;
+	}
+
+	/**
+	 * @return name of the trace: names of the checked design and assertions
+	 */
+	public String getTraceName() {
+		return hlddFile.getName() + " / " + tgmFile.getName();
+	}
+
+	private static void checkInterrupted() throws InterruptedException {
+		if (Thread.currentThread().isInterrupted()) {
+			throw new InterruptedException("Assertion checking is cancelled");
+		}
+	}
+
+	private List<long[]> readPatterns(int inputCount) throws IOException {
+		File tstFile = FileDependencyResolver.deriveTstFile(hlddFile);
+		if (tstFile == null) {
+			throw new IOException("Test patterns file (TST) is missing for " + hlddFile.getAbsolutePath());
+		}
+		return new TestPatternReader(tstFile, inputCount).readPatterns();
+	}
+}
@@ -88,6 +88,11 @@ public class HLDDFileGenerator implements ChangeListener, DocumentListener {
 		boolean doCreateExCSGraphs = applicationForm.shouldCreateExtraCSGraphs();
 		boolean doFlattenCS = applicationForm.shouldFlattenCS();
 
+		return generate(sourceFile, hlddType, doCreateCSGraphs, doCreateExCSGraphs, doFlattenCS);
+	}
+
+	public static File generate(File sourceFile, BusinessLogic.HLDDRepresentationType hlddType,
+			boolean doCreateCSGraphs, boolean doCreateExCSGraphs, boolean doFlattenCS) {
 
 		StringBuilder name = new StringBuilder(sourceFile.getParent()).append(File.separator);
 
@@ -0,0 +1,86 @@
+package ui;
+
+import base.hldd.simulation.ShardedRandomSimulation;
+import base.hldd.simulation.SimulationCoverage;
+import base.hldd.simulation.Simulator;
+import base.hldd.simulation.UnsupportedModelException;
+import base.hldd.structure.models.BehModel;
+import ui.io.CoverageWriter;
+import ui.io.TestPatternReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Measures coverage of an HLDD model in-process, producing the same COV file
+ * as <code>hlddsim -coverage</code> does.
+ *
+ * @author Anton Chepurov
+ */
+public class HLDDSimulation {
+
+	public static final int NO_RANDOM = -1;
+
+	private final File hlddFile;
+	private final String coverageDirective;
+	private final int randomPatternCount;
+	private final int threadCount;
+	private final long seed;
+
+	/**
+	 * Random patterns are simulated by as many threads as there are available processors, with a time based seed.
+	 *
+	 * @param hlddFile		   model to simulate
+	 * @param coverageDirective  coverage metrics to measure (see {@link CoverageWriter#write})
+	 * @param randomPatternCount number of random patterns to simulate, or {@link #NO_RANDOM}
+	 *                           to simulate patterns from the TST file of the model
+	 */
+	public HLDDSimulation(File hlddFile, String coverageDirective, int randomPatternCount) {
+		this.hlddFile = hlddFile;
+		this.coverageDirective = coverageDirective;
+		this.randomPatternCount = randomPatternCount;
+		this.threadCount = Runtime.getRuntime().availableProcessors();
+		this.seed = System.nanoTime();
+	}
+
+	/**
+	 * @throws UnsupportedModelException if the model cannot be simulated in-process.
+	 *                                   Nothing is written in this case, so hlddsim can be used instead.
+	 * @throws Exception				 if the model or the patterns cannot be read, or the COV file cannot be written
+	 */
+	public void run() throws Exception {
+		BehModel model = BehModel.parseHlddStructure(hlddFile);
+
+		SimulationCoverage coverage;
+		String comment;
+		if (randomPatternCount == NO_RANDOM) {
+			Simulator simulator = new Simulator(model);
+			coverage = new SimulationCoverage(model, simulator.getFlatModel());
+			simulator.setCoverage(coverage);
+			List<long[]> patterns = readPatterns(simulator);
+			for (long[] pattern : patterns) {
+				simulator.step(pattern);
+			}
+			comment = "Coverage of " + hlddFile.getName() + " for " + patterns.size() + " patterns";
+		} else {
+			coverage = new ShardedRandomSimulation(model, randomPatternCount, threadCount, seed).run();
+			comment = "Coverage of " + hlddFile.getName() + " for " + randomPatternCount + " random patterns ("
+					+ threadCount + " threads, seed " + seed + ")";
+		}
+
+		String covFilePath = FileDependencyResolver.deriveFilePathFrom(hlddFile, "cov");
+		if (covFilePath == null) {
+			throw new IOException("Cannot derive COV file name from " + hlddFile.getAbsolutePath());
+		}
+		new CoverageWriter(new File(covFilePath)).write(coverage, coverageDirective, comment);
+	}
+
+	private List<long[]> readPatterns(Simulator simulator) throws IOException {
+		File tstFile = FileDependencyResolver.deriveTstFile(hlddFile);
+		if (tstFile == null) {
+			throw new IOException("Test patterns file (TST) is missing for " + hlddFile.getAbsolutePath());
+		}
+		return new TestPatternReader(tstFile, simulator.getInputCount()).readPatterns();
+	}
+}
@@ -12,12 +12,24 @@ public enum AssertionStatus {
 	@SuppressWarnings({"EnumeratedConstantNamingConvention"})
 	PASS_AND_FAIL("&");
 
+	private static final AssertionStatus[] STATUS_BY_SHORTCUT = new AssertionStatus[128];
+
+	static {
+		for (AssertionStatus status : values()) {
+			STATUS_BY_SHORTCUT[status.shortcut.charAt(0)] = status;
+		}
+	}
+
 	private final String shortcut;
 
 	AssertionStatus(String shortcut) {
 		this.shortcut = shortcut;
 	}
 
+	public char getShortcut() {
+		return shortcut.charAt(0);
+	}
+
 	@Deprecated
 	public static AssertionStatus[] parse(char... shortcuts) {
 		AssertionStatus[] statuses = new AssertionStatus[shortcuts.length];
@@ -35,4 +47,11 @@ public enum AssertionStatus {
 			}
 		throw new IllegalArgumentException("Enum " + AssertionStatus.class.getName() + " has no constant with shortcut " + shortcut);
 	}
+
+	public static AssertionStatus statusOfShortcut(char shortcut) {
+		if (shortcut < STATUS_BY_SHORTCUT.length && STATUS_BY_SHORTCUT[shortcut] != null) {
+			return STATUS_BY_SHORTCUT[shortcut];
+		}
+		return statusOfShortcut(String.valueOf(shortcut));
+	}
 }
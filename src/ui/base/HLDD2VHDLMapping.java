@@ -2,52 +2,68 @@ package ui.base;
 
 import base.SourceLocation;
 
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
+ * Source locations of HLDD items, as read from the map file.
+ * <p/>
+ * Locations of several items are merged into a single {@link SourceLocation.Builder}, so that bulk queries take time
+ * linear in the number of lines. The merged location of all items is computed once and cached.
+ *
  * @author Anton Chepurov
  */
 public class HLDD2VHDLMapping {
 
 	Map<? super AbstractItem, SourceLocation> mapping = new HashMap<AbstractItem, SourceLocation>();
 
+	private SourceLocation allSources = null;
+
 	public void addMapping(AbstractItem newItem, SourceLocation lines) {
 		mapping.put(newItem, lines);
+		allSources = null;
 	}
 
 	@SuppressWarnings({"OverloadedMethodsWithSameNumberOfParameters"})
 	public SourceLocation getSourceFor(AbstractItem uncoveredItem) {
-		return getSourceFor(Arrays.asList(uncoveredItem));
+		return mapping.get(uncoveredItem);
 	}
 
 	@SuppressWarnings({"OverloadedMethodsWithSameNumberOfParameters"})
 	public SourceLocation getSourceFor(Collection<? extends AbstractItem> uncoveredItems) {
-		SourceLocation location = null;
-		for (AbstractItem uncoveredItem : uncoveredItems) {
-			if (mapping.containsKey(uncoveredItem)) {
-				SourceLocation uncoveredLocation = mapping.get(uncoveredItem);
-				if (location == null) {
-					location = uncoveredLocation;
-				} else {
-					location = location.addSource(uncoveredLocation);
-				}
-			}
-		}
-		return location;
+		return merge(uncoveredItems, true);
 	}
 
 	public SourceLocation getAllSources() {
-		SourceLocation location = null;
-		for (SourceLocation source : mapping.values()) {
+		if (allSources == null) {
+			allSources = merge(mapping.values(), false);
+		}
+		return allSources;
+	}
+
+	/**
+	 * @param objects		 items to look up, or locations themselves
+	 * @param isLookupNeeded whether objects are items whose locations must be looked up
+	 * @return merged location of the objects, or <code>null</code> if none of them has a location
+	 */
+	private SourceLocation merge(Collection<?> objects, boolean isLookupNeeded) {
+		SourceLocation firstLocation = null;
+		SourceLocation.Builder builder = null;
+		for (Object object : objects) {
+			SourceLocation location = isLookupNeeded ? mapping.get(object) : (SourceLocation) object;
 			if (location == null) {
-				location = source;
+				continue;
+			}
+			if (firstLocation == null) {
+				firstLocation = location;
 			} else {
-				location = location.addSource(source);
+				if (builder == null) {
+					builder = new SourceLocation.Builder().add(firstLocation);
+				}
+				builder.add(location);
 			}
 		}
-		return location;
+		return builder == null ? firstLocation : builder.build();
 	}
 }
@@ -12,6 +12,14 @@ public class NodeItem extends AbstractItem {
 		this.nodeIndex = nodeIndex;
 	}
 
+	public int getGraphIndex() {
+		return graphIndex;
+	}
+
+	public int getNodeIndex() {
+		return nodeIndex;
+	}
+
 	public boolean equals(Object obj) {
 		if (this == obj) return true;
 		if (obj == null || getClass() != obj.getClass()) return false;
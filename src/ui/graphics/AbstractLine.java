@@ -1,40 +1,76 @@
 package ui.graphics;
 
 import javax.swing.*;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
 import java.awt.*;
 
 /**
+ * Line of a waveform. Lines paint the visible cycles directly from the simulation data,
+ * so no objects are kept per cycle.
+ *
  * @author Anton Chepurov
  */
-public abstract class AbstractLine extends JPanel { //todo: JPanel -> JComponent
+public abstract class AbstractLine extends JPanel implements ChangeListener { //todo: JPanel -> JComponent
+	/**
+	 * Height of the line
+	 */
+	static final int SIZE = 20;
+	/**
+	 * Width of a cycle at the most detailed zoom level
+	 */
+	static final int FULL_SIZE = 2 * SIZE;
+	static final int TRANSITION_LENGTH = 5;
+	static final int OFFSET = TRANSITION_LENGTH / 2;
 
-	protected AbstractShape[] shapes;
+	protected final WaveformZoom zoom;
+	protected final int patternCount;
+	private final int height;
 
-	public void paintChildren(Graphics g) {
-		AbstractLine.VisibleIndices visibleIndices = getVisibleIndices();
-		for (int i = visibleIndices.start; i < visibleIndices.end; i++) {
-			shapes[i].paint(g, i);
-		}
+	protected AbstractLine(WaveformZoom zoom, int patternCount, int height) {
+		this.zoom = zoom;
+		this.patternCount = patternCount;
+		this.height = height;
+		setBackground(Color.black);
+		updatePreferredSize();
+		zoom.addChangeListener(this);
 	}
 
-	public VisibleIndices getVisibleIndices() {
-		Rectangle visibleRectangle = ((JViewport) this.getParent().getParent()).getViewRect();
-		int start = visibleRectangle.getLocation().x;
-		int end = start + visibleRectangle.width;
-
-		int visibleEnd = (int) Math.ceil((double) end / AbstractShape.FULL_SIZE);
-		return new VisibleIndices(start / AbstractShape.FULL_SIZE, Math.min(visibleEnd, shapes.length));
+	/**
+	 * Adjusts the size of the panel to the zoom level, to enable Scroll bars to appear in JScrollPane
+	 */
+	private void updatePreferredSize() {
+		setPreferredSize(new Dimension(zoom.toX(patternCount), height));
 	}
 
-	@SuppressWarnings({"InstanceVariableNamingConvention"})
-	private class VisibleIndices {
-		private int start;
-		private int end;
+	@Override
+	public void stateChanged(ChangeEvent e) {
+		updatePreferredSize();
+		revalidate();
+		repaint();
+	}
 
-		public VisibleIndices(int start, int end) {
-			this.start = start;
-			this.end = end;
+	@Override
+	protected void paintComponent(Graphics g) {
+		super.paintComponent(g);
+		/* Paint visible cycles only */
+		int start = 0;
+		int end = patternCount;
+		Rectangle clipBounds = g.getClipBounds();
+		if (clipBounds != null) {
+			start = Math.max(0, zoom.toCycle(clipBounds.x) - 1);
+			end = Math.min(patternCount, zoom.toCycle(clipBounds.x + clipBounds.width) + 1);
+		}
+		if (start < end) {
+			paintCycles(g, start, end);
 		}
 	}
 
+	/**
+	 * @param g	 graphics to paint with
+	 * @param start index of the first cycle to paint
+	 * @param end   index of the cycle following the last cycle to paint
+	 */
+	protected abstract void paintCycles(Graphics g, int start, int end);
+
 }
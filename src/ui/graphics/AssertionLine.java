@@ -1,5 +1,8 @@
 package ui.graphics;
 
+import ui.base.AssertionStatus;
+import ui.io.TraceColumn;
+
 import java.awt.*;
 import java.text.ChoiceFormat;
 
@@ -10,20 +13,32 @@ public class AssertionLine extends AbstractLine {
 
 	private static final ChoiceFormat FAILURES_FORMAT = new ChoiceFormat(new double[]{0, 1, 2}, new String[]{"no failures", "1 failure", "2 failures"});
 
-	public AssertionLine(String toolTip, int patternCount, char[] assertionValuesArray) {
-		setBackground(Color.black);
+	private static final int INACTIVE_Y = SIZE;
+	private static final int CHECKING_Y = SIZE * 2 / 3 + 1;
+	/* FAIL */
+	private static final int[] FAIL_X_POINTS = {OFFSET - SIZE / 3, OFFSET + SIZE / 3, OFFSET};
+	private static final int[] FAIL_Y_POINTS = {0, 0, SIZE * 2 / 3};
+	/* PASS */
+	private static final int[] PASS_X_POINTS = {OFFSET, OFFSET + SIZE / 3, OFFSET - SIZE / 3};
+	private static final int[] PASS_Y_POINTS = {0, SIZE * 2 / 3, SIZE * 2 / 3};
+	/**
+	 * Cycles narrower than this get their PASS and FAIL marks painted as ticks instead of triangles
+	 */
+	private static final int MIN_MARK_WIDTH = SIZE * 2 / 3;
+
+	private final TraceColumn assertionColumn;
+
+	public AssertionLine(WaveformZoom zoom, String toolTip, int patternCount, TraceColumn assertionColumn) {
+		super(zoom, Math.min(patternCount, assertionColumn.size()), SIZE + 10);
+		this.assertionColumn = assertionColumn;
 
 		int failureCount = 0;
-		shapes = new AssertionShape[patternCount];
-		for (int i = 0; i < patternCount; i++) {
-			char value = assertionValuesArray[i];
-			shapes[i] = AssertionShape.createShape(value);
-			if (value == 'F') {
-				failureCount++;
+		for (int run = 0; run < assertionColumn.getRunCount() && assertionColumn.getRunStart(run) < this.patternCount; run++) {
+			if (getStatus(run) == AssertionStatus.FAIL) {
+				failureCount += Math.min(assertionColumn.getRunEnd(run), this.patternCount) - assertionColumn.getRunStart(run);
 			}
 		}
 
-		setPreferredSize(new Dimension((2 * AbstractShape.SIZE) * patternCount, AbstractShape.SIZE + 10));
 		setToolTipText(toolTip + " (" + failureToString(failureCount) + ")");
 	}
 
@@ -31,6 +46,88 @@ public class AssertionLine extends AbstractLine {
 		return failureCount > 2 ? failureCount + " failures" : FAILURES_FORMAT.format(failureCount);
 	}
 
+	@Override
+	protected void paintCycles(Graphics g, int start, int end) {
+		if (start >= end) {
+			return;
+		}
+		int firstRun = assertionColumn.findRun(start);
+
+		/* Lines: runs of cycles with the same line are painted as a whole */
+		int runStart = start;
+		for (int run = firstRun; runStart < end; ) {
+			int lineY = getLineY(getStatus(run));
+			int runEnd = Math.min(assertionColumn.getRunEnd(run++), end);
+			while (runEnd < end && getLineY(getStatus(run)) == lineY) {
+				runEnd = Math.min(assertionColumn.getRunEnd(run++), end);
+			}
+			if (lineY != -1) {
+				g.setColor(lineY == CHECKING_Y ? Color.green : Color.blue);
+				g.drawLine(OFFSET + zoom.toX(runStart), lineY, OFFSET + zoom.toX(runEnd), lineY);
+			}
+			runStart = runEnd;
+		}
+
+		/* Marks */
+		boolean isDetailed = zoom.getPixelsPerCycle() >= MIN_MARK_WIDTH;
+		for (int run = firstRun; run < assertionColumn.getRunCount() && assertionColumn.getRunStart(run) < end; run++) {
+			AssertionStatus assertionStatus = getStatus(run);
+			boolean isFail = assertionStatus == AssertionStatus.FAIL || assertionStatus == AssertionStatus.PASS_AND_FAIL;
+			boolean isPass = assertionStatus == AssertionStatus.PASS || assertionStatus == AssertionStatus.PASS_AND_FAIL;
+			if (!isFail && !isPass) continue;
+			int runEnd = Math.min(assertionColumn.getRunEnd(run), end);
+			for (int i = Math.max(start, assertionColumn.getRunStart(run)); i < runEnd; i++) {
+				paintMarks(g, zoom.toX(i), isFail, isPass, isDetailed);
+			}
+		}
+	}
+
+	private AssertionStatus getStatus(int run) {
+		return AssertionStatus.statusOfShortcut((char) assertionColumn.getValue(run));
+	}
+
+	private static void paintMarks(Graphics g, int x, boolean isFail, boolean isPass, boolean isDetailed) {
+		if (isFail) {
+			g.setColor(Color.red);
+			if (isDetailed) {
+				g.fillPolygon(translate(FAIL_X_POINTS, x), FAIL_Y_POINTS, FAIL_X_POINTS.length);
+			} else {
+				g.drawLine(OFFSET + x, 0, OFFSET + x, SIZE * 2 / 3);
+			}
+		}
+		if (isPass) {
+			g.setColor(Color.green);
+			if (isDetailed) {
+				g.fillPolygon(translate(PASS_X_POINTS, x), PASS_Y_POINTS, PASS_X_POINTS.length);
+			} else if (!isFail) {
+				g.drawLine(OFFSET + x, 0, OFFSET + x, SIZE * 2 / 3);
+			}
+		}
+	}
+
+	/**
+	 * @param assertionStatus status of the assertion
+	 * @return y coordinate of the line to paint for the status, or <code>-1</code> if no line is painted
+	 */
+	private static int getLineY(AssertionStatus assertionStatus) {
+		switch (assertionStatus) {
+			case CHECKING:
+				return CHECKING_Y;
+			case PASS_AND_FAIL:
+				return -1;
+			default:
+				return INACTIVE_Y;
+		}
+	}
+
+	private static int[] translate(int[] xPoints, int x) {
+		int[] translatedPoints = new int[xPoints.length];
+		for (int i = 0; i < xPoints.length; i++) {
+			translatedPoints[i] = xPoints[i] + x;
+		}
+		return translatedPoints;
+	}
+
 	public static void main(String[] args) {
 		System.out.println(" (" + failureToString(0) + ")");
 		System.out.println(" (" + failureToString(1) + ")");
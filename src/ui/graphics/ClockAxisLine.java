@@ -1,20 +1,46 @@
 package ui.graphics;
 
 import java.awt.*;
-import java.util.Arrays;
 
 /**
  * @author Anton Chepurov
  */
 public class ClockAxisLine extends AbstractLine {
 
-	public ClockAxisLine(int clockCount) {
-		setBackground(Color.black);
+	private static final int[] TICK_STEP_MULTIPLIERS = {1, 2, 5};
 
-		shapes = new ClockAxisShape[clockCount];
-		Arrays.fill(shapes, ClockAxisShape.getInstance());
+	public ClockAxisLine(WaveformZoom zoom, int clockCount) {
+		super(zoom, clockCount, SIZE);
+	}
+
+	@Override
+	protected void paintCycles(Graphics g, int start, int end) {
+		g.setColor(Color.yellow);
+		/* Draw Line */
+		g.drawLine(OFFSET + zoom.toX(start), 0, OFFSET + zoom.toX(end), 0);
+		/* Draw Ticks and Text, leaving at least FULL_SIZE pixels between the ticks */
+		int step = getTickStep();
+		for (int i = start; i < end; i++) {
+			if (step == 1 || (i + 1) % step == 0) {
+				int x = OFFSET + zoom.toX(i);
+				g.drawLine(x, 0, x, SIZE / 2);
+				g.drawString("" + (i + 1), x + 3, SIZE / 2);
+			}
+		}
+	}
 
-		setPreferredSize(new Dimension((2 * AbstractShape.SIZE) * clockCount, AbstractShape.SIZE));
+	/**
+	 * @return number of cycles between the ticks: 1, 2, 5, 10, 20, 50 etc.
+	 */
+	private int getTickStep() {
+		for (int magnitude = 1; ; magnitude *= 10) {
+			for (int multiplier : TICK_STEP_MULTIPLIERS) {
+				int step = magnitude * multiplier;
+				if (step * zoom.getPixelsPerCycle() >= FULL_SIZE) {
+					return step;
+				}
+			}
+		}
 	}
 
 }
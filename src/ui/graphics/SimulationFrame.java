@@ -1,9 +1,12 @@
 package ui.graphics;
 
 import sun.awt.VerticalBagLayout;
+import ui.io.TraceColumn;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.util.Collection;
 
 /**
@@ -13,20 +16,20 @@ public class SimulationFrame extends JFrame {
 
 	private JComponent mainPanel;
 
-	public SimulationFrame(long[][] variableValuesArray, char[][] assertionValuesArray, String[] variableNames,
-						   Collection booleanIndices, int patternCount, String title, Component parent) {
+	public SimulationFrame(TraceColumn[] variableColumns, TraceColumn[] assertionColumns, String[] variableNames,
+						   Collection<Integer> booleanIndices, int patternCount, String title, Component parent) {
 		super(title);
 		setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
 		/* Create panels from input data and add them to the frame */
-		mainPanel = createPanel(variableValuesArray, assertionValuesArray, variableNames, booleanIndices, patternCount, parent);
+		mainPanel = createPanel(variableColumns, assertionColumns, variableNames, booleanIndices, patternCount, parent);
 		add(mainPanel, BorderLayout.CENTER);
 	}
 
-	private JComponent createPanel(long[][] variableValuesArray, char[][] assertionValuesArray,
-								   String[] variableNames, Collection booleanIndices, int patternCount, Component parent) {
+	private JComponent createPanel(TraceColumn[] variableColumns, TraceColumn[] assertionColumns,
+								   String[] variableNames, Collection<Integer> booleanIndices, int patternCount, Component parent) {
 		/* Check the number of Variable Names to be equal to the total number of variable and assertion values.
 		* If their amounts are different, then discard Variable Names*/
-		if (variableNames != null && variableNames.length != variableValuesArray.length + assertionValuesArray.length) {
+		if (variableNames != null && variableNames.length != variableColumns.length + assertionColumns.length) {
 			variableNames = null;
 			String message = "Number of variables in TGM/AGM file is different from the one in CHK/SIM file." +
 					"\nVariable and property names will not be shown on the waveform.";
@@ -35,6 +38,7 @@ public class SimulationFrame extends JFrame {
 
 		int variableNameIndex = 0;
 		String longestVarName = getLongestVarName(variableNames);
+		WaveformZoom zoom = new WaveformZoom();
 
 		JPanel mainPanel = new JPanel(new BorderLayout());
 		mainPanel.setBackground(Color.cyan);
@@ -47,7 +51,7 @@ public class SimulationFrame extends JFrame {
 			titlesPanel.setBackground(Color.black);
 
 			/* Create Empty Border line */
-			titlesPanel.add(Box.createVerticalStrut(AbstractShape.SIZE / 2));
+			titlesPanel.add(Box.createVerticalStrut(AbstractLine.SIZE / 2));
 
 			/* Var Names */
 			for (String varName : variableNames) {
@@ -69,25 +73,24 @@ public class SimulationFrame extends JFrame {
 		linesPanel.setBackground(Color.black);
 
 		/* Create Empty Border line */
-		linesPanel.add(Box.createVerticalStrut(AbstractShape.SIZE / 2));
+		linesPanel.add(Box.createVerticalStrut(AbstractLine.SIZE / 2));
 
 		/* Create VARIABLE LINES */
-		for (int i = 0; i < variableValuesArray.length; i++, variableNameIndex++) {
-			long[] variableValues = variableValuesArray[i];
-			if (variableValues != null) {
-				linesPanel.add(new VariableLine(patternCount,
-						booleanIndices.contains(i), variableValues));
+		for (int i = 0; i < variableColumns.length; i++, variableNameIndex++) {
+			TraceColumn variableColumn = variableColumns[i];
+			if (variableColumn != null) {
+				linesPanel.add(new VariableLine(zoom, patternCount,
+						booleanIndices.contains(i), variableColumn));
 			}
 		}
 		/* Create ASSERTION LINES */
-		for (int i = 0; i < assertionValuesArray.length; i++, variableNameIndex++) {
-			char[] assertionValues = assertionValuesArray[i];
+		for (int i = 0; i < assertionColumns.length; i++, variableNameIndex++) {
 			String toolTip = variableNames == null ? "Property " + (i + 1) : variableNames[variableNameIndex];
-			linesPanel.add(new AssertionLine(toolTip, patternCount, assertionValues));
+			linesPanel.add(new AssertionLine(zoom, toolTip, patternCount, assertionColumns[i]));
 		}
 
 		/* Create CLOCK AXIS */
-		linesPanel.add(new ClockAxisLine(patternCount > 0 ? patternCount : 0));
+		linesPanel.add(new ClockAxisLine(zoom, patternCount > 0 ? patternCount : 0));
 
 		/* SCROLL pane */
 		JScrollPane linesScrollPane = new JScrollPane();
@@ -99,9 +102,48 @@ public class SimulationFrame extends JFrame {
 			titlesScrollPane.getVerticalScrollBar().setModel(linesScrollPane.getVerticalScrollBar().getModel());
 		}
 
+		/* ZOOM buttons */
+		mainPanel.add(createZoomPanel(zoom, linesScrollPane), BorderLayout.PAGE_START);
+
 		return mainPanel;
 	}
 
+	private static JComponent createZoomPanel(final WaveformZoom zoom, final JScrollPane linesScrollPane) {
+		final JButton zoomInButton = new JButton("Zoom In");
+		final JButton zoomOutButton = new JButton("Zoom Out");
+		ActionListener zoomListener = new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				/* Keep the cycle in the middle of the view in the middle */
+				JViewport viewport = linesScrollPane.getViewport();
+				Rectangle viewRect = viewport.getViewRect();
+				int middleCycle = zoom.toCycle(viewRect.x + viewRect.width / 2);
+
+				if (e.getSource() == zoomInButton) {
+					zoom.zoomIn();
+				} else {
+					zoom.zoomOut();
+				}
+				zoomInButton.setEnabled(zoom.canZoomIn());
+				zoomOutButton.setEnabled(zoom.canZoomOut());
+
+				linesScrollPane.validate();
+				int maxX = Math.max(0, viewport.getViewSize().width - viewRect.width);
+				int x = Math.min(maxX, Math.max(0, zoom.toX(middleCycle) - viewRect.width / 2));
+				viewport.setViewPosition(new Point(x, viewRect.y));
+			}
+		};
+		zoomInButton.addActionListener(zoomListener);
+		zoomOutButton.addActionListener(zoomListener);
+		zoomInButton.setEnabled(zoom.canZoomIn());
+		zoomOutButton.setEnabled(zoom.canZoomOut());
+
+		JPanel zoomPanel = new JPanel(new FlowLayout(FlowLayout.LEADING));
+		zoomPanel.add(zoomInButton);
+		zoomPanel.add(zoomOutButton);
+		return zoomPanel;
+	}
+
 	private String getLongestVarName(String[] variableNames) {
 		if (variableNames == null) {
 			return null;
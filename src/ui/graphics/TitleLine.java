@@ -17,7 +17,7 @@ public class TitleLine extends JPanel {
 
 		Dimension preferredSize = new Dimension(
 				SwingUtilities.computeStringWidth(getFontMetrics(DEFAULT_FONT), longestVarName) + TITLE_OFFSET * 2,
-				AbstractShape.SIZE + 10);
+				AbstractLine.SIZE + 10);
 		setPreferredSize(preferredSize);
 
 	}
@@ -26,7 +26,7 @@ public class TitleLine extends JPanel {
 		super.paintComponent(g);
 		if (title != null) {
 			g.setColor(title.equalsIgnoreCase("CLOCK") ? Color.yellow : Color.green);
-			g.drawString(title, TITLE_OFFSET, AbstractShape.SIZE / 2);
+			g.drawString(title, TITLE_OFFSET, AbstractLine.SIZE / 2);
 		}
 	}
 }
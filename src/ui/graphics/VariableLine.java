@@ -1,6 +1,7 @@
 package ui.graphics;
 
-import javax.swing.*;
+import ui.io.TraceColumn;
+
 import java.awt.*;
 
 /**
@@ -8,30 +9,99 @@ import java.awt.*;
  */
 public class VariableLine extends AbstractLine {
 
-	public VariableLine(int patternCount, boolean isBoolean, long... variableValues) {
-		/* Set Background */
-		setBackground(Color.black);
-		/* Set Layout */
-		setLayout(new BoxLayout(this, BoxLayout.LINE_AXIS));
-
-		shapes = new VariableShape[patternCount];
-		for (int i = 0; i < patternCount; i++) {
-			shapes[i] = isBoolean ?
-					VariableShape.createBooleanShape(variableValues[i],
-							VariableShape.getDirection(previousValue(i, variableValues), variableValues[i])) :
-					VariableShape.createShape(variableValues[i]);
+	/**
+	 * Runs of equal values narrower than this are aggregated into blocks
+	 */
+	private static final int MIN_RUN_WIDTH = 3;
+
+	private final TraceColumn variableColumn;
+	private final boolean isBoolean;
+
+	public VariableLine(WaveformZoom zoom, int patternCount, boolean isBoolean, TraceColumn variableColumn) {
+		super(zoom, Math.min(patternCount, variableColumn.size()), SIZE + 10);
+		this.isBoolean = isBoolean;
+		this.variableColumn = variableColumn;
+	}
+
+	@Override
+	protected void paintCycles(Graphics g, int start, int end) {
+		if (start >= end) {
+			return;
+		}
+		/* Runs are painted as a whole, so that the picture doesn't depend on the area being repainted */
+		int run = variableColumn.findRun(start);
+		int runStart = variableColumn.getRunStart(run);
+		while (runStart < end) {
+			int runEnd = getRunEnd(run);
+			if (zoom.toX(runEnd) - zoom.toX(runStart) < MIN_RUN_WIDTH) {
+				/* Aggregate the following narrow runs too */
+				int blockEnd = runEnd;
+				while (blockEnd < end) {
+					int nextRunEnd = getRunEnd(run + 1);
+					if (zoom.toX(nextRunEnd) - zoom.toX(blockEnd) >= MIN_RUN_WIDTH) {
+						break;
+					}
+					blockEnd = nextRunEnd;
+					run++;
+				}
+				paintBlock(g, runStart, blockEnd);
+				runStart = blockEnd;
+			} else {
+				paintRun(g, run, runStart, runEnd);
+				runStart = runEnd;
+			}
+			run++;
 		}
+	}
 
-		/* Set TOOLTIP */
-//		setToolTipText("1"); //todo...
+	/**
+	 * @param run index of the run of equal values
+	 * @return index of the cycle following the last painted cycle of the run
+	 */
+	private int getRunEnd(int run) {
+		return Math.min(variableColumn.getRunEnd(run), patternCount);
+	}
+
+	private void paintBlock(Graphics g, int blockStart, int blockEnd) {
+		int x1 = zoom.toX(blockStart);
+		int x2 = zoom.toX(blockEnd);
+		g.setColor(Color.green);
+		g.fillRect(x1, 0, Math.max(1, x2 - x1), SIZE + 1);
+	}
 
-		/* Adjust the size of the panel, to enable Scroll bars to appear in JScrollPane */
-		int width = (AbstractShape.FULL_SIZE) * patternCount;
-		int height = AbstractShape.SIZE + 10;
-		setPreferredSize(new Dimension(width, height));
+	private void paintRun(Graphics g, int run, int runStart, int runEnd) {
+		int x1 = zoom.toX(runStart);
+		int x2 = zoom.toX(runEnd);
+		int transitionX = x1 + Math.min(TRANSITION_LENGTH, (x2 - x1) / 2);
+
+		if (variableColumn.isX(run)) {
+			g.setColor(Color.blue);
+			paintBus(g, x1, transitionX, x2, "X");
+		} else if (isBoolean) {
+			long value = variableColumn.getValue(run);
+			int y = value == 0 ? SIZE : 0;
+			g.setColor(value == 0 ? Color.red : Color.green);
+			if (run == 0 || variableColumn.isX(run - 1)) {
+				g.drawLine(x1, y, x2, y);
+			} else {
+				/* Go Up or Go Down Line */
+				g.drawPolyline(new int[]{x1, transitionX, x2}, new int[]{SIZE - y, y, y}, 3);
+			}
+		} else {
+			g.setColor(Color.green);
+			paintBus(g, x1, transitionX, x2, variableColumn.valueToString(run));
+		}
 	}
 
-	private static Long previousValue(int currentIndex, long... variableValues) {
-		return currentIndex == 0 ? null : variableValues[currentIndex - 1];
+	private static void paintBus(Graphics g, int x1, int transitionX, int x2, String label) {
+		/* Up Line */
+		g.drawPolyline(new int[]{x1, transitionX, x2}, new int[]{SIZE, 0, 0}, 3);
+		/* Down Line */
+		g.drawPolyline(new int[]{x1, transitionX, x2}, new int[]{0, SIZE, SIZE}, 3);
+		/* Number String, if it fits */
+		int labelX = transitionX + 5;
+		if (labelX + g.getFontMetrics().stringWidth(label) < x2) {
+			g.drawString(label, labelX, SIZE / 2);
+		}
 	}
 }
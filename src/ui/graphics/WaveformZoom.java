@@ -0,0 +1,74 @@
+package ui.graphics;
+
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Horizontal scale of a waveform, shared by all the lines of the waveform.
+ * <p/>
+ * The most detailed level shows every cycle {@link AbstractLine#FULL_SIZE} pixels wide. At the other levels,
+ * runs of equal values are painted as a whole, and runs that become too narrow are aggregated into blocks.
+ *
+ * @author Anton Chepurov
+ */
+public class WaveformZoom {
+
+	private static final double[] PIXELS_PER_CYCLE = {AbstractLine.FULL_SIZE, 20, 10, 4, 2, 1, 0.5, 0.2, 0.1, 0.05, 0.02, 0.01};
+
+	private final List<ChangeListener> listeners = new ArrayList<ChangeListener>();
+	private int level = 0;
+
+	public boolean canZoomIn() {
+		return level > 0;
+	}
+
+	public boolean canZoomOut() {
+		return level < PIXELS_PER_CYCLE.length - 1;
+	}
+
+	public void zoomIn() {
+		if (canZoomIn()) {
+			setLevel(level - 1);
+		}
+	}
+
+	public void zoomOut() {
+		if (canZoomOut()) {
+			setLevel(level + 1);
+		}
+	}
+
+	private void setLevel(int level) {
+		this.level = level;
+		ChangeEvent event = new ChangeEvent(this);
+		for (ChangeListener listener : listeners) {
+			listener.stateChanged(event);
+		}
+	}
+
+	public double getPixelsPerCycle() {
+		return PIXELS_PER_CYCLE[level];
+	}
+
+	/**
+	 * @param cycle index of the cycle
+	 * @return x coordinate where the cycle starts
+	 */
+	public int toX(int cycle) {
+		return (int) Math.floor(cycle * PIXELS_PER_CYCLE[level]);
+	}
+
+	/**
+	 * @param x x coordinate
+	 * @return index of the cycle the coordinate belongs to
+	 */
+	public int toCycle(int x) {
+		return (int) Math.floor(x / PIXELS_PER_CYCLE[level]);
+	}
+
+	public void addChangeListener(ChangeListener listener) {
+		listeners.add(listener);
+	}
+}
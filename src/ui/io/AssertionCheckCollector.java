@@ -0,0 +1,100 @@
+package ui.io;
+
+import base.hldd.simulation.AssertionChecker;
+import base.hldd.structure.models.BehModel;
+import base.hldd.structure.variables.AbstractVariable;
+import base.hldd.structure.variables.GraphVariable;
+import ui.base.AssertionStatus;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Collects the states and verdicts of an {@link AssertionChecker} for the waveform view,
+ * the same way {@link AssertionCheckReader} reads them from a CHK file.
+ *
+ * @author Anton Chepurov
+ */
+public class AssertionCheckCollector implements AssertionChecker.Listener, AssertionTrace {
+
+	private static final char[] STATUS_BY_VERDICT = new char[3];
+
+	static {
+		STATUS_BY_VERDICT[AssertionChecker.FAIL] = AssertionStatus.FAIL.getShortcut();
+		STATUS_BY_VERDICT[AssertionChecker.PASS] = AssertionStatus.PASS.getShortcut();
+		STATUS_BY_VERDICT[AssertionChecker.CHECKING] = AssertionStatus.CHECKING.getShortcut();
+	}
+
+	private final TraceColumn[] variableColumns;
+	private final TraceColumn[] assertionColumns;
+	private final String[] variableNames;
+	private int patternsSize = 0;
+
+	/**
+	 * @param tgmModel	 model with property graphs being checked
+	 */
+	public AssertionCheckCollector(BehModel tgmModel) {
+		List<String> names = new ArrayList<String>();
+		for (AbstractVariable input : tgmModel.getInputPorts()) {
+			names.add(input.getName());
+		}
+		variableColumns = createColumns(names.size());
+		for (GraphVariable property : tgmModel.getOutputPorts()) {
+			String name = property.getName();
+			/* Skip the window of the property, as ModelDataLoader does */
+			names.add(name.contains("@") ? name.substring(0, name.indexOf("@")) : name);
+		}
+		assertionColumns = createColumns(names.size() - variableColumns.length);
+		variableNames = names.toArray(new String[names.size()]);
+	}
+
+	private static TraceColumn[] createColumns(int count) {
+		TraceColumn[] columns = new TraceColumn[count];
+		for (int i = 0; i < count; i++) {
+			columns[i] = new TraceColumn();
+		}
+		return columns;
+	}
+
+	public void stepSimulated(int cycle, long[] inputValues) {
+		for (int i = 0; i < inputValues.length; i++) {
+			variableColumns[i].append(inputValues[i]);
+		}
+		patternsSize = cycle + 1;
+	}
+
+	/**
+	 * Verdicts arrive in the order of cycles for every property, so they are appended
+	 */
+	public void propertyChecked(int property, int startCycle, int verdict) {
+		assertionColumns[property].append(STATUS_BY_VERDICT[verdict]);
+	}
+
+	public TraceColumn[] getVariableColumns() {
+		return variableColumns;
+	}
+
+	public TraceColumn[] getAssertionColumns() {
+		return assertionColumns;
+	}
+
+	public String[] getVariableNames() {
+		return variableNames;
+	}
+
+	public Collection<Integer> getBooleanIndices() {
+		TreeSet<Integer> booleanIndices = new TreeSet<Integer>();
+		for (int varIndex = 0; varIndex < variableColumns.length; varIndex++) {
+			if (variableColumns[varIndex].isBoolean()) {
+				booleanIndices.add(varIndex);
+			}
+		}
+		return booleanIndices;
+	}
+
+	public int getPatternsSize() {
+		return patternsSize;
+	}
+}
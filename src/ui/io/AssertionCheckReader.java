@@ -1,7 +1,6 @@
 package ui.io;
 
 import ui.utils.uiWithWorker.UIInterface;
-import io.QuietCloser;
 
 import java.io.*;
 import java.util.*;
@@ -11,20 +10,25 @@ import parsers.tgm.ModelDataLoader;
 /**
  * @author Anton Chepurov
  */
-public class AssertionCheckReader {
+public class AssertionCheckReader implements AssertionTrace {
 
-	private BufferedReader reader;
+	private static final String VECTORS = ".VECTORS";
+	private static final String PATTERNS = ".PATTERNS";
+
+	private TraceTokenizer tokenizer;
 	private ModelDataLoader modelDataLoader;
 	private int patternsSize = -1;
-	private long[][] variablePatterns = null;
-	private char[][] assertionPatterns = null;
-	private List<HashSet<Long>> differentValuesByVariableIndex = null;
-	private static final String DEFAULT_COMMENT = ";";
+	private TraceColumn[] variableColumns = null;
+	private TraceColumn[] assertionColumns = null;
 	private final File inputFile;
 	private UIInterface uiHolder;
 	private int uiUpdateFreqCount;
-	private static final long X_VALUE = Long.MIN_VALUE;
 	private Collection<Integer> validVarIndices;
+	/**
+	 * Columns to append the values of a line to, by number of values in the line and value index.
+	 * <code>null</code> for discarded values.
+	 */
+	private final Map<Integer, TraceColumn[]> targetsByValueCount = new HashMap<Integer, TraceColumn[]>();
 
 	/**
 	 * @param inputFile where to read vectors with assertion results from
@@ -39,35 +43,33 @@ public class AssertionCheckReader {
 	}
 
 	public void readAssertions() throws IOException {
-		String line;
 		int lineCount = 0;
-		String[] valueLines;
 
 		try {
-			reader = new BufferedReader(new FileReader(inputFile));
+			tokenizer = new TraceTokenizer(new FileReader(inputFile));
 
 			/* Read number of patterns */
 			patternsSize = readPatternsSize();
 
-			/* Skip to patterns and Init variablePatterns and assertionPatterns */
-			while (!nextLine().equalsIgnoreCase(".PATTERNS")) {
-			}
-			initPatternsStorage(patternsSize);
+			/* Skip to patterns and Init variableColumns and assertionColumns */
+			do {
+				if (!tokenizer.nextLine()) {
+					throw new IOException("Missing " + PATTERNS + " section.");
+				}
+			} while (tokenizer.getTokenCount() != 1 || !tokenizer.tokenEqualsIgnoreCase(0, PATTERNS));
+			initPatternsStorage();
 
 			/* Read the patterns */
-			while ((line = nextLine()) != null && !Thread.interrupted()) {
-				if (lineCount == patternsSize) break;
-				valueLines = line.split("\\s");
-				int assertionIndexBound = valueLines.length - assertionPatterns.length - 1;
-				for (int signalIndex = 0, variableIndex = 0, assertionIndex = 0; signalIndex < valueLines.length; signalIndex++) {
-					/* Skip discarded signals */
-					if (!validVarIndices.contains(signalIndex)) continue;
-					if (signalIndex <= assertionIndexBound) {
-						/* Is variable signal index */
-						addVariablePatternValue(lineCount, valueLines[signalIndex], variableIndex++);
+			while (lineCount < patternsSize && tokenizer.nextLine() && !Thread.interrupted()) {
+				TraceColumn[] targets = getTargets(tokenizer.getTokenCount());
+				int assertionIndexBound = targets.length - assertionColumns.length - 1;
+				for (int valueIndex = 0; valueIndex < targets.length; valueIndex++) {
+					TraceColumn column = targets[valueIndex];
+					if (column == null) continue;
+					if (valueIndex > assertionIndexBound) {
+						column.append(tokenizer.getFirstChar(valueIndex));
 					} else {
-						/* Is assertion signal index */
-						assertionPatterns[assertionIndex++][lineCount] = valueLines[signalIndex].toCharArray()[0];
+						tokenizer.appendValue(valueIndex, column);
 					}
 				}
 				/* Update UIHolder if it exists */
@@ -81,26 +83,44 @@ public class AssertionCheckReader {
 				System.out.println("");
 			}
 		} finally {
-			QuietCloser.closeQuietly(reader);
+			if (tokenizer != null) {
+				tokenizer.close();
+			}
 		}
 	}
 
-	private void addVariablePatternValue(int lineCount, String valueLine, int variableIndex) throws IOException {
-		try {
-			/* Number value */
-			long valueLong = Long.parseLong(valueLine);
-			variablePatterns[variableIndex][lineCount] = valueLong;
-			if (differentValuesByVariableIndex.get(variableIndex).size() < 3) { // if 3 or more, then already a non-boolean
-				differentValuesByVariableIndex.get(variableIndex).add(valueLong);
-			}
-		} catch (NumberFormatException e) {
-			/* X value */
-			if (valueLine.equalsIgnoreCase("X")) {
-				variablePatterns[variableIndex][lineCount] = X_VALUE;
-			} else {
-				throw new IOException("Unsupported variable value is read: " + valueLine);
+	/**
+	 * Maps the values of a line to columns: values of discarded signals are skipped, the last values are assertions.
+	 *
+	 * @param valueCount number of values in the line
+	 * @return columns to append the values to, by value index
+	 * @throws IOException if the line contains more values than there are columns
+	 */
+	private TraceColumn[] getTargets(int valueCount) throws IOException {
+		TraceColumn[] targets = targetsByValueCount.get(valueCount);
+		if (targets == null) {
+			targets = new TraceColumn[valueCount];
+			int assertionIndexBound = valueCount - assertionColumns.length - 1;
+			for (int signalIndex = 0, variableIndex = 0, assertionIndex = 0; signalIndex < valueCount; signalIndex++) {
+				/* Skip discarded signals */
+				if (!validVarIndices.contains(signalIndex)) continue;
+				if (signalIndex <= assertionIndexBound) {
+					/* Is variable signal index */
+					if (variableIndex == variableColumns.length) {
+						throw new IOException("Too many variable values in a pattern: " + valueCount);
+					}
+					targets[signalIndex] = variableColumns[variableIndex++];
+				} else {
+					/* Is assertion signal index */
+					if (assertionIndex == assertionColumns.length) {
+						throw new IOException("Too many assertion values in a pattern: " + valueCount);
+					}
+					targets[signalIndex] = assertionColumns[assertionIndex++];
+				}
 			}
+			targetsByValueCount.put(valueCount, targets);
 		}
+		return targets;
 	}
 
 	private boolean isUpdatingValue(int lineCount, int patternsSize) {
@@ -108,7 +128,7 @@ public class AssertionCheckReader {
 		return itemChunk == 0 || lineCount % itemChunk == 0;
 	}
 
-	private void initPatternsStorage(int patternsSize) throws IOException {
+	private void initPatternsStorage() throws IOException {
 
 		/* Obtain numbers of PATTERNS and ASSERTIONS */
 		int patternsCount, assertionsCount;
@@ -135,93 +155,62 @@ public class AssertionCheckReader {
 
 		}
 		/* Init storage */
-		variablePatterns = new long[patternsCount][];
-		assertionPatterns = new char[assertionsCount][];
-		differentValuesByVariableIndex = new ArrayList<HashSet<Long>>(patternsCount);
-		for (int i = 0; i < patternsCount; i++) {
-			variablePatterns[i] = new long[patternsSize];
-			differentValuesByVariableIndex.add(i, new HashSet<Long>());
-		}
-		for (int i = 0; i < assertionsCount; i++) {
-			assertionPatterns[i] = new char[patternsSize];
+		variableColumns = createColumns(patternsCount);
+		assertionColumns = createColumns(assertionsCount);
+	}
+
+	private static TraceColumn[] createColumns(int count) {
+		TraceColumn[] columns = new TraceColumn[count];
+		for (int i = 0; i < count; i++) {
+			columns[i] = new TraceColumn();
 		}
+		return columns;
 	}
 
 	private int readPatternsSize() throws IOException {
-		String line;
-		int patternsSize = -1;
-		while ((line = nextLine()) != null) {
-			if (line.startsWith(".VECTORS")) {
-				patternsSize = Integer.parseInt(line.substring(8).trim());
+		while (tokenizer.nextLine()) {
+			if (tokenizer.tokenStartsWith(0, VECTORS)) {
+				/* The number either follows the keyword immediately or is a separate token */
+				if (tokenizer.tokenToString(0).length() > VECTORS.length()) {
+					return tokenizer.parseInt(0, VECTORS.length());
+				}
+				if (tokenizer.getTokenCount() > 1) {
+					return tokenizer.parseInt(1, 0);
+				}
 				break;
 			}
 		}
-		if (patternsSize == -1) {
-			throw new IOException("Missing number of patterns.");
-		} else return patternsSize;
+		throw new IOException("Missing number of patterns.");
 	}
 
-	private String nextLine() throws IOException {
-		String line;
-
-		while (true) {
-			line = reader.readLine();
-
-			/* EOF reached */
-			if (line == null) break;
-			/* Trim line */
-			line = line.trim();
-			/* Empty line */
-			if (line.isEmpty()) continue;
-			/* Comment line */
-			if (line.startsWith(DEFAULT_COMMENT)) continue;
-			/* Exit cycle */
-			break;
+	public TraceColumn[] getVariableColumns() {
+		if (variableColumns == null) {
+			readSilently();
 		}
-
-		return line;
+		return variableColumns;
 	}
 
-	public long[][] getVariablePatterns() {
-		if (variablePatterns == null) {
+	public TraceColumn[] getAssertionColumns() {
+		if (assertionColumns == null) {
 			readSilently();
 		}
-		return variablePatterns;
+		return assertionColumns;
 	}
 
-	public char[][] getAssertionPatterns() {
-		if (assertionPatterns == null) {
-			readSilently();
-		}
-		return assertionPatterns;
+	public String[] getVariableNames() {
+		return modelDataLoader.getVariableNames();
 	}
 
-	public Collection getBooleanIndices() {
+	public Collection<Integer> getBooleanIndices() {
 		TreeSet<Integer> booleanIndices = new TreeSet<Integer>();
-		NEXT_VARIABLE:
-		for (int varIndex = 0; varIndex < differentValuesByVariableIndex.size(); varIndex++) {
-			HashSet<Long> differentValuesSet = differentValuesByVariableIndex.get(varIndex);
-			/* Skip those variables, that have more than 2 different values */
-			if (differentValuesSet.size() > 2) {
-				continue;
-			}
-			/* If some of the values is not a boolean one, then skip this variable */
-			for (Long value : differentValuesSet) {
-				if (value != null && !isAllowed(value)) {
-					continue NEXT_VARIABLE;
-				}
+		for (int varIndex = 0; varIndex < getVariableColumns().length; varIndex++) {
+			if (variableColumns[varIndex].isBoolean()) {
+				booleanIndices.add(varIndex);
 			}
-			/* The variable contains only boolean values, so add it's index to booleanIndices */
-			booleanIndices.add(varIndex);
 		}
-
 		return booleanIndices;
 	}
 
-	private boolean isAllowed(Long integer) {
-		return integer == 0 || integer == 1;
-	}
-
 	public int getPatternsSize() {
 		if (patternsSize == -1) {
 			readSilently();
@@ -0,0 +1,34 @@
+package ui.io;
+
+import java.util.Collection;
+
+/**
+ * Values of variables and assertions to draw in the waveform view.
+ *
+ * @author Anton Chepurov
+ */
+public interface AssertionTrace {
+
+	/**
+	 * @return values of variables, by variable
+	 */
+	TraceColumn[] getVariableColumns();
+
+	/**
+	 * @return statuses of assertions ({@link ui.base.AssertionStatus} shortcuts), by assertion
+	 */
+	TraceColumn[] getAssertionColumns();
+
+	/**
+	 * @return names of variables followed by names of assertions,
+	 *         or <code>null</code> if the names are not available
+	 */
+	String[] getVariableNames();
+
+	/**
+	 * @return indices of variables holding boolean values only
+	 */
+	Collection<Integer> getBooleanIndices();
+
+	int getPatternsSize();
+}
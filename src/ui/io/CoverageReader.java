@@ -16,10 +16,10 @@ import java.util.HashSet;
  */
 public class CoverageReader {
 
-	private static final String NODE_START_TEXT = ".NODE_COVERAGE";
-	private static final String EDGE_START_TEXT = ".EDGE_COVERAGE";
-	private static final String TOGGLE_START_TEXT = ".TOGGLE_COVERAGE";
-	private static final String CONDITION_START_TEXT = ".CONDITIONAL_COVERAGE";
+	static final String NODE_START_TEXT = ".NODE_COVERAGE";
+	static final String EDGE_START_TEXT = ".EDGE_COVERAGE";
+	static final String TOGGLE_START_TEXT = ".TOGGLE_COVERAGE";
+	static final String CONDITION_START_TEXT = ".CONDITIONAL_COVERAGE";
 	private static final String DEFAULT_COMMENT = ";";
 
 	private final File covFile;
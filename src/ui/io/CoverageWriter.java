@@ -0,0 +1,68 @@
+package ui.io;
+
+import base.hldd.simulation.SimulationCoverage;
+import io.QuietCloser;
+import ui.base.NodeItem;
+
+import java.io.*;
+import java.util.Locale;
+
+/**
+ * Writes coverage collected by in-process simulation into a COV file,
+ * in the format readable by {@link CoverageReader}.
+ *
+ * @author Anton Chepurov
+ */
+public class CoverageWriter {
+
+	private final File covFile;
+
+	public CoverageWriter(File covFile) {
+		this.covFile = covFile;
+	}
+
+	/**
+	 * @param coverage  coverage to write
+	 * @param directive coverage metrics to write: <code>n</code>ode, <code>e</code>dge,
+	 *                  <code>c</code>ondition, <code>t</code>oggle
+	 * @param comment   comment to put at the beginning of the file, or <code>null</code>
+	 * @throws IOException if the file cannot be written
+	 */
+	public void write(SimulationCoverage coverage, String directive, String comment) throws IOException {
+		PrintWriter writer = null;
+		try {
+			writer = new PrintWriter(new BufferedWriter(new FileWriter(covFile)));
+			if (comment != null) {
+				writer.println(";" + comment);
+				writer.println();
+			}
+			if (directive.indexOf('n') != -1) {
+				writeCoverageLine(writer, CoverageReader.NODE_START_TEXT, coverage.getCoveredNodeCount(), coverage.getNodeCount());
+				for (NodeItem nodeItem : coverage.getUncoveredNodeItems()) {
+					writer.println(nodeItem.getGraphIndex() + " " + nodeItem.getNodeIndex());
+				}
+			}
+			if (directive.indexOf('c') != -1) {
+				writeCoverageLine(writer, CoverageReader.CONDITION_START_TEXT, coverage.getCoveredConditionCount(), coverage.getConditionCount());
+			}
+			if (directive.indexOf('e') != -1) {
+				writeCoverageLine(writer, CoverageReader.EDGE_START_TEXT, coverage.getCoveredEdgeCount(), coverage.getEdgeCount());
+			}
+			/* CoverageReader stops reading after toggle coverage, so it must be the last one */
+			if (directive.indexOf('t') != -1) {
+				writeCoverageLine(writer, CoverageReader.TOGGLE_START_TEXT, coverage.getCoveredToggleCount(), coverage.getToggleCount());
+			}
+			writer.flush();
+			if (writer.checkError()) {
+				throw new IOException("Error while writing coverage file " + covFile.getAbsolutePath());
+			}
+		} finally {
+			QuietCloser.closeQuietly(writer);
+		}
+	}
+
+	private static void writeCoverageLine(PrintWriter writer, String startText, int covered, int total) {
+		double percentage = total == 0 ? 100 : ((double) covered) / total * 100;
+		writer.println(startText + " " + covered + " / " + total + " (" + String.format(Locale.US, "%.2f", percentage) + "%)");
+	}
+}
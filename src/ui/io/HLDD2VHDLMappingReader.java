@@ -10,8 +10,8 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.regex.Pattern;
 
 /**
@@ -41,7 +41,7 @@ public class HLDD2VHDLMappingReader {
 				}
 
 				/* Parse line numbers */
-				SourceLocation sourceLocation = null;
+				SourceLocation.Builder sourceBuilder = new SourceLocation.Builder();
 				for (String fileLines : lineParts[1].split(";")) {
 
 					String[] fileNameAndLines = fileLines.trim().split(" ", 2);
@@ -53,19 +53,14 @@ public class HLDD2VHDLMappingReader {
 					}
 
 					String[] lineNumbersAsStrings = fileNameAndLines[1].split(",");
-					Collection<Integer> lines = new HashSet<Integer>();
+					Collection<Integer> lines = new ArrayList<Integer>(lineNumbersAsStrings.length);
 					for (String lineNumberAsString : lineNumbersAsStrings) {
 						lines.add(Integer.parseInt(lineNumberAsString.trim()));
 					}
 
-					SourceLocation nextLocation = new SourceLocation(new File(mappingFile.getParent(), fileName), lines);
-
-					if (sourceLocation == null) {
-						sourceLocation = nextLocation;
-					} else {
-						sourceLocation = sourceLocation.addSource(nextLocation);
-					}
+					sourceBuilder.add(new SourceLocation(new File(mappingFile.getParent(), fileName), lines));
 				}
+				SourceLocation sourceLocation = sourceBuilder.build();
 
 				/* Parse indices */
 				String[] indices = lineParts[0].split("\\s");
@@ -0,0 +1,86 @@
+package ui.io;
+
+import io.QuietCloser;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads input patterns from a TST file.
+ *
+ * @author Anton Chepurov
+ */
+public class TestPatternReader {
+
+	private static final String DEFAULT_COMMENT = ";";
+	private static final String VECTORS_START_TEXT = ".VECTORS";
+	private static final String PATTERNS_START_TEXT = ".PATTERNS";
+
+	private final File tstFile;
+	private final int inputCount;
+
+	/**
+	 * @param tstFile	file to read patterns from
+	 * @param inputCount number of inputs in the model, i.e. number of values in each pattern
+	 */
+	public TestPatternReader(File tstFile, int inputCount) {
+		this.tstFile = tstFile;
+		this.inputCount = inputCount;
+	}
+
+	public List<long[]> readPatterns() throws IOException {
+		BufferedReader reader = null;
+		try {
+			reader = new BufferedReader(new FileReader(tstFile));
+			int patternsSize = -1;
+			boolean isReadingPatterns = false;
+			List<long[]> patterns = new ArrayList<long[]>();
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				/* Skip comments and empty lines */
+				if (line.startsWith(DEFAULT_COMMENT) || line.length() == 0) continue;
+
+				if (line.startsWith(VECTORS_START_TEXT)) {
+					patternsSize = Integer.parseInt(line.substring(VECTORS_START_TEXT.length()).trim());
+				} else if (line.equalsIgnoreCase(PATTERNS_START_TEXT)) {
+					isReadingPatterns = true;
+				} else if (isReadingPatterns) {
+					if (patterns.size() == patternsSize) break;
+					patterns.add(parsePattern(line, patterns.size()));
+				}
+			}
+			if (patternsSize == -1) {
+				throw new IOException("Missing number of patterns in " + tstFile.getName());
+			}
+			if (patterns.size() < patternsSize) {
+				throw new IOException(tstFile.getName() + " is malformed: " + patternsSize
+						+ " patterns declared, " + patterns.size() + " found");
+			}
+			return patterns;
+		} finally {
+			QuietCloser.closeQuietly(reader);
+		}
+	}
+
+	private long[] parsePattern(String line, int patternIndex) throws IOException {
+		String[] valueLines = line.split("\\s+");
+		if (valueLines.length != inputCount) {
+			throw new IOException(tstFile.getName() + " is malformed: pattern " + patternIndex + " contains "
+					+ valueLines.length + " values, while " + inputCount + " inputs are expected");
+		}
+		long[] pattern = new long[inputCount];
+		for (int i = 0; i < inputCount; i++) {
+			try {
+				pattern[i] = Long.parseLong(valueLines[i]);
+			} catch (NumberFormatException e) {
+				throw new IOException("Unsupported input value in pattern " + patternIndex + ": " + valueLines[i]);
+			}
+		}
+		return pattern;
+	}
+}
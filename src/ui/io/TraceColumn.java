@@ -0,0 +1,272 @@
+package ui.io;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Values of a single variable (or statuses of a single assertion) of a trace, by cycle.
+ * <p/>
+ * Values are stored as runs of equal values, so a column takes memory proportional to the number of value changes
+ * rather than to the length of the trace. Values of any width are packed into words of 64 bits, least significant
+ * word first. Values appended as a single word are signed, values appended as several words are unsigned, even if
+ * they fit into a single word.
+ *
+ * @author Anton Chepurov
+ */
+public final class TraceColumn {
+
+	private static final int INITIAL_CAPACITY = 16;
+	private static final long BILLION = 1000000000L;
+
+	/**
+	 * First cycle of the run, by run index
+	 */
+	private int[] runStarts = new int[INITIAL_CAPACITY];
+	/**
+	 * Words of the value of the run, <code>wordCount</code> words per run
+	 */
+	private long[] words = new long[INITIAL_CAPACITY];
+	private final BitSet xRuns = new BitSet();
+	/**
+	 * Runs of single word values whose top bit is a value bit rather than a sign bit
+	 */
+	private final BitSet unsignedRuns = new BitSet();
+	private int wordCount = 1;
+	private int runCount = 0;
+	private int size = 0;
+
+	/**
+	 * Appends a value of a single word
+	 *
+	 * @param value value of the next cycle
+	 */
+	public void append(long value) {
+		append(value, false);
+	}
+
+	private void append(long value, boolean isUnsigned) {
+		if (runCount > 0 && !xRuns.get(runCount - 1) && unsignedRuns.get(runCount - 1) == isUnsigned
+				&& words[(runCount - 1) * wordCount] == value && isZero(words, (runCount - 1) * wordCount + 1, wordCount - 1)) {
+			size++;
+			return;
+		}
+		int offset = startRun();
+		words[offset] = value;
+		if (isUnsigned) {
+			unsignedRuns.set(runCount - 1);
+		}
+		size++;
+	}
+
+	/**
+	 * Appends a value of several words
+	 *
+	 * @param valueWords	 words of the value, least significant word first
+	 * @param valueWordCount number of words of the value
+	 */
+	public void append(long[] valueWords, int valueWordCount) {
+		while (valueWordCount > 1 && valueWords[valueWordCount - 1] == 0) {
+			valueWordCount--;
+		}
+		if (valueWordCount == 1) {
+			/* Only values with the top bit set differ from signed ones */
+			append(valueWords[0], valueWords[0] < 0);
+			return;
+		}
+		if (valueWordCount > wordCount) {
+			widen(valueWordCount);
+		}
+		if (runCount > 0 && !xRuns.get(runCount - 1) && isEqual(valueWords, valueWordCount, (runCount - 1) * wordCount)) {
+			size++;
+			return;
+		}
+		int offset = startRun();
+		System.arraycopy(valueWords, 0, words, offset, valueWordCount);
+		size++;
+	}
+
+	/**
+	 * Appends an unknown (X) value
+	 */
+	public void appendX() {
+		if (runCount == 0 || !xRuns.get(runCount - 1)) {
+			startRun();
+			xRuns.set(runCount - 1);
+		}
+		size++;
+	}
+
+	/**
+	 * @return index of the first word of the new run
+	 */
+	private int startRun() {
+		if (runCount == runStarts.length) {
+			runStarts = Arrays.copyOf(runStarts, runCount * 2);
+			words = Arrays.copyOf(words, runCount * 2 * wordCount);
+		}
+		runStarts[runCount] = size;
+		return runCount++ * wordCount;
+	}
+
+	private void widen(int newWordCount) {
+		long[] newWords = new long[runStarts.length * newWordCount];
+		for (int run = 0; run < runCount; run++) {
+			System.arraycopy(words, run * wordCount, newWords, run * newWordCount, wordCount);
+		}
+		words = newWords;
+		wordCount = newWordCount;
+	}
+
+	private boolean isEqual(long[] valueWords, int valueWordCount, int offset) {
+		for (int i = 0; i < valueWordCount; i++) {
+			if (words[offset + i] != valueWords[i]) {
+				return false;
+			}
+		}
+		return isZero(words, offset + valueWordCount, wordCount - valueWordCount);
+	}
+
+	private static boolean isZero(long[] array, int offset, int length) {
+		for (int i = offset; i < offset + length; i++) {
+			if (array[i] != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param cycle cycle of the trace
+	 * @return index of the run the cycle belongs to
+	 */
+	public int findRun(int cycle) {
+		if (cycle < 0 || cycle >= size) {
+			throw new IndexOutOfBoundsException("Cycle " + cycle + " is out of trace of " + size + " cycles");
+		}
+		int run = Arrays.binarySearch(runStarts, 0, runCount, cycle);
+		return run >= 0 ? run : -run - 2;
+	}
+
+	public int getRunStart(int run) {
+		return runStarts[run];
+	}
+
+	/**
+	 * @return cycle following the last cycle of the run
+	 */
+	public int getRunEnd(int run) {
+		return run + 1 < runCount ? runStarts[run + 1] : size;
+	}
+
+	public boolean isX(int run) {
+		return xRuns.get(run);
+	}
+
+	/**
+	 * @return whether the value of the run doesn't fit into a single word
+	 */
+	public boolean isWide(int run) {
+		return !isZero(words, run * wordCount + 1, wordCount - 1);
+	}
+
+	/**
+	 * @return whether the value of the run fits into a single word, but is unsigned and has the top bit set.
+	 *         {@link #getValue(int)} is negative for such values.
+	 */
+	public boolean isUnsigned(int run) {
+		return unsignedRuns.get(run);
+	}
+
+	/**
+	 * @return the least significant word of the value of the run
+	 */
+	public long getValue(int run) {
+		return words[run * wordCount];
+	}
+
+	/**
+	 * @return value of the cycle. For wide values, the least significant word.
+	 */
+	public long get(int cycle) {
+		return getValue(findRun(cycle));
+	}
+
+	/**
+	 * @return decimal representation of the value of the run, or <code>X</code> for unknown values
+	 */
+	public String valueToString(int run) {
+		if (isX(run)) {
+			return "X";
+		}
+		if (!isWide(run) && !isUnsigned(run)) {
+			return String.valueOf(getValue(run));
+		}
+		/* Divide the unsigned value by 10^9 repeatedly, processing 32 bits at a time */
+		long[] dividend = Arrays.copyOfRange(words, run * wordCount, (run + 1) * wordCount);
+		StringBuilder digits = new StringBuilder();
+		while (!isZero(dividend, 0, dividend.length)) {
+			long remainder = 0;
+			for (int i = dividend.length - 1; i >= 0; i--) {
+				long high = (remainder << 32) | (dividend[i] >>> 32);
+				remainder = high % BILLION;
+				long low = (remainder << 32) | (dividend[i] & 0xFFFFFFFFL);
+				remainder = low % BILLION;
+				dividend[i] = (high / BILLION) << 32 | low / BILLION;
+			}
+			String chunk = String.valueOf(remainder);
+			digits.insert(0, chunk);
+			if (!isZero(dividend, 0, dividend.length)) {
+				for (int i = chunk.length(); i < 9; i++) {
+					digits.insert(0, '0');
+				}
+			}
+		}
+		return digits.toString();
+	}
+
+	/**
+	 * @return whether all known values are either 0 or 1
+	 */
+	public boolean isBoolean() {
+		for (int run = 0; run < runCount; run++) {
+			if (!isX(run) && (isWide(run) || isUnsigned(run) || getValue(run) != 0 && getValue(run) != 1)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Multiplies an unsigned value of several words by a small number and adds another small number to it.
+	 *
+	 * @param valueWords	 words of the value, least significant word first. Must have room for a carry word.
+	 * @param valueWordCount number of words of the value
+	 * @param multiplier	 non-negative number below 2^31
+	 * @param addend		 non-negative number below 2^31
+	 * @return number of words of the result
+	 */
+	static int multiplyAdd(long[] valueWords, int valueWordCount, int multiplier, int addend) {
+		long carry = addend;
+		for (int i = 0; i < valueWordCount; i++) {
+			long low = (valueWords[i] & 0xFFFFFFFFL) * multiplier + carry;
+			long high = (valueWords[i] >>> 32) * multiplier + (low >>> 32);
+			valueWords[i] = (high << 32) | (low & 0xFFFFFFFFL);
+			carry = high >>> 32;
+		}
+		if (carry != 0) {
+			valueWords[valueWordCount++] = carry;
+		}
+		return valueWordCount;
+	}
+
+	/**
+	 * @return number of cycles in the column
+	 */
+	public int size() {
+		return size;
+	}
+
+	public int getRunCount() {
+		return runCount;
+	}
+}
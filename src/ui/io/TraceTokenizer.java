@@ -0,0 +1,234 @@
+package ui.io;
+
+import io.QuietCloser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Splits the lines of pattern files (CHK, SIM, TST) into tokens separated by whitespaces.
+ * <p/>
+ * Lines are read into a character buffer and tokens are referred to by their position in it, so that values can be
+ * parsed straight from the buffer without creating strings. Empty lines and lines starting with a semicolon are
+ * skipped.
+ *
+ * @author Anton Chepurov
+ */
+class TraceTokenizer {
+
+	private static final int BUFFER_SIZE = 8192;
+	private static final char COMMENT = ';';
+	/**
+	 * Largest value that can be multiplied by 10 and added a digit to without overflow
+	 */
+	private static final long MAX_SAFE_VALUE = (Long.MAX_VALUE - 9) / 10;
+
+	private final Reader reader;
+
+	private char[] buffer = new char[BUFFER_SIZE];
+	private int position = 0;
+	private int limit = 0;
+
+	private int[] tokenStarts = new int[64];
+	private int[] tokenEnds = new int[64];
+	private int tokenCount = 0;
+
+	/**
+	 * Words of a value being parsed, least significant word first
+	 */
+	private long[] valueWords = new long[4];
+
+	TraceTokenizer(Reader reader) {
+		this.reader = reader;
+	}
+
+	/**
+	 * Reads the next non-empty non-comment line and splits it into tokens
+	 *
+	 * @return <code>false</code> if EOF is reached, <code>true</code> otherwise
+	 * @throws IOException if an I/O error occurs
+	 */
+	boolean nextLine() throws IOException {
+		while (true) {
+			int lineEnd = findLineEnd();
+			if (lineEnd == -1) {
+				return false;
+			}
+			tokenize(position, lineEnd);
+			position = lineEnd < limit ? lineEnd + 1 : lineEnd;
+			if (tokenCount > 0 && buffer[tokenStarts[0]] != COMMENT) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Makes the whole current line available in the buffer
+	 *
+	 * @return position of the line feed ending the current line (or of the end of the last line),
+	 *         or <code>-1</code> if EOF is reached
+	 */
+	private int findLineEnd() throws IOException {
+		int lineEnd = position;
+		while (true) {
+			while (lineEnd < limit) {
+				if (buffer[lineEnd] == '\n') {
+					return lineEnd;
+				}
+				lineEnd++;
+			}
+			/* Move the current line to the beginning of the buffer and read more */
+			int lineLength = limit - position;
+			if (lineLength == buffer.length) {
+				buffer = Arrays.copyOf(buffer, buffer.length * 2);
+			}
+			System.arraycopy(buffer, position, buffer, 0, lineLength);
+			position = 0;
+			limit = lineLength;
+			int count = reader.read(buffer, limit, buffer.length - limit);
+			if (count == -1) {
+				return limit > 0 ? limit : -1;
+			}
+			lineEnd = limit;
+			limit += count;
+		}
+	}
+
+	private void tokenize(int start, int end) {
+		tokenCount = 0;
+		int i = start;
+		while (true) {
+			while (i < end && Character.isWhitespace(buffer[i])) {
+				i++;
+			}
+			if (i == end) {
+				return;
+			}
+			if (tokenCount == tokenStarts.length) {
+				tokenStarts = Arrays.copyOf(tokenStarts, tokenCount * 2);
+				tokenEnds = Arrays.copyOf(tokenEnds, tokenCount * 2);
+			}
+			tokenStarts[tokenCount] = i;
+			while (i < end && !Character.isWhitespace(buffer[i])) {
+				i++;
+			}
+			tokenEnds[tokenCount++] = i;
+		}
+	}
+
+	int getTokenCount() {
+		return tokenCount;
+	}
+
+	/**
+	 * @return whether the token starts with the specified text, ignoring case
+	 */
+	boolean tokenStartsWith(int token, String text) {
+		int start = tokenStarts[token];
+		if (tokenEnds[token] - start < text.length()) {
+			return false;
+		}
+		for (int i = 0; i < text.length(); i++) {
+			if (Character.toUpperCase(buffer[start + i]) != Character.toUpperCase(text.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return whether the token equals the specified text, ignoring case
+	 */
+	boolean tokenEqualsIgnoreCase(int token, String text) {
+		return tokenEnds[token] - tokenStarts[token] == text.length() && tokenStartsWith(token, text);
+	}
+
+	char getFirstChar(int token) {
+		return buffer[tokenStarts[token]];
+	}
+
+	String tokenToString(int token) {
+		return new String(buffer, tokenStarts[token], tokenEnds[token] - tokenStarts[token]);
+	}
+
+	/**
+	 * @param token  index of the token
+	 * @param offset number of leading characters to skip
+	 * @return decimal integer the token consists of
+	 * @throws IOException if the token is not an integer
+	 */
+	int parseInt(int token, int offset) throws IOException {
+		int start = tokenStarts[token] + offset;
+		int end = tokenEnds[token];
+		long value = 0;
+		for (int i = start; i < end; i++) {
+			char character = buffer[i];
+			if (character < '0' || character > '9' || value > Integer.MAX_VALUE) {
+				throw new IOException("Integer is expected: " + tokenToString(token));
+			}
+			value = value * 10 + (character - '0');
+		}
+		if (start == end || value > Integer.MAX_VALUE) {
+			throw new IOException("Integer is expected: " + tokenToString(token));
+		}
+		return (int) value;
+	}
+
+	/**
+	 * Parses the token as a decimal value or an X value and appends it to the column
+	 *
+	 * @param token  index of the token
+	 * @param column column to append the value to
+	 * @throws IOException if the token is neither a decimal value nor an X value
+	 */
+	void appendValue(int token, TraceColumn column) throws IOException {
+		int start = tokenStarts[token];
+		int end = tokenEnds[token];
+		char firstChar = buffer[start];
+		if (end - start == 1 && (firstChar == 'X' || firstChar == 'x')) {
+			column.appendX();
+			return;
+		}
+		boolean isNegative = firstChar == '-';
+		int i = isNegative ? start + 1 : start;
+		if (i == end) {
+			throw new IOException("Unsupported variable value is read: " + tokenToString(token));
+		}
+		/* Values of a single word */
+		long value = 0;
+		for (; i < end && value <= MAX_SAFE_VALUE; i++) {
+			int digit = buffer[i] - '0';
+			if (digit < 0 || digit > 9) {
+				throw new IOException("Unsupported variable value is read: " + tokenToString(token));
+			}
+			value = value * 10 + digit;
+		}
+		if (i == end) {
+			column.append(isNegative ? -value : value);
+			return;
+		}
+		if (isNegative) {
+			throw new IOException("Negative values wider than 64 bits are not supported: " + tokenToString(token));
+		}
+		/* Wide values */
+		if (valueWords.length < (end - start) / 18 + 2) {
+			valueWords = new long[(end - start) / 18 + 2];
+		}
+		valueWords[0] = value;
+		int wordCount = 1;
+		for (; i < end; i++) {
+			int digit = buffer[i] - '0';
+			if (digit < 0 || digit > 9) {
+				throw new IOException("Unsupported variable value is read: " + tokenToString(token));
+			}
+			wordCount = TraceColumn.multiplyAdd(valueWords, wordCount, 10, digit);
+		}
+		column.append(valueWords, wordCount);
+		Arrays.fill(valueWords, 0, wordCount, 0);
+	}
+
+	void close() {
+		QuietCloser.closeQuietly(reader);
+	}
+}
@@ -1,12 +1,17 @@
 package ui.utils;
 
+import base.hldd.simulation.UnsupportedModelException;
 import io.ConsoleWriter;
 import ui.BusinessLogicAssertionChecker;
+import ui.ExtendedException;
+import ui.HLDDAssertionChecking;
+import ui.io.AssertionTrace;
 import ui.utils.uiWithWorker.TaskSwingWorker;
 
 import java.io.File;
 import java.io.OutputStream;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 
 /**
@@ -15,13 +20,58 @@ import java.util.concurrent.ExecutionException;
 public class AssertionCheckingWorker extends TaskSwingWorker {
 	private final BusinessLogicAssertionChecker businessLogic;
 	private final String simulationFilePath;
+	private final HLDDAssertionChecking checking;
+	private final ConsoleWriter consoleWriter;
+	private AssertionTrace trace = null;
+	private volatile boolean isCheckingInProcess = false;
 
-	public AssertionCheckingWorker(List<String> executableCommand, OutputStream errorOut,
+	/**
+	 * @param executableCommand assert command to run if the assertions cannot be checked in-process
+	 * @param checking		  in-process assertion checking to run, or <code>null</code> to run assert only
+	 */
+	public AssertionCheckingWorker(List<String> executableCommand, HLDDAssertionChecking checking, OutputStream errorOut,
 								   BusinessLogicAssertionChecker businessLogic, String simulationFilePath,
 								   ConsoleWriter consoleWriter) {
 		super(executableCommand, errorOut, consoleWriter);
 		this.businessLogic = businessLogic;
 		this.simulationFilePath = simulationFilePath;
+		this.checking = checking;
+		this.consoleWriter = consoleWriter;
+	}
+
+	@Override
+	protected Boolean doInBackground() {
+		/* Check in-process, if possible */
+		if (checking != null) {
+			isCheckingInProcess = true;
+			try {
+				trace = checking.run();
+				return true;
+			} catch (UnsupportedModelException e) {
+				consoleWriter.writeLn(e.getMessage() + ". Falling back to assert.");
+			} catch (InterruptedException e) {
+				consoleWriter.writeLn(e.getMessage());
+				return false;
+			} catch (Exception e) {
+				uiHolder.hideDialog();
+				occurredException = ExtendedException.create(e);
+				return false;
+			} finally {
+				isCheckingInProcess = false;
+			}
+		}
+		/* Start worker */
+		return super.doInBackground();
+	}
+
+	@Override
+	public void stopWorker() {
+		if (isCheckingInProcess) {
+			/* Interrupt in-process checking. No process is started by then */
+			cancel(true);
+		} else {
+			super.stopWorker();
+		}
 	}
 
 	@Override
@@ -29,13 +79,18 @@ public class AssertionCheckingWorker extends TaskSwingWorker {
 		super.done();
 		try {
 			if (get()) {
-				/* Fill Simul.file automatically */
 				File simulationFile = new File(simulationFilePath);
-				if (simulationFile.exists()) {
+				if (trace != null) {
+					/* No CHK file is written in-process, so the trace is named after the checked models */
+					businessLogic.setCheckedTrace(trace, checking.getTraceName());
+					businessLogic.getApplicationForm().updateDrawSpinner(trace.getPatternsSize());
+				} else if (simulationFile.exists()) {
+					/* Fill Simul.file automatically */
 					businessLogic.setSimulationFile(simulationFile);
 					businessLogic.loadChkFile();
 				}
 			}
-		} catch (InterruptedException e) {/* Do nothing. */} catch (ExecutionException e) {/* Do nothing. */}
+		} catch (InterruptedException e) {/* Do nothing. */} catch (ExecutionException e) {/* Do nothing. */
+		} catch (CancellationException e) {/* Checking is cancelled by user. */}
 	}
 }
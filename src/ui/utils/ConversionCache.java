@@ -0,0 +1,295 @@
+package ui.utils;
+
+import io.QuietCloser;
+import ui.BusinessLogic.ParserID;
+import ui.ConverterSettings;
+import ui.FileDependencyResolver;
+
+import java.io.*;
+import java.net.URISyntaxException;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Persistent cache of converted models (HLDD and map files), so that a design is not converted again unless the
+ * converter, the settings or any of the files the design is converted from have changed.
+ * <p/>
+ * An entry is addressed by the digest of the converter classes, the settings, and the source and config files of the
+ * design. The files of the components and packages the design uses are only known after conversion, so the entry
+ * lists them with their digests, and is only used while all of them remain unchanged.
+ * <p/>
+ * Only VHDL conversions are cached.
+ *
+ * @author Anton Chepurov
+ */
+public class ConversionCache {
+
+	/**
+	 * System property with the path of the cache directory
+	 */
+	public static final String CACHE_DIR_PROPERTY = "apricot.conversionCache";
+
+	private static final String MANIFEST_FILE_NAME = "manifest";
+	private static final String MODEL_FILE_NAME = "model.agm";
+	private static final String MAP_FILE_NAME = "model.map";
+	private static final String MISSING_FILE_DIGEST = "-";
+
+	private static String converterDigest;
+
+	private final File cacheDir;
+
+	public ConversionCache(File cacheDir) {
+		this.cacheDir = cacheDir;
+	}
+
+	/**
+	 * @return cache in the directory specified by {@link #CACHE_DIR_PROPERTY},
+	 *         or in <code>apricotCAD/conversionCache</code> of the temporary directory by default
+	 */
+	public static ConversionCache createDefault() {
+		String cacheDirPath = System.getProperty(CACHE_DIR_PROPERTY);
+		return new ConversionCache(cacheDirPath != null ? new File(cacheDirPath)
+				: new File(new File(System.getProperty("java.io.tmpdir"), "apricotCAD"), "conversionCache"));
+	}
+
+	public static boolean isCacheable(ConverterSettings settings) {
+		return settings.getParserId() == ParserID.VhdlBeh2HlddBeh || settings.getParserId() == ParserID.VhdlBehDd2HlddBeh;
+	}
+
+	/**
+	 * @param settings settings to convert with
+	 * @return cached conversion, or <code>null</code> if the design has not been converted with the specified settings,
+	 *         or any of its files has changed since then
+	 * @throws IOException if the cache or the files of the design cannot be read
+	 */
+	public CachedConversion find(ConverterSettings settings) throws IOException {
+		if (!isCacheable(settings)) {
+			return null;
+		}
+		File entryDir = new File(cacheDir, createKey(settings));
+		File manifestFile = new File(entryDir, MANIFEST_FILE_NAME);
+		if (!manifestFile.exists()) {
+			return null;
+		}
+		BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(manifestFile), "UTF-8"));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				int separatorIdx = line.indexOf(' ');
+				if (!line.substring(0, separatorIdx).equals(digest(new File(line.substring(separatorIdx + 1))))) {
+					return null;
+				}
+			}
+		} finally {
+			QuietCloser.closeQuietly(reader);
+		}
+		File mapFile = new File(entryDir, MAP_FILE_NAME);
+		return new CachedConversion(readBytes(new File(entryDir, MODEL_FILE_NAME)), mapFile.exists() ? readBytes(mapFile) : null);
+	}
+
+	/**
+	 * @param settings   settings the design has been converted with
+	 *                   (including the files of the components and packages used)
+	 * @param modelBytes contents of the HLDD file
+	 * @param mapBytes   contents of the map file, or <code>null</code> if no map file is created
+	 * @throws IOException if the cache cannot be written or the files of the design cannot be read
+	 */
+	public void store(ConverterSettings settings, byte[] modelBytes, byte[] mapBytes) throws IOException {
+		if (!isCacheable(settings)) {
+			return;
+		}
+		String key = createKey(settings);
+		/* Entries are written aside and renamed, so that concurrent conversions never see incomplete entries */
+		File tempDir = new File(cacheDir, key + "." + UUID.randomUUID() + ".tmp");
+		if (!tempDir.mkdirs()) {
+			throw new IOException("Could not create cache directory " + tempDir.getAbsolutePath());
+		}
+		try {
+			writeBytes(modelBytes, new File(tempDir, MODEL_FILE_NAME));
+			if (mapBytes != null) {
+				writeBytes(mapBytes, new File(tempDir, MAP_FILE_NAME));
+			}
+			/* Manifest is written last, since entries without a manifest are ignored */
+			StringBuilder manifest = new StringBuilder();
+			for (File dependency : collectDependencies(settings)) {
+				manifest.append(digest(dependency)).append(' ').append(dependency.getAbsolutePath()).append('\n');
+			}
+			writeBytes(manifest.toString().getBytes("UTF-8"), new File(tempDir, MANIFEST_FILE_NAME));
+
+			File entryDir = new File(cacheDir, key);
+			deleteDir(entryDir);
+			if (!tempDir.renameTo(entryDir)) {
+				throw new IOException("Could not create cache directory " + entryDir.getAbsolutePath());
+			}
+		} finally {
+			deleteDir(tempDir);
+		}
+	}
+
+	/**
+	 * @return files of the components and packages, and config files of the components
+	 */
+	private static Set<File> collectDependencies(ConverterSettings settings) {
+		Set<File> dependencies = new TreeSet<File>();
+		for (File sourceFile : settings.getSourceFiles()) {
+			dependencies.add(sourceFile);
+			File configFile = deriveConfigFile(sourceFile);
+			if (configFile != null) {
+				dependencies.add(configFile);
+			}
+		}
+		dependencies.addAll(settings.getPackageFiles());
+		return dependencies;
+	}
+
+	private static String createKey(ConverterSettings settings) throws IOException {
+		File sourceFile = settings.getSourceFile();
+		StringBuilder keyBuilder = new StringBuilder(getConverterDigest());
+		keyBuilder.append('\n').append(sourceFile.getAbsolutePath());
+		keyBuilder.append('\n').append(settings.getParserId()).append(' ').append(settings.getHlddType());
+		keyBuilder.append(' ').append(settings.isDoSimplify()).append(' ').append(settings.isDoFlattenConditions());
+		keyBuilder.append(' ').append(settings.isDoCreateCSGraphs()).append(' ').append(settings.isDoCreateExtraCSGraphs());
+		keyBuilder.append('\n').append(digest(sourceFile));
+		File configFile = deriveConfigFile(sourceFile);
+		keyBuilder.append('\n').append(configFile == null ? MISSING_FILE_DIGEST : digest(configFile));
+
+		MessageDigest messageDigest = createMessageDigest();
+		messageDigest.update(keyBuilder.toString().getBytes("UTF-8"));
+		return toHex(messageDigest.digest());
+	}
+
+	/**
+	 * @return config file that would be loaded for the source file, whether it exists or not
+	 */
+	private static File deriveConfigFile(File sourceFile) {
+		String configFilePath = FileDependencyResolver.deriveFilePathFrom(sourceFile, "config");
+		return configFilePath == null ? null : new File(configFilePath);
+	}
+
+	/**
+	 * @return digest of the classes (directory or jar) the converter is loaded from
+	 * @throws IOException if the classes cannot be located or read
+	 */
+	private static synchronized String getConverterDigest() throws IOException {
+		if (converterDigest == null) {
+			CodeSource codeSource = ConversionCache.class.getProtectionDomain().getCodeSource();
+			if (codeSource == null) {
+				throw new IOException("Could not locate converter classes");
+			}
+			File location;
+			try {
+				location = new File(codeSource.getLocation().toURI());
+			} catch (URISyntaxException e) {
+				throw new IOException("Could not locate converter classes: " + e.getMessage());
+			}
+			MessageDigest messageDigest = createMessageDigest();
+			digestTree(location, messageDigest);
+			converterDigest = toHex(messageDigest.digest());
+		}
+		return converterDigest;
+	}
+
+	private static void digestTree(File file, MessageDigest messageDigest) throws IOException {
+		if (file.isDirectory()) {
+			File[] children = file.listFiles();
+			if (children == null) {
+				throw new IOException("Could not list directory " + file.getAbsolutePath());
+			}
+			Arrays.sort(children);
+			for (File child : children) {
+				messageDigest.update(child.getName().getBytes("UTF-8"));
+				digestTree(child, messageDigest);
+			}
+		} else {
+			messageDigest.update(readBytes(file));
+		}
+	}
+
+	private static String digest(File file) throws IOException {
+		if (!file.exists()) {
+			return MISSING_FILE_DIGEST;
+		}
+		return toHex(createMessageDigest().digest(readBytes(file)));
+	}
+
+	private static MessageDigest createMessageDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e); /* Every Java platform supports SHA-1 */
+		}
+	}
+
+	private static String toHex(byte[] bytes) {
+		StringBuilder builder = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			builder.append(Integer.toString((b & 0xff) + 0x100, 16).substring(1));
+		}
+		return builder.toString();
+	}
+
+	private static byte[] readBytes(File file) throws IOException {
+		InputStream inputStream = new FileInputStream(file);
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) file.length());
+			byte[] buffer = new byte[8192];
+			int count;
+			while ((count = inputStream.read(buffer)) != -1) {
+				bytes.write(buffer, 0, count);
+			}
+			return bytes.toByteArray();
+		} finally {
+			QuietCloser.closeQuietly(inputStream);
+		}
+	}
+
+	private static void writeBytes(byte[] bytes, File file) throws IOException {
+		OutputStream outputStream = new FileOutputStream(file);
+		try {
+			outputStream.write(bytes);
+		} finally {
+			QuietCloser.closeQuietly(outputStream);
+		}
+	}
+
+	private static void deleteDir(File dir) {
+		File[] files = dir.listFiles();
+		if (files == null) {
+			return;
+		}
+		for (File file : files) {
+			//noinspection ResultOfMethodCallIgnored
+			file.delete();
+		}
+		//noinspection ResultOfMethodCallIgnored
+		dir.delete();
+	}
+
+	public static class CachedConversion {
+
+		private final byte[] modelBytes;
+
+		private final byte[] mapBytes;
+
+		private CachedConversion(byte[] modelBytes, byte[] mapBytes) {
+			this.modelBytes = modelBytes;
+			this.mapBytes = mapBytes;
+		}
+
+		/**
+		 * @return contents of the HLDD file
+		 */
+		public byte[] getModelBytes() {
+			return modelBytes;
+		}
+
+		/**
+		 * @return contents of the map file, or <code>null</code> if no map file has been created
+		 */
+		public byte[] getMapBytes() {
+			return mapBytes;
+		}
+	}
+}
@@ -99,6 +99,7 @@ public class ConvertingWorker extends SwingWorker<BehModel, Void> {
 					/* Parse VHDL structure */
 					consoleWriter.write(stat(current++, total) + "Parsing VHDL structure...");
 					entity = Entity.parseVhdlStructure(sourceFile);
+					settings.addPackageFiles(entity.getPackageFiles());
 					consoleWriter.done();
 
 					startTime = System.currentTimeMillis();
@@ -153,6 +154,7 @@ public class ConvertingWorker extends SwingWorker<BehModel, Void> {
 					/* Parse VHDL structure */
 					consoleWriter.write(stat(current++, total) + "Parsing HIF structure...");
 					entity = Entity.parseVhdlStructure(sourceFile);
+					settings.addPackageFiles(entity.getPackageFiles());
 					consoleWriter.done();
 
 					startTime = System.currentTimeMillis();
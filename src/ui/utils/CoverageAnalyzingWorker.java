@@ -1,9 +1,12 @@
 package ui.utils;
 
+import base.hldd.simulation.UnsupportedModelException;
 import io.ConsoleWriter;
 import ui.ApplicationForm;
 import ui.BusinessLogicCoverageAnalyzer;
+import ui.ExtendedException;
 import ui.FileDependencyResolver;
+import ui.HLDDSimulation;
 import ui.utils.uiWithWorker.TaskSwingWorker;
 
 import java.io.File;
@@ -17,17 +20,38 @@ import java.util.concurrent.ExecutionException;
 public class CoverageAnalyzingWorker extends TaskSwingWorker {
 
 	private final BusinessLogicCoverageAnalyzer businessLogic;
+	private final HLDDSimulation simulation;
+	private final ConsoleWriter consoleWriter;
 
-	public CoverageAnalyzingWorker(List<String> executableCommand, OutputStream errorOut,
+	/**
+	 * @param executableCommand hlddsim command to run if the model cannot be simulated in-process
+	 * @param simulation		in-process simulation to run, or <code>null</code> to run hlddsim only
+	 */
+	public CoverageAnalyzingWorker(List<String> executableCommand, HLDDSimulation simulation, OutputStream errorOut,
 								   BusinessLogicCoverageAnalyzer businessLogic, ConsoleWriter consoleWriter) {
 		super(executableCommand, errorOut, consoleWriter);
 		this.businessLogic = businessLogic;
+		this.simulation = simulation;
+		this.consoleWriter = consoleWriter;
 	}
 
 	@Override
 	protected Boolean doInBackground() {
 		/* Disable HLDD BUTTON and SIMULATE BUTTON */
 		setEnableUI(false);
+		/* Simulate in-process, if possible */
+		if (simulation != null) {
+			try {
+				simulation.run();
+				return true;
+			} catch (UnsupportedModelException e) {
+				consoleWriter.writeLn(e.getMessage() + ". Falling back to hlddsim.");
+			} catch (Exception e) {
+				uiHolder.hideDialog();
+				occurredException = ExtendedException.create(e);
+				return false;
+			}
+		}
 		/* Start worker */
 		return super.doInBackground();
 	}
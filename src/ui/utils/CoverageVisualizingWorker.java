@@ -99,13 +99,8 @@ public class CoverageVisualizingWorker extends TaskSwingWorker {
 						}
 						/* Add VHDL coverage bar */
 						if (hasNodeCoverage(coverageReader)) {
-							int total = 0;
-							if (allSources.hasFile(sourceFile)) {
-								Collection<Integer> lines = allSources.getLinesForFile(sourceFile);
-								total = lines != null ? lines.size() : 0;
-							}
-							int uncovered = uncoveredSources != null && uncoveredSources.hasFile(sourceFile) ?
-									uncoveredSources.getLinesForFile(sourceFile).size() : 0;
+							int total = allSources.getLinesNum(sourceFile);
+							int uncovered = uncoveredSources != null ? uncoveredSources.getLinesNum(sourceFile) : 0;
 							vhdlNodeCoverages.add(new SplitCoverage(total - uncovered, total, sourceFile.getName(), null));
 						}
 					}
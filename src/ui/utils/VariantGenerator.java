@@ -0,0 +1,331 @@
+package ui.utils;
+
+import base.hldd.structure.models.BehModel;
+import base.hldd.structure.models.utils.BehModelCreatorImpl;
+import base.hldd.structure.models.utils.ModelManager;
+import base.vhdl.structure.Entity;
+import base.vhdl.visitors.*;
+import io.ConsoleWriter;
+import io.QuietCloser;
+import io.scan.VHDLTokenRecording;
+import parsers.hldd.BinaryModelWriter;
+import ui.BusinessLogic.HLDDRepresentationType;
+import ui.BusinessLogic.ParserID;
+import ui.ConfigurationHandler;
+import ui.ConverterSettings;
+import ui.HLDDFileGenerator;
+
+import javax.swing.*;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Converts a single VHDL file into several HLDD model variants (see {@link HLDDFileGenerator} for the naming of
+ * variants) and saves them together with their map files.
+ * <p/>
+ * The VHDL file is scanned once for all the variants. Variants that only differ in compactness (<code>_F</code>,
+ * <code>_R</code> and <code>_M</code>) are derived from the same model, by saving it before reducing and minimizing it.
+ * The rest are converted concurrently. Variants found in the {@link ConversionCache}, if any, are not converted at all.
+ *
+ * @author Anton Chepurov
+ */
+public class VariantGenerator {
+
+	private static final HLDDRepresentationType[] DERIVED_HLDD_TYPES = {
+			HLDDRepresentationType.FULL_TREE, HLDDRepresentationType.REDUCED, HLDDRepresentationType.MINIMIZED};
+
+	private final File sourceFile;
+	private final ConsoleWriter consoleWriter;
+	private final ConversionCache conversionCache;
+	/**
+	 * Variants grouped by the model they are derived from
+	 */
+	private final Map<String, Map<HLDDRepresentationType, Variant>> variantsByModel = new LinkedHashMap<String, Map<HLDDRepresentationType, Variant>>();
+
+	/**
+	 * @param hlddFiles	 files to save the variants to, named as by {@link HLDDFileGenerator}
+	 * @param consoleWriter where to report saved variants
+	 * @throws ConverterSettings.ConverterSettingsParseException if a file name doesn't denote a variant
+	 * @throws IllegalArgumentException if the files denote variants of different VHDL files
+	 */
+	public VariantGenerator(Collection<File> hlddFiles, ConsoleWriter consoleWriter) throws ConverterSettings.ConverterSettingsParseException {
+		this(hlddFiles, consoleWriter, null);
+	}
+
+	/**
+	 * @param hlddFiles		 files to save the variants to, named as by {@link HLDDFileGenerator}
+	 * @param consoleWriter   where to report saved variants
+	 * @param conversionCache cache to take the variants from and to store the converted ones to,
+	 *                        or <code>null</code> to convert all the variants
+	 * @throws ConverterSettings.ConverterSettingsParseException if a file name doesn't denote a variant
+	 * @throws IllegalArgumentException if the files denote variants of different VHDL files
+	 */
+	public VariantGenerator(Collection<File> hlddFiles, ConsoleWriter consoleWriter, ConversionCache conversionCache) throws ConverterSettings.ConverterSettingsParseException {
+		this.consoleWriter = consoleWriter;
+		this.conversionCache = conversionCache;
+		File sourceFile = null;
+		for (File hlddFile : hlddFiles) {
+			ConverterSettings settings = ConverterSettings.parse(hlddFile.getPath());
+			if (settings.getParserId() != ParserID.VhdlBeh2HlddBeh) {
+				throw new IllegalArgumentException("Only " + ParserID.VhdlBeh2HlddBeh.getTitle() + " variants can be generated: " + hlddFile.getPath());
+			}
+			if (sourceFile == null) {
+				sourceFile = settings.getSourceFile();
+			} else if (!sourceFile.equals(settings.getSourceFile())) {
+				throw new IllegalArgumentException("Variants of different VHDL files requested: " + sourceFile.getPath()
+						+ " and " + settings.getSourceFile().getPath());
+			}
+			String modelKey = createModelKey(settings);
+			Map<HLDDRepresentationType, Variant> variants = variantsByModel.get(modelKey);
+			if (variants == null) {
+				variants = new EnumMap<HLDDRepresentationType, Variant>(HLDDRepresentationType.class);
+				variantsByModel.put(modelKey, variants);
+			}
+			variants.put(settings.getHlddType(), new Variant(hlddFile, settings));
+		}
+		this.sourceFile = sourceFile;
+	}
+
+	/**
+	 * @param sourceFile VHDL file to convert
+	 * @return files of all the variants of the specified VHDL file
+	 */
+	public static List<File> createAllVariantFiles(File sourceFile) {
+		List<File> hlddFiles = new ArrayList<File>();
+		for (HLDDRepresentationType hlddType : HLDDRepresentationType.values()) {
+			hlddFiles.add(HLDDFileGenerator.generate(sourceFile, hlddType, true, false, false));
+			hlddFiles.add(HLDDFileGenerator.generate(sourceFile, hlddType, false, false, true));
+			hlddFiles.add(HLDDFileGenerator.generate(sourceFile, hlddType, false, true, false));
+			hlddFiles.add(HLDDFileGenerator.generate(sourceFile, hlddType, false, false, false));
+		}
+		return hlddFiles;
+	}
+
+	/**
+	 * Converts the VHDL file and saves all the variants.
+	 *
+	 * @param jobCount maximum number of variants to convert concurrently
+	 * @throws Exception if the VHDL file cannot be scanned, or any of the variants cannot be converted or saved
+	 */
+	public void generate(int jobCount) throws Exception {
+		if (sourceFile == null) {
+			return;
+		}
+		if (conversionCache != null) {
+			saveCachedVariants();
+			if (variantsByModel.isEmpty()) {
+				return;
+			}
+		}
+		final VHDLTokenRecording tokenRecording = new VHDLTokenRecording(sourceFile);
+
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(jobCount, variantsByModel.size())));
+		try {
+			Map<String, Future<Void>> futureByModel = new LinkedHashMap<String, Future<Void>>();
+			for (Map.Entry<String, Map<HLDDRepresentationType, Variant>> entry : variantsByModel.entrySet()) {
+				final Map<HLDDRepresentationType, Variant> variants = entry.getValue();
+				futureByModel.put(entry.getKey(), executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						generate(tokenRecording, variants);
+						return null;
+					}
+				}));
+			}
+			/* A failed model doesn't prevent the rest from being generated. The first failure is rethrown in the end. */
+			Exception firstFailure = null;
+			for (Map.Entry<String, Future<Void>> entry : futureByModel.entrySet()) {
+				try {
+					entry.getValue().get();
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					synchronized (consoleWriter) {
+						consoleWriter.writeLn("Failed to generate " + entry.getKey() + " variants: " + cause.getMessage());
+					}
+					if (firstFailure == null) {
+						firstFailure = cause instanceof Exception ? (Exception) cause : e;
+					}
+				}
+			}
+			if (firstFailure != null) {
+				throw firstFailure;
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Saves the variants found in the cache and excludes them from conversion
+	 */
+	private void saveCachedVariants() throws Exception {
+		for (Iterator<Map<HLDDRepresentationType, Variant>> modelIterator = variantsByModel.values().iterator(); modelIterator.hasNext(); ) {
+			Map<HLDDRepresentationType, Variant> variants = modelIterator.next();
+			for (Iterator<Variant> variantIterator = variants.values().iterator(); variantIterator.hasNext(); ) {
+				Variant variant = variantIterator.next();
+				ConversionCache.CachedConversion cachedConversion = conversionCache.find(variant.settings);
+				if (cachedConversion != null) {
+					save(cachedConversion.getModelBytes(), cachedConversion.getMapBytes(), variant);
+					/* No model is at hand for cached variants, so the binary form is read from the saved file */
+					BinaryModelWriter.writeAlongside(variant.hlddFile);
+					variantIterator.remove();
+				}
+			}
+			if (variants.isEmpty()) {
+				modelIterator.remove();
+			}
+		}
+	}
+
+	private void generate(VHDLTokenRecording tokenRecording, Map<HLDDRepresentationType, Variant> variants) throws Exception {
+		/* Any of the variants will do, since they only differ in compactness */
+		ConverterSettings settings = variants.values().iterator().next().settings;
+		boolean isF4RTL = settings.getHlddType() == HLDDRepresentationType.FULL_TREE_4_RTL;
+		ConfigurationHandler config = ConfigurationHandler.loadConfiguration(sourceFile, consoleWriter);
+
+		/* Parse and process VHDL structure */
+		Entity entity = Entity.parseVhdlStructure(tokenRecording.createScanner());
+		settings.addPackageFiles(entity.getPackageFiles());
+		entity.traverse(new VariableNameReplacerImpl(config));
+		DelayFlagCollector delayCollector = new DelayFlagCollector(config);
+		entity.traverse(delayCollector);
+		entity.traverse(new ClockEventRemover(config));
+
+		/* Generate Graphs and create HLDD model */
+		GraphGenerator graphCreatingVisitor = new BehGraphGenerator(config, settings, null, delayCollector.getDFlagOperands(), isF4RTL);
+		entity.traverse(graphCreatingVisitor);
+		ModelManager modelCollector = graphCreatingVisitor.getModelCollector();
+		BehModel model = new BehModelCreatorImpl(modelCollector.getConstants(), modelCollector.getVariables(), consoleWriter).getModel();
+		/* Components and packages have only been collected into the settings converted with */
+		for (Variant variant : variants.values()) {
+			if (variant.settings != settings) {
+				variant.settings.addDependencies(settings);
+			}
+		}
+
+		if (isF4RTL) {
+			save(model, variants.get(HLDDRepresentationType.FULL_TREE_4_RTL));
+			return;
+		}
+		/* Derive more compact variants from less compact ones */
+		for (HLDDRepresentationType hlddType : DERIVED_HLDD_TYPES) {
+			if (hlddType == HLDDRepresentationType.REDUCED) {
+				model.reduce();
+			} else if (hlddType == HLDDRepresentationType.MINIMIZED) {
+				model.minimize();
+			}
+			Variant variant = variants.get(hlddType);
+			if (variant != null) {
+				save(model, variant);
+			}
+			if (!hasMoreCompactVariants(variants, hlddType)) {
+				break;
+			}
+		}
+	}
+
+	private static boolean hasMoreCompactVariants(Map<HLDDRepresentationType, Variant> variants, HLDDRepresentationType hlddType) {
+		for (HLDDRepresentationType variantType : variants.keySet()) {
+			if (variantType.compareTo(hlddType) > 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void save(BehModel model, Variant variant) throws Exception {
+		ByteArrayOutputStream modelStream = new ByteArrayOutputStream();
+		model.toFile(modelStream, null, variant.settings);
+		ByteArrayOutputStream mapStream = null;
+		if (variant.settings.getMapFileStream() != null) {
+			mapStream = new ByteArrayOutputStream();
+			model.printMapFile(mapStream);
+		}
+		byte[] modelBytes = modelStream.toByteArray();
+		byte[] mapBytes = mapStream == null ? null : mapStream.toByteArray();
+		save(modelBytes, mapBytes, variant);
+		BinaryModelWriter.writeAlongside(model, variant.hlddFile);
+		if (conversionCache != null) {
+			conversionCache.store(variant.settings, modelBytes, mapBytes);
+		}
+	}
+
+	private void save(byte[] modelBytes, byte[] mapBytes, Variant variant) throws Exception {
+		OutputStream modelStream = new FileOutputStream(variant.hlddFile);
+		try {
+			modelStream.write(modelBytes);
+		} finally {
+			QuietCloser.closeQuietly(modelStream);
+		}
+		OutputStream mapStream = variant.settings.getMapFileStream();
+		if (mapStream != null) {
+			try {
+				if (mapBytes != null) {
+					mapStream.write(mapBytes);
+				}
+			} finally {
+				QuietCloser.closeQuietly(mapStream);
+			}
+		}
+		synchronized (consoleWriter) {
+			consoleWriter.writeLn("Model saved to: " + variant.hlddFile.getAbsolutePath());
+		}
+	}
+
+	/**
+	 * @param settings settings of a variant
+	 * @return key of the model the variant is derived from
+	 */
+	private static String createModelKey(ConverterSettings settings) {
+		return (settings.getHlddType() == HLDDRepresentationType.FULL_TREE_4_RTL ? "F4" : "F")
+				+ (settings.isDoCreateCSGraphs() ? "_GR" : settings.isDoFlattenConditions() ? "_FL"
+				: settings.isDoCreateExtraCSGraphs() ? "_EX" : "_FU");
+	}
+
+	/**
+	 * @param args <code>[-j N] vhdlFile [hlddFile ...]</code>, where <code>N</code> is the number of variants to
+	 *             convert concurrently (number of processors by default). If no HLDD files are specified,
+	 *             all the variants are generated. Unchanged variants are taken from the
+	 *             {@link ConversionCache#createDefault() default cache}.
+	 * @throws Exception if the variants cannot be generated
+	 */
+	public static void main(String[] args) throws Exception {
+		int jobCount = Runtime.getRuntime().availableProcessors();
+		int argIdx = 0;
+		if (args.length > 1 && args[0].equals("-j")) {
+			jobCount = Integer.parseInt(args[1]);
+			argIdx = 2;
+		}
+		if (argIdx == args.length) {
+			System.out.println("Usage: VariantGenerator [-j N] vhdlFile [hlddFile ...]");
+			return;
+		}
+		File sourceFile = new File(args[argIdx++]);
+		List<File> hlddFiles = new ArrayList<File>();
+		for (; argIdx < args.length; argIdx++) {
+			hlddFiles.add(new File(args[argIdx]));
+		}
+		if (hlddFiles.isEmpty()) {
+			hlddFiles = createAllVariantFiles(sourceFile);
+		}
+		new VariantGenerator(hlddFiles, new ConsoleWriter(new JTextArea(), true), ConversionCache.createDefault()).generate(jobCount);
+	}
+
+	private static class Variant {
+		private final File hlddFile;
+		private final ConverterSettings settings;
+
+		private Variant(File hlddFile, ConverterSettings settings) {
+			this.hlddFile = hlddFile;
+			this.settings = settings;
+		}
+	}
+}
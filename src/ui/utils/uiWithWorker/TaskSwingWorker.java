@@ -1,14 +1,12 @@
 package ui.utils.uiWithWorker;
 
 import io.ConsoleWriter;
-import io.QuietCloser;
+import io.ProcessExecutor;
 import ui.ExtendedException;
 
 import javax.swing.*;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -19,21 +17,20 @@ public abstract class TaskSwingWorker extends SwingWorker<Boolean, Integer> {
 	public static final int NO_TIMEOUT = -1;
 
 	protected boolean isProcessFinished = false;
-	private final String[] executableCommand;
+	private final ProcessExecutor executor;
 	protected Runnable executableRunnable;
 	private int executionTimeout;
 	private OutputStream errorOut;
 	private ConsoleWriter consoleWriter;
 
 	protected UIInterface uiHolder;
-	private Process process;
 
 	protected ExtendedException occurredException;
 
 	protected TaskSwingWorker(List<String> executableCommand, OutputStream errorOut, ConsoleWriter consoleWriter) {
 		this.errorOut = errorOut;
 		this.consoleWriter = consoleWriter;
-		this.executableCommand = executableCommand.toArray(new String[executableCommand.size()]);
+		this.executor = new ProcessExecutor(executableCommand);
 		this.executionTimeout = NO_TIMEOUT;
 		/* Disable alternative */
 		executableRunnable = null;
@@ -41,74 +38,38 @@ public abstract class TaskSwingWorker extends SwingWorker<Boolean, Integer> {
 
 	protected TaskSwingWorker() {
 		/* Disable alternative */
-		executableCommand = null;
+		executor = null;
 	}
 
 	protected Boolean doInBackground() {
-		if (executableCommand != null) {
-			InputStream inputStream = null;
-			InputStream errorStream = null;
+		if (executor != null) {
 			try {
 
 				Thread.currentThread().setPriority(Thread.MAX_PRIORITY);
-				process = Runtime.getRuntime().exec(executableCommand);
-
-				inputStream = process.getInputStream();
-				errorStream = process.getErrorStream();
-				StringBuilder consoleTracer = new StringBuilder();
-
-				int timeout = executionTimeout;
-				int exitValue = -999;
-
-				while (!isProcessFinished && !Thread.interrupted()) {
-
-					readInputAndErrorStreams(inputStream, errorStream, consoleTracer);
-
-					try {
-						exitValue = process.exitValue();
-						isProcessFinished = true;
-					} catch (IllegalThreadStateException e) {
-						// indicates that process.exitValue() cannot return any value yet!!!
-						try {
-							// still running.
-							StringBuilder errorMessage = new StringBuilder();
-							Thread.sleep(300);
-							if (timeout != NO_TIMEOUT) {
-								timeout = timeout - 300;
-								if (timeout < 0 && timeout >= -300) {
-									errorMessage.append("ALERT: Command doesn't terminate:\n");
-									errorMessage.append(Arrays.toString(executableCommand)).append("\n");
-									errorMessage.append("Shutting down command...\n");
-									errorOut.write(errorMessage.toString().getBytes());
-									errorOut.flush();
-									process.destroy();
-								} else if (timeout < 0) {
-									errorMessage.append("ALERT: Command STILL doesn't terminate:\n");
-									errorMessage.append(Arrays.toString(executableCommand)).append("\n");
-									errorOut.write(errorMessage.toString().getBytes());
-									errorOut.flush();
-									Thread.sleep(1000);
-								}
-							}
-						} catch (InterruptedException e1) {
-							// doesn't matter
-						}
-					}
-				}
 
-				readInputAndErrorStreams(inputStream, errorStream, consoleTracer);
+				final StringBuilder consoleTracer = new StringBuilder();
+
+				int exitValue = executor.execute(new ProcessExecutor.Listener() {
+					@Override
+					public void outputLine(String line) {
+						consoleWriter.writeLn(line);
+						consoleTracer.append(line).append("\n");
+					}
 
-				if (isProcessFinished) {
-					// finished running
-					if (exitValue != 0) {
-						errorOut.write(("Exit code " + exitValue + " while performing command " + Arrays.toString(executableCommand)).getBytes());
-						errorOut.flush();
-						if (consoleTracer.length() > 0) {
-							uiHolder.showErrorDialog(consoleTracer.toString());
-						}
+					@Override
+					public void errorLine(String line) {
+						writeError(line + "\n");
+					}
+				}, executionTimeout);
+				isProcessFinished = true;
+
+				if (executor.isTimedOut()) {
+					writeError("ALERT: Command doesn't terminate:\n" + executor.getCommandAsString() + "\nShutting down command...\n");
+				} else if (exitValue != 0) {
+					writeError("Exit code " + exitValue + " while performing command " + executor.getCommandAsString());
+					if (consoleTracer.length() > 0) {
+						uiHolder.showErrorDialog(consoleTracer.toString());
 					}
-				} else {
-					process.destroy();
 				}
 				return exitValue == 0;
 
@@ -119,9 +80,9 @@ public abstract class TaskSwingWorker extends SwingWorker<Boolean, Integer> {
 				* Process the occurred exception in done() method, run in EDT.  */
 				occurredException = ExtendedException.create(e);
 				return false;
-			} finally {
-				QuietCloser.closeQuietly(inputStream);
-				QuietCloser.closeQuietly(errorStream);
+			} catch (InterruptedException e) {
+				/* Process is destroyed by executor */
+				return false;
 			}
 		} else if (executableRunnable != null) {
 
@@ -135,41 +96,21 @@ public abstract class TaskSwingWorker extends SwingWorker<Boolean, Integer> {
 		return false;
 	}
 
-	private void readInputAndErrorStreams(InputStream inputStream, InputStream errorStream, StringBuilder consoleTracer) throws IOException {
-		/* Read OUTPUT */
-		readFromStream(inputStream, consoleWriter, consoleTracer);
-		/* Read ERROR */
-		readFromStream(errorStream, errorOut);
-	}
-
-	@SuppressWarnings({"ResultOfMethodCallIgnored"})
-	private void readFromStream(InputStream inputStream, OutputStream outputStream) throws IOException {
-		int byteCount = inputStream.available();
-		if (byteCount > 0) {
-			byte[] bytes = new byte[byteCount];
-			inputStream.read(bytes);
-			outputStream.write(bytes);
-			outputStream.flush();
-		}
-	}
-
-	@SuppressWarnings({"ResultOfMethodCallIgnored"})
-	private void readFromStream(InputStream inputStream, ConsoleWriter consoleWriter, StringBuilder consoleTracer) throws IOException {
-		int byteCount = inputStream.available();
-		if (byteCount > 0) {
-			byte[] bytes = new byte[byteCount];
-			inputStream.read(bytes);
-			String line = new String(bytes);
-			consoleWriter.write(line);
-			consoleTracer.append(line);
+	private void writeError(String message) {
+		synchronized (errorOut) {
+			try {
+				errorOut.write(message.getBytes());
+				errorOut.flush();
+			} catch (IOException e) {
+				/* Error console is not available */
+			}
 		}
 	}
 
-
 	public void stopWorker() {
-		if (process != null) {
+		if (executor != null) {
 			if (getState() == SwingWorker.StateValue.STARTED) {
-				process.destroy();
+				executor.destroy();
 			}
 		} else if (executableRunnable != null) {
 			cancel(true);
@@ -4,6 +4,7 @@ import ee.ttu.pld.apricot.DetectionException;
 import org.junit.Test;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 
@@ -98,4 +99,33 @@ public class SourceLocationTest {
 		sum = SourceLocation.createFrom(Arrays.asList(firstSource, secondSource, thirdSource));
 		assertEquals("FileName.txt 3, 10, 12, 15, 16, 100010011", sum.toString());
 	}
+
+	@Test
+	public void builderMergesAllSources() {
+		SourceLocation.Builder builder = new SourceLocation.Builder();
+		assertTrue(builder.isEmpty());
+		for (int line = 100; line > 0; line--) {
+			builder.add(new SourceLocation(sourceFile, Arrays.asList(line, line % 7 + 1)));
+		}
+		builder.add(null);
+
+		SourceLocation sum = builder.build();
+		assertFalse(builder.isEmpty());
+		assertEquals(100, sum.getTotalLinesNum());
+		assertEquals(Arrays.asList(1, 2, 3), new ArrayList<Integer>(sum.getLinesForFile(sourceFile)).subList(0, 3));
+		assertTrue(sum.getLinesForFile(sourceFile).contains(77));
+		assertFalse(sum.getLinesForFile(sourceFile).contains(101));
+		assertNull(sum.getLinesForFile(sourceFile2));
+	}
+
+	@Test
+	public void mergedSourcesInterned() {
+		SourceLocation firstSource = new SourceLocation(sourceFile, Arrays.asList(10, 15));
+		SourceLocation secondSource = new SourceLocation(new File("FileName.txt"), Arrays.asList(16));
+
+		SourceLocation sum = firstSource.addSource(secondSource);
+		assertEquals(new SourceLocation(sourceFile, Arrays.asList(16, 15, 10)), sum);
+		assertSame(sum, secondSource.addSource(firstSource));
+		assertSame(sum, SourceLocation.createFrom(Arrays.asList(secondSource, firstSource, secondSource)));
+	}
 }
@@ -0,0 +1,106 @@
+package base.hldd.simulation;
+
+import base.HLDDException;
+import base.hldd.structure.models.BehModel;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Anton Chepurov
+ */
+public class AssertionCheckerTest {
+
+	private static final File EDGE_DETECT_FILE = new File("test/designs/uart16750/rtl/slib_edge_detect_M_FU.agm");
+
+	/**
+	 * P1: D -> next_e[1 to 2] FE<br>
+	 * P2: never (D and FE)
+	 */
+	private static final String TGM = "STAT#\t9 Nods,  7 Vars,  2 Grps,  2 Inps,  2 Outs,  3 Cons\n" +
+			"MODE#\tBEHAVIORAL\n" +
+			"VAR#\t0:  (i_________)\t\"D\"\t<0:0>\n" +
+			"VAR#\t1:  (i_________)\t\"FE\"\t<0:0>\n" +
+			"VAR#\t2:  (c_________)\t\"FAIL\"\t<1:0>\tVAL = 0\n" +
+			"VAR#\t3:  (c_________)\t\"PASS\"\t<1:0>\tVAL = 1\n" +
+			"VAR#\t4:  (c_________)\t\"CHECKING\"\t<1:0>\tVAL = 2\n" +
+			"VAR#\t5:  (____o_____)\t\"P1\"\t<1:0>\n" +
+			"GRP#\t0:  BEG =  0, LEN = 5 -----\n" +
+			"  0\t0:  (n___) (0=>4\t1=>1\t)\tV = 0\t\"D\"\t<0:0>\n" +
+			"  1\t1:  (n___) (0=>2\t1=>3\t)\tV = 1\t\"FE@[1..2]_e\"\t<0:0>\n" +
+			"  2\t2:  (____) (\t0\t0)\tV = 2\t\"FAIL\"\t<1:0>\n" +
+			"  3\t3:  (____) (\t0\t0)\tV = 3\t\"PASS\"\t<1:0>\n" +
+			"  4\t4:  (____) (\t0\t0)\tV = 4\t\"CHECKING\"\t<1:0>\n" +
+			"VAR#\t6:  (____o_____)\t\"P2\"\t<1:0>\n" +
+			"GRP#\t1:  BEG =  5, LEN = 4 -----\n" +
+			"  5\t0:  (n___) (0=>2\t1=>1\t)\tV = 0\t\"D\"\t<0:0>\n" +
+			"  6\t1:  (n___) (0=>2\t1=>3\t)\tV = 1\t\"FE\"\t<0:0>\n" +
+			"  7\t2:  (____) (\t0\t0)\tV = 3\t\"PASS\"\t<1:0>\n" +
+			"  8\t3:  (____) (\t0\t0)\tV = 2\t\"FAIL\"\t<1:0>\n";
+
+	private static final long[] D_VALUES = {1, 0, 1, 1, 1, 0, 0};
+
+	@Test
+	public void windowedPropertyChecked() throws Exception {
+		Verdicts verdicts = check(D_VALUES.length);
+
+		assertEquals(D_VALUES.length, verdicts.cycleCount);
+		assertEquals("PCFPPCC", verdicts.toString(0));
+		assertEquals("PPPPPPP", verdicts.toString(1));
+	}
+
+	@Test
+	public void unfinishedWindowInconclusive() throws Exception {
+		/* Windows of cycles 2 and 3 are not over: FE falls in cycle 5 */
+		assertEquals("PCCC", check(4).toString(0));
+	}
+
+	@Test(expected = HLDDException.class)
+	public void missingDesignVariableRejected() throws Exception {
+		new AssertionChecker(BehModel.parseHlddStructure(EDGE_DETECT_FILE),
+				BehModel.parseHlddStructure(TGM.replace("\"FE\"", "\"EF\"")), new Verdicts(2));
+	}
+
+	private static Verdicts check(int cycleCount) throws Exception {
+		Verdicts verdicts = new Verdicts(2);
+		AssertionChecker checker = new AssertionChecker(BehModel.parseHlddStructure(EDGE_DETECT_FILE),
+				BehModel.parseHlddStructure(TGM), verdicts);
+		assertEquals(2, checker.getPropertyCount());
+		assertEquals("P1", checker.getPropertyName(0));
+		for (int i = 0; i < cycleCount; i++) {
+			checker.step(new long[]{D_VALUES[i], 0});
+		}
+		checker.finish();
+		return verdicts;
+	}
+
+	private static class Verdicts implements AssertionChecker.Listener {
+		private final List<StringBuilder> verdicts = new ArrayList<StringBuilder>();
+		private int cycleCount = 0;
+
+		private Verdicts(int propertyCount) {
+			for (int i = 0; i < propertyCount; i++) {
+				verdicts.add(new StringBuilder());
+			}
+		}
+
+		public void stepSimulated(int cycle, long[] inputValues) {
+			assertEquals(cycleCount++, cycle);
+			assertEquals(D_VALUES[cycle], inputValues[0]);
+		}
+
+		public void propertyChecked(int property, int startCycle, int verdict) {
+			StringBuilder propertyVerdicts = verdicts.get(property);
+			assertEquals(propertyVerdicts.length(), startCycle);
+			propertyVerdicts.append("FPC".charAt(verdict));
+		}
+
+		private String toString(int property) {
+			return verdicts.get(property).toString();
+		}
+	}
+}
@@ -0,0 +1,67 @@
+package base.hldd.simulation;
+
+import base.hldd.structure.models.BehModel;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Anton Chepurov
+ */
+public class BitParallelSimulatorTest {
+
+	private static final File EDGE_DETECT_FILE = new File("test/designs/uart16750/rtl/slib_edge_detect_M_FU.agm");
+	private static final File B01_FILE = new File("test/designs/ITC99/orig/b01/b01_M_FU.agm");
+	private static final int CYCLE_COUNT = 50;
+
+	@Test
+	public void lanesMatchScalarSimulation() throws Exception {
+		BehModel model = BehModel.parseHlddStructure(EDGE_DETECT_FILE);
+		BitParallelSimulator bitParallelSimulator = new BitParallelSimulator(model);
+		Simulator[] simulators = new Simulator[BitParallelSimulator.LANE_COUNT];
+		for (int lane = 0; lane < simulators.length; lane++) {
+			simulators[lane] = new Simulator(model);
+		}
+
+		Random random = new Random(1);
+		for (int cycle = 0; cycle < CYCLE_COUNT; cycle++) {
+			long[] inputWords = new long[bitParallelSimulator.getInputCount()];
+			for (int i = 0; i < inputWords.length; i++) {
+				inputWords[i] = random.nextLong();
+			}
+			bitParallelSimulator.step(inputWords, BitParallelSimulator.ALL_LANES);
+			for (int lane = 0; lane < simulators.length; lane++) {
+				long[] pattern = new long[inputWords.length];
+				for (int i = 0; i < pattern.length; i++) {
+					pattern[i] = (inputWords[i] >>> lane) & 1;
+				}
+				simulators[lane].step(pattern);
+				for (int index = 0; index < model.getVarCount(); index++) {
+					assertEquals("Variable " + index + ", lane " + lane + ", cycle " + cycle,
+							simulators[lane].getValue(index), (bitParallelSimulator.getWord(index) >>> lane) & 1);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void coverageCollectedForActiveLanesOnly() throws Exception {
+		BehModel model = BehModel.parseHlddStructure(EDGE_DETECT_FILE);
+		BitParallelSimulator simulator = new BitParallelSimulator(model);
+		SimulationCoverage coverage = new SimulationCoverage(model, simulator.getFlatModel());
+		simulator.setCoverage(coverage);
+
+		/* Lane 0: D = 1, RST = 0. Lane 1 (inactive): D = 0, RST = 1 */
+		simulator.step(new long[]{1, 2}, 1);
+		assertEquals(6, coverage.getCoveredNodeCount());
+		assertEquals(3, coverage.getCoveredEdgeCount());
+	}
+
+	@Test(expected = UnsupportedModelException.class)
+	public void wideVariablesRejected() throws Exception {
+		new BitParallelSimulator(BehModel.parseHlddStructure(B01_FILE));
+	}
+}
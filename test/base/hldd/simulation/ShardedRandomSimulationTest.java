@@ -0,0 +1,68 @@
+package base.hldd.simulation;
+
+import base.hldd.structure.models.BehModel;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Anton Chepurov
+ */
+public class ShardedRandomSimulationTest {
+
+	private static final File B04_FILE = new File("test/designs/ITC99/orig/b04/b04_M_FU.agm");
+	private static final long SEED = 12345L;
+
+	@Test
+	public void singleShardMatchesSerialSimulation() throws Exception {
+		BehModel model = BehModel.parseHlddStructure(B04_FILE);
+		SimulationCoverage shardedCoverage = new ShardedRandomSimulation(model, 30, 1, SEED).run();
+
+		Simulator simulator = new Simulator(model);
+		SimulationCoverage coverage = new SimulationCoverage(model, simulator.getFlatModel());
+		simulator.setCoverage(coverage);
+		RandomPatternGenerator generator = new RandomPatternGenerator(simulator, ShardedRandomSimulation.deriveSeed(SEED, 0));
+		for (int i = 0; i < 30; i++) {
+			simulator.step(generator.next());
+		}
+
+		assertSameCoverage(coverage, shardedCoverage);
+	}
+
+	@Test
+	public void runsReproducible() throws Exception {
+		BehModel model = BehModel.parseHlddStructure(B04_FILE);
+		SimulationCoverage first = new ShardedRandomSimulation(model, 100, 4, SEED).run();
+		SimulationCoverage second = new ShardedRandomSimulation(model, 100, 4, SEED).run();
+
+		assertSameCoverage(first, second);
+	}
+
+	@Test
+	public void shardsMerged() throws Exception {
+		BehModel model = BehModel.parseHlddStructure(B04_FILE);
+		SimulationCoverage merged = new ShardedRandomSimulation(model, 1000, 4, SEED).run();
+		SimulationCoverage single = new ShardedRandomSimulation(model, 250, 1, SEED).run();
+
+		assertTrue(merged.getCoveredNodeCount() >= single.getCoveredNodeCount());
+		assertTrue(merged.getCoveredEdgeCount() >= single.getCoveredEdgeCount());
+		assertTrue(merged.getCoveredToggleCount() >= single.getCoveredToggleCount());
+		assertEquals(single.getNodeCount(), merged.getNodeCount());
+	}
+
+	@Test
+	public void distinctShardSeeds() {
+		assertFalse(ShardedRandomSimulation.deriveSeed(SEED, 0) == ShardedRandomSimulation.deriveSeed(SEED, 1));
+		assertFalse(ShardedRandomSimulation.deriveSeed(SEED, 0) == ShardedRandomSimulation.deriveSeed(SEED + 1, 0));
+	}
+
+	private static void assertSameCoverage(SimulationCoverage expected, SimulationCoverage actual) {
+		assertEquals(expected.getCoveredNodeCount(), actual.getCoveredNodeCount());
+		assertEquals(expected.getCoveredEdgeCount(), actual.getCoveredEdgeCount());
+		assertEquals(expected.getCoveredConditionCount(), actual.getCoveredConditionCount());
+		assertEquals(expected.getCoveredToggleCount(), actual.getCoveredToggleCount());
+		assertEquals(expected.getUncoveredNodeItems(), actual.getUncoveredNodeItems());
+	}
+}
@@ -0,0 +1,95 @@
+package base.hldd.simulation;
+
+import base.hldd.structure.models.BehModel;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Anton Chepurov
+ */
+public class SimulatorTest {
+
+	private static final File EDGE_DETECT_FILE = new File("test/designs/uart16750/rtl/slib_edge_detect_M_FU.agm");
+	private static final int IDD = 8;
+	private static final int FE = 9;
+	private static final int RE = 10;
+
+	@Test
+	public void edgesDetected() throws Exception {
+		Simulator simulator = new Simulator(BehModel.parseHlddStructure(EDGE_DETECT_FILE));
+		assertEquals(2, simulator.getInputCount());
+
+		/* D rises */
+		simulator.step(new long[]{1, 0});
+		assertEquals(0, simulator.getValue(IDD));
+		assertEquals(1, simulator.getValue(RE));
+		assertEquals(0, simulator.getValue(FE));
+		/* D falls */
+		simulator.step(new long[]{0, 0});
+		assertEquals(1, simulator.getValue(IDD));
+		assertEquals(0, simulator.getValue(RE));
+		assertEquals(1, simulator.getValue(FE));
+		/* Reset */
+		simulator.step(new long[]{1, 1});
+		assertEquals(0, simulator.getValue(IDD));
+		assertEquals(1, simulator.getValue(RE));
+		simulator.step(new long[]{1, 0});
+		assertEquals(0, simulator.getValue(IDD));
+		assertEquals(1, simulator.getValue(RE));
+		assertEquals(4, simulator.getCycle());
+
+		simulator.reset();
+		assertEquals(0, simulator.getCycle());
+		simulator.step(new long[]{0, 0});
+		assertEquals(0, simulator.getValue(RE));
+	}
+
+	@Test
+	public void coverageCollected() throws Exception {
+		BehModel model = BehModel.parseHlddStructure(EDGE_DETECT_FILE);
+		Simulator simulator = new Simulator(model);
+		SimulationCoverage coverage = new SimulationCoverage(model, simulator.getFlatModel());
+		simulator.setCoverage(coverage);
+
+		simulator.step(new long[]{1, 0});
+		assertEquals(9, coverage.getNodeCount());
+		assertEquals(6, coverage.getEdgeCount());
+		assertEquals(5, coverage.getToggleCount());
+		assertTrue(coverage.getCoveredNodeCount() < coverage.getNodeCount());
+		assertFalse(coverage.getUncoveredNodeItems().isEmpty());
+
+		simulator.step(new long[]{0, 0});
+		simulator.step(new long[]{1, 1});
+		simulator.step(new long[]{1, 0});
+		assertEquals(9, coverage.getCoveredNodeCount());
+		assertEquals(6, coverage.getCoveredEdgeCount());
+		assertEquals(5, coverage.getCoveredToggleCount());
+		assertTrue(coverage.getUncoveredNodeItems().isEmpty());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void wrongInputCountRejected() throws Exception {
+		new Simulator(BehModel.parseHlddStructure(EDGE_DETECT_FILE)).step(new long[]{1});
+	}
+
+	@Test
+	public void powerMatchesRepeatedMultiplication() {
+		long[] bases = {0, 1, 2, 3, 7, 10, 255, -1, -3};
+		long[] masks = {Simulator.mask(1), Simulator.mask(8), Simulator.mask(13), Simulator.mask(64)};
+		for (long mask : masks) {
+			for (long base : bases) {
+				long expected = 1;
+				for (int exponent = 0; exponent < 200; exponent++) {
+					assertEquals(base + "^" + exponent, expected & mask, Simulator.power(base, exponent, mask));
+					expected *= base;
+				}
+			}
+		}
+		assertEquals(1, Simulator.power(5, -2, Simulator.mask(8)));
+		assertEquals(0, Simulator.power(2, Long.MAX_VALUE, Simulator.mask(64)));
+		assertEquals(1, Simulator.power(3, 1L << 62, Simulator.mask(2)));
+	}
+}
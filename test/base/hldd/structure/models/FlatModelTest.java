@@ -0,0 +1,54 @@
+package base.hldd.structure.models;
+
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Anton Chepurov
+ */
+public class FlatModelTest {
+
+	private static final File EDGE_DETECT_FILE = new File("test/designs/uart16750/rtl/slib_edge_detect_M_FU.agm");
+
+	@Test
+	public void graphsFlattened() throws Exception {
+		FlatModel flatModel = new FlatModel(BehModel.parseHlddStructure(EDGE_DETECT_FILE));
+
+		assertEquals(11, flatModel.getVarCount());
+		assertEquals(9, flatModel.getNodeCount());
+		assertEquals(6, flatModel.getEdgeCount());
+
+		/* Graph "FE" */
+		assertEquals(FlatModel.NO_GRAPH, flatModel.getGraphRoot(4));
+		assertEquals(3, flatModel.getGraphRoot(9));
+		assertEquals(3, flatModel.getGraphSize(9));
+		assertEquals(1, flatModel.getGraphIndex(4));
+		assertEquals(1, flatModel.getRelativeIndex(4));
+		assertTrue(flatModel.isControlNode(3));
+		assertFalse(flatModel.isControlNode(4));
+		assertEquals(5, flatModel.getDependentIndex(3));
+		assertEquals(2, flatModel.getDependentIndex(4));
+		assertEquals(0, flatModel.getRangeLength(4));
+		assertEquals(2, flatModel.getEdgeOffset(3));
+	}
+
+	@Test
+	public void correctJumpFound() throws Exception {
+		FlatModel flatModel = new FlatModel(BehModel.parseHlddStructure(EDGE_DETECT_FILE));
+
+		int slot = flatModel.findJump(6, 0);
+		assertEquals(7, flatModel.getJumpTarget(slot));
+		assertEquals(4, flatModel.getJumpEdge(slot));
+
+		slot = flatModel.findJump(6, 1);
+		assertEquals(8, flatModel.getJumpTarget(slot));
+		assertEquals(5, flatModel.getJumpEdge(slot));
+
+		assertEquals(FlatModel.NO_JUMP, flatModel.findJump(6, 2));
+		assertEquals(FlatModel.NO_JUMP, flatModel.findJump(6, -1));
+		assertEquals(FlatModel.NO_JUMP, flatModel.findJump(7, 0));
+	}
+}
@@ -0,0 +1,166 @@
+package base.hldd.structure.models.utils;
+
+import base.hldd.structure.models.BehModel;
+import io.QuietCloser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import ui.ConverterSettings;
+import ui.utils.ConvertingWorker;
+
+import java.io.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Anton Chepurov
+ */
+public class ComponentLoaderTest {
+
+	private static final String PACKAGE = "package pkg is\n" +
+			"    constant INIT : integer := %d;\n" +
+			"end pkg;\n";
+
+	private static final String COMPONENT = "library IEEE;\n" +
+			"use IEEE.std_logic_1164.all;\n" +
+			"use work.pkg.all;\n" +
+			"\n" +
+			"entity comp is\n" +
+			"    port (\n" +
+			"        CLK : in std_logic;\n" +
+			"        Q   : out integer range 0 to 15\n" +
+			"    );\n" +
+			"end comp;\n" +
+			"\n" +
+			"architecture rtl of comp is\n" +
+			"begin\n" +
+			"    P: process (CLK)\n" +
+			"    begin\n" +
+			"        if (CLK'event and CLK = '1') then\n" +
+			"            Q <= INIT;\n" +
+			"        end if;\n" +
+			"    end process;\n" +
+			"end rtl;\n";
+
+	private static final String TOP = "library IEEE;\n" +
+			"use IEEE.std_logic_1164.all;\n" +
+			"\n" +
+			"entity top is\n" +
+			"    port (\n" +
+			"        CLK : in std_logic;\n" +
+			"        O   : out integer range 0 to 15\n" +
+			"    );\n" +
+			"end top;\n" +
+			"\n" +
+			"architecture rtl of top is\n" +
+			"    component comp is\n" +
+			"        port (\n" +
+			"            CLK : in std_logic;\n" +
+			"            Q   : out integer range 0 to 15\n" +
+			"        );\n" +
+			"    end component;\n" +
+			"begin\n" +
+			"    C1: comp port map (CLK => CLK, Q => O);\n" +
+			"end rtl;\n";
+
+	private static final String TOP_TWICE = "library IEEE;\n" +
+			"use IEEE.std_logic_1164.all;\n" +
+			"\n" +
+			"entity top is\n" +
+			"    port (\n" +
+			"        CLK : in std_logic;\n" +
+			"        O1  : out integer range 0 to 15;\n" +
+			"        O2  : out integer range 0 to 15\n" +
+			"    );\n" +
+			"end top;\n" +
+			"\n" +
+			"architecture rtl of top is\n" +
+			"    component comp is\n" +
+			"        port (\n" +
+			"            CLK : in std_logic;\n" +
+			"            Q   : out integer range 0 to 15\n" +
+			"        );\n" +
+			"    end component;\n" +
+			"begin\n" +
+			"    C1: comp port map (CLK => CLK, Q => O1);\n" +
+			"    C2: comp port map (CLK => CLK, Q => O2);\n" +
+			"end rtl;\n";
+
+	private File workDir;
+
+	@Before
+	public void createWorkDir() throws IOException {
+		workDir = File.createTempFile("components", "");
+		workDir.delete();
+		workDir.mkdir();
+		write(TOP, new File(workDir, "top.vhd"));
+		write(COMPONENT, new File(workDir, "comp.vhd"));
+		write(String.format(PACKAGE, 3), new File(workDir, "PKG.vhd"));
+		write("clock_name = CLK\n", new File(workDir, "top.config"));
+		write("clock_name = CLK\n", new File(workDir, "comp.config"));
+	}
+
+	@After
+	public void deleteWorkDir() {
+		File[] files = workDir.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		workDir.delete();
+	}
+
+	@Test
+	public void componentReloadedWhenPackageChanges() throws Exception {
+		assertTrue(convert().contains("VAL = 3"));
+
+		File packageFile = new File(workDir, "PKG.vhd");
+		long lastModified = packageFile.lastModified();
+		write(String.format(PACKAGE, 5), packageFile);
+		packageFile.setLastModified(lastModified + 2000);
+
+		assertTrue(convert().contains("VAL = 5"));
+	}
+
+	@Test
+	public void componentInstantiatedTwiceConvertedOnce() throws Exception {
+		write(TOP_TWICE, new File(workDir, "top.vhd"));
+		int conversionCount = ComponentLoader.getConversionCount();
+
+		convert();
+		assertEquals(conversionCount + 1, ComponentLoader.getConversionCount());
+		/* Cached for consecutive conversions too */
+		convert();
+		assertEquals(conversionCount + 1, ComponentLoader.getConversionCount());
+	}
+
+	@Test
+	public void cachedCopiesIndependentAfterRenaming() throws Exception {
+		write(TOP_TWICE, new File(workDir, "top.vhd"));
+
+		String model = convert();
+		assertTrue(model.contains("\"#C1#INIT\""));
+		assertTrue(model.contains("\"#C2#INIT\""));
+		assertFalse(model.contains("#C2#C1#"));
+		/* Renaming the loaded models hasn't renamed the cached one */
+		assertEquals(model, convert());
+	}
+
+	private String convert() throws Exception {
+		ConverterSettings settings = ConverterSettings.parse(new File(workDir, "top_M_FU.agm").getPath());
+		BehModel model = ConvertingWorker.convertAndWait(settings);
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		model.toFile(outputStream, null, null);
+		return outputStream.toString();
+	}
+
+	private static void write(String content, File file) throws IOException {
+		OutputStream outputStream = new FileOutputStream(file);
+		try {
+			outputStream.write(content.getBytes());
+		} finally {
+			QuietCloser.closeQuietly(outputStream);
+		}
+	}
+}
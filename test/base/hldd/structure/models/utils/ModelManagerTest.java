@@ -0,0 +1,112 @@
+package base.hldd.structure.models.utils;
+
+import base.Type;
+import base.hldd.structure.nodes.Node;
+import base.hldd.structure.variables.AbstractVariable;
+import base.hldd.structure.variables.FunctionVariable;
+import base.hldd.structure.variables.GraphVariable;
+import base.hldd.structure.variables.Variable;
+import base.vhdl.structure.Operator;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Anton Chepurov
+ */
+public class ModelManagerTest {
+
+	@Test
+	public void replaceWithRangeReplacesUses() {
+		ModelManager modelManager = new ModelManager();
+		Variable a = new Variable("A", Type.BIT_TYPE);
+		Variable b = new Variable("B", Type.BIT_TYPE);
+		Variable c = new Variable("C", Type.BIT_TYPE);
+		modelManager.addVariable(a);
+		modelManager.addVariable(b);
+		FunctionVariable function = new FunctionVariable(Operator.AND, 1);
+		function.addOperand(a, null);
+		function.addOperand(b, null);
+		modelManager.addVariable(function);
+		GraphVariable graph = new GraphVariable(new Variable("G", Type.BIT_TYPE), new Node.Builder(a).build());
+		modelManager.addVariable(graph);
+
+		modelManager.replaceWithRange(a, new RangeVariableHolder(c, null));
+
+		assertSame(c, function.getOperands().get(0).getVariable());
+		assertSame(b, function.getOperands().get(1).getVariable());
+		assertSame(c, graph.getGraph().getRootNode().getDependentVariable());
+		assertNull(modelManager.getVariable("A"));
+		assertSame(c, modelManager.getVariable("C"));
+
+		/* Uses of the replacing variable are tracked too */
+		Variable d = new Variable("D", Type.BIT_TYPE);
+		modelManager.replaceWithRange(c, new RangeVariableHolder(d, null));
+
+		assertSame(d, function.getOperands().get(0).getVariable());
+		assertSame(d, graph.getGraph().getRootNode().getDependentVariable());
+	}
+
+	@Test
+	public void removedVariablesNotReplaced() {
+		ModelManager modelManager = new ModelManager();
+		Variable a = new Variable("A", Type.BIT_TYPE);
+		modelManager.addVariable(a);
+		FunctionVariable function = new FunctionVariable(Operator.INV, 1);
+		function.addOperand(a, null);
+		modelManager.addVariable(function);
+		modelManager.removeVariable(function);
+
+		modelManager.replaceWithRange(a, new RangeVariableHolder(new Variable("C", Type.BIT_TYPE), null));
+
+		assertSame(a, function.getOperands().get(0).getVariable());
+	}
+
+	@Test
+	public void deferredFunctionsNamedGraphByGraph() {
+		ModelManager modelManager = new ModelManager();
+		Variable a = new Variable("A", Type.BIT_TYPE);
+		Variable b = new Variable("B", Type.BIT_TYPE);
+		Variable c = new Variable("C", Type.BIT_TYPE);
+		modelManager.addVariable(a);
+		modelManager.addVariable(b);
+		modelManager.addVariable(c);
+		modelManager.deferFunctions();
+
+		modelManager.setGraphIdx(2);
+		AbstractVariable andAB = modelManager.getIdenticalVariable(createFunction(Operator.AND, 7, a, b));
+		AbstractVariable orBC = modelManager.getIdenticalVariable(createFunction(Operator.OR, 7, b, c));
+		modelManager.setGraphIdx(1);
+		AbstractVariable orAC = modelManager.getIdenticalVariable(createFunction(Operator.OR, 7, a, c));
+		assertFalse(modelManager.getVariables().contains(andAB));
+		assertFalse(modelManager.getVariables().contains(orAC));
+
+		/* The first graph adds its functions at once, including the deferred ones it requests */
+		modelManager.setGraphIdx(0);
+		AbstractVariable andAC = modelManager.getIdenticalVariable(createFunction(Operator.AND, 1, a, c));
+		assertSame(orBC, modelManager.getIdenticalVariable(createFunction(Operator.OR, 7, b, c)));
+		assertSame(andAC, modelManager.getVariable(andAC.getName()));
+		assertSame(orBC, modelManager.getVariable(orBC.getName()));
+		assertEquals(1, ((FunctionVariable) orBC).getNameIdx());
+
+		/* A deferred function belongs to the earliest graph that requests it */
+		modelManager.setGraphIdx(1);
+		assertSame(andAB, modelManager.getIdenticalVariable(createFunction(Operator.AND, 7, a, b)));
+
+		modelManager.addDeferredFunctions();
+
+		assertEquals(1, ((FunctionVariable) andAC).getNameIdx());
+		assertEquals(2, ((FunctionVariable) orAC).getNameIdx());
+		assertEquals(2, ((FunctionVariable) andAB).getNameIdx());
+		assertSame(andAB, modelManager.getVariable(andAB.getName()));
+		assertSame(orAC, modelManager.getIdenticalVariable(createFunction(Operator.OR, 7, a, c)));
+	}
+
+	private static FunctionVariable createFunction(Operator operator, int nameIdx, Variable... operands) {
+		FunctionVariable function = new FunctionVariable(operator, nameIdx);
+		for (Variable operand : operands) {
+			function.addOperand(operand, null);
+		}
+		return function;
+	}
+}
@@ -0,0 +1,118 @@
+package base.hldd.structure.models.utils;
+
+import base.Range;
+import base.Type;
+import base.hldd.structure.nodes.Node;
+import base.hldd.structure.variables.AbstractVariable;
+import base.hldd.structure.variables.ConstantVariable;
+import base.hldd.structure.variables.FunctionVariable;
+import base.hldd.structure.variables.GraphVariable;
+import base.hldd.structure.variables.Variable;
+import base.vhdl.structure.Operator;
+import org.junit.Test;
+
+import java.math.BigInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Anton Chepurov
+ */
+public class VariableManagerTest {
+
+	@Test
+	public void identicalFunctionFound() {
+		VariableManager variableManager = new VariableManager();
+		Variable a = new Variable("A", Type.BIT_TYPE);
+		Variable b = new Variable("B", Type.BIT_TYPE);
+		variableManager.addVariable(a);
+		variableManager.addVariable(b);
+		FunctionVariable function = createFunction(Operator.AND, 1, a, b);
+		variableManager.addVariable(function);
+
+		assertSame(function, variableManager.getIdenticalVariable(createFunction(Operator.AND, 2, a, b)));
+		assertNull(variableManager.getIdenticalVariable(createFunction(Operator.AND, 2, b, a)));
+		assertNull(variableManager.getIdenticalVariable(createFunction(Operator.OR, 1, a, b)));
+		assertSame(a, variableManager.getIdenticalVariable(new Variable("A", Type.BIT_TYPE)));
+
+		variableManager.removeVariable(function);
+
+		assertNull(variableManager.getIdenticalVariable(createFunction(Operator.AND, 2, a, b)));
+	}
+
+	@Test
+	public void identicalFunctionFoundAfterOperandsChanged() {
+		ModelManager modelManager = new ModelManager();
+		Variable a = new Variable("A", Type.BIT_TYPE);
+		Variable b = new Variable("B", Type.BIT_TYPE);
+		Variable c = new Variable("C", Type.BIT_TYPE);
+		modelManager.addVariable(a);
+		modelManager.addVariable(b);
+		FunctionVariable function = createFunction(Operator.AND, 1, a, b);
+		modelManager.getIdenticalVariable(function);
+
+		modelManager.replaceWithRange(a, new RangeVariableHolder(c, null));
+
+		assertSame(function, modelManager.getIdenticalVariable(createFunction(Operator.AND, 2, c, b)));
+	}
+
+	@Test
+	public void identicalFunctionFoundAfterRebase() {
+		ModelManager modelManager = new ModelManager();
+		Variable a = new Variable("A", Type.BIT_TYPE);
+		Variable b = new Variable("B", Type.BIT_TYPE);
+		Variable c = new Variable("C", Type.BIT_TYPE);
+		GraphVariable graph = new GraphVariable(a, new Node.Builder(b).build());
+		modelManager.addVariable(graph);
+		modelManager.addVariable(b);
+		modelManager.addVariable(c);
+		FunctionVariable function = createFunction(Operator.AND, 1, graph, b);
+		modelManager.getIdenticalVariable(function);
+
+		modelManager.rebase(graph, c);
+
+		assertSame(function, modelManager.getIdenticalVariable(createFunction(Operator.AND, 2, graph, b)));
+		assertSame(graph, modelManager.getVariable("C"));
+	}
+
+	@Test
+	public void constantFoundByValueAndLength() {
+		VariableManager variableManager = new VariableManager();
+		ConstantVariable constant = variableManager.getConstantByValue(BigInteger.valueOf(5), new Range(3, 0));
+
+		assertSame(constant, variableManager.getConstantByValue(BigInteger.valueOf(5), new Range(3, 0)));
+		assertSame(constant, variableManager.getConstantByValue(BigInteger.valueOf(5)));
+		assertNotSame(constant, variableManager.getConstantByValue(BigInteger.valueOf(5), new Range(7, 0)));
+		assertSame(constant, variableManager.getIdenticalVariable(new ConstantVariable("C", BigInteger.valueOf(5))));
+		assertNull(variableManager.getIdenticalVariable(new ConstantVariable("C", BigInteger.valueOf(6))));
+	}
+
+	@Test
+	public void largestNameIndexFollowed() {
+		VariableManager variableManager = new VariableManager();
+		Variable a = new Variable("A", Type.BIT_TYPE);
+
+		assertEquals(1, variableManager.generateFunctionNameIdx(Operator.AND));
+
+		FunctionVariable and3 = createFunction(Operator.AND, 3, a, a);
+		variableManager.addVariable(and3);
+		variableManager.addVariable(createFunction(Operator.AND, 1, a, a));
+		variableManager.addVariable(createFunction(Operator.OR, 7, a, a));
+
+		assertEquals(4, variableManager.generateFunctionNameIdx(Operator.AND));
+		assertEquals(8, variableManager.generateFunctionNameIdx(Operator.OR));
+		assertEquals(8, variableManager.generateFunctionNameIdx(null));
+
+		variableManager.removeVariable(and3);
+
+		assertEquals(2, variableManager.generateFunctionNameIdx(Operator.AND));
+	}
+
+	private static FunctionVariable createFunction(Operator operator, int nameIdx, AbstractVariable... operands) {
+		FunctionVariable function = new FunctionVariable(operator, nameIdx);
+		for (AbstractVariable operand : operands) {
+			function.addOperand(operand, null);
+		}
+		return function;
+	}
+}
@@ -5,7 +5,10 @@ import org.junit.Test;
 
 import static junit.framework.Assert.*;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.TreeMap;
+import java.util.concurrent.*;
 
 /**
  * @author Anton Chepurov
@@ -83,4 +86,28 @@ public class ConditionTest {
 		assertTrue(condition0and8.compareTo(condition0and8and199and2010) == -1);
 		assertTrue(condition0and8and199and2010.compareTo(condition0and8) == 1);
 	}
+
+	@Test
+	public void sameConditionCreatedInParallel() throws Exception {
+		final int threadCount = 8;
+		final CountDownLatch startLatch = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		try {
+			List<Future<Condition>> futures = new ArrayList<Future<Condition>>();
+			for (int i = 0; i < threadCount; i++) {
+				futures.add(executor.submit(new Callable<Condition>() {
+					public Condition call() throws Exception {
+						startLatch.await();
+						return Condition.createCondition(3, 5, 20130);
+					}
+				}));
+			}
+			startLatch.countDown();
+			for (Future<Condition> future : futures) {
+				assertSame(Condition.createCondition(3, 5, 20130), future.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
 }
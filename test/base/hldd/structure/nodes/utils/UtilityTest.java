@@ -0,0 +1,63 @@
+package base.hldd.structure.nodes.utils;
+
+import base.HLDDException;
+import base.Range;
+import base.Type;
+import base.hldd.structure.Flags;
+import base.hldd.structure.nodes.Node;
+import base.hldd.structure.variables.ConstantVariable;
+import base.hldd.structure.variables.Variable;
+import org.junit.Test;
+
+import java.math.BigInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @author Anton Chepurov
+ */
+public class UtilityTest {
+
+	@Test
+	public void identicalSubGraphsAreMerged() throws HLDDException {
+		Node rootNode = new Node.Builder(createVariable("A")).createSuccessors(2).build();
+		rootNode.setSuccessor(Condition.FALSE, createSubGraph(null));
+		rootNode.setSuccessor(Condition.TRUE, createSubGraph(null));
+
+		Utility.minimize(rootNode, 0);
+
+		/* Both conditions lead to the same successor and get compacted into one */
+		assertEquals(1, rootNode.getConditionsCount());
+		assertEquals(4, Utility.getSize(rootNode));
+	}
+
+	@Test
+	public void subGraphsWithDifferentRangesAreNotMerged() throws HLDDException {
+		Node rootNode = new Node.Builder(createVariable("A")).createSuccessors(2).build();
+		rootNode.setSuccessor(Condition.FALSE, createSubGraph(new Range(0, 0)));
+		rootNode.setSuccessor(Condition.TRUE, createSubGraph(new Range(1, 1)));
+
+		Utility.minimize(rootNode, 0);
+
+		assertEquals(2, rootNode.getConditionsCount());
+		/* Terminal nodes are still shared */
+		assertEquals(5, Utility.getSize(rootNode));
+		assertSame(rootNode.getSuccessor(Condition.FALSE).getSuccessor(Condition.FALSE),
+				rootNode.getSuccessor(Condition.TRUE).getSuccessor(Condition.FALSE));
+	}
+
+	/**
+	 * Every call creates new variables and nodes, so that identical sub-graphs consist of different objects.
+	 */
+	private static Node createSubGraph(Range range) throws HLDDException {
+		Node controlNode = new Node.Builder(createVariable("B")).range(range).createSuccessors(2).build();
+		controlNode.setSuccessor(Condition.FALSE, new Node.Builder(new ConstantVariable("CONST_0", BigInteger.ZERO)).build());
+		controlNode.setSuccessor(Condition.TRUE, new Node.Builder(new ConstantVariable("CONST_1", BigInteger.ONE)).build());
+		return controlNode;
+	}
+
+	private static Variable createVariable(String varName) {
+		return new Variable(varName, new Type(new Range(1, 0)), new Flags());
+	}
+}
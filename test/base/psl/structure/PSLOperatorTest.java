@@ -29,4 +29,22 @@ public class PSLOperatorTest {
 
 		}
 	}
+
+	@Test
+	public void splittingInsideBracketsDetected() throws Exception {
+		PPGLibrary library = PPGLibraryTest.createLibrary();
+		PSLOperator andOperator = null;
+		for (PSLOperator pslOperator : library.pslOperators) {
+			if (pslOperator.getName().equals("TOP1 and TOP2")) {
+				andOperator = pslOperator;
+			}
+		}
+		assertNotNull(andOperator);
+
+		assertTrue(andOperator.matches("grune and tee"));
+		assertTrue(andOperator.splitsOutsideBrackets("grune and tee"));
+		assertTrue(andOperator.splitsOutsideBrackets("( a or b ) and ( c or d )"));
+		assertFalse(andOperator.splitsOutsideBrackets("( a and b ) or c"));
+		assertFalse(andOperator.matches("grune or tee"));
+	}
 }
@@ -48,4 +48,16 @@ public class RangeTest {
 			assertArrayEquals(PARSED_RANGE_DECLARATIONS[i], Range.parseRangeDeclaration(RANGE_DECLARATIONS[i]));
 		}
 	}
+
+	@Test
+	public void windowParsed() throws Exception {
+		Range window = Range.parseWindow("ACK@[2..5]_E<1:0>");
+		assertEquals(2, window.getStart());
+		assertEquals(5, window.getEnd());
+		assertEquals(Range.TemporalModifier.EXIST, window.getTemporalModifier());
+		assertEquals("@[2..5]_e", window.toString());
+
+		assertEquals(Range.TemporalModifier.ALWAYS, Range.parseWindow("ACK@[1..1]").getTemporalModifier());
+		assertNull(Range.parseWindow("ACK<1:0>"));
+	}
 }
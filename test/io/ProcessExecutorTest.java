@@ -0,0 +1,61 @@
+package io;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Anton Chepurov
+ */
+public class ProcessExecutorTest {
+
+	private static final String JAVA = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+
+	@Test
+	public void outputStreamedAndExitValueReturned() throws Exception {
+		final List<String> outputLines = Collections.synchronizedList(new ArrayList<String>());
+		final List<String> errorLines = Collections.synchronizedList(new ArrayList<String>());
+		ProcessExecutor executor = new ProcessExecutor(Arrays.asList(JAVA, "-version"));
+
+		int exitValue = executor.execute(new ProcessExecutor.Listener() {
+			@Override
+			public void outputLine(String line) {
+				outputLines.add(line);
+			}
+
+			@Override
+			public void errorLine(String line) {
+				errorLines.add(line);
+			}
+		}, ProcessExecutor.NO_TIMEOUT);
+
+		assertEquals(0, exitValue);
+		assertFalse(executor.isTimedOut());
+		/* java -version reports to the error stream */
+		assertTrue(outputLines.isEmpty());
+		assertFalse(errorLines.isEmpty());
+	}
+
+	@Test
+	public void nonZeroExitValueReturned() throws Exception {
+		ProcessExecutor executor = new ProcessExecutor(Arrays.asList(JAVA, "-no-such-option"));
+
+		int exitValue = executor.execute(new ProcessExecutor.Listener() {
+			@Override
+			public void outputLine(String line) {
+			}
+
+			@Override
+			public void errorLine(String line) {
+			}
+		}, ProcessExecutor.NO_TIMEOUT);
+
+		assertFalse(exitValue == 0);
+	}
+}
@@ -0,0 +1,70 @@
+package io.scan;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Anton Chepurov
+ */
+public class HLDDReaderTest {
+
+	@Test
+	public void commentsAndEmptyLinesSkipped() throws Exception {
+		HLDDReader reader = new HLDDReader(";comment\n\n   \r\n  stat# 12 ; trailing comment\r\n;\nvar#\t3:");
+
+		assertTrue(reader.nextLine());
+		assertTrue(reader.startsWith("STAT#"));
+		reader.skipPast('#');
+		assertEquals(12, reader.readInt());
+		assertEquals(HLDDReader.LINE_END, reader.peekNonBlank());
+
+		assertTrue(reader.nextLine());
+		assertTrue(reader.startsWith("VAR#"));
+		reader.skipPast('#');
+		assertEquals(3, reader.readInt());
+		assertEquals(':', reader.peekNonBlank());
+
+		assertFalse(reader.nextLine());
+	}
+
+	@Test
+	public void fieldsReadInUpperCase() throws Exception {
+		HLDDReader reader = new HLDDReader("0 0:  (n___) (1 2)\tv = 5 \"name\"  <7:0>, -1");
+
+		assertTrue(reader.nextLine());
+		assertEquals(0, reader.readInt());
+		assertEquals(0, reader.readInt());
+		reader.skipPast('(');
+		assertEquals("N___", reader.readUntil(')'));
+		reader.skipPast('(');
+		assertEquals("1", reader.readWord());
+		assertEquals("2", reader.readWord());
+		reader.skipChar();
+		assertEquals("V", reader.readWord());
+		reader.skipPast('=');
+		assertEquals(5, reader.readInt());
+		reader.skipPast('"');
+		assertEquals("NAME", reader.readUntil('"'));
+		assertEquals('<', reader.peekNonBlank());
+		reader.skipChar();
+		assertEquals("7", reader.readWord(":"));
+		reader.skipPast(',');
+		assertEquals(-1, reader.readInt());
+	}
+
+	@Test(expected = Exception.class)
+	public void missingCharacterNotSearchedOnNextLine() throws Exception {
+		HLDDReader reader = new HLDDReader("VAR# 1\n\"name\"");
+		reader.nextLine();
+		reader.skipPast('"');
+	}
+
+	@Test(expected = Exception.class)
+	public void missingIntegerReported() throws Exception {
+		HLDDReader reader = new HLDDReader("STAT# ;12");
+		reader.nextLine();
+		reader.skipPast('#');
+		reader.readInt();
+	}
+}
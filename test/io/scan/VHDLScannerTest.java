@@ -4,6 +4,8 @@ import org.junit.Test;
 
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 /**
  * @author Anton Chepurov
@@ -51,6 +53,24 @@ public class VHDLScannerTest {
 		}
 	}
 
+	@Test
+	public void statementsEndingWithoutSemicolonRecognized() throws Exception {
+		String source = "u1 : comp port map (a => b, c => d);\n" +
+				"process (clk, rst)\nbegin\n" +
+				"if a = '1' then x <= y;\nelsif b then\nx <= z;\nelse\nnull;\nend if;\n" +
+				"case s is\nwhen 1 | 2 =>\n";
+		VHDLToken.Type[] expectedTypes = {VHDLToken.Type.COMPONENT_INST, VHDLToken.Type.PROCESS_DECL,
+				VHDLToken.Type.BEGIN, VHDLToken.Type.IF_STATEMENT, VHDLToken.Type.TRANSITION,
+				VHDLToken.Type.ELSIF_STATEMENT, VHDLToken.Type.TRANSITION, VHDLToken.Type.ELSE,
+				VHDLToken.Type.TRANSITION, VHDLToken.Type.DECL_CLOSE, VHDLToken.Type.CASE_STATEMENT,
+				VHDLToken.Type.WHEN_STATEMENT};
+		vhdlScanner = createScannerFrom(createLexemeComposerFrom(source));
+		for (VHDLToken.Type expectedType : expectedTypes) {
+			token = vhdlScanner.next();
+			assertEquals(token.getValue(), expectedType, token.getType());
+		}
+		assertNull(vhdlScanner.next());
+	}
 
 	private static LexemeComposer createLexemeComposerFrom(String sourceString) {
 		return new LexemeComposer(sourceString);
@@ -185,6 +185,26 @@ public class VHDLTokenTest {
 		doCheckMatch(VHDLToken.Type.GENERIC_DECL, GENERIC_DECLARATIONS_MATCH);
 	}
 
+	@Test
+	public void unterminatedStatementEndsWithClosingLexemes() {
+		Lexeme identifier = new Lexeme("comp", LexemeType.IDENTIFIER);
+		assertTrue(VHDLToken.mayEndUnterminated("COMPONENT comp ", identifier));
+		assertTrue(VHDLToken.mayEndUnterminated("component comp ", identifier));
+		assertFalse(VHDLToken.mayEndUnterminated("COMPONENTS comp ", identifier));
+		assertFalse(VHDLToken.mayEndUnterminated("a <= comp ", identifier));
+		assertTrue(VHDLToken.mayEndUnterminated("IF a = b THEN ", new Lexeme("then", LexemeType.IDENTIFIER)));
+		assertTrue(VHDLToken.mayEndUnterminated("WHEN 1 => ", new Lexeme(">", LexemeType.GT)));
+		assertFalse(VHDLToken.mayEndUnterminated("a <= ( ", new Lexeme("<", LexemeType.LT)));
+		assertFalse(VHDLToken.mayEndUnterminated("u1 :comp PORT MAP ( a =>", new Lexeme(">", LexemeType.GT)));
+		assertFalse(VHDLToken.mayEndUnterminated("u1 :comp PORT MAP ( ", new Lexeme("(", LexemeType.OPEN_BRACKET)));
+		assertFalse(VHDLToken.mayEndUnterminated("u1 :comp PORT MAP ( a => b ) ", new Lexeme(")", LexemeType.CLOSE_BRACKET)));
+		assertTrue(VHDLToken.mayEndUnterminated("PORT ( ", new Lexeme("(", LexemeType.OPEN_BRACKET)));
+		assertTrue(VHDLToken.mayEndUnterminated("p1 :PROCESS ( clk ) ", new Lexeme(")", LexemeType.CLOSE_BRACKET)));
+
+		assertEquals(VHDLToken.Type.COMPONENT_DECL, VHDLToken.diagnoseUnterminatedType("COMPONENT comp", identifier));
+		assertEquals(VHDLToken.Type.UNKNOWN, VHDLToken.diagnoseUnterminatedType("a <= comp", identifier));
+	}
+
 	/* ########################################################## */
 	/* ########################################################## */
 
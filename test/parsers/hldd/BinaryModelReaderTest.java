@@ -0,0 +1,146 @@
+package parsers.hldd;
+
+import base.hldd.structure.models.BehModel;
+import base.hldd.structure.variables.utils.DefaultGraphVariableCreator;
+import io.QuietCloser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Anton Chepurov
+ */
+public class BinaryModelReaderTest {
+
+	private static final File HLDD_FILE = new File("test/designs/ITC99/orig/b02/b02_M_FU.agm");
+
+	private File hlddFile;
+
+	@Before
+	public void copyHlddFile() throws IOException {
+		hlddFile = File.createTempFile("model", ".agm");
+		copy(HLDD_FILE, hlddFile);
+	}
+
+	@After
+	public void deleteFiles() {
+		//noinspection ResultOfMethodCallIgnored
+		BinaryModelWriter.deriveBinaryFile(hlddFile).delete();
+		//noinspection ResultOfMethodCallIgnored
+		hlddFile.delete();
+	}
+
+	@Test
+	public void loadedModelSameAsParsed() throws Exception {
+		assertTrue(BinaryModelWriter.writeAlongside(hlddFile));
+
+		BehModel loadedModel = BinaryModelReader.loadUpToDate(hlddFile, new DefaultGraphVariableCreator());
+
+		assertNotNull(loadedModel);
+		assertEquals(toString(BehModel.parseHlddStructure(HLDD_FILE)), toString(loadedModel));
+	}
+
+	@Test
+	public void modelWrittenSameAsParsedFile() throws Exception {
+		BehModel model = BehModel.parseHlddStructure(HLDD_FILE);
+		model.toFile(new FileOutputStream(hlddFile), null, null);
+		File binaryFile = BinaryModelWriter.deriveBinaryFile(hlddFile);
+
+		assertTrue(BinaryModelWriter.writeAlongside(hlddFile));
+		byte[] parsedFileBytes = read(binaryFile);
+		assertTrue(BinaryModelWriter.writeAlongside(model, hlddFile));
+
+		assertArrayEquals(parsedFileBytes, read(binaryFile));
+	}
+
+	@Test
+	public void changedHlddFileNotLoaded() throws Exception {
+		assertTrue(BinaryModelWriter.writeAlongside(hlddFile));
+
+		FileWriter writer = new FileWriter(hlddFile, true);
+		try {
+			writer.write(";changed\n");
+		} finally {
+			QuietCloser.closeQuietly(writer);
+		}
+
+		assertNull(BinaryModelReader.loadUpToDate(hlddFile, new DefaultGraphVariableCreator()));
+	}
+
+	@Test
+	public void corruptedBinaryFileNotLoaded() throws Exception {
+		assertTrue(BinaryModelWriter.writeAlongside(hlddFile));
+
+		/* End the declarations right after the statistics, so that the declared elements are missing */
+		RandomAccessFile binaryFile = new RandomAccessFile(BinaryModelWriter.deriveBinaryFile(hlddFile), "rw");
+		try {
+			binaryFile.seek(24);
+			int stringCount = binaryFile.readInt();
+			for (int i = 0; i < stringCount; i++) {
+				binaryFile.skipBytes(binaryFile.readInt());
+			}
+			assertEquals(BinaryModelWriter.STAT, binaryFile.readByte());
+			binaryFile.skipBytes(4 * binaryFile.readInt());
+			binaryFile.writeByte(BinaryModelWriter.END);
+			binaryFile.setLength(binaryFile.getFilePointer());
+		} finally {
+			QuietCloser.closeQuietly(binaryFile);
+		}
+
+		assertNull(BinaryModelReader.loadUpToDate(hlddFile, new DefaultGraphVariableCreator()));
+		/* The HLDD file itself is parsed instead */
+		assertEquals(toString(BehModel.parseHlddStructure(HLDD_FILE)), toString(BehModel.parseHlddStructure(hlddFile)));
+	}
+
+	@Test
+	public void malformedHlddFileNotWritten() throws Exception {
+		FileWriter writer = new FileWriter(hlddFile);
+		try {
+			writer.write("VAR#\t0:  (i_________)\n");
+		} finally {
+			QuietCloser.closeQuietly(writer);
+		}
+
+		assertFalse(BinaryModelWriter.writeAlongside(hlddFile));
+		assertFalse(BinaryModelWriter.deriveBinaryFile(hlddFile).exists());
+	}
+
+	private static String toString(BehModel model) throws IOException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		model.toFile(outputStream, null, null);
+		return outputStream.toString();
+	}
+
+	private static byte[] read(File file) throws IOException {
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+		try {
+			byte[] bytes = new byte[(int) randomAccessFile.length()];
+			randomAccessFile.readFully(bytes);
+			return bytes;
+		} finally {
+			QuietCloser.closeQuietly(randomAccessFile);
+		}
+	}
+
+	private static void copy(File sourceFile, File destFile) throws IOException {
+		InputStream inputStream = new FileInputStream(sourceFile);
+		try {
+			OutputStream outputStream = new FileOutputStream(destFile);
+			try {
+				byte[] buffer = new byte[8192];
+				int count;
+				while ((count = inputStream.read(buffer)) != -1) {
+					outputStream.write(buffer, 0, count);
+				}
+			} finally {
+				QuietCloser.closeQuietly(outputStream);
+			}
+		} finally {
+			QuietCloser.closeQuietly(inputStream);
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package parsers.hldd;
+
+import base.hldd.structure.models.BehModel;
+import base.hldd.structure.nodes.Node;
+import base.hldd.structure.nodes.TemporalNode;
+import base.hldd.structure.variables.utils.PPGLibraryGraphVariableCreator;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Anton Chepurov
+ */
+public class StructureParserTest {
+
+	/**
+	 * PPG of <i>always TOP</i>, as in PPG library
+	 */
+	private static final String ALWAYS_PPG = "STAT# 4 Nods, 5 Vars, 1 Grps, 1 Inps, 1 Outs, 3 Cons\n" +
+			"VAR#\t0:\t(i____)\t\"TOP\"\t<1:0>\n" +
+			"VAR#\t1:\t(c____)\t\"FAIL\"\t<1:0>\tVAL = 0\n" +
+			"VAR#\t2:\t(c____)\t\"PASS\"\t<1:0>\tVAL = 1\n" +
+			"VAR#\t3:\t(c____)\t\"CHECKING\"\t<1:0>\tVAL = 2\n" +
+			"VAR#\t4:\t(o____)\t\"PROPERTY\" <1:0>\n" +
+			"GRP#\t0:\tBEG = 0, LEN = 4 -----\n" +
+			"\t0\t0:\t(n___) (0=>1 1=>2 2=>3)\tV = 0 \"TOP\"\t<1:0> [0 to END]\n" +
+			"\t1\t1:\t(____) (\t0\t0)\tV = 1 \"FAIL\"\t<1:0>\n" +
+			"\t2\t2:\t(____) (\t0\t0)\tV = 2 \"PASS\"\t<1:0>\n" +
+			"\t3\t3:\t(____) (\t0\t0)\tV = 3 \"CHECKING\"\t<1:0>\n";
+
+	@Test
+	public void windowPlaceholdersRead() throws Exception {
+		BehModel model = BehModel.parseHlddStructure(ALWAYS_PPG, new PPGLibraryGraphVariableCreator());
+
+		Node rootNode = model.getOutputPorts().iterator().next().getGraph().getRootNode();
+		assertTrue(rootNode instanceof TemporalNode);
+		assertArrayEquals(new String[]{"0", "END"}, ((TemporalNode) rootNode).getWindowPlaceholders());
+	}
+}
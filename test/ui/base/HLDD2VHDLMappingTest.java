@@ -0,0 +1,60 @@
+package ui.base;
+
+import base.SourceLocation;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Anton Chepurov
+ */
+public class HLDD2VHDLMappingTest {
+
+	private final File sourceFile = new File("FileName.txt");
+
+	@Test
+	public void sourcesOfItemsMerged() {
+		HLDD2VHDLMapping mapping = new HLDD2VHDLMapping();
+		Collection<NodeItem> items = new ArrayList<NodeItem>();
+		for (int nodeIndex = 0; nodeIndex < 1000; nodeIndex++) {
+			mapping.addMapping(new NodeItem(0, nodeIndex), new SourceLocation(sourceFile, Collections.singleton(nodeIndex / 2)));
+			if (nodeIndex % 10 == 0) {
+				items.add(new NodeItem(0, nodeIndex));
+			}
+		}
+		/* Unmapped item */
+		items.add(new NodeItem(1, 0));
+
+		SourceLocation source = mapping.getSourceFor(items);
+		assertEquals(100, source.getTotalLinesNum());
+		assertTrue(source.getLinesForFile(sourceFile).contains(495));
+		assertEquals(500, mapping.getAllSources().getLinesNum(sourceFile));
+	}
+
+	@Test
+	public void singleSourceReturnedAsIs() {
+		HLDD2VHDLMapping mapping = new HLDD2VHDLMapping();
+		SourceLocation location = new SourceLocation(sourceFile, Arrays.asList(3, 5));
+		mapping.addMapping(new VariableItem(4), location);
+
+		assertSame(location, mapping.getSourceFor(new VariableItem(4)));
+		assertSame(location, mapping.getSourceFor(Arrays.asList(new VariableItem(4), new VariableItem(5))));
+		assertNull(mapping.getSourceFor(Arrays.asList(new VariableItem(5))));
+	}
+
+	@Test
+	public void allSourcesUpdatedOnAddition() {
+		HLDD2VHDLMapping mapping = new HLDD2VHDLMapping();
+		mapping.addMapping(new VariableItem(1), new SourceLocation(sourceFile, Arrays.asList(1)));
+		assertEquals(1, mapping.getAllSources().getTotalLinesNum());
+
+		mapping.addMapping(new VariableItem(2), new SourceLocation(sourceFile, Arrays.asList(2)));
+		assertEquals(2, mapping.getAllSources().getTotalLinesNum());
+	}
+}
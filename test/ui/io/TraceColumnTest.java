@@ -0,0 +1,88 @@
+package ui.io;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Anton Chepurov
+ */
+public class TraceColumnTest {
+
+	@Test
+	public void equalValuesStoredAsRuns() {
+		TraceColumn column = new TraceColumn();
+		for (long value : new long[]{0, 0, 0, 1, 1, 0}) {
+			column.append(value);
+		}
+		column.appendX();
+		column.appendX();
+
+		assertEquals(8, column.size());
+		assertEquals(4, column.getRunCount());
+		assertEquals(1, column.findRun(4));
+		assertEquals(3, column.getRunStart(1));
+		assertEquals(5, column.getRunEnd(1));
+		assertEquals(1, column.get(3));
+		assertEquals(0, column.get(5));
+		assertTrue(column.isX(column.findRun(7)));
+		assertEquals("X", column.valueToString(3));
+		assertTrue(column.isBoolean());
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void cycleOutOfTraceRejected() {
+		TraceColumn column = new TraceColumn();
+		column.append(5);
+		column.findRun(1);
+	}
+
+	@Test
+	public void wideValuesStored() {
+		TraceColumn column = new TraceColumn();
+		column.append(-3);
+		/* 2^64 */
+		column.append(new long[]{0, 1}, 2);
+		column.append(new long[]{0, 1, 0}, 3);
+		column.append(7);
+
+		assertEquals(3, column.getRunCount());
+		assertEquals("-3", column.valueToString(0));
+		assertTrue(column.isWide(1));
+		assertEquals("18446744073709551616", column.valueToString(1));
+		assertFalse(column.isWide(2));
+		assertEquals("7", column.valueToString(2));
+		assertFalse(column.isBoolean());
+	}
+
+	@Test
+	public void unsignedValuesOfSingleWordStored() {
+		TraceColumn column = new TraceColumn();
+		column.append(-1);
+		/* 2^64 - 1 */
+		column.append(new long[]{-1, 0}, 2);
+		column.append(new long[]{-1}, 1);
+		/* 2^63 */
+		column.append(new long[]{Long.MIN_VALUE}, 1);
+
+		assertEquals(3, column.getRunCount());
+		assertEquals("-1", column.valueToString(0));
+		assertFalse(column.isUnsigned(0));
+		assertTrue(column.isUnsigned(1));
+		assertEquals("18446744073709551615", column.valueToString(1));
+		assertEquals("9223372036854775808", column.valueToString(2));
+	}
+
+	@Test
+	public void multiplyAddCarriesIntoNextWord() {
+		long[] valueWords = new long[3];
+		valueWords[0] = -1;
+		int wordCount = TraceColumn.multiplyAdd(valueWords, 1, 10, 9);
+
+		TraceColumn column = new TraceColumn();
+		column.append(valueWords, wordCount);
+		assertEquals(2, wordCount);
+		/* (2^64 - 1) * 10 + 9 */
+		assertEquals("184467440737095516159", column.valueToString(0));
+	}
+}
@@ -0,0 +1,67 @@
+package ui.io;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Anton Chepurov
+ */
+public class TraceTokenizerTest {
+
+	@Test
+	public void commentsAndEmptyLinesSkipped() throws IOException {
+		TraceTokenizer tokenizer = new TraceTokenizer(new StringReader(";comment\n\n  .VECTORS\t12 \r\n\t;\n.PATTERNS"));
+
+		assertTrue(tokenizer.nextLine());
+		assertEquals(2, tokenizer.getTokenCount());
+		assertTrue(tokenizer.tokenEqualsIgnoreCase(0, ".vectors"));
+		assertEquals(12, tokenizer.parseInt(1, 0));
+		assertTrue(tokenizer.nextLine());
+		assertEquals(".PATTERNS", tokenizer.tokenToString(0));
+		assertFalse(tokenizer.nextLine());
+	}
+
+	@Test
+	public void valuesAppended() throws IOException {
+		TraceTokenizer tokenizer = new TraceTokenizer(new StringReader("-15 x 9223372036854775807 18446744073709551616 18446744073709551615"));
+		TraceColumn column = new TraceColumn();
+
+		assertTrue(tokenizer.nextLine());
+		for (int token = 0; token < tokenizer.getTokenCount(); token++) {
+			tokenizer.appendValue(token, column);
+		}
+
+		assertEquals(5, column.size());
+		assertEquals(-15, column.get(0));
+		assertTrue(column.isX(1));
+		assertEquals(Long.MAX_VALUE, column.get(2));
+		assertEquals("18446744073709551616", column.valueToString(3));
+		/* 64-bit value with the top bit set */
+		assertEquals("18446744073709551615", column.valueToString(4));
+	}
+
+	@Test
+	public void longLinesRead() throws IOException {
+		StringBuilder line = new StringBuilder();
+		for (int i = 0; i < 5000; i++) {
+			line.append(i % 2).append(' ');
+		}
+		TraceTokenizer tokenizer = new TraceTokenizer(new StringReader(line + "\n1"));
+
+		assertTrue(tokenizer.nextLine());
+		assertEquals(5000, tokenizer.getTokenCount());
+		assertTrue(tokenizer.nextLine());
+		assertEquals(1, tokenizer.getTokenCount());
+	}
+
+	@Test(expected = IOException.class)
+	public void unsupportedValueRejected() throws IOException {
+		TraceTokenizer tokenizer = new TraceTokenizer(new StringReader("1a"));
+		assertTrue(tokenizer.nextLine());
+		tokenizer.appendValue(0, new TraceColumn());
+	}
+}
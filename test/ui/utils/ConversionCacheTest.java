@@ -0,0 +1,94 @@
+package ui.utils;
+
+import io.QuietCloser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import ui.ConverterSettings;
+
+import java.io.*;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Anton Chepurov
+ */
+public class ConversionCacheTest {
+
+	private static final byte[] MODEL_BYTES = "MODEL".getBytes();
+	private static final byte[] MAP_BYTES = "MAP".getBytes();
+
+	private File workDir;
+
+	private ConversionCache cache;
+
+	@Before
+	public void createWorkDir() throws IOException {
+		workDir = File.createTempFile("cache", "");
+		workDir.delete();
+		workDir.mkdir();
+		write("top", new File(workDir, "top.vhd"));
+		write("comp", new File(workDir, "comp.vhd"));
+		write("pkg", new File(workDir, "pkg.vhd"));
+		cache = new ConversionCache(new File(workDir, "cache"));
+	}
+
+	@After
+	public void deleteWorkDir() {
+		delete(workDir);
+	}
+
+	@Test
+	public void storedConversionFound() throws Exception {
+		cache.store(createSettings("top_M_FU.agm"), MODEL_BYTES, MAP_BYTES);
+
+		ConversionCache.CachedConversion cachedConversion = cache.find(createSettings("top_M_FU.agm"));
+
+		assertNotNull(cachedConversion);
+		assertArrayEquals(MODEL_BYTES, cachedConversion.getModelBytes());
+		assertArrayEquals(MAP_BYTES, cachedConversion.getMapBytes());
+		assertNull(cache.find(createSettings("top_R_FU.agm")));
+	}
+
+	@Test
+	public void changedFilesNotFound() throws Exception {
+		for (String fileName : Arrays.asList("top.vhd", "top.config", "comp.vhd", "comp.config", "pkg.vhd")) {
+			cache.store(createSettings("top_M_FU.agm"), MODEL_BYTES, MAP_BYTES);
+			assertNotNull(fileName, cache.find(createSettings("top_M_FU.agm")));
+
+			write("changed", new File(workDir, fileName));
+
+			assertNull(fileName, cache.find(createSettings("top_M_FU.agm")));
+		}
+	}
+
+	/**
+	 * @return settings of <code>top.vhd</code> that uses component <code>comp.vhd</code> and package <code>pkg.vhd</code>
+	 */
+	private ConverterSettings createSettings(String hlddFileName) throws Exception {
+		ConverterSettings settings = ConverterSettings.parse(new File(workDir, hlddFileName).getPath());
+		settings.addSourceFiles(ConverterSettings.parse(new File(workDir, "comp_M_FU.agm").getPath()));
+		settings.addPackageFiles(Arrays.asList(new File(workDir, "pkg.vhd")));
+		return settings;
+	}
+
+	private static void write(String content, File file) throws IOException {
+		OutputStream outputStream = new FileOutputStream(file);
+		try {
+			outputStream.write(content.getBytes());
+		} finally {
+			QuietCloser.closeQuietly(outputStream);
+		}
+	}
+
+	private static void delete(File file) {
+		File[] files = file.listFiles();
+		if (files != null) {
+			for (File child : files) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+}
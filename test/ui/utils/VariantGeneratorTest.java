@@ -0,0 +1,86 @@
+package ui.utils;
+
+import base.hldd.structure.models.BehModel;
+import io.ConsoleWriter;
+import io.QuietCloser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import ui.ConverterSettings;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Anton Chepurov
+ */
+public class VariantGeneratorTest {
+
+	private static final File DESIGN_DIR = new File("test/designs/ITC99/orig/b01");
+
+	private File workDir;
+
+	@Before
+	public void createWorkDir() throws IOException {
+		workDir = File.createTempFile("variants", "");
+		workDir.delete();
+		workDir.mkdir();
+		copy(new File(DESIGN_DIR, "b01.vhd"), new File(workDir, "b01.vhd"));
+		copy(new File(DESIGN_DIR, "b01.config"), new File(workDir, "b01.config"));
+	}
+
+	@After
+	public void deleteWorkDir() {
+		for (File file : workDir.listFiles()) {
+			file.delete();
+		}
+		workDir.delete();
+	}
+
+	@Test
+	public void variantsEqualSeparatelyConvertedModels() throws Exception {
+		List<File> hlddFiles = Arrays.asList(new File(workDir, "b01_F_FU.agm"), new File(workDir, "b01_R_FU.agm"),
+				new File(workDir, "b01_M_FU.agm"), new File(workDir, "b01_M_FL.agm"));
+
+		new VariantGenerator(hlddFiles, ConsoleWriter.getStub()).generate(2);
+
+		for (File hlddFile : hlddFiles) {
+			ConverterSettings settings = ConverterSettings.parse(hlddFile.getPath());
+			ByteArrayOutputStream mapStream = new ByteArrayOutputStream();
+			settings.setMapFileStream(mapStream);
+			BehModel model = ConvertingWorker.convertAndWait(settings);
+			ByteArrayOutputStream modelStream = new ByteArrayOutputStream();
+			model.toFile(modelStream, null, settings);
+
+			assertEquals(hlddFile.getName(), modelStream.toString(), read(hlddFile));
+			assertEquals(hlddFile.getName(), mapStream.toString(), read(settings.getMapFile()));
+		}
+	}
+
+	private static String read(File file) throws IOException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		copy(file, outputStream);
+		return outputStream.toString();
+	}
+
+	private static void copy(File source, File destination) throws IOException {
+		copy(source, new FileOutputStream(destination));
+	}
+
+	private static void copy(File source, OutputStream outputStream) throws IOException {
+		InputStream inputStream = new FileInputStream(source);
+		try {
+			byte[] buffer = new byte[4096];
+			int count;
+			while ((count = inputStream.read(buffer)) != -1) {
+				outputStream.write(buffer, 0, count);
+			}
+		} finally {
+			QuietCloser.closeQuietly(inputStream);
+			QuietCloser.closeQuietly(outputStream);
+		}
+	}
+}